@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.maven.core.config.ProcessorConfig;
+import io.fabric8.maven.core.util.GoalFinder;
+import io.fabric8.maven.docker.config.ImageConfiguration;
+import io.fabric8.maven.enricher.api.EnricherContext;
+import io.fabric8.maven.plugin.enricher.EnricherManager;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Full enricher run (default resource creation and enrichment) over synthetic resource lists.
+ * Only enrichers which work without network access, a git repository or project dependencies
+ * are enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EnrichmentBenchmark {
+
+    private static final List<String> OFFLINE_ENRICHERS = Arrays.asList(
+        "fmp-name",
+        "fmp-controller",
+        "fmp-service",
+        "fmp-image",
+        "fmp-portname",
+        "fmp-ianaservice",
+        "fmp-project",
+        "fmp-pod-annotations",
+        "fmp-merge",
+        "fmp-remove-build-annotations",
+        "fmp-volume-permission",
+        "fmp-revision-history"
+    );
+
+    @Param({"10", "100", "1000", "10000"})
+    private int items;
+
+    private KubernetesList input;
+    private EnricherManager enricherManager;
+
+    // Enrichers modify the builder in place, so each invocation gets its own one
+    private KubernetesListBuilder builder;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        input = ResourceFixtures.kubernetesList(items);
+
+        MavenProject project = new MavenProject();
+        project.setGroupId("io.fabric8.benchmarks");
+        project.setArtifactId("benchmark-app");
+        project.setVersion("1.0.0");
+
+        EnricherContext context = new EnricherContext.Builder()
+            .project(project)
+            .goalFinder(new GoalFinder() {
+                @Override
+                public boolean runningWithGoal(MavenProject project, MavenSession session, String goal) {
+                    return false;
+                }
+            })
+            .config(new ProcessorConfig(OFFLINE_ENRICHERS, new HashSet<String>(), new TreeMap<String, TreeMap>()))
+            .images(Collections.<ImageConfiguration>emptyList())
+            .log(ResourceFixtures.quietLogger())
+            .build();
+        enricherManager = new EnricherManager(null, context);
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() {
+        builder = new KubernetesListBuilder(input);
+    }
+
+    @Benchmark
+    public KubernetesList enrich() {
+        enricherManager.createDefaultResources(builder);
+        enricherManager.enrich(builder);
+        return builder.build();
+    }
+}
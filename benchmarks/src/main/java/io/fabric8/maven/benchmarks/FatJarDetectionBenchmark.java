@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+import io.fabric8.maven.core.util.BuildSessionCache;
+import io.fabric8.maven.generator.javaexec.FatJarDetector;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Detection of the fat jar in the build directory as done by the java-exec based generators. Compares
+ * opening the archive with {@link JarFile} with reading only the central directory and the manifest,
+ * with and without the build session cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FatJarDetectionBenchmark {
+
+    // Size of a single entry in the fat jar
+    private static final int ENTRY_SIZE = 64 * 1024;
+
+    @Param({"50", "500"})
+    private int sizeInMb;
+
+    private File dir;
+    private File jar;
+    private BuildSessionCache cache;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = ResourceFixtures.createTempDir("fatjar");
+        jar = new File(dir, "app.jar");
+        Manifest mf = new Manifest();
+        mf.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        mf.getMainAttributes().put(Attributes.Name.MAIN_CLASS, "org.springframework.boot.loader.JarLauncher");
+        byte[] data = new byte[ENTRY_SIZE];
+        new Random(42).nextBytes(data);
+        try (JarOutputStream jos = new JarOutputStream(new FileOutputStream(jar), mf)) {
+            // No compression, so that the archive really has the requested size
+            jos.setLevel(Deflater.NO_COMPRESSION);
+            long entries = sizeInMb * 1024L * 1024L / ENTRY_SIZE;
+            for (int i = 0; i < entries; i++) {
+                jos.putNextEntry(new ZipEntry("BOOT-INF/lib/entry-" + i + ".bin"));
+                jos.write(data);
+                jos.closeEntry();
+            }
+        }
+        cache = new BuildSessionCache();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ResourceFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public String jarFile() throws IOException {
+        try (JarFile archive = new JarFile(jar)) {
+            return archive.getManifest().getMainAttributes().getValue("Main-Class");
+        }
+    }
+
+    @Benchmark
+    public String centralDirectory() throws MojoExecutionException {
+        return new FatJarDetector(dir.getPath(), null).scan().getMainClass();
+    }
+
+    @Benchmark
+    public String cached() throws MojoExecutionException {
+        return new FatJarDetector(dir.getPath(), cache).scan().getMainClass();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.fabric8.maven.core.util.FragmentNaming;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Classification of fragment file names into name, type and kind. Compares the precompiled
+ * {@link FragmentNaming} tables with a regular expression and hash map lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FragmentNamingBenchmark {
+
+    private static final String FILENAME_PATTERN = "^(?<name>.*?)(-(?<type>[^-]+))?\\.(?<ext>yaml|yml|json)$";
+
+    private static final String[] TYPES = {
+        "svc", "deployment", "cm", "secret", "route", "pvc", "sa", "dc", "is", "statefulset"
+    };
+
+    @Param({"100", "10000"})
+    private int items;
+
+    private String[] fileNames;
+    private Map<String, String> typeToKind;
+
+    @Setup
+    public void setup() {
+        fileNames = new String[items];
+        for (int i = 0; i < items; i++) {
+            String type = TYPES[i % TYPES.length];
+            // Mix names with type, types alone and upper case extensions
+            fileNames[i] = i % 7 == 0 ? type + ".yml" : "app-" + i + "-" + type + (i % 5 == 0 ? ".YAML" : ".yaml");
+        }
+        typeToKind = new HashMap<>();
+        for (String type : TYPES) {
+            typeToKind.put(type, FragmentNaming.getKindForType(type));
+        }
+    }
+
+    @Benchmark
+    public void regex(Blackhole blackhole) {
+        Pattern pattern = Pattern.compile(FILENAME_PATTERN, Pattern.CASE_INSENSITIVE);
+        for (String fileName : fileNames) {
+            Matcher matcher = pattern.matcher(fileName);
+            if (matcher.matches()) {
+                String type = matcher.group("type");
+                String name = matcher.group("name");
+                blackhole.consume(matcher.group("ext").toLowerCase());
+                blackhole.consume(typeToKind.get((type != null ? type : name).toLowerCase()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void precompiled(Blackhole blackhole) {
+        for (String fileName : fileNames) {
+            blackhole.consume(FragmentNaming.classify(fileName));
+        }
+    }
+}
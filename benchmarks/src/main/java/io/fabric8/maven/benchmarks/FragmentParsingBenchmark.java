@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Reading of resource fragments from <code>src/main/fabric8</code>, including the enrichment of the
+ * fragments with the information derived from the file name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FragmentParsingBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int items;
+
+    private File dir;
+    private File[] fragments;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = ResourceFixtures.createTempDir("fragments");
+        fragments = ResourceFixtures.writeFragments(dir, items);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ResourceFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public KubernetesListBuilder readFragments() throws IOException {
+        return KubernetesResourceUtil.readResourceFragmentsFrom(KubernetesResourceUtil.DEFAULT_RESOURCE_VERSIONING,
+                                                                "benchmark", fragments);
+    }
+
+    @Benchmark
+    public File[] listFragments() {
+        return KubernetesResourceUtil.listResourceFragments(dir);
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.core.util.BuildSessionCache;
+import io.fabric8.maven.enricher.api.util.GitMetadataService;
+import io.fabric8.maven.enricher.api.util.GitUtil;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Repository;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Lookup of branch and commit id as done by the Git enricher for every resource. The repository
+ * is packed after creating the commits, so that the commit lookup has to go through a large packfile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GitMetadataBenchmark {
+
+    @Param({"100", "1000"})
+    private int commits;
+
+    private File dir;
+    private MavenProject project;
+    private GitMetadataService service;
+
+    @Setup
+    public void setup() throws IOException, GitAPIException {
+        dir = ResourceFixtures.createTempDir("git");
+        try (Git git = Git.init().setDirectory(dir).call()) {
+            for (int i = 0; i < commits; i++) {
+                // Spread the content over several files so that the packfile gets some size
+                for (int f = 0; f < 10; f++) {
+                    Files.write(new File(dir, "file-" + f + ".txt").toPath(),
+                                ("commit " + i + " file " + f + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+                git.add().addFilepattern(".").call();
+                git.commit().setMessage("Commit " + i).setAuthor("benchmark", "benchmark@example.com").call();
+            }
+            git.gc().call();
+        }
+        project = new MavenProject();
+        project.setFile(new File(dir, "pom.xml"));
+        service = GitMetadataService.getInstance(BuildSessionCache.getOrCreate(new HashMap<String, Object>()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ResourceFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public String openRepositoryEachTime() throws IOException, GitAPIException {
+        try (Repository repository = GitUtil.getGitRepository(project)) {
+            return repository.getBranch() + GitUtil.getGitCommitId(repository);
+        }
+    }
+
+    @Benchmark
+    public String metadataService() throws IOException {
+        GitMetadataService.GitMetadata metadata = service.getMetadata(project);
+        return metadata.getBranch() + metadata.getCommitId();
+    }
+}
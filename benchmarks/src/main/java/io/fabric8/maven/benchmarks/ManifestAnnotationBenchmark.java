@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.ResourceFileType;
+import io.fabric8.maven.plugin.mojo.internal.ManifestAnnotationReader;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Lookup of a few annotations from a released manifest as done by <code>fabric8:manifest-index</code>
+ * and <code>fabric8:helm-index</code>, comparing the streaming lookup with binding the whole manifest
+ * to the model. Run with <code>-prof gc</code> to see the difference in allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ManifestAnnotationBenchmark {
+
+    private static final List<String> ANNOTATIONS =
+        Arrays.asList("description", "fabric8.io/iconUrl", "fabric8.io/git-url", "fabric8.io/benchmark");
+
+    @Param({"10", "100", "1000"})
+    private int items;
+
+    private File dir;
+    private File manifest;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = ResourceFixtures.createTempDir("manifest");
+        manifest = KubernetesResourceUtil.writeResource(ResourceFixtures.kubernetesList(items),
+                                                        new File(dir, "kubernetes"), ResourceFileType.yaml);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ResourceFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public Map<String, String> streaming() throws IOException {
+        return ManifestAnnotationReader.read(manifest, ANNOTATIONS);
+    }
+
+    @Benchmark
+    public Map<String, String> fullBinding() throws IOException {
+        KubernetesList list = (KubernetesList) KubernetesHelper.loadYaml(manifest);
+        Map<String, String> ret = new HashMap<>();
+        for (HasMetadata item : list.getItems()) {
+            Map<String, String> annotations = item.getMetadata().getAnnotations();
+            if (annotations != null) {
+                for (String annotation : ANNOTATIONS) {
+                    String value = annotations.get(annotation);
+                    if (value != null && !ret.containsKey(annotation)) {
+                        ret.put(annotation, value);
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+}
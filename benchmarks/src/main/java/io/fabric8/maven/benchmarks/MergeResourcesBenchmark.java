@@ -0,0 +1,99 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.docker.util.Logger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Merging of duplicate resources as done for local customisations and by the merge enricher.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MergeResourcesBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int items;
+
+    private List<Deployment> originals;
+    private List<Deployment> overrides;
+    private Logger log;
+
+    @Setup
+    public void setup() {
+        originals = new ArrayList<>(items);
+        overrides = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            String name = "app-" + i;
+            originals.add(ResourceFixtures.deployment(name));
+            overrides.add(new DeploymentBuilder()
+                              .withNewMetadata()
+                                .withName(name)
+                                .addToAnnotations("fabric8.io/benchmark", "overridden")
+                                .addToLabels("version", "2")
+                              .endMetadata()
+                              .withNewSpec()
+                                .withReplicas(2)
+                                .withNewTemplate()
+                                  .withNewSpec()
+                                    .addNewContainer()
+                                      .addNewEnv()
+                                        .withName("JAVA_OPTIONS")
+                                        .withValue("-Xmx512m")
+                                      .endEnv()
+                                    .endContainer()
+                                  .endSpec()
+                                .endTemplate()
+                              .endSpec()
+                              .build());
+        }
+        log = ResourceFixtures.quietLogger();
+    }
+
+    @Benchmark
+    public void mergeLocalCustomisation(Blackhole blackhole) {
+        for (int i = 0; i < items; i++) {
+            blackhole.consume(merge(i, true));
+        }
+    }
+
+    @Benchmark
+    public void mergeDuplicates(Blackhole blackhole) {
+        for (int i = 0; i < items; i++) {
+            blackhole.consume(merge(i, false));
+        }
+    }
+
+    private HasMetadata merge(int idx, boolean switchOnLocalCustomisation) {
+        // mergeResources modifies its first argument, so always start from a fresh copy
+        Deployment original = new DeploymentBuilder(originals.get(idx)).build();
+        return KubernetesResourceUtil.mergeResources(original, overrides.get(idx), log, switchOnLocalCustomisation);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.maven.core.config.PlatformMode;
+import io.fabric8.maven.core.util.OpenShiftDependencyResources;
+import io.fabric8.maven.core.util.OpenShiftOverrideResources;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.plugin.converter.DeploymentConfigOpenShiftConverter;
+import io.fabric8.maven.plugin.converter.DeploymentOpenShiftConverter;
+import io.fabric8.maven.plugin.converter.KubernetesToOpenShiftConverter;
+import io.fabric8.maven.plugin.converter.NamespaceOpenShiftConverter;
+import io.fabric8.maven.plugin.converter.OpenShiftListConverter;
+import io.fabric8.maven.plugin.converter.ReplicSetOpenShiftConverter;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Conversion of the generated Kubernetes resources to their OpenShift counterparts, as done
+ * by <code>fabric8:resource</code> when creating <code>openshift.yml</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenShiftConversionBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int items;
+
+    private KubernetesList input;
+
+    private OpenShiftListConverter converter;
+
+    @Setup
+    public void setup() {
+        input = ResourceFixtures.openShiftInput(items);
+
+        // Same converters as configured by ResourceMojo
+        Logger log = ResourceFixtures.quietLogger();
+        Map<String, KubernetesToOpenShiftConverter> converters = new HashMap<>();
+        converters.put("ReplicaSet", new ReplicSetOpenShiftConverter());
+        converters.put("Deployment", new DeploymentOpenShiftConverter(PlatformMode.openshift, 3600L));
+        converters.put("DeploymentConfig", new DeploymentConfigOpenShiftConverter(3600L));
+        converters.put("Namespace", new NamespaceOpenShiftConverter());
+
+        converter = new OpenShiftListConverter(log, converters,
+                                               new OpenShiftOverrideResources(log),
+                                               new OpenShiftDependencyResources(log));
+    }
+
+    @Benchmark
+    public KubernetesList convert() {
+        return converter.convert(input);
+    }
+}
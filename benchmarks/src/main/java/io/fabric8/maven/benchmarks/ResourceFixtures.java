@@ -0,0 +1,225 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.ResourceFileType;
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.api.model.DeploymentConfigBuilder;
+import io.fabric8.openshift.api.model.Template;
+import io.fabric8.openshift.api.model.TemplateBuilder;
+import org.apache.maven.monitor.logging.DefaultLog;
+import org.codehaus.plexus.logging.console.ConsoleLogger;
+
+/**
+ * Synthetic input for the benchmarks. Everything is generated in memory or written to a temporary
+ * directory so that the benchmarks don't need a Maven project, a Docker daemon or a cluster.
+ */
+final class ResourceFixtures {
+
+    private ResourceFixtures() { }
+
+    /**
+     * Logger which only prints errors so that the log output doesn't dominate the measurements
+     */
+    static Logger quietLogger() {
+        return new AnsiLogger(new DefaultLog(new ConsoleLogger(org.codehaus.plexus.logging.Logger.LEVEL_ERROR, "benchmark")),
+                              false, false);
+    }
+
+    /**
+     * Create a list with the given number of items, alternating between Deployments and Services
+     * of the same application name.
+     *
+     * @param count number of items
+     * @return list holding the items
+     */
+    static KubernetesList kubernetesList(int count) {
+        return new KubernetesListBuilder().withItems(kubernetesItems(count)).build();
+    }
+
+    /**
+     * Create a list with the given number of items as it can be found as input for the OpenShift
+     * conversion: Deployments, Services, a DeploymentConfig for every fourth application (which then must win over the
+     * Deployment of the same name) and a few Templates which need to be combined.
+     *
+     * @param count number of items
+     * @return list holding the items
+     */
+    static KubernetesList openShiftInput(int count) {
+        List<HasMetadata> items = kubernetesItems(count);
+        int apps = Math.max(1, count / 2);
+        for (int i = 0; i < apps; i += 4) {
+            items.add(deploymentConfig(appName(i)));
+        }
+        for (int i = 0; i < Math.max(1, count / 100); i++) {
+            items.add(template("template-" + i));
+        }
+        return new KubernetesListBuilder().withItems(items).build();
+    }
+
+    /**
+     * Write resource fragments for the given number of items into a directory. The file names
+     * follow the fragment naming convention, i.e. <code>&lt;name&gt;-deployment.yml</code> and
+     * <code>&lt;name&gt;-svc.yml</code>.
+     *
+     * @param dir directory to write to
+     * @param count number of fragments to write
+     * @return the written files
+     * @throws IOException if writing fails
+     */
+    static File[] writeFragments(File dir, int count) throws IOException {
+        List<File> ret = new ArrayList<>();
+        for (HasMetadata item : kubernetesItems(count)) {
+            String suffix = item instanceof Service ? "svc" : "deployment";
+            File target = new File(dir, item.getMetadata().getName() + "-" + suffix);
+            ret.add(KubernetesResourceUtil.writeResource(item, target, ResourceFileType.yaml));
+        }
+        return ret.toArray(new File[ret.size()]);
+    }
+
+    static File createTempDir(String prefix) throws IOException {
+        return Files.createTempDirectory("fmp-benchmark-" + prefix).toFile();
+    }
+
+    static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    static Deployment deployment(String name) {
+        return new DeploymentBuilder()
+            .withNewMetadata()
+              .withName(name)
+              .addToLabels("app", name)
+              .addToAnnotations("fabric8.io/benchmark", "true")
+            .endMetadata()
+            .withNewSpec()
+              .withReplicas(1)
+              .withNewSelector()
+                .addToMatchLabels("app", name)
+              .endSelector()
+              .withNewTemplate()
+                .withNewMetadata()
+                  .addToLabels("app", name)
+                .endMetadata()
+                .withNewSpec()
+                  .addNewContainer()
+                    .withName(name)
+                    .withImage("example/" + name + ":1.0")
+                    .addNewPort()
+                      .withContainerPort(8080)
+                      .withProtocol("TCP")
+                    .endPort()
+                    .addNewEnv()
+                      .withName("JAVA_OPTIONS")
+                      .withValue("-Xmx256m")
+                    .endEnv()
+                  .endContainer()
+                .endSpec()
+              .endTemplate()
+            .endSpec()
+            .build();
+    }
+
+    static Service service(String name) {
+        return new ServiceBuilder()
+            .withNewMetadata()
+              .withName(name)
+              .addToLabels("app", name)
+            .endMetadata()
+            .withNewSpec()
+              .addToSelector("app", name)
+              .addNewPort()
+                .withPort(80)
+                .withProtocol("TCP")
+              .endPort()
+            .endSpec()
+            .build();
+    }
+
+    // ========================================================================
+
+    private static List<HasMetadata> kubernetesItems(int count) {
+        List<HasMetadata> ret = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = appName(i / 2);
+            ret.add(i % 2 == 0 ? deployment(name) : service(name));
+        }
+        return ret;
+    }
+
+    private static String appName(int idx) {
+        return "app-" + idx;
+    }
+
+    private static DeploymentConfig deploymentConfig(String name) {
+        return new DeploymentConfigBuilder()
+            .withNewMetadata()
+              .withName(name)
+              .addToLabels("app", name)
+            .endMetadata()
+            .withNewSpec()
+              .withReplicas(1)
+              .addToSelector("app", name)
+              .withNewTemplate()
+                .withNewMetadata()
+                  .addToLabels("app", name)
+                .endMetadata()
+                .withNewSpec()
+                  .addNewContainer()
+                    .withName(name)
+                    .withImage("example/" + name + ":1.0")
+                  .endContainer()
+                .endSpec()
+              .endTemplate()
+            .endSpec()
+            .build();
+    }
+
+    private static Template template(String name) {
+        return new TemplateBuilder()
+            .withNewMetadata()
+              .withName(name)
+            .endMetadata()
+            .addNewParameter()
+              .withName(name.toUpperCase().replace('-', '_'))
+              .withValue("value")
+            .endParameter()
+            .build();
+    }
+}
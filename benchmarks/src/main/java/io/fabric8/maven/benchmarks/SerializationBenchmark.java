@@ -0,0 +1,78 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Serialization of resource lists to YAML and JSON as done when writing the resource descriptors,
+ * and parsing them back as done by the apply and helm goals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int items;
+
+    private KubernetesList list;
+    private String yaml;
+    private String json;
+
+    private ObjectMapper yamlMapper;
+    private ObjectMapper jsonMapper;
+
+    @Setup
+    public void setup() throws IOException {
+        list = ResourceFixtures.kubernetesList(items);
+        yaml = KubernetesResourceUtil.toYaml(list);
+        json = KubernetesResourceUtil.toJson(list);
+        yamlMapper = new ObjectMapper(new YAMLFactory());
+        jsonMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public String toYaml() throws IOException {
+        return KubernetesResourceUtil.toYaml(list);
+    }
+
+    @Benchmark
+    public String toJson() throws IOException {
+        return KubernetesResourceUtil.toJson(list);
+    }
+
+    @Benchmark
+    public KubernetesList fromYaml() throws IOException {
+        return yamlMapper.readValue(yaml, KubernetesList.class);
+    }
+
+    @Benchmark
+    public KubernetesList fromJson() throws IOException {
+        return jsonMapper.readValue(json, KubernetesList.class);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.ResourceClassifier;
+import io.fabric8.maven.core.util.ResourceFileType;
+import io.fabric8.maven.core.util.validator.ResourceValidator;
+import io.fabric8.maven.docker.util.Logger;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Schema validation of a generated <code>kubernetes.yml</code>. The schema is taken from the classpath,
+ * so no network access is required.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    private int items;
+
+    private File dir;
+    private File resourceFile;
+    private Logger log;
+
+    @Setup
+    public void setup() throws IOException {
+        dir = ResourceFixtures.createTempDir("validation");
+        resourceFile = KubernetesResourceUtil.writeResource(ResourceFixtures.kubernetesList(items),
+                                                            new File(dir, "kubernetes"), ResourceFileType.yaml);
+        log = ResourceFixtures.quietLogger();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ResourceFixtures.deleteRecursively(dir);
+    }
+
+    @Benchmark
+    public int validate() throws IOException {
+        return new ResourceValidator(resourceFile, ResourceClassifier.KUBERNETES, log).validate();
+    }
+}
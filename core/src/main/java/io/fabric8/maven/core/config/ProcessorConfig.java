@@ -225,4 +225,19 @@ public class ProcessorConfig {
         return ret.size() > 0 ? ret : null;
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+
+        ProcessorConfig that = (ProcessorConfig) o;
+        return Objects.equals(includes, that.includes) &&
+               Objects.equals(excludes, that.excludes) &&
+               Objects.equals(config, that.config);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(includes, excludes, config);
+    }
 }
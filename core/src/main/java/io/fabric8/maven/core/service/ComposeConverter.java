@@ -0,0 +1,818 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ContainerBuilder;
+import io.fabric8.kubernetes.api.model.ContainerPort;
+import io.fabric8.kubernetes.api.model.ContainerPortBuilder;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.IntOrString;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaimBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.PodSpecBuilder;
+import io.fabric8.kubernetes.api.model.Quantity;
+import io.fabric8.kubernetes.api.model.ResourceRequirements;
+import io.fabric8.kubernetes.api.model.ResourceRequirementsBuilder;
+import io.fabric8.kubernetes.api.model.SecurityContext;
+import io.fabric8.kubernetes.api.model.SecurityContextBuilder;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.ServicePort;
+import io.fabric8.kubernetes.api.model.ServicePortBuilder;
+import io.fabric8.kubernetes.api.model.Volume;
+import io.fabric8.kubernetes.api.model.VolumeBuilder;
+import io.fabric8.kubernetes.api.model.VolumeMount;
+import io.fabric8.kubernetes.api.model.VolumeMountBuilder;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Converts a docker compose file to Kubernetes resources. The conversion follows the conventions of
+ * <a href="http://kompose.io">kompose</a>, so that the result is the same as with <code>kompose convert</code>:
+ *
+ * <ul>
+ *     <li>Each compose service becomes a Deployment (or a Pod if its restart policy is <code>no</code> or
+ *     <code>on-failure</code>) labeled with <code>io.kompose.service</code></li>
+ *     <li>A Service is created for services with published or exposed ports. Its type can be selected with the compose
+ *     label <code>kompose.service.type</code> (<code>clusterip</code>, <code>nodeport</code>, <code>loadbalancer</code>
+ *     or <code>headless</code>)</li>
+ *     <li>Compose labels become annotations</li>
+ *     <li>Volumes are backed by PersistentVolumeClaims</li>
+ *     <li>Variables (<code>${VAR}</code>, <code>${VAR:-default}</code>, <code>$VAR</code>) are replaced with the
+ *     values of the given environment</li>
+ * </ul>
+ *
+ * Compose keys which have no Kubernetes counterpart are ignored with a warning.
+ */
+class ComposeConverter {
+
+    static final String SERVICE_LABEL = "io.kompose.service";
+    static final String SERVICE_TYPE_LABEL = "kompose.service.type";
+
+    private static final String DEFAULT_VOLUME_SIZE = "100Mi";
+
+    // Keys which are converted
+    private static final Set<String> SUPPORTED_KEYS = new HashSet<>(Arrays.asList(
+        "image", "container_name", "ports", "expose", "environment", "env_file", "labels", "command", "entrypoint",
+        "working_dir", "stdin_open", "tty", "privileged", "user", "cap_add", "cap_drop", "restart", "hostname",
+        "domainname", "mem_limit", "cpus", "volumes", "deploy"));
+
+    // Keys which only make sense for docker and are silently ignored
+    private static final Set<String> IGNORED_KEYS = new HashSet<>(Arrays.asList(
+        "build", "depends_on", "links", "networks", "external_links"));
+
+    private static final Pattern VARIABLE_PATTERN =
+        Pattern.compile("\\$(?:\\$|\\{([A-Za-z_][A-Za-z0-9_]*)(?:(:?[-?])([^}]*))?\\}|([A-Za-z_][A-Za-z0-9_]*))");
+
+    private static final Pattern MEMORY_PATTERN = Pattern.compile("^(\\d+)\\s*([bkmg]?)b?$", Pattern.CASE_INSENSITIVE);
+
+    private final Map<String, String> environment;
+    private final Logger log;
+
+    /**
+     * @param environment environment used for replacing variables in the compose file
+     * @param log logger for warnings about unsupported features
+     */
+    ComposeConverter(Map<String, String> environment, Logger log) {
+        this.environment = environment;
+        this.log = log;
+    }
+
+    /**
+     * Convert a compose file
+     *
+     * @param composeFile compose file in version 1, 2 or 3 format
+     * @return the created resources, for each compose service the Service first, followed by the Deployment or Pod and
+     *         the PersistentVolumeClaims not created before.
+     * @throws IOException if the compose file or an env file can not be read
+     * @throws IllegalArgumentException if the compose file is invalid
+     */
+    List<HasMetadata> convert(File composeFile) throws IOException {
+        return convert(composeFile, null);
+    }
+
+    /**
+     * Convert a compose file whose content is provided by a reader
+     *
+     * @param composeFile compose file in version 1, 2 or 3 format
+     * @param reader reader for the content of the compose file, e.g. with Maven filtering applied. If null,
+     *               the file is read as it is.
+     * @return the created resources as for {@link #convert(File)}
+     * @throws IOException if the compose file or an env file can not be read
+     * @throws IllegalArgumentException if the compose file is invalid
+     */
+    List<HasMetadata> convert(File composeFile, KubernetesResourceUtil.FragmentReader reader) throws IOException {
+        ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+        TypeReference<LinkedHashMap<String, Object>> type = new TypeReference<LinkedHashMap<String, Object>>() {};
+        Map<String, Object> compose;
+        if (reader != null) {
+            try (Reader content = reader.open(composeFile)) {
+                compose = mapper.readValue(content, type);
+            }
+        } else {
+            compose = mapper.readValue(composeFile, type);
+        }
+        List<HasMetadata> ret = new ArrayList<>();
+        if (compose == null) {
+            return ret;
+        }
+        // Version 1 files have the services at the top level
+        Map<String, Object> services = compose.containsKey("services") ?
+            toMap(compose.get("services"), "services") : compose;
+        Set<String> claims = new HashSet<>();
+        for (Map.Entry<String, Object> entry : services.entrySet()) {
+            if ("version".equals(entry.getKey()) && !(entry.getValue() instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> service = (Map<String, Object>) interpolate(toMap(entry.getValue(), entry.getKey()));
+            convertService(entry.getKey(), service, composeFile.getAbsoluteFile().getParentFile(), claims, ret);
+        }
+        return ret;
+    }
+
+    // ========================================================================
+
+    private void convertService(String serviceName, Map<String, Object> service, File baseDir,
+                                Set<String> claims, List<HasMetadata> resources) throws IOException {
+        String name = normalizeName(serviceName);
+        checkKeys(serviceName, service);
+
+        Map<String, String> labels = new LinkedHashMap<>();
+        labels.put(SERVICE_LABEL, name);
+        Map<String, String> annotations = toStringMap(service.get("labels"), "labels");
+
+        List<PortMapping> ports = getPorts(service);
+        List<VolumeMount> mounts = new ArrayList<>();
+        List<Volume> volumes = new ArrayList<>();
+        List<HasMetadata> newClaims = getVolumes(name, service, claims, mounts, volumes);
+
+        Container container = createContainer(name, service, baseDir, ports, mounts);
+        PodSpec podSpec = new PodSpecBuilder()
+            .withContainers(container)
+            .withVolumes(volumes)
+            .withRestartPolicy(getRestartPolicy(service))
+            .withHostname(getString(service, "hostname"))
+            .withSubdomain(getString(service, "domainname"))
+            .build();
+
+        String serviceType = annotations.get(SERVICE_TYPE_LABEL);
+        if (!ports.isEmpty() || "headless".equalsIgnoreCase(serviceType)) {
+            resources.add(createService(name, labels, annotations, ports, serviceType));
+        }
+        if ("Always".equals(podSpec.getRestartPolicy())) {
+            DeploymentBuilder deployment = new DeploymentBuilder()
+                .withNewMetadata().withName(name).withLabels(labels).withAnnotations(annotations).endMetadata()
+                .withNewSpec()
+                  .withReplicas(getReplicas(service))
+                  .withNewTemplate()
+                    .withNewMetadata().withLabels(labels).endMetadata()
+                    .withSpec(podSpec)
+                  .endTemplate()
+                .endSpec();
+            if (!volumes.isEmpty()) {
+                // Volumes can't be shared between the old and the new pod during a rolling update
+                deployment.editSpec().withNewStrategy().withType("Recreate").endStrategy().endSpec();
+            }
+            resources.add(deployment.build());
+        } else {
+            resources.add(new PodBuilder()
+                .withNewMetadata().withName(name).withLabels(labels).withAnnotations(annotations).endMetadata()
+                .withSpec(podSpec)
+                .build());
+        }
+        resources.addAll(newClaims);
+    }
+
+    private void checkKeys(String serviceName, Map<String, Object> service) {
+        for (String key : service.keySet()) {
+            if (!SUPPORTED_KEYS.contains(key) && !IGNORED_KEYS.contains(key)) {
+                log.warn("Unsupported key '%s' in docker compose service '%s' is ignored", key, serviceName);
+            }
+        }
+    }
+
+    private Container createContainer(String name, Map<String, Object> service, File baseDir,
+                                      List<PortMapping> ports, List<VolumeMount> mounts) throws IOException {
+        String image = getString(service, "image");
+        if (image == null) {
+            log.warn("No image given for docker compose service '%s', using '%s'", name, name);
+            image = name;
+        }
+        String containerName = getString(service, "container_name");
+
+        List<ContainerPort> containerPorts = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (PortMapping port : ports) {
+            if (seen.add(port.containerPort + "/" + port.protocol)) {
+                containerPorts.add(new ContainerPortBuilder()
+                                       .withContainerPort(port.containerPort)
+                                       .withProtocol(port.isUdp() ? port.protocol : null)
+                                       .build());
+            }
+        }
+
+        return new ContainerBuilder()
+            .withName(containerName != null ? normalizeName(containerName) : name)
+            .withImage(image)
+            .withCommand(getCommand(service, "entrypoint"))
+            .withArgs(getCommand(service, "command"))
+            .withWorkingDir(getString(service, "working_dir"))
+            .withEnv(getEnv(service, baseDir))
+            .withPorts(containerPorts)
+            .withVolumeMounts(mounts)
+            .withStdin(getBoolean(service, "stdin_open"))
+            .withTty(getBoolean(service, "tty"))
+            .withSecurityContext(getSecurityContext(service))
+            .withResources(getResources(service))
+            .build();
+    }
+
+    private HasMetadata createService(String name, Map<String, String> labels, Map<String, String> annotations,
+                                      List<PortMapping> ports, String serviceType) {
+        List<ServicePort> servicePorts = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (PortMapping port : ports) {
+            int servicePort = port.hostPort != null ? port.hostPort : port.containerPort;
+            String portName = servicePort + (port.isUdp() ? "-udp" : "");
+            if (seen.add(portName)) {
+                servicePorts.add(new ServicePortBuilder()
+                                     .withName(portName)
+                                     .withPort(servicePort)
+                                     .withTargetPort(new IntOrString(port.containerPort))
+                                     .withProtocol(port.isUdp() ? port.protocol : null)
+                                     .build());
+            }
+        }
+        String type = null;
+        String clusterIP = null;
+        if (serviceType != null) {
+            switch (serviceType.toLowerCase(Locale.ENGLISH)) {
+                case "clusterip":
+                    type = "ClusterIP";
+                    break;
+                case "nodeport":
+                    type = "NodePort";
+                    break;
+                case "loadbalancer":
+                    type = "LoadBalancer";
+                    break;
+                case "headless":
+                    type = "ClusterIP";
+                    clusterIP = "None";
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                        String.format("Unknown value '%s' for %s in service '%s'", serviceType, SERVICE_TYPE_LABEL, name));
+            }
+        }
+        return new ServiceBuilder()
+            .withNewMetadata().withName(name).withLabels(labels).withAnnotations(annotations).endMetadata()
+            .withNewSpec()
+              .withType(type)
+              .withClusterIP(clusterIP)
+              .withPorts(servicePorts)
+              .withSelector(labels)
+            .endSpec()
+            .build();
+    }
+
+    // ========================================================================
+    // Ports
+
+    private List<PortMapping> getPorts(Map<String, Object> service) {
+        List<PortMapping> ret = new ArrayList<>();
+        for (Object port : toList(service.get("ports"), "ports")) {
+            if (port instanceof Map) {
+                // Long syntax: target, published, protocol
+                Map<String, Object> spec = (Map<String, Object>) port;
+                Object published = spec.get("published");
+                ret.add(new PortMapping(toInt(spec.get("target"), "ports"),
+                                        published != null ? toInt(published, "ports") : null,
+                                        spec.get("protocol") != null ? spec.get("protocol").toString() : null));
+            } else {
+                ret.addAll(parsePort(String.valueOf(port)));
+            }
+        }
+        for (Object port : toList(service.get("expose"), "expose")) {
+            for (PortMapping mapping : parsePort(String.valueOf(port))) {
+                if (!containsContainerPort(ret, mapping)) {
+                    ret.add(mapping);
+                }
+            }
+        }
+        return ret;
+    }
+
+    private static boolean containsContainerPort(List<PortMapping> ports, PortMapping mapping) {
+        for (PortMapping port : ports) {
+            if (port.containerPort == mapping.containerPort && port.protocol.equals(mapping.protocol)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Short syntax: [[ip:]host:]container[/protocol] where host and container can be ranges
+    static List<PortMapping> parsePort(String spec) {
+        String protocol = null;
+        String ports = spec.trim();
+        int slash = ports.indexOf('/');
+        if (slash >= 0) {
+            protocol = ports.substring(slash + 1);
+            ports = ports.substring(0, slash);
+        }
+        String[] parts = ports.split(":");
+        if (parts.length > 3) {
+            throw new IllegalArgumentException("Invalid port specification '" + spec + "'");
+        }
+        int[] container = parsePortRange(parts[parts.length - 1], spec);
+        int[] host = parts.length > 1 && parts[parts.length - 2].length() > 0 ?
+            parsePortRange(parts[parts.length - 2], spec) : null;
+        if (host != null && host[1] - host[0] != container[1] - container[0]) {
+            throw new IllegalArgumentException("Host and container port ranges differ in size in '" + spec + "'");
+        }
+        List<PortMapping> ret = new ArrayList<>();
+        for (int i = 0; i <= container[1] - container[0]; i++) {
+            ret.add(new PortMapping(container[0] + i, host != null ? host[0] + i : null, protocol));
+        }
+        return ret;
+    }
+
+    private static int[] parsePortRange(String range, String spec) {
+        try {
+            int dash = range.indexOf('-');
+            if (dash < 0) {
+                int port = Integer.parseInt(range.trim());
+                return new int[] { port, port };
+            }
+            int[] ret = { Integer.parseInt(range.substring(0, dash).trim()), Integer.parseInt(range.substring(dash + 1).trim()) };
+            if (ret[1] < ret[0]) {
+                throw new IllegalArgumentException("Invalid port range in '" + spec + "'");
+            }
+            return ret;
+        } catch (NumberFormatException exp) {
+            throw new IllegalArgumentException("Invalid port specification '" + spec + "'", exp);
+        }
+    }
+
+    static final class PortMapping {
+        final int containerPort;
+        final Integer hostPort;
+        final String protocol;
+
+        PortMapping(int containerPort, Integer hostPort, String protocol) {
+            this.containerPort = containerPort;
+            this.hostPort = hostPort;
+            this.protocol = protocol != null ? protocol.toUpperCase(Locale.ENGLISH) : "TCP";
+        }
+
+        boolean isUdp() {
+            return "UDP".equals(protocol);
+        }
+    }
+
+    // ========================================================================
+    // Volumes
+
+    private List<HasMetadata> getVolumes(String name, Map<String, Object> service, Set<String> claims,
+                                         List<VolumeMount> mounts, List<Volume> volumes) {
+        List<HasMetadata> newClaims = new ArrayList<>();
+        int idx = 0;
+        for (Object volume : toList(service.get("volumes"), "volumes")) {
+            String source;
+            String target;
+            boolean readOnly;
+            if (volume instanceof Map) {
+                // Long syntax
+                Map<String, Object> spec = (Map<String, Object>) volume;
+                source = spec.get("source") != null ? spec.get("source").toString() : null;
+                target = spec.get("target") != null ? spec.get("target").toString() : null;
+                readOnly = Boolean.TRUE.equals(spec.get("read_only"));
+            } else {
+                String[] parts = String.valueOf(volume).split(":");
+                source = parts.length > 1 ? parts[0] : null;
+                target = parts.length > 1 ? parts[1] : parts[0];
+                readOnly = parts.length > 2 && Arrays.asList(parts[2].split(",")).contains("ro");
+            }
+            if (target == null || target.length() == 0) {
+                throw new IllegalArgumentException("No target given for volume '" + volume + "' in service '" + name + "'");
+            }
+
+            String claim;
+            if (source != null && isNamedVolume(source)) {
+                claim = normalizeName(source);
+            } else {
+                if (source != null) {
+                    log.warn("Host path '%s' of service '%s' is mapped to a PersistentVolumeClaim", source, name);
+                }
+                claim = name + "-claim" + idx++;
+            }
+            mounts.add(new VolumeMountBuilder()
+                           .withName(claim)
+                           .withMountPath(target)
+                           .withReadOnly(readOnly ? Boolean.TRUE : null)
+                           .build());
+            volumes.add(new VolumeBuilder()
+                            .withName(claim)
+                            .withNewPersistentVolumeClaim(claim, readOnly ? Boolean.TRUE : null)
+                            .build());
+            if (claims.add(claim)) {
+                newClaims.add(new PersistentVolumeClaimBuilder()
+                                  .withNewMetadata()
+                                    .withName(claim)
+                                    .addToLabels(SERVICE_LABEL, claim)
+                                  .endMetadata()
+                                  .withNewSpec()
+                                    .withAccessModes(readOnly ? "ReadOnlyMany" : "ReadWriteOnce")
+                                    .withNewResources()
+                                      .addToRequests("storage", new Quantity(DEFAULT_VOLUME_SIZE))
+                                    .endResources()
+                                  .endSpec()
+                                  .build());
+            }
+        }
+        return newClaims;
+    }
+
+    private static boolean isNamedVolume(String source) {
+        return !(source.startsWith("/") || source.startsWith(".") || source.startsWith("~"));
+    }
+
+    // ========================================================================
+    // Container settings
+
+    private List<EnvVar> getEnv(Map<String, Object> service, File baseDir) throws IOException {
+        Map<String, String> env = new LinkedHashMap<>();
+        for (Object envFile : toList(service.get("env_file"), "env_file")) {
+            File file = new File(envFile.toString());
+            if (!file.isAbsolute()) {
+                file = new File(baseDir, envFile.toString());
+            }
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.length() > 0 && !line.startsWith("#")) {
+                    addEnvEntry(env, line);
+                }
+            }
+        }
+        Object environmentSpec = service.get("environment");
+        if (environmentSpec instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) environmentSpec).entrySet()) {
+                // A key without value is taken from the environment
+                env.put(entry.getKey(), entry.getValue() != null ?
+                    entry.getValue().toString() : lookup(entry.getKey()));
+            }
+        } else {
+            for (Object entry : toList(environmentSpec, "environment")) {
+                addEnvEntry(env, entry.toString());
+            }
+        }
+        List<EnvVar> ret = new ArrayList<>();
+        for (Map.Entry<String, String> entry : env.entrySet()) {
+            ret.add(new EnvVarBuilder().withName(entry.getKey()).withValue(entry.getValue()).build());
+        }
+        return ret;
+    }
+
+    private void addEnvEntry(Map<String, String> env, String entry) {
+        int eq = entry.indexOf('=');
+        if (eq < 0) {
+            env.put(entry, lookup(entry));
+        } else {
+            env.put(entry.substring(0, eq), entry.substring(eq + 1));
+        }
+    }
+
+    private static List<String> getCommand(Map<String, Object> service, String key) {
+        Object command = service.get(key);
+        if (command == null) {
+            return Collections.emptyList();
+        }
+        if (command instanceof List) {
+            List<String> ret = new ArrayList<>();
+            for (Object arg : (List<Object>) command) {
+                ret.add(String.valueOf(arg));
+            }
+            return ret;
+        }
+        return splitCommand(command.toString());
+    }
+
+    // Split a command line like a shell does, honoring single and double quotes and backslash escapes
+    static List<String> splitCommand(String command) {
+        List<String> ret = new ArrayList<>();
+        StringBuilder current = null;
+        char quote = 0;
+        for (int i = 0; i < command.length(); i++) {
+            char c = command.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                } else if (c == '\\' && quote == '"' && i + 1 < command.length()) {
+                    current.append(command.charAt(++i));
+                } else {
+                    current.append(c);
+                }
+            } else if (Character.isWhitespace(c)) {
+                if (current != null) {
+                    ret.add(current.toString());
+                    current = null;
+                }
+            } else {
+                if (current == null) {
+                    current = new StringBuilder();
+                }
+                if (c == '"' || c == '\'') {
+                    quote = c;
+                } else if (c == '\\' && i + 1 < command.length()) {
+                    current.append(command.charAt(++i));
+                } else {
+                    current.append(c);
+                }
+            }
+        }
+        if (quote != 0) {
+            throw new IllegalArgumentException("Unterminated quote in command '" + command + "'");
+        }
+        if (current != null) {
+            ret.add(current.toString());
+        }
+        return ret;
+    }
+
+    private static SecurityContext getSecurityContext(Map<String, Object> service) {
+        Boolean privileged = getBoolean(service, "privileged");
+        String user = getString(service, "user");
+        List<String> capAdd = toStringList(service.get("cap_add"), "cap_add");
+        List<String> capDrop = toStringList(service.get("cap_drop"), "cap_drop");
+
+        Long runAsUser = null;
+        if (user != null && user.matches("\\d+")) {
+            runAsUser = Long.valueOf(user);
+        }
+        if (privileged == null && runAsUser == null && capAdd.isEmpty() && capDrop.isEmpty()) {
+            return null;
+        }
+        SecurityContextBuilder ret = new SecurityContextBuilder()
+            .withPrivileged(privileged)
+            .withRunAsUser(runAsUser);
+        if (!capAdd.isEmpty() || !capDrop.isEmpty()) {
+            ret.withNewCapabilities().withAdd(capAdd).withDrop(capDrop).endCapabilities();
+        }
+        return ret.build();
+    }
+
+    private static ResourceRequirements getResources(Map<String, Object> service) {
+        Map<String, Quantity> limits = new LinkedHashMap<>();
+        Object memory = service.get("mem_limit");
+        Object cpus = service.get("cpus");
+        Map<String, Object> deployLimits =
+            getPath(toMap(service.get("deploy"), "deploy"), "resources", "limits");
+        if (deployLimits.containsKey("memory")) {
+            memory = deployLimits.get("memory");
+        }
+        if (deployLimits.containsKey("cpus")) {
+            cpus = deployLimits.get("cpus");
+        }
+        if (memory != null) {
+            limits.put("memory", new Quantity(String.valueOf(toBytes(memory.toString()))));
+        }
+        if (cpus != null) {
+            limits.put("cpu", new Quantity(cpus.toString()));
+        }
+        if (limits.isEmpty()) {
+            return null;
+        }
+        return new ResourceRequirementsBuilder().withLimits(limits).build();
+    }
+
+    // Memory values in docker notation like "512m"
+    static long toBytes(String value) {
+        Matcher matcher = MEMORY_PATTERN.matcher(value.trim());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid memory value '" + value + "'");
+        }
+        long ret = Long.parseLong(matcher.group(1));
+        switch (matcher.group(2).toLowerCase(Locale.ENGLISH)) {
+            case "k":
+                return ret * 1024;
+            case "m":
+                return ret * 1024 * 1024;
+            case "g":
+                return ret * 1024 * 1024 * 1024;
+            default:
+                return ret;
+        }
+    }
+
+    private static String getRestartPolicy(Map<String, Object> service) {
+        String restart = getString(service, "restart");
+        if (restart == null) {
+            Map<String, Object> restartPolicy = getPath(toMap(service.get("deploy"), "deploy"), "restart_policy");
+            restart = restartPolicy.get("condition") != null ? restartPolicy.get("condition").toString() : null;
+        }
+        if (restart == null || "always".equals(restart) || "any".equals(restart) || "unless-stopped".equals(restart)) {
+            return "Always";
+        }
+        if ("no".equals(restart) || "none".equals(restart)) {
+            return "Never";
+        }
+        if (restart.startsWith("on-failure")) {
+            return "OnFailure";
+        }
+        throw new IllegalArgumentException("Unknown restart policy '" + restart + "'");
+    }
+
+    private static Integer getReplicas(Map<String, Object> service) {
+        Object replicas = toMap(service.get("deploy"), "deploy").get("replicas");
+        return replicas != null ? toInt(replicas, "replicas") : 1;
+    }
+
+    // ========================================================================
+    // Variable interpolation
+
+    private Object interpolate(Object value) {
+        if (value instanceof String) {
+            return interpolate((String) value);
+        }
+        if (value instanceof Map) {
+            Map<String, Object> ret = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                ret.put(entry.getKey(), interpolate(entry.getValue()));
+            }
+            return ret;
+        }
+        if (value instanceof List) {
+            List<Object> ret = new ArrayList<>();
+            for (Object item : (List<Object>) value) {
+                ret.add(interpolate(item));
+            }
+            return ret;
+        }
+        return value;
+    }
+
+    String interpolate(String value) {
+        if (value.indexOf('$') < 0) {
+            return value;
+        }
+        Matcher matcher = VARIABLE_PATTERN.matcher(value);
+        StringBuffer ret = new StringBuffer();
+        while (matcher.find()) {
+            String replacement;
+            String name = matcher.group(1) != null ? matcher.group(1) : matcher.group(4);
+            if (name == null) {
+                // Escaped "$$"
+                replacement = "$";
+            } else {
+                String operator = matcher.group(2);
+                String argument = matcher.group(3);
+                String val = environment.get(name);
+                boolean missing = operator != null && operator.startsWith(":") ? val == null || val.isEmpty() : val == null;
+                if (missing && operator != null && operator.endsWith("-")) {
+                    replacement = argument;
+                } else if (missing && operator != null && operator.endsWith("?")) {
+                    throw new IllegalArgumentException(
+                        String.format("Required variable %s is missing: %s", name, argument));
+                } else {
+                    replacement = lookup(name);
+                }
+            }
+            matcher.appendReplacement(ret, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(ret);
+        return ret.toString();
+    }
+
+    private String lookup(String name) {
+        String value = environment.get(name);
+        if (value == null) {
+            log.warn("Variable %s is not set in the environment, using an empty string", name);
+            return "";
+        }
+        return value;
+    }
+
+    // ========================================================================
+    // Helpers for accessing the parsed YAML
+
+    static String normalizeName(String name) {
+        return name.toLowerCase(Locale.ENGLISH).replace('_', '-');
+    }
+
+    private static String getString(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Boolean getBoolean(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value != null ? Boolean.valueOf(value.toString()) : null;
+    }
+
+    private static int toInt(Object value, String key) {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(String.valueOf(value).trim());
+        } catch (NumberFormatException exp) {
+            throw new IllegalArgumentException("Invalid number '" + value + "' for " + key, exp);
+        }
+    }
+
+    private static Map<String, Object> toMap(Object value, String key) {
+        if (value == null) {
+            return Collections.emptyMap();
+        }
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a map for '" + key + "', not " + value);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static Map<String, Object> getPath(Map<String, Object> map, String... keys) {
+        Map<String, Object> ret = map;
+        for (String key : keys) {
+            ret = toMap(ret.get(key), key);
+        }
+        return ret;
+    }
+
+    private static List<Object> toList(Object value, String key) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (value instanceof Collection) {
+            return new ArrayList<>((Collection<Object>) value);
+        }
+        if (value instanceof Map) {
+            throw new IllegalArgumentException("Expected a list for '" + key + "', not " + value);
+        }
+        return Collections.singletonList(value);
+    }
+
+    private static List<String> toStringList(Object value, String key) {
+        List<String> ret = new ArrayList<>();
+        for (Object item : toList(value, key)) {
+            ret.add(String.valueOf(item));
+        }
+        return ret;
+    }
+
+    // Lists of "key=value" or maps, as used for labels
+    private static Map<String, String> toStringMap(Object value, String key) {
+        Map<String, String> ret = new LinkedHashMap<>();
+        if (value instanceof Map) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) value).entrySet()) {
+                ret.put(entry.getKey(), entry.getValue() != null ? entry.getValue().toString() : "");
+            }
+        } else {
+            for (Object item : toList(value, key)) {
+                String entry = String.valueOf(item);
+                int eq = entry.indexOf('=');
+                ret.put(eq < 0 ? entry : entry.substring(0, eq), eq < 0 ? "" : entry.substring(eq + 1));
+            }
+        }
+        return ret;
+    }
+}
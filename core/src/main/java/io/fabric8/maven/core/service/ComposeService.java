@@ -15,18 +15,14 @@
  */
 package io.fabric8.maven.core.service;
 
-import io.fabric8.maven.core.util.ProcessUtil;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
 import io.fabric8.maven.docker.util.Logger;
-import org.apache.maven.plugin.MojoExecutionException;
-import org.apache.maven.shared.utils.io.FileUtils;
-import org.apache.maven.shared.utils.io.IOUtil;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.StringWriter;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.List;
 
 /*
 * Docker compose services for converting docker compose artifacts to kubernetes artifacts
@@ -34,116 +30,53 @@ import java.util.Collections;
 
 public class ComposeService {
 
-    public static final String KOMPOSE_RESOURCES_DIRECTORY = "kompose_resources";
-
-    private File defaultKomposeBinDir;
-    private Path komposeResourcesPath;
     private Path composeFilePath;
+    private KubernetesResourceUtil.FragmentReader reader;
     private Logger log;
-    private Process process;
 
     /**
      * Create instance of compose service
      *
-     * @param defaultKomposeBinDir
      * @param composeFilePath
      * @param log
      */
-    public ComposeService(File defaultKomposeBinDir, Path composeFilePath, Logger log) {
-        this.defaultKomposeBinDir = defaultKomposeBinDir;
-        this.composeFilePath = composeFilePath;
-        this.log = log;
+    public ComposeService(Path composeFilePath, Logger log) {
+        this(composeFilePath, null, log);
     }
 
     /**
-     * Returns array of kubernetes resource descriptor files generated from docker compose files
-     * using 'kompose' (http://kompose.io) utility
+     * Create instance of compose service which reads the compose file with the given reader
      *
-     * @return array of files if any resources exist. The array will be empty of no resource descriptors found.
-     * @throws IOException
-     * @throws MojoExecutionException
+     * @param composeFilePath
+     * @param reader reader for the compose file, e.g. for applying Maven filtering
+     * @param log
      */
-    public File[] convertToKubeFragments() throws Fabric8ServiceException {
-        File[] komposeResourceFiles = {};
-
-        if(composeFilePath != null) {
-            log.info("converting docker compose file %s to kubernetes resource descriptors", composeFilePath);
-            try {
-                initializeKompose();
-                invokeKompose();
-                komposeResourceFiles = handelKomposeResult();
-            } catch (IOException e) {
-                throw new Fabric8ServiceException(e);
-            }
-
-            log.info("conversion completed successfully : %s resource descriptors generated", komposeResourceFiles.length);
-        }
-
-        return komposeResourceFiles;
-    }
-
-    private void initializeKompose() throws IOException {
-        komposeResourcesPath = Files.createTempDirectory(KOMPOSE_RESOURCES_DIRECTORY);
-    }
-
-    private void invokeKompose() throws Fabric8ServiceException {
-        try {
-            String executableName = "kompose";
-            File komposeBinaryFile = ProcessUtil.findExecutable(log, executableName);
-            if (komposeBinaryFile == null && this.defaultKomposeBinDir != null) {
-                // Looking at the default location for Kompose
-                komposeBinaryFile = ProcessUtil.findExecutable(log, executableName, Collections.singletonList(this.defaultKomposeBinDir));
-            }
-            if (komposeBinaryFile == null) {
-                log.error("[[B]]kompose[[B]] utility doesn't exist, please execute [[B]]mvn fabric8:install[[B]] command to make it work");
-                log.error("or");
-                log.error("to install it manually, please log on to [[B]]http://kompose.io/installation/[[B]]");
-                cleanComposeResources();
-                throw new Fabric8ServiceException("Cannot find the kompose binary in PATH or default install location");
-            }
-
-            process = Runtime.getRuntime().exec(new String[] {komposeBinaryFile.getAbsolutePath(), "convert", "-o", komposeResourcesPath.toString(), "-f", composeFilePath.toString()});
-        } catch (IOException exp) {
-            cleanComposeResources();
-            throw new Fabric8ServiceException(exp.getMessage(), exp);
-        }
-        waitForConversion();
-    }
-
-    private File[] handelKomposeResult() throws IOException, Fabric8ServiceException {
-        if(process.exitValue() != 0) {
-            StringWriter stringWriter = new StringWriter();
-            IOUtil.copy(process.getErrorStream(), stringWriter);
-            log.error("conversion failed : " + stringWriter.toString());
-            throw new Fabric8ServiceException(stringWriter.toString());
-        }
-
-        process = null;
-        return komposeResourcesPath.toFile().listFiles();
+    public ComposeService(Path composeFilePath, KubernetesResourceUtil.FragmentReader reader, Logger log) {
+        this.composeFilePath = composeFilePath;
+        this.reader = reader;
+        this.log = log;
     }
 
-    public void cleanComposeResources() {
-        if(komposeResourcesPath == null) {
-            return;
-        }
-
-        try {
-            FileUtils.deleteDirectory(komposeResourcesPath.toFile());
-        } catch (IOException e) {
-            log.warn("kompose clean up failed: %s", e.getMessage());
+    /**
+     * Returns the kubernetes resources converted from the docker compose file. The conversion is done in process
+     * with the same conventions as the 'kompose' (http://kompose.io) utility.
+     *
+     * @return list of resources. The list will be empty if no compose file is configured.
+     * @throws Fabric8ServiceException if the compose file can not be read or converted
+     */
+    public List<HasMetadata> convertToKubeResources() throws Fabric8ServiceException {
+        if (composeFilePath == null) {
+            return Collections.emptyList();
         }
-    }
 
-    private void waitForConversion() throws Fabric8ServiceException {
+        log.info("converting docker compose file %s to kubernetes resource descriptors", composeFilePath);
         try {
-            process.waitFor();
-        } catch (InterruptedException e) {
-            log.error("kompose process interrupted: %s", e.getMessage());
-            throw new Fabric8ServiceException(e);
+            List<HasMetadata> resources = new ComposeConverter(System.getenv(), log).convert(composeFilePath.toFile(), reader);
+            log.info("conversion completed successfully : %s resource descriptors generated", resources.size());
+            return resources;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("conversion failed : " + e.getMessage());
+            throw new Fabric8ServiceException("Cannot convert docker compose file " + composeFilePath + ": " + e.getMessage(), e);
         }
     }
-
-    public Path getPath() {
-        return komposeResourcesPath;
-    }
 }
@@ -24,6 +24,7 @@ import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.service.kubernetes.DockerBuildService;
 import io.fabric8.maven.core.service.openshift.OpenshiftBuildService;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.core.util.LazyBuilder;
 import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.util.Logger;
@@ -55,6 +56,8 @@ public class Fabric8ServiceHub {
 
     private MavenProject mavenProject;
 
+    private BuildSessionCache buildSessionCache;
+
     /**
      * Configurable with default
      */
@@ -100,7 +103,7 @@ public class Fabric8ServiceHub {
         this.services.putIfAbsent(PortForwardService.class, new LazyBuilder<PortForwardService>() {
             @Override
             protected PortForwardService build() {
-                return new PortForwardService(getClientToolsService(), log, client);
+                return new PortForwardService(getClientToolsService(), log, client, buildSessionCache);
             }
         });
 
@@ -194,6 +197,11 @@ public class Fabric8ServiceHub {
             return this;
         }
 
+        public Builder buildSessionCache(BuildSessionCache buildSessionCache) {
+            hub.buildSessionCache = buildSessionCache;
+            return this;
+        }
+
         public Fabric8ServiceHub build() {
             hub.init();
             return hub;
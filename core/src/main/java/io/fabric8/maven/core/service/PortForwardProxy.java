@@ -0,0 +1,179 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Local listener which relays every accepted connection to a target port on localhost. The target
+ * can be switched at any time (e.g. when a port-forward to a new pod has been started) without closing
+ * the listener, so that clients can keep using the same local port.
+ */
+class PortForwardProxy implements Closeable {
+
+    // How long a new connection waits for a target to become available
+    private static final long TARGET_WAIT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Logger log;
+    private final ServerSocket serverSocket;
+    private final Thread acceptor;
+
+    // Port on localhost to relay to, 0 if there is currently no target
+    private int targetPort;
+
+    PortForwardProxy(Logger log, int localPort) throws IOException {
+        this.log = log;
+        this.serverSocket = new ServerSocket();
+        this.serverSocket.setReuseAddress(true);
+        this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), localPort));
+        this.acceptor = new Thread("port-forward-proxy-" + localPort) {
+            @Override
+            public void run() {
+                acceptLoop();
+            }
+        };
+        this.acceptor.setDaemon(true);
+        this.acceptor.start();
+    }
+
+    int getLocalPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Switch the target for new connections
+     *
+     * @param port port on localhost or 0 if no target is available
+     */
+    synchronized void setTargetPort(int port) {
+        this.targetPort = port;
+        notifyAll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        acceptor.interrupt();
+    }
+
+    // ========================================================================
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Socket client = serverSocket.accept();
+                Thread relay = new Thread("port-forward-relay-" + client.getPort()) {
+                    @Override
+                    public void run() {
+                        relay(client);
+                    }
+                };
+                relay.setDaemon(true);
+                relay.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    log.warn("Error while accepting connection on port %d: %s", getLocalPort(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void relay(Socket client) {
+        try (Socket clientSocket = client) {
+            int port = waitForTarget();
+            if (port == 0) {
+                log.warn("No pod available for port-forward connection on port %d", getLocalPort());
+                return;
+            }
+            try (Socket target = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                Thread upstream = pump(clientSocket, target);
+                copy(target, clientSocket);
+                upstream.join();
+            }
+        } catch (IOException e) {
+            log.debug("Port-forward connection closed: %s", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized int waitForTarget() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TARGET_WAIT_MILLIS;
+        while (targetPort == 0 && !serverSocket.isClosed()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            wait(remaining);
+        }
+        return targetPort;
+    }
+
+    private Thread pump(final Socket from, final Socket to) {
+        Thread thread = new Thread(Thread.currentThread().getName() + "-upstream") {
+            @Override
+            public void run() {
+                try {
+                    copy(from, to);
+                } catch (IOException e) {
+                    // Connection closed from either side
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // Copy until EOF and half-close the other side, so that the opposite direction can finish
+    private static void copy(Socket from, Socket to) throws IOException {
+        InputStream in = from.getInputStream();
+        OutputStream out = to.getOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int n;
+            while ((n = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, n);
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // Closed by the other side
+        } finally {
+            if (!to.isClosed()) {
+                try {
+                    to.shutdownOutput();
+                } catch (IOException e) {
+                    // already gone
+                }
+            }
+        }
+    }
+}
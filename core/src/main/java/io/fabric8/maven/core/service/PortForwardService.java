@@ -18,11 +18,16 @@ package io.fabric8.maven.core.service;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -37,10 +42,13 @@ import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.Watch;
 import io.fabric8.kubernetes.client.Watcher;
 import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.maven.core.util.BuildSessionCache;
+import io.fabric8.maven.core.util.IoUtil;
 import io.fabric8.maven.core.util.KubernetesClientUtil;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
 import io.fabric8.maven.core.util.ProcessUtil;
 import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.utils.Closeables;
 import io.fabric8.utils.Strings;
 
 /**
@@ -51,23 +59,62 @@ import io.fabric8.utils.Strings;
  */
 public class PortForwardService {
 
+    private static final long PORT_READY_TIMEOUT_MILLIS = 30000;
+
     private ClientToolsService clientToolsService;
 
     private Logger log;
 
     private KubernetesClient kubernetes;
 
+    // Running forwards, shared by all callers asking for the same selector and remote port
+    private final SessionPool sessions;
+
     public PortForwardService(ClientToolsService clientToolsService, Logger log, KubernetesClient kubernetes) {
+        this(clientToolsService, log, kubernetes, null);
+    }
+
+    /**
+     * @param buildSessionCache cache for sharing the running forwards with other services of the same build session.
+     *                          If null, forwards are only shared by the callers of this service.
+     */
+    public PortForwardService(ClientToolsService clientToolsService, Logger log, KubernetesClient kubernetes, BuildSessionCache buildSessionCache) {
         this.clientToolsService = Objects.requireNonNull(clientToolsService, "clientToolsService");
         this.log = Objects.requireNonNull(log, "log");
         this.kubernetes = Objects.requireNonNull(kubernetes, "kubernetes");
+        this.sessions = SessionPool.getPool(buildSessionCache);
     }
 
     /**
      * Forwards a port to the newest pod matching the given selector.
      * If another pod is created, it forwards connections to the new pod once it's ready.
+     *
+     * Forwards are pooled per selector and remote port: if there is already an open forward for them,
+     * it is shared and the requested local port is ignored. The local port stays the same when switching
+     * to a new pod, so callers should use {@link PortForward#getLocalPort()} for connecting.
      */
-    public Closeable forwardPortAsync(final Logger externalProcessLogger, final LabelSelector podSelector, final int remotePort, final int localPort) throws Fabric8ServiceException {
+    public PortForward forwardPortAsync(final Logger externalProcessLogger, final LabelSelector podSelector, final int remotePort, final int localPort) throws Fabric8ServiceException {
+        synchronized (sessions) {
+            SessionKey key = new SessionKey(String.valueOf(kubernetes.getMasterUrl()), kubernetes.getNamespace(), podSelector, remotePort);
+            Session session = sessions.get(key);
+            if (session == null) {
+                session = startSession(key, externalProcessLogger, podSelector, remotePort, localPort);
+                sessions.put(key, session);
+            } else {
+                log.info("Reusing port-forward from localhost:%d to port %d", session.localPort, remotePort);
+            }
+            return session.acquire();
+        }
+    }
+
+    private Session startSession(final SessionKey key, final Logger externalProcessLogger, final LabelSelector podSelector,
+                                 final int remotePort, int localPort) throws Fabric8ServiceException {
+        final PortForwardProxy proxy;
+        try {
+            proxy = new PortForwardProxy(log, localPort);
+        } catch (IOException e) {
+            throw new Fabric8ServiceException("Cannot listen on local port " + localPort, e);
+        }
 
         final Lock monitor = new ReentrantLock(true);
         final Condition podChanged = monitor.newCondition();
@@ -94,13 +141,26 @@ public class PortForwardService {
 
                                 if (currentPortForward != null) {
                                     log.info("Closing port-forward from pod %s", KubernetesHelper.getName(currentPod));
+                                    proxy.setTargetPort(0);
                                     currentPortForward.close();
                                     currentPortForward = null;
                                 }
 
                                 if (nextPod != null) {
                                     log.info("Starting port-forward to pod %s", KubernetesHelper.getName(nextPod));
-                                    currentPortForward = forwardPortAsync(externalProcessLogger, KubernetesHelper.getName(nextPod), remotePort, localPort);
+                                    // The local listener is kept, only the process behind it is replaced
+                                    long start = System.currentTimeMillis();
+                                    int processPort = IoUtil.getFreeRandomPort();
+                                    currentPortForward = forwardPortAsync(externalProcessLogger, KubernetesHelper.getName(nextPod), remotePort, processPort);
+                                    if (waitForPort(processPort)) {
+                                        log.info("Port-forward from localhost:%d to pod %s ready after %d ms",
+                                                 proxy.getLocalPort(), KubernetesHelper.getName(nextPod), System.currentTimeMillis() - start);
+                                    } else {
+                                        // The process might still come up, so connections are forwarded to it anyway
+                                        log.warn("Port-forward to pod %s not ready after %d ms",
+                                                 KubernetesHelper.getName(nextPod), System.currentTimeMillis() - start);
+                                    }
+                                    proxy.setTargetPort(processPort);
                                 } else {
                                     log.info("Waiting for a pod to become ready before starting port-forward");
                                 }
@@ -129,11 +189,63 @@ public class PortForwardService {
             }
         };
 
-        // Switching forward to the current pod if present
-        Pod newPod = getNewestPod(podSelector);
-        nextForwardedPod[0] = newPod;
+        final Watch watch;
+        try {
+            // Switching forward to the current pod if present
+            Pod newPod = getNewestPod(podSelector);
+            nextForwardedPod[0] = newPod;
+            watch = watchPods(podSelector, monitor, podChanged, nextForwardedPod);
+        } catch (RuntimeException e) {
+            // Don't keep the local port open when the pods can't be looked up
+            Closeables.closeQuietly(proxy);
+            throw e;
+        }
 
-        final Watch watch = KubernetesClientUtil.withSelector(kubernetes.pods(), podSelector, log).watch(new Watcher<Pod>() {
+        forwarderThread.start();
+
+        final Closeable handle = new Closeable() {
+            @Override
+            public void close() throws IOException {
+                try {
+                    watch.close();
+                } catch (Exception e) {}
+                try {
+                    forwarderThread.interrupt();
+                    forwarderThread.join(15000);
+                } catch (Exception e) {}
+                proxy.close();
+            }
+        };
+        final Thread shutdownHook = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    handle.close();
+                } catch (Exception e) {
+                    // suppress
+                }
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        Closeable stopper = new Closeable() {
+            @Override
+            public void close() throws IOException {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // JVM is shutting down, the hook stops the forward
+                    return;
+                }
+                handle.close();
+            }
+        };
+        return new Session(sessions, key, proxy.getLocalPort(), stopper);
+    }
+
+    // Watch the pods matching the selector and switch the forward to the newest one
+    private Watch watchPods(LabelSelector podSelector, final Lock monitor, final Condition podChanged, final Pod[] nextForwardedPod) {
+        return KubernetesClientUtil.withSelector(kubernetes.pods(), podSelector, log).watch(new Watcher<Pod>() {
 
             @Override
             public void eventReceived(Action action, Pod pod) {
@@ -162,33 +274,19 @@ public class PortForwardService {
                 // don't care
             }
         });
+    }
 
-        forwarderThread.start();
-
-        final Closeable handle = new Closeable() {
-            @Override
-            public void close() throws IOException {
-                try {
-                    watch.close();
-                } catch (Exception e) {}
-                try {
-                    forwarderThread.interrupt();
-                    forwarderThread.join(15000);
-                } catch (Exception e) {}
-            }
-        };
-        Runtime.getRuntime().addShutdownHook(new Thread() {
-            @Override
-            public void run() {
-                try {
-                    handle.close();
-                } catch (Exception e) {
-                    // suppress
-                }
+    // Wait until the port-forward process listens on the given port
+    private boolean waitForPort(int port) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + PORT_READY_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                return true;
+            } catch (IOException e) {
+                Thread.sleep(100);
             }
-        });
-
-        return handle;
+        }
+        return false;
     }
 
     private boolean podEquals(Pod pod1, Pod pod2) {
@@ -249,4 +347,161 @@ public class PortForwardService {
             throw new Fabric8ServiceException("Error while executing the port-forward command", e);
         }
     }
+
+    // ========================================================================
+
+    /**
+     * Handle for a port-forward. Closing it releases the forward, which is stopped
+     * once all users have closed their handles.
+     */
+    public interface PortForward extends Closeable {
+        /**
+         * @return the port on localhost which is forwarded
+         */
+        int getLocalPort();
+    }
+
+    private static final class SessionKey {
+        // Cluster and namespace, forwards are shared between services which might connect to different clusters
+        private final String masterUrl;
+        private final String namespace;
+        private final LabelSelector selector;
+        private final int remotePort;
+
+        private SessionKey(String masterUrl, String namespace, LabelSelector selector, int remotePort) {
+            this.masterUrl = masterUrl;
+            this.namespace = namespace;
+            this.selector = selector;
+            this.remotePort = remotePort;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            SessionKey that = (SessionKey) o;
+            return remotePort == that.remotePort &&
+                   Objects.equals(masterUrl, that.masterUrl) &&
+                   Objects.equals(namespace, that.namespace) &&
+                   Objects.equals(selector, that.selector);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(masterUrl, namespace, selector, remotePort);
+        }
+    }
+
+    /**
+     * Running forwards of a build session. The pool is stored in the {@link BuildSessionCache}, so that
+     * forwards are shared by all services created during the build. Forwards still running when the
+     * session ends are stopped then.
+     */
+    static final class SessionPool implements Closeable {
+
+        private static final String CACHE_KEY = SessionPool.class.getName();
+
+        private final Map<Object, Session> sessions = new HashMap<>();
+
+        static SessionPool getPool(BuildSessionCache cache) {
+            if (cache == null) {
+                return new SessionPool();
+            }
+            synchronized (cache) {
+                SessionPool pool = cache.getIfPresent(CACHE_KEY, null);
+                if (pool == null) {
+                    pool = new SessionPool();
+                    cache.put(CACHE_KEY, null, pool);
+                    cache.closeOnSessionEnd(pool);
+                }
+                return pool;
+            }
+        }
+
+        // All access with the pool locked
+        Session get(Object key) {
+            return sessions.get(key);
+        }
+
+        void put(Object key, Session session) {
+            sessions.put(key, session);
+        }
+
+        private void remove(Object key, Session session) {
+            if (sessions.get(key) == session) {
+                sessions.remove(key);
+            }
+        }
+
+        @Override
+        public void close() {
+            List<Session> running;
+            synchronized (this) {
+                running = new ArrayList<>(sessions.values());
+                sessions.clear();
+            }
+            for (Session session : running) {
+                try {
+                    session.stop();
+                } catch (IOException e) {
+                    // suppress
+                }
+            }
+        }
+    }
+
+    static final class Session {
+        private final SessionPool pool;
+        private final Object key;
+        private final int localPort;
+        private final Closeable stopper;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        // Number of handles not closed yet, guarded by the pool
+        private int users;
+
+        Session(SessionPool pool, Object key, int localPort, Closeable stopper) {
+            this.pool = pool;
+            this.key = key;
+            this.localPort = localPort;
+            this.stopper = stopper;
+        }
+
+        // Called with the pool locked
+        PortForward acquire() {
+            users++;
+            return new PortForward() {
+                private final AtomicBoolean closed = new AtomicBoolean();
+
+                @Override
+                public int getLocalPort() {
+                    return localPort;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (closed.compareAndSet(false, true)) {
+                        release();
+                    }
+                }
+            };
+        }
+
+        private void release() throws IOException {
+            synchronized (pool) {
+                if (--users > 0) {
+                    return;
+                }
+                pool.remove(key, this);
+            }
+            stop();
+        }
+
+        // Stop the forward, which happens either when the last handle is closed or when the pool is closed
+        private void stop() throws IOException {
+            if (stopped.compareAndSet(false, true)) {
+                stopper.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.service;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.Controller;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ReplicationController;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.ReplicaSet;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.zjsonpatch.JsonDiff;
+import io.fabric8.zjsonpatch.JsonPatch;
+
+import static io.fabric8.kubernetes.api.KubernetesHelper.getKind;
+
+/**
+ * A service for updating resources on the cluster with minimal JSON patches.
+ *
+ * The patch is calculated from the difference between the resource as it has been applied
+ * before and its updated version. It is then applied on top of the resource currently
+ * running in the cluster, so that fields set by the server (like status or the resource version)
+ * are left alone. If there is no difference at all, the cluster is not contacted.
+ */
+public class ResourcePatchService {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final KubernetesClient kubernetes;
+    private final String namespace;
+    private final Logger log;
+
+    public ResourcePatchService(KubernetesClient kubernetes, String namespace, Logger log) {
+        this.kubernetes = Objects.requireNonNull(kubernetes, "kubernetes");
+        this.namespace = namespace;
+        this.log = Objects.requireNonNull(log, "log");
+    }
+
+    /**
+     * Update a resource in the cluster
+     *
+     * @param previous the resource as it has been applied before or null if not known
+     * @param updated the new version of the resource
+     * @return true if the cluster has been updated, false if nothing has changed
+     */
+    public boolean patch(HasMetadata previous, HasMetadata updated) {
+        String kind = getKind(updated);
+        String name = KubernetesHelper.getName(updated);
+        JsonNode patch = previous != null ? createPatch(previous, updated) : null;
+        if (patch != null && patch.size() == 0) {
+            log.verbose("%s %s is unchanged", kind, name);
+            return false;
+        }
+
+        Resource<HasMetadata, ?> operation = operationFor(updated);
+        if (patch == null || operation == null) {
+            log.info("Applying %s %s", kind, name);
+            kubernetes.resource(updated).inNamespace(namespace).createOrReplace();
+            return true;
+        }
+
+        HasMetadata current = operation.get();
+        if (current == null) {
+            log.info("Creating %s %s", kind, name);
+            operation.createOrReplace(updated);
+            return true;
+        }
+
+        HasMetadata patched;
+        try {
+            JsonNode patchedTree = JsonPatch.apply(patch, MAPPER.valueToTree(current));
+            patched = MAPPER.treeToValue(patchedTree, current.getClass());
+        } catch (Exception exp) {
+            // The resource in the cluster has diverged from what we applied before
+            log.verbose("Cannot apply patch to %s %s (%s), replacing it", kind, name, exp.getMessage());
+            operation.replace(updated);
+            return true;
+        }
+        log.info("Patching %s %s (%d operations)", kind, name, patch.size());
+        operation.patch(patched);
+        return true;
+    }
+
+    /**
+     * Calculate a JSON patch (RFC 6902) which turns one resource into another
+     *
+     * @param previous resource to start from
+     * @param updated target resource
+     * @return array of patch operations, empty if both resources are equal
+     */
+    public static JsonNode createPatch(HasMetadata previous, HasMetadata updated) {
+        return JsonDiff.asJson(MAPPER.valueToTree(previous), MAPPER.valueToTree(updated));
+    }
+
+    // ========================================================================
+
+    @SuppressWarnings("unchecked")
+    private Resource<HasMetadata, ?> operationFor(HasMetadata item) {
+        String name = KubernetesHelper.getName(item);
+        Resource<? extends HasMetadata, ?> ret = null;
+        if (item instanceof Deployment) {
+            ret = kubernetes.extensions().deployments().inNamespace(namespace).withName(name);
+        } else if (item instanceof ReplicaSet) {
+            ret = kubernetes.extensions().replicaSets().inNamespace(namespace).withName(name);
+        } else if (item instanceof ReplicationController) {
+            ret = kubernetes.replicationControllers().inNamespace(namespace).withName(name);
+        } else if (item instanceof Service) {
+            ret = kubernetes.services().inNamespace(namespace).withName(name);
+        } else if (item instanceof ConfigMap) {
+            ret = kubernetes.configMaps().inNamespace(namespace).withName(name);
+        } else if (item instanceof Secret) {
+            ret = kubernetes.secrets().inNamespace(namespace).withName(name);
+        } else if (item instanceof DeploymentConfig) {
+            OpenShiftClient openShiftClient = new Controller(kubernetes).getOpenShiftClientOrNull();
+            if (openShiftClient != null) {
+                ret = openShiftClient.deploymentConfigs().inNamespace(namespace).withName(name);
+            }
+        }
+        return (Resource<HasMetadata, ?>) ret;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import io.fabric8.utils.Closeables;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Cache for values which are expensive to calculate and which can be shared by all fabric8 goals
+ * running for the same project within a single Maven build.
+ *
+ * The cache is stored in the plugin context, which Maven keeps per plugin and project for the whole
+ * build session. Each value is stored together with a fingerprint of the input it has been calculated
+ * from. When the fingerprint changes, the value is calculated again.
+ *
+ * Resources which are handed out to several users (like class loaders) can be registered with
+ * {@link #closeOnSessionEnd(Closeable)}. They are closed once when the build session ends, not when they
+ * are replaced in the cache, since they might be still in use.
+ */
+public class BuildSessionCache {
+
+    // Key under which the cache is stored in the plugin context
+    private static final String PLUGIN_CONTEXT_KEY = BuildSessionCache.class.getName();
+
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    // Resources to close when the session ends
+    private final List<Closeable> closeables = new ArrayList<>();
+    private boolean closed;
+
+    // Whether the cache is already hooked into the end of the session
+    private boolean listening;
+
+    /**
+     * Get the cache stored in the given plugin context or create and store a new one
+     *
+     * @param pluginContext plugin context as obtained from the Mojo. If null, a fresh cache is returned
+     *                      which is not shared with anybody else.
+     * @return the cache, never null
+     */
+    public static BuildSessionCache getOrCreate(Map<String, Object> pluginContext) {
+        return getOrCreate(pluginContext, null);
+    }
+
+    /**
+     * Get the cache stored in the given plugin context or create and store a new one. All resources
+     * registered with {@link #closeOnSessionEnd(Closeable)} are closed when the given session ends.
+     *
+     * @param pluginContext plugin context as obtained from the Mojo. If null, a fresh cache is returned
+     *                      which is not shared with anybody else.
+     * @param session the current session. If null, registered resources are not closed.
+     * @return the cache, never null
+     */
+    public static BuildSessionCache getOrCreate(Map<String, Object> pluginContext, MavenSession session) {
+        BuildSessionCache cache;
+        if (pluginContext == null) {
+            cache = new BuildSessionCache();
+        } else {
+            synchronized (pluginContext) {
+                cache = (BuildSessionCache) pluginContext.get(PLUGIN_CONTEXT_KEY);
+                if (cache == null) {
+                    cache = new BuildSessionCache();
+                    pluginContext.put(PLUGIN_CONTEXT_KEY, cache);
+                }
+            }
+        }
+        if (session != null && session.getRequest() != null) {
+            cache.closeWhenSessionEnds(session.getRequest());
+        }
+        return cache;
+    }
+
+    /**
+     * Lookup a value and calculate it if not already present or if it has been calculated from
+     * a different input.
+     *
+     * @param key key of the value
+     * @param fingerprint fingerprint of all the input data from which the value is calculated. Must properly implement
+     *                    <code>equals()</code>. Can be null.
+     * @param loader used to calculate the value if needed
+     * @return the cached or freshly calculated value
+     * @throws E if the loader fails. Failures are not cached.
+     */
+    public <T, E extends Exception> T get(String key, Object fingerprint, Loader<T, E> loader) throws E {
+        Entry entry = entries.get(key);
+        if (entry != null && Objects.equals(entry.fingerprint, fingerprint)) {
+            return (T) entry.value;
+        }
+        T value = loader.load();
+        put(key, fingerprint, value);
+        return value;
+    }
+
+    /**
+     * Lookup a value without calculating it
+     *
+     * @param key key of the value
+     * @param fingerprint fingerprint of the input data, the value is only returned if it has been stored with an equal
+     *                    fingerprint
+     * @return the cached value or null if no value with a matching fingerprint is cached.
+     */
+    public <T> T getIfPresent(String key, Object fingerprint) {
+        Entry entry = entries.get(key);
+        return entry != null && Objects.equals(entry.fingerprint, fingerprint) ? (T) entry.value : null;
+    }
+
+    /**
+     * Store a value
+     *
+     * @param key key of the value
+     * @param fingerprint fingerprint of the input data from which the value has been calculated
+     * @param value value to store
+     * @return the value previously stored under this key, regardless of its fingerprint, or null
+     */
+    public Object put(String key, Object fingerprint, Object value) {
+        Entry previous = entries.put(key, new Entry(fingerprint, value));
+        return previous != null ? previous.value : null;
+    }
+
+    /**
+     * Remove a value from the cache
+     *
+     * @param key key of the value to remove
+     */
+    public void invalidate(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Register a resource which is closed when the build session ends. If the session has already
+     * ended, the resource is closed right away.
+     *
+     * @param closeable resource to close
+     */
+    public void closeOnSessionEnd(Closeable closeable) {
+        synchronized (closeables) {
+            if (!closed) {
+                closeables.add(closeable);
+                return;
+            }
+        }
+        Closeables.closeQuietly(closeable);
+    }
+
+    /**
+     * Close all resources registered with {@link #closeOnSessionEnd(Closeable)} and clear the cache. This is
+     * done only once, further calls have no effect.
+     */
+    public void close() {
+        List<Closeable> toClose;
+        synchronized (closeables) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(closeables);
+            closeables.clear();
+        }
+        entries.clear();
+        for (Closeable closeable : toClose) {
+            Closeables.closeQuietly(closeable);
+        }
+    }
+
+    // The request is shared by all projects of a build, so the listener chain is modified under its lock
+    private void closeWhenSessionEnds(MavenExecutionRequest request) {
+        synchronized (request) {
+            if (listening) {
+                return;
+            }
+            request.setExecutionListener(new SessionEndListener(request.getExecutionListener(), new Runnable() {
+                @Override
+                public void run() {
+                    close();
+                }
+            }));
+            listening = true;
+        }
+    }
+
+    /**
+     * Calculates a value for the cache
+     *
+     * @param <T> type of the value
+     * @param <E> exception which can be thrown during calculation
+     */
+    public interface Loader<T, E extends Exception> {
+        T load() throws E;
+    }
+
+    private static final class Entry {
+        private final Object fingerprint;
+        private final Object value;
+
+        private Entry(Object fingerprint, Object value) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+    }
+}
@@ -22,8 +22,8 @@ import java.net.URLClassLoader;
 import java.util.*;
 
 import io.fabric8.maven.docker.util.Logger;
-import javassist.*;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.project.MavenProject;
 
 /**
@@ -32,6 +32,9 @@ import org.apache.maven.project.MavenProject;
  */
 public class ClassUtil {
 
+    // Prefix of the key under which the project class loader is cached
+    private static final String PROJECT_CLASSLOADER_KEY_PREFIX = "projectClassLoader:";
+
     public static Set<String> getResources(String resource) throws IOException {
         return getResources(resource, null);
     }
@@ -106,81 +109,74 @@ public class ClassUtil {
      * @exception IOException if something goes wrong
      */
     public static List<String> findMainClasses(File rootDir) throws IOException {
-        List<String> ret = new ArrayList<>();
+        return findMainClasses(rootDir, null);
+    }
+
+    /**
+     * Find all classes below a certain directory which contain
+     * main() classes and remember the result per class file in an index file. Class files which
+     * have not changed since the last lookup (same modification time and size) are not read again.
+     *
+     * @param rootDir the directory to start from
+     * @param indexFile file where to store the index. If null, no index is used.
+     * @return List of classes with "public void static main(String[] args)" methods. Can be empty, but not null.
+     * @exception IOException if something goes wrong
+     */
+    public static List<String> findMainClasses(File rootDir, File indexFile) throws IOException {
         if (!rootDir.exists()) {
-            return ret;
+            return new ArrayList<>();
         }
         if (!rootDir.isDirectory()) {
             throw new IllegalArgumentException(String.format("Path %s is not a directory",rootDir.getPath()));
         }
-        findClasses(ret, rootDir, rootDir.getAbsolutePath() + "/");
-        return ret;
+        return new MainClassIndex(rootDir, indexFile).findMainClasses();
     }
 
-    // ========================================================================
-
-    private static final FileFilter DIR_FILTER = new FileFilter() {
-        @Override
-        public boolean accept(File pathname) {
-            return pathname.isDirectory() && !pathname.getName().startsWith(".");
+    /**
+     * Get the class loader over the project's compile classpath which is shared by everyone using the same cache.
+     * The class loader is created again when the classpath changes. Since the previous class loader might still be
+     * in use, all class loaders are only closed when the build session ends.
+     *
+     * @param project project whose classpath to use
+     * @param cache cache for sharing the class loader within the build. If null, a new class loader is created.
+     * @param log logger
+     * @return the project class loader
+     */
+    public static URLClassLoader getProjectClassLoader(final MavenProject project, BuildSessionCache cache, final Logger log) {
+        if (cache == null) {
+            return createProjectClassLoader(project, log);
         }
-    };
-
-    private static final FileFilter CLASS_FILE_FILTER = new FileFilter() {
-		@Override
-        public boolean accept(File file) {
-            return (file.isFile() && file.getName().endsWith(".class"));
-		}
-	};
-
-
-    private static void findClasses(List<String> classes, File dir, String prefix) throws IOException {
-        for (File subDir : dir.listFiles(DIR_FILTER)) {
-            findClasses(classes, subDir, prefix);
+        List<String> fingerprint;
+        try {
+            fingerprint = getClasspathFingerprint(project.getCompileClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            return createProjectClassLoader(project, log);
         }
-
-        for (File classFile : dir.listFiles(CLASS_FILE_FILTER)) {
-            try (InputStream is = new FileInputStream(classFile)) {
-                if (hasMainMethod(is)) {
-                    classes.add(convertToClass(classFile.getAbsolutePath(), prefix));
-                }
+        String key = PROJECT_CLASSLOADER_KEY_PREFIX + project.getId();
+        synchronized (cache) {
+            URLClassLoader classLoader = cache.getIfPresent(key, fingerprint);
+            if (classLoader == null) {
+                classLoader = createProjectClassLoader(project, log);
+                // A previous class loader might still be used (e.g. by a watcher or for cached service classes),
+                // so it is only closed when the session ends
+                cache.put(key, fingerprint, classLoader);
+                cache.closeOnSessionEnd(classLoader);
             }
+            return classLoader;
         }
     }
 
-    private static boolean hasMainMethod(InputStream is) throws IOException {
-        try {
-            ClassPool pool = ClassPool.getDefault();
-            CtClass ctClass = pool.makeClass(is);
-            CtClass stringClass = pool.get("java.lang.String[]");
-            CtMethod mainMethod = ctClass.getDeclaredMethod("main", new CtClass[] { stringClass });
-            return mainMethod.getReturnType() == CtClass.voidType &&
-                   Modifier.isStatic(mainMethod.getModifiers()) &&
-                   Modifier.isPublic(mainMethod.getModifiers());
-        } catch (NotFoundException e) {
-            return false;
-        }
-    }
-
-    private static String convertToClass(String name, String prefix) {
-        String ret = name.replaceAll("[/\\\\]", ".");
-        ret = ret.substring(0, name.length() - ".class".length());
-        return ret.substring(prefix.length());
-    }
-
-
     public static URLClassLoader createProjectClassLoader(final MavenProject project, Logger log) {
 
         try {
 
-            List<URL> compileJars = new ArrayList<>();
+            List<File> compileElements = new ArrayList<>();
 
             for (String element : project.getCompileClasspathElements()) {
-                compileJars.add(new File(element).toURI().toURL());
+                compileElements.add(new File(element));
             }
 
-            return new URLClassLoader(compileJars.toArray(new URL[compileJars.size()]),
-                    PluginServiceFactory.class.getClassLoader());
+            return new ProjectClassLoader(compileElements, PluginServiceFactory.class.getClassLoader());
 
         } catch (Exception e) {
             log.warn("Instructed to use project classpath, but cannot. Continuing build if we can: ", e);
@@ -190,4 +186,14 @@ public class ClassUtil {
         // if somehow we incorrectly call this method
         return new URLClassLoader(new URL[]{});
     }
+
+    // Jars are identified with their modification time so that a rebuilt jar within the reactor is picked up
+    private static List<String> getClasspathFingerprint(List<String> elements) {
+        List<String> ret = new ArrayList<>();
+        for (String element : elements) {
+            File file = new File(element);
+            ret.add(file.isFile() ? element + ":" + file.lastModified() + ":" + file.length() : element);
+        }
+        return ret;
+    }
 }
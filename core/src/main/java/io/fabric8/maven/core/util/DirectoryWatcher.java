@@ -0,0 +1,227 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.docker.util.Logger;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches directories with the file system's native change notification and reports changes
+ * in bursts. After the first event the watcher waits until no further event has arrived for
+ * a quiet period, so that e.g. a full compilation results in a single notification with all
+ * changed paths.
+ *
+ * Directories can be registered recursively, in which case directories created later on are
+ * registered, too. Notifications are delivered on a single background thread.
+ */
+public class DirectoryWatcher implements Closeable {
+
+    private final Logger log;
+    private final String name;
+    private final long quietPeriod;
+    private final Listener listener;
+
+    private final WatchService watchService;
+
+    // Registered directories and whether they are watched recursively
+    private final Map<WatchKey, Boolean> recursive = new ConcurrentHashMap<>();
+
+    private Thread thread;
+
+    // Statistics
+    private volatile long bursts;
+    private volatile long events;
+    private volatile long cpuTime;
+
+    /**
+     * Create a watcher
+     *
+     * @param log logger
+     * @param name name used for the background thread and the statistics
+     * @param quietPeriod time in milliseconds without any event after which a burst is considered to be finished
+     * @param listener listener to notify
+     * @throws IOException if no watch service can be created
+     */
+    public DirectoryWatcher(Logger log, String name, long quietPeriod, Listener listener) throws IOException {
+        this.log = log;
+        this.name = name;
+        this.quietPeriod = quietPeriod;
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Register a directory. Non existing directories are ignored.
+     *
+     * @param dir directory to watch
+     * @param recursively whether to watch all sub directories, too
+     * @throws IOException if the directory can not be registered
+     */
+    public void register(File dir, boolean recursively) throws IOException {
+        if (dir != null && dir.isDirectory()) {
+            register(dir.toPath(), recursively);
+        }
+    }
+
+    /**
+     * Start watching in a background thread
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread("fabric8-watch-" + name) {
+            @Override
+            public void run() {
+                try {
+                    watchLoop();
+                } catch (InterruptedException | ClosedWatchServiceException exp) {
+                    // Closed, we are done
+                } finally {
+                    cpuTime = getCurrentThreadCpuTime();
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        watchService.close();
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(quietPeriod + 1000);
+            } catch (InterruptedException exp) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+            log.info("Watcher %s: %d changes in %d bursts, %d ms CPU", name, events, bursts,
+                        TimeUnit.NANOSECONDS.toMillis(cpuTime));
+        }
+    }
+
+    // ========================================================================
+
+    private void register(Path dir, final boolean recursively) throws IOException {
+        if (!recursively) {
+            recursive.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), false);
+            return;
+        }
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path path, BasicFileAttributes attrs) throws IOException {
+                recursive.put(path.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), true);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void watchLoop() throws InterruptedException {
+        while (true) {
+            // Block until something happens
+            WatchKey key = watchService.take();
+            long firstEvent = System.nanoTime();
+            Set<Path> changed = new LinkedHashSet<>();
+            processEvents(key, changed);
+
+            // Collect everything which belongs to the same burst
+            while ((key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS)) != null) {
+                processEvents(key, changed);
+            }
+
+            if (!changed.isEmpty()) {
+                bursts++;
+                events += changed.size();
+                try {
+                    listener.changed(Collections.unmodifiableSet(changed), firstEvent);
+                } catch (Exception exp) {
+                    log.error("Error while processing changes: %s", exp.getMessage());
+                }
+            }
+        }
+    }
+
+    private void processEvents(WatchKey key, Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+        Boolean isRecursive = recursive.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // Events got lost, so report the directory itself
+                changed.add(dir);
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            changed.add(path);
+            if (event.kind() == ENTRY_CREATE && Boolean.TRUE.equals(isRecursive) && Files.isDirectory(path)) {
+                try {
+                    register(path, true);
+                } catch (IOException exp) {
+                    log.warn("Cannot watch %s: %s", path, exp.getMessage());
+                }
+            }
+        }
+        if (!key.reset()) {
+            recursive.remove(key);
+        }
+    }
+
+    private static long getCurrentThreadCpuTime() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        return threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : 0L;
+    }
+
+    /**
+     * Listener called once per burst of changes
+     */
+    public interface Listener {
+        /**
+         * @param changed all paths which have been created, modified or deleted during the burst
+         * @param firstEvent time of the first event as given by {@link System#nanoTime()}
+         * @throws Exception if processing fails, which is logged but doesn't stop the watcher
+         */
+        void changed(Set<Path> changed, long firstEvent) throws Exception;
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Naming conventions for resource fragments like <code>src/main/fabric8/app-svc.yml</code>. The file name
+ * consists of an optional name, an optional type which determines the kind of the resource and the
+ * extension (<code>yaml</code>, <code>yml</code> or <code>json</code>). A known type can be used also as name alone
+ * (e.g. <code>svc.yml</code>).
+ *
+ * All tables are built once when this class is loaded and are immutable afterwards. They are indexed with
+ * a perfect hash, so classifying a file name is a single scan over the name which doesn't allocate anything
+ * but the result.
+ */
+public final class FragmentNaming {
+
+    // Mapping from type to kind. If a kind has multiple types, the last one is used as file name suffix
+    private static final String[] MAPPINGS =
+        {
+            // lets put the abbreviation we want to use first
+            "cm", "ConfigMap",
+            "configmap", "ConfigMap",
+            "cronjob", "CronJob",
+            "cr", "ClusterRole",
+            "crole", "ClusterRole",
+            "clusterrole", "ClusterRole",
+            "crd", "CustomResourceDefinition",
+            "crb", "ClusterRoleBinding",
+            "clusterrb", "ClusterRoleBinding",
+            "cj", "CronJob",
+            "deployment", "Deployment",
+            "is", "ImageStream",
+            "istag", "ImageStreamTag",
+            "job", "Job",
+            "lr", "LimitRange",
+            "limitrange", "LimitRange",
+            "ns", "Namespace",
+            "namespace", "Namespace",
+            "oauthclient", "OAuthClient",
+            "pb", "PolicyBinding",
+            "pv", "PersistentVolume",
+            "pvc", "PersistentVolumeClaim",
+            "project", "Project",
+            "pr", "ProjectRequest",
+            "rq", "ResourceQuota",
+            "resourcequota", "ResourceQuota",
+            "role", "Role",
+            "rb", "RoleBinding",
+            "rolebinding", "RoleBinding",
+            "rbr", "RoleBindingRestriction",
+            "rolebindingrestriction", "RoleBindingRestriction",
+            "secret", "Secret",
+            "service", "Service",
+            "svc", "Service",
+            "sa", "ServiceAccount",
+            "rc", "ReplicationController",
+            "rs", "ReplicaSet",
+            "daemonset", "DaemonSet",
+            "ds", "DaemonSet",
+            "statefulset", "StatefulSet",
+
+            // OpenShift Resources:
+            "bc", "BuildConfig",
+            "dc", "DeploymentConfig",
+            "deploymentconfig", "DeploymentConfig",
+            "route", "Route",
+            "template", "Template",
+        };
+
+    private static final String[] EXTENSIONS = { "yaml", "yml", "json" };
+
+    // File names which look like fragments but hold profile definitions
+    private static final String[] PROFILE_FILES = { "profile.yml", "profile.yaml", "profiles.yml", "profiles.yaml" };
+
+    private static final PerfectHash<String> TYPE_TO_KIND;
+    private static final PerfectHash<String> KIND_TO_TYPE;
+    private static final PerfectHash<ApiGroup> KIND_TO_API_GROUP;
+    private static final Set<String> TYPES;
+
+    static {
+        Map<String, String> typeToKind = new LinkedHashMap<>();
+        Map<String, String> kindToType = new LinkedHashMap<>();
+        for (int i = 0; i < MAPPINGS.length; i += 2) {
+            typeToKind.put(MAPPINGS[i], MAPPINGS[i + 1]);
+            kindToType.put(MAPPINGS[i + 1], MAPPINGS[i]);
+        }
+        TYPE_TO_KIND = PerfectHash.build(typeToKind, true);
+        KIND_TO_TYPE = PerfectHash.build(kindToType, false);
+        TYPES = Collections.unmodifiableSet(new TreeSet<>(typeToKind.keySet()));
+
+        Map<String, ApiGroup> apiGroups = new LinkedHashMap<>();
+        apiGroups.put("Deployment", ApiGroup.EXTENSIONS);
+        apiGroups.put("Ingress", ApiGroup.EXTENSIONS);
+        apiGroups.put("StatefulSet", ApiGroup.APPS);
+        apiGroups.put("Job", ApiGroup.JOB);
+        KIND_TO_API_GROUP = PerfectHash.build(apiGroups, false);
+    }
+
+    private FragmentNaming() { }
+
+    /**
+     * Classify a fragment file name. The extension is matched case insensitive.
+     *
+     * @param fileName file name without directory
+     * @return the classified fragment or null if the file name doesn't follow the naming conventions
+     */
+    public static Fragment classify(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        String ext = matchExtension(fileName, dot + 1, true);
+        if (ext == null) {
+            return null;
+        }
+        // The type is the part after the last dash, if not empty
+        int dash = fileName.lastIndexOf('-', dot - 1);
+        if (dash >= 0 && dash + 1 < dot) {
+            String type = fileName.substring(dash + 1, dot);
+            return new Fragment(fileName.substring(0, dash), type, ext, TYPE_TO_KIND.get(type, 0, type.length()));
+        }
+        // No type, but the name might be a type on its own
+        String kind = TYPE_TO_KIND.get(fileName, 0, dot);
+        return kind != null ?
+            new Fragment(null, null, ext, kind) :
+            new Fragment(fileName.substring(0, dot), null, ext, null);
+    }
+
+    /**
+     * Check whether a file name should be picked up as fragment when scanning a directory. In contrast to
+     * {@link #classify(String)} the extension must be lower case. Profile definitions are excluded.
+     *
+     * @param fileName file name without directory
+     * @return true if this is a fragment
+     */
+    public static boolean isFragmentFile(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || matchExtension(fileName, dot + 1, false) == null) {
+            return false;
+        }
+        for (String profileFile : PROFILE_FILES) {
+            if (profileFile.equals(fileName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lookup the kind for a type, case insensitive
+     *
+     * @param type type like "svc"
+     * @return the kind like "Service" or null if the type is not known
+     */
+    public static String getKindForType(String type) {
+        return TYPE_TO_KIND.get(type, 0, type.length());
+    }
+
+    /**
+     * Lookup the type used as file name suffix for a kind
+     *
+     * @param kind kind like "Service"
+     * @return the type like "svc" or null if the kind has no type
+     */
+    public static String getTypeForKind(String kind) {
+        return kind != null ? KIND_TO_TYPE.get(kind, 0, kind.length()) : null;
+    }
+
+    /**
+     * Get the API version to use for a kind
+     *
+     * @param kind kind of the resource, can be null
+     * @param versions versions to pick from
+     * @return the api version
+     */
+    public static String getApiVersion(String kind, ResourceVersioning versions) {
+        ApiGroup group = kind != null ? KIND_TO_API_GROUP.get(kind, 0, kind.length()) : null;
+        if (group == null) {
+            return versions.getCoreVersion();
+        }
+        switch (group) {
+            case EXTENSIONS:
+                return versions.getExtensionsVersion();
+            case APPS:
+                return versions.getAppsVersion();
+            default:
+                return versions.getJobVersion();
+        }
+    }
+
+    /**
+     * @return all known types, sorted
+     */
+    public static Set<String> getTypes() {
+        return TYPES;
+    }
+
+    // Return the canonical (lower case) extension if the file name ends with a known extension at the given position
+    private static String matchExtension(String fileName, int start, boolean ignoreCase) {
+        int len = fileName.length() - start;
+        for (String ext : EXTENSIONS) {
+            if (ext.length() == len && fileName.regionMatches(ignoreCase, start, ext, 0, len)) {
+                return ext;
+            }
+        }
+        return null;
+    }
+
+    private enum ApiGroup {
+        EXTENSIONS, APPS, JOB
+    }
+
+    /**
+     * Result of classifying a fragment file name
+     */
+    public static final class Fragment {
+        private final String name;
+        private final String type;
+        private final String extension;
+        private final String kind;
+
+        private Fragment(String name, String type, String extension, String kind) {
+            this.name = name;
+            this.type = type;
+            this.extension = extension;
+            this.kind = kind;
+        }
+
+        /**
+         * @return name part of the file name or null if the file name consists only of a type
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return type given after the name or null if no type is given
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return the extension in lower case
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * @return the kind derived from the type or null if no type is given or if the type is unknown
+         */
+        public String getKind() {
+            return kind;
+        }
+    }
+
+    /**
+     * Immutable map from strings to values using a perfect hash: keys are placed into a power-of-two sized
+     * table by a multiplicative hash whose multiplier is chosen so that no two keys collide. A lookup therefore
+     * costs one hash calculation over a region of a string and one comparison.
+     */
+    static final class PerfectHash<V> {
+
+        // Maximum number of multipliers to try for a table size before doubling the table
+        private static final int MAX_TRIES = 10000;
+
+        private final String[] keys;
+        private final Object[] values;
+        private final int multiplier;
+        private final int shift;
+        private final boolean ignoreCase;
+
+        private PerfectHash(String[] keys, Object[] values, int multiplier, int shift, boolean ignoreCase) {
+            this.keys = keys;
+            this.values = values;
+            this.multiplier = multiplier;
+            this.shift = shift;
+            this.ignoreCase = ignoreCase;
+        }
+
+        static <V> PerfectHash<V> build(Map<String, V> entries, boolean ignoreCase) {
+            int bits = 1;
+            while ((1 << bits) < entries.size()) {
+                bits++;
+            }
+            int[] hashes = new int[entries.size()];
+            int i = 0;
+            for (String key : entries.keySet()) {
+                hashes[i++] = hash(key, 0, key.length(), ignoreCase);
+            }
+            for (; bits < 31; bits++) {
+                int multiplier = 0x9E3779B9;
+                for (int t = 0; t < MAX_TRIES; t++, multiplier += 2) {
+                    int[] slots = placeKeys(hashes, multiplier, bits);
+                    if (slots != null) {
+                        String[] keys = new String[1 << bits];
+                        Object[] values = new Object[1 << bits];
+                        i = 0;
+                        for (Map.Entry<String, V> entry : entries.entrySet()) {
+                            keys[slots[i]] = ignoreCase ? entry.getKey().toLowerCase() : entry.getKey();
+                            values[slots[i]] = entry.getValue();
+                            i++;
+                        }
+                        return new PerfectHash<>(keys, values, multiplier, 32 - bits, ignoreCase);
+                    }
+                }
+            }
+            throw new IllegalStateException("Cannot create perfect hash for " + entries.keySet());
+        }
+
+        // Calculate the slot for each hash, or null if two of them collide
+        private static int[] placeKeys(int[] hashes, int multiplier, int bits) {
+            boolean[] used = new boolean[1 << bits];
+            int[] slots = new int[hashes.length];
+            for (int i = 0; i < hashes.length; i++) {
+                int slot = (hashes[i] * multiplier) >>> (32 - bits);
+                if (used[slot]) {
+                    return null;
+                }
+                used[slot] = true;
+                slots[i] = slot;
+            }
+            return slots;
+        }
+
+        /**
+         * Lookup the value for a region of a string
+         *
+         * @param text string containing the key
+         * @param start start of the key within the string
+         * @param end end of the key (exclusive)
+         * @return the value or null if there is no entry for the key
+         */
+        V get(String text, int start, int end) {
+            int slot = (hash(text, start, end, ignoreCase) * multiplier) >>> shift;
+            String key = keys[slot];
+            int len = end - start;
+            if (key != null && key.length() == len && text.regionMatches(ignoreCase, start, key, 0, len)) {
+                return (V) values[slot];
+            }
+            return null;
+        }
+
+        private static int hash(String text, int start, int end, boolean ignoreCase) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                h = 31 * h + (ignoreCase ? Character.toLowerCase(c) : c);
+            }
+            return h;
+        }
+    }
+}
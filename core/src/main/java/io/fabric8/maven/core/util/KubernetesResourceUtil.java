@@ -19,6 +19,7 @@ package io.fabric8.maven.core.util;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.net.URL;
@@ -40,11 +41,8 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.extensions.Templates;
 import io.fabric8.kubernetes.api.model.ConfigMap;
 import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
 import io.fabric8.kubernetes.api.model.Container;
@@ -56,6 +54,7 @@ import io.fabric8.kubernetes.api.model.EnvVarBuilder;
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.Job;
 import io.fabric8.kubernetes.api.model.JobSpec;
+import io.fabric8.kubernetes.api.model.KubernetesList;
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.kubernetes.api.model.KubernetesResource;
 import io.fabric8.kubernetes.api.model.LabelSelector;
@@ -86,6 +85,7 @@ import io.fabric8.openshift.api.model.Build;
 import io.fabric8.openshift.api.model.BuildStatus;
 import io.fabric8.openshift.api.model.DeploymentConfig;
 import io.fabric8.openshift.api.model.DeploymentConfigSpec;
+import io.fabric8.openshift.api.model.Parameter;
 import io.fabric8.openshift.api.model.Template;
 import io.fabric8.utils.Files;
 import io.fabric8.utils.Strings;
@@ -120,6 +120,9 @@ public class KubernetesResourceUtil {
 
     private static final transient org.slf4j.Logger LOG = LoggerFactory.getLogger(KubernetesResourceUtil.class);
 
+    // Number of passes done by Templates.processTemplatesLocally(), needed for values referring to other parameters
+    private static final int TEMPLATE_PROCESSING_PASSES = 5;
+
     public static final String API_VERSION = "v1";
     public static final String API_EXTENSIONS_VERSION = "extensions/v1beta1";
     public static final String API_APPS_VERSION = "apps/v1beta1";
@@ -148,16 +151,49 @@ public class KubernetesResourceUtil {
     public static KubernetesListBuilder readResourceFragmentsFrom(ResourceVersioning apiVersions,
                                                                   String defaultName,
                                                                   File[] resourceFiles) throws IOException {
+        return readResourceFragmentsFrom(apiVersions, defaultName, resourceFiles, null);
+    }
+
+    /**
+     * Same as {@link #readResourceFragmentsFrom(ResourceVersioning, String, File[])} but with the content of
+     * the fragments obtained from a {@link FragmentReader}, which e.g. can filter the content on the fly.
+     * The file names are still used for determining kind and name of the resources.
+     *
+     * @param apiVersions the api versions to use
+     * @param defaultName the default name to use when none is given
+     * @param resourceFiles files to add.
+     * @param fragmentReader reader for the content of the files. If null, the files are read directly.
+     * @return the list builder
+     * @throws IOException
+     */
+    public static KubernetesListBuilder readResourceFragmentsFrom(ResourceVersioning apiVersions,
+                                                                  String defaultName,
+                                                                  File[] resourceFiles,
+                                                                  FragmentReader fragmentReader) throws IOException {
         KubernetesListBuilder builder = new KubernetesListBuilder();
         if (resourceFiles != null) {
             for (File file : resourceFiles) {
-                HasMetadata resource = getResource(apiVersions, file, defaultName);
+                HasMetadata resource = getResource(apiVersions, file, defaultName, fragmentReader);
                 builder.addToItems(resource);
             }
         }
         return builder;
     }
 
+    /**
+     * Provides the content of a resource fragment
+     */
+    public interface FragmentReader {
+        /**
+         * Open the content of a fragment
+         *
+         * @param fragment fragment file
+         * @return reader for the content, closed by the caller
+         * @throws IOException if the fragment can not be read
+         */
+        Reader open(File fragment) throws IOException;
+    }
+
     /**
      * Read a Kubernetes resource fragment and add meta information extracted from the filename
      * to the resource descriptor. I.e. the following elements are added if not provided in the fragment:
@@ -170,12 +206,17 @@ public class KubernetesResourceUtil {
      *
      *
      * @param apiVersions the API versions to add if not given.
-     * @param file file to read, whose name must match {@link #FILENAME_PATTERN}.  @return map holding the fragment
+     * @param file file to read, whose name must match the naming conventions of {@link FragmentNaming}.  @return map holding the fragment
      * @param appName resource name specifying resources belonging to this application
      */
     public static HasMetadata getResource(ResourceVersioning apiVersions,
                                           File file, String appName) throws IOException {
-        Map<String,Object> fragment = readAndEnrichFragment(apiVersions, file, appName);
+        return getResource(apiVersions, file, appName, null);
+    }
+
+    private static HasMetadata getResource(ResourceVersioning apiVersions,
+                                           File file, String appName, FragmentReader fragmentReader) throws IOException {
+        Map<String,Object> fragment = readAndEnrichFragment(apiVersions, file, appName, fragmentReader);
         ObjectMapper mapper = new ObjectMapper();
         try {
             return mapper.convertValue(fragment, HasMetadata.class);
@@ -212,12 +253,10 @@ public class KubernetesResourceUtil {
     }
 
     public static File[] listResourceFragments(File resourceDir) {
-        final Pattern filenamePattern = Pattern.compile(FILENAME_PATTERN);
-        final Pattern exludePattern = Pattern.compile(PROFILES_PATTERN);
         return resourceDir.listFiles(new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
-                return filenamePattern.matcher(name).matches() && !exludePattern.matcher(name).matches();
+                return FragmentNaming.isFragmentFile(name);
             }
         });
     }
@@ -225,125 +264,40 @@ public class KubernetesResourceUtil {
 
     // ========================================================================================================
 
-    private final static Map<String,String> FILENAME_TO_KIND_MAPPER = new HashMap<>();
-    private final static Map<String,String> KIND_TO_FILENAME_MAPPER = new HashMap<>();
-    private static String mappings[] =
-        {
-            // lets put the abbreviation we want to use first
-            "cm", "ConfigMap",
-            "configmap", "ConfigMap",
-            "cronjob", "CronJob",
-            "cr", "ClusterRole",
-            "crole", "ClusterRole",
-            "clusterrole", "ClusterRole",
-            "crd", "CustomResourceDefinition",
-            "crb", "ClusterRoleBinding",
-            "clusterrb", "ClusterRoleBinding",
-            "cj", "CronJob",
-            "deployment", "Deployment",
-            "is", "ImageStream",
-            "istag", "ImageStreamTag",
-            "job", "Job",
-            "lr", "LimitRange",
-            "limitrange", "LimitRange",
-            "ns", "Namespace",
-            "namespace", "Namespace",
-            "oauthclient", "OAuthClient",
-            "pb", "PolicyBinding",
-            "pv", "PersistentVolume",
-            "pvc", "PersistentVolumeClaim",
-            "project", "Project",
-            "pr", "ProjectRequest",
-            "rq", "ResourceQuota",
-            "resourcequota", "ResourceQuota",
-            "role", "Role",
-            "rb", "RoleBinding",
-            "rolebinding", "RoleBinding",
-            "rbr", "RoleBindingRestriction",
-            "rolebindingrestriction", "RoleBindingRestriction",
-            "secret", "Secret",
-            "service", "Service",
-            "svc", "Service",
-            "sa", "ServiceAccount",
-            "rc", "ReplicationController",
-            "rs", "ReplicaSet",
-            "daemonset", "DaemonSet",
-            "ds", "DaemonSet",
-            "statefulset", "StatefulSet",
-
-            // OpenShift Resources:
-            "bc", "BuildConfig",
-            "dc", "DeploymentConfig",
-            "deploymentconfig", "DeploymentConfig",
-            "route", "Route",
-            "template", "Template",
-        };
-
-    static {
-        for (int i = 0; i < mappings.length; i+=2) {
-            FILENAME_TO_KIND_MAPPER.put(mappings[i], mappings[i+1]);
-            KIND_TO_FILENAME_MAPPER.put(mappings[i+1], mappings[i]);
-        }
-    }
-
-    private static final String FILENAME_PATTERN = "^(?<name>.*?)(-(?<type>[^-]+))?\\.(?<ext>yaml|yml|json)$";
-    private static final String PROFILES_PATTERN = "^profiles?\\.ya?ml$";
-
     // Read fragment and add default values
     private static Map<String, Object> readAndEnrichFragment(ResourceVersioning apiVersions,
-                                                             File file, String appName) throws IOException {
-        Pattern pattern = Pattern.compile(FILENAME_PATTERN, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(file.getName());
-        if (!matcher.matches()) {
+                                                             File file, String appName,
+                                                             FragmentReader fragmentReader) throws IOException {
+        FragmentNaming.Fragment naming = FragmentNaming.classify(file.getName());
+        if (naming == null) {
             throw new IllegalArgumentException(
                 String.format("Resource file name '%s' does not match pattern <name>-<type>.(yaml|yml|json)", file.getName()));
         }
-        String name = matcher.group("name");
-        String type = matcher.group("type");
-        String ext = matcher.group("ext").toLowerCase();
-        String kind;
 
-        Map<String,Object> fragment = readFragment(file, ext);
+        Map<String,Object> fragment = readFragment(file, fragmentReader, naming.getExtension());
 
-        if (type != null) {
-            kind = getAndValidateKindFromType(file, type);
-        } else {
-            // Try name as type
-            kind = FILENAME_TO_KIND_MAPPER.get(name.toLowerCase());
-            if (kind != null) {
-                // Name is in fact the type, so lets erase the name.
-                name = null;
-            }
+        if (naming.getType() != null) {
+            validateKindFromType(file, naming);
         }
+        String kind = naming.getKind();
 
         addKind(fragment, kind, file.getName());
-
-        String apiVersion = apiVersions.getCoreVersion();
-        if (Objects.equals(kind, "Deployment") || Objects.equals(kind, "Ingress")) {
-            apiVersion = apiVersions.getExtensionsVersion();
-        } else if (Objects.equals(kind, "StatefulSet")) {
-            apiVersion = apiVersions.getAppsVersion();
-        } else if (Objects.equals(kind, "Job")) {
-            apiVersion = apiVersions.getJobVersion();
-        }
-        addIfNotExistent(fragment, "apiVersion", apiVersion);
+        addIfNotExistent(fragment, "apiVersion", FragmentNaming.getApiVersion(kind, apiVersions));
 
         Map<String, Object> metaMap = getMetadata(fragment);
         // No name means: generated app name should be taken as resource name
+        String name = naming.getName();
         addIfNotExistent(metaMap, "name", StringUtils.isNotBlank(name) ? name : appName);
 
         return fragment;
     }
 
-    private static String getAndValidateKindFromType(File file, String type) {
-        String kind;
-        kind = FILENAME_TO_KIND_MAPPER.get(type.toLowerCase());
-        if (kind == null) {
+    private static void validateKindFromType(File file, FragmentNaming.Fragment naming) {
+        if (naming.getKind() == null) {
             throw new IllegalArgumentException(
                 String.format("Unknown type '%s' for file %s. Must be one of : %s",
-                              type, file.getName(), StringUtils.join(FILENAME_TO_KIND_MAPPER.keySet().iterator(), ", ")));
+                              naming.getType(), file.getName(), StringUtils.join(FragmentNaming.getTypes().iterator(), ", ")));
         }
-        return kind;
     }
 
     private static void addKind(Map<String, Object> fragment, String kind, String fileName) {
@@ -377,11 +331,18 @@ public class KubernetesResourceUtil {
         }
     }
 
-    private static Map<String,Object> readFragment(File file, String ext) throws IOException {
+    private static Map<String,Object> readFragment(File file, FragmentReader fragmentReader, String ext) throws IOException {
         ObjectMapper mapper = new ObjectMapper("json".equals(ext) ? new JsonFactory() : new YAMLFactory());
         TypeReference<HashMap<String,Object>> typeRef = new TypeReference<HashMap<String,Object>>() {};
         try {
-            Map<String, Object> ret = mapper.readValue(file, typeRef);
+            Map<String, Object> ret;
+            if (fragmentReader != null) {
+                try (Reader reader = fragmentReader.open(file)) {
+                    ret = mapper.readValue(reader, typeRef);
+                }
+            } else {
+                ret = mapper.readValue(file, typeRef);
+            }
             return ret != null ? ret : new HashMap<String, Object>();
         } catch (JsonProcessingException e) {
             throw new JsonMappingException(String.format("[%s] %s", file, e.getMessage()), e.getLocation(), e);
@@ -389,7 +350,7 @@ public class KubernetesResourceUtil {
     }
 
     public static String getNameWithSuffix(String name, String kind) {
-        String suffix =  KIND_TO_FILENAME_MAPPER.get(kind);
+        String suffix = FragmentNaming.getTypeForKind(kind);
         return suffix != null ? name +  "-" + suffix : name;
     }
 
@@ -837,7 +798,7 @@ public class KubernetesResourceUtil {
         if (dto instanceof Template) {
             Template template = (Template) dto;
             boolean failOnMissingParameterValue = false;
-            dto = Templates.processTemplatesLocally(template, failOnMissingParameterValue);
+            dto = processTemplateLocally(template, failOnMissingParameterValue);
         }
 
         Set<KubernetesResource<?>> resources = new LinkedHashSet<>();
@@ -851,6 +812,56 @@ public class KubernetesResourceUtil {
         return entities;
     }
 
+    /**
+     * Replace the parameter expressions <code>${NAME}</code> within the objects of a template with the
+     * parameter values. The result is the same as for <code>Templates.processTemplatesLocally()</code>,
+     * but all parameters are replaced in a single pass over the serialized objects. Further passes are only
+     * needed when parameter values contain expressions themselves.
+     *
+     * @param template template to process
+     * @param failOnMissingParameterValue whether to throw an exception for a parameter without value. Otherwise
+     *                                    an empty string is used as value
+     * @return list of the processed objects or null if the template has no objects
+     * @throws IOException if the processed objects can not be parsed
+     */
+    public static KubernetesList processTemplateLocally(Template template, boolean failOnMissingParameterValue) throws IOException {
+        List<HasMetadata> objects = template.getObjects();
+        if (objects == null || objects.isEmpty()) {
+            return null;
+        }
+        List<Parameter> parameters = template.getParameters();
+        if (parameters == null || parameters.isEmpty()) {
+            KubernetesList answer = new KubernetesList();
+            answer.setItems(objects);
+            return answer;
+        }
+
+        MultiStringReplacer.Builder builder = MultiStringReplacer.builder();
+        for (Parameter parameter : parameters) {
+            String value = parameter.getValue();
+            if (isNullOrBlank(value)) {
+                if (failOnMissingParameterValue) {
+                    throw new IllegalArgumentException("No value available for parameter name: " + parameter.getName());
+                }
+                value = "";
+            }
+            builder.add("${" + parameter.getName() + "}", value);
+        }
+        MultiStringReplacer replacer = builder.build();
+
+        String json = "{\"kind\": \"List\", \"apiVersion\": \"" + API_VERSION + "\",\n" +
+                      "  \"items\": " + KubernetesHelper.toJson(objects) + " }";
+        // Values referring to other parameters are resolved in further passes, with the same limit as Templates
+        for (int i = 0; i < TEMPLATE_PROCESSING_PASSES; i++) {
+            String replaced = replacer.replace(json);
+            if (replaced == json) {
+                break;
+            }
+            json = replaced;
+        }
+        return new ObjectMapper().readValue(json, KubernetesList.class);
+    }
+
     public static LabelSelector getPodLabelSelector(Set<HasMetadata> entities) {
         LabelSelector chosenSelector = null;
         for (HasMetadata entity : entities) {
@@ -913,6 +924,38 @@ public class KubernetesResourceUtil {
         return selector;
     }
 
+    /**
+     * Get the pod template of a controller
+     *
+     * @param entity entity to examine
+     * @return the pod template or null if the entity is not a controller or has no template
+     */
+    public static PodTemplateSpec getPodTemplate(HasMetadata entity) {
+        if (entity instanceof Deployment) {
+            DeploymentSpec spec = ((Deployment) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof ReplicaSet) {
+            ReplicaSetSpec spec = ((ReplicaSet) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof DeploymentConfig) {
+            DeploymentConfigSpec spec = ((DeploymentConfig) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof ReplicationController) {
+            ReplicationControllerSpec spec = ((ReplicationController) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof DaemonSet) {
+            DaemonSetSpec spec = ((DaemonSet) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof StatefulSet) {
+            StatefulSetSpec spec = ((StatefulSet) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        } else if (entity instanceof Job) {
+            JobSpec spec = ((Job) entity).getSpec();
+            return spec != null ? spec.getTemplate() : null;
+        }
+        return null;
+    }
+
     private static LabelSelector toLabelSelector(Map<String, String> matchLabels) {
         if (matchLabels != null && !matchLabels.isEmpty()) {
             return new LabelSelectorBuilder().withMatchLabels(matchLabels).build();
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Index of classes with a <code>public static void main(String[])</code> method below a
+ * classes directory. Class files are examined by reading only their constant pool and method
+ * table. If an index file is given, the result per class file is stored together with
+ * the file's modification time and length so that unchanged class files are never read again.
+ */
+class MainClassIndex {
+
+    private static final String INDEX_HEADER = "# fabric8 main class index v1 ";
+
+    // Below this number of class files to examine we don't bother with parallel scanning
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final String MAIN_METHOD_NAME = "main";
+    private static final String MAIN_METHOD_DESCRIPTOR = "([Ljava/lang/String;)V";
+
+    private final File rootDir;
+    private final File indexFile;
+
+    MainClassIndex(File rootDir, File indexFile) {
+        this.rootDir = rootDir;
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Lookup all main classes, using and updating the index file if configured
+     *
+     * @return list of main classes found, never null
+     * @throws IOException if a class file could not be read
+     */
+    List<String> findMainClasses() throws IOException {
+        String prefix = rootDir.getAbsolutePath() + File.separator;
+        List<File> classFiles = new ArrayList<>();
+        collectClassFiles(classFiles, rootDir);
+
+        Map<String, Entry> cached = readIndex(prefix);
+        Map<String, Entry> current = new LinkedHashMap<>();
+        List<File> toScan = new ArrayList<>();
+        for (File classFile : classFiles) {
+            String path = classFile.getAbsolutePath().substring(prefix.length());
+            Entry entry = cached.get(path);
+            if (entry != null && entry.matches(classFile)) {
+                current.put(path, entry);
+            } else {
+                current.put(path, null);
+                toScan.add(classFile);
+            }
+        }
+
+        for (Map.Entry<File, Boolean> scanned : scan(toScan).entrySet()) {
+            File classFile = scanned.getKey();
+            current.put(classFile.getAbsolutePath().substring(prefix.length()),
+                        new Entry(classFile.lastModified(), classFile.length(), scanned.getValue()));
+        }
+
+        if (!toScan.isEmpty() || cached.size() != current.size()) {
+            writeIndex(prefix, current);
+        }
+
+        List<String> ret = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : current.entrySet()) {
+            if (entry.getValue().hasMain) {
+                ret.add(convertToClass(entry.getKey()));
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * Check whether the given class file stream declares a <code>public static void main(String[])</code> method.
+     * Only the constant pool and the method table are interpreted, all other sections are skipped.
+     *
+     * @param is stream pointing to the start of a class file
+     * @return true if a main method is declared
+     * @throws IOException if the stream can not be read or is not a class file
+     */
+    static boolean hasMainMethod(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != 0xCAFEBABE) {
+            throw new IOException("Not a class file (invalid magic number)");
+        }
+        // minor + major version
+        skipFully(in, 4);
+
+        String[] utf8 = readUtf8Constants(in);
+
+        // access flags, this class, super class
+        skipFully(in, 6);
+        int interfacesCount = in.readUnsignedShort();
+        skipFully(in, 2 * interfacesCount);
+
+        int fieldsCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldsCount; i++) {
+            // access flags, name index, descriptor index
+            skipFully(in, 6);
+            skipAttributes(in);
+        }
+
+        int methodsCount = in.readUnsignedShort();
+        for (int i = 0; i < methodsCount; i++) {
+            int accessFlags = in.readUnsignedShort();
+            int nameIdx = in.readUnsignedShort();
+            int descriptorIdx = in.readUnsignedShort();
+            if ((accessFlags & (ACC_PUBLIC | ACC_STATIC)) == (ACC_PUBLIC | ACC_STATIC) &&
+                MAIN_METHOD_NAME.equals(utf8[nameIdx]) &&
+                MAIN_METHOD_DESCRIPTOR.equals(utf8[descriptorIdx])) {
+                return true;
+            }
+            skipAttributes(in);
+        }
+        return false;
+    }
+
+    // ========================================================================
+
+    // Read the constant pool and keep only the UTF8 entries, indexed by their constant pool index
+    private static String[] readUtf8Constants(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:  // Utf8
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:  // Class
+                case 8:  // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    skipFully(in, 2);
+                    break;
+                case 15: // MethodHandle
+                    skipFully(in, 3);
+                    break;
+                case 3:  // Integer
+                case 4:  // Float
+                case 9:  // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    skipFully(in, 4);
+                    break;
+                case 5:  // Long
+                case 6:  // Double
+                    skipFully(in, 8);
+                    // 8 byte constants take up two slots in the pool
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Invalid constant pool tag " + tag + " at index " + i);
+            }
+        }
+        return utf8;
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributesCount = in.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            // name index
+            skipFully(in, 2);
+            long length = in.readInt() & 0xFFFFFFFFL;
+            skipFully(in, length);
+        }
+    }
+
+    private static void skipFully(DataInputStream in, long len) throws IOException {
+        long remaining = len;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                // skip() might return 0 without being at the end, so check with a read
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of class file");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private Map<File, Boolean> scan(List<File> classFiles) throws IOException {
+        Map<File, Boolean> ret = new HashMap<>();
+        if (classFiles.size() < PARALLEL_THRESHOLD) {
+            for (File classFile : classFiles) {
+                ret.put(classFile, scanFile(classFile));
+            }
+            return ret;
+        }
+
+        int nThreads = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            Map<File, Future<Boolean>> futures = new HashMap<>();
+            for (final File classFile : classFiles) {
+                futures.put(classFile, executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws IOException {
+                        return scanFile(classFile);
+                    }
+                }));
+            }
+            for (Map.Entry<File, Future<Boolean>> entry : futures.entrySet()) {
+                ret.put(entry.getKey(), entry.getValue().get());
+            }
+            return ret;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scanning for main classes");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Cannot scan for main classes: " + cause, cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean scanFile(File classFile) throws IOException {
+        try (InputStream is = new FileInputStream(classFile)) {
+            return hasMainMethod(is);
+        } catch (IOException e) {
+            throw new IOException("Cannot read class file " + classFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static final FileFilter DIR_FILTER = new FileFilter() {
+        @Override
+        public boolean accept(File pathname) {
+            return pathname.isDirectory() && !pathname.getName().startsWith(".");
+        }
+    };
+
+    private static final FileFilter CLASS_FILE_FILTER = new FileFilter() {
+        @Override
+        public boolean accept(File file) {
+            return (file.isFile() && file.getName().endsWith(".class"));
+        }
+    };
+
+    private static void collectClassFiles(List<File> classFiles, File dir) {
+        File[] subDirs = dir.listFiles(DIR_FILTER);
+        if (subDirs != null) {
+            for (File subDir : subDirs) {
+                collectClassFiles(classFiles, subDir);
+            }
+        }
+        File[] files = dir.listFiles(CLASS_FILE_FILTER);
+        if (files != null) {
+            classFiles.addAll(Arrays.asList(files));
+        }
+    }
+
+    private static String convertToClass(String path) {
+        String ret = path.replaceAll("[/\\\\]", ".");
+        return ret.substring(0, ret.length() - ".class".length());
+    }
+
+    // ========================================================================
+    // Index file handling. The format is line based: a header line with the root directory
+    // followed by one line per class file "<mtime> <length> <0|1> <relative path>"
+
+    private Map<String, Entry> readIndex(String prefix) {
+        Map<String, Entry> ret = new HashMap<>();
+        if (indexFile == null || !indexFile.isFile()) {
+            return ret;
+        }
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null || !header.equals(INDEX_HEADER + prefix)) {
+                // Index for another directory or an unknown format
+                return ret;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ", 4);
+                if (parts.length == 4) {
+                    ret.put(parts[3], new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), "1".equals(parts[2])));
+                }
+            }
+        } catch (IOException | NumberFormatException exp) {
+            // A broken index is simply ignored and rebuilt
+            ret.clear();
+        }
+        return ret;
+    }
+
+    private void writeIndex(String prefix, Map<String, Entry> entries) {
+        if (indexFile == null) {
+            return;
+        }
+        File parent = indexFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            return;
+        }
+        File tmpFile = new File(indexFile.getPath() + ".tmp");
+        try (Writer writer = new BufferedWriter(
+            new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8))) {
+            writer.write(INDEX_HEADER + prefix + "\n");
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                Entry e = entry.getValue();
+                writer.write(e.lastModified + " " + e.length + " " + (e.hasMain ? "1" : "0") + " " + entry.getKey() + "\n");
+            }
+        } catch (IOException exp) {
+            // The index is only an optimization, so we can live without it
+            tmpFile.delete();
+            return;
+        }
+        if (!tmpFile.renameTo(indexFile)) {
+            indexFile.delete();
+            if (!tmpFile.renameTo(indexFile)) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long lastModified;
+        private final long length;
+        private final boolean hasMain;
+
+        private Entry(long lastModified, long length, boolean hasMain) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.hasMain = hasMain;
+        }
+
+        private boolean matches(File file) {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+}
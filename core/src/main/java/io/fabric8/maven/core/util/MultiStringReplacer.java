@@ -0,0 +1,289 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Replaces many fixed strings at once with a single scan over the text, using an
+ * <a href="https://en.wikipedia.org/wiki/Aho%E2%80%93Corasick_algorithm">Aho-Corasick</a> automaton
+ * over all patterns.
+ *
+ * Matches are replaced from left to right without overlapping, the text inserted as replacement is not scanned again.
+ * If multiple patterns match at the same position, the one added first wins. For patterns which can't be
+ * contained in each other after their first character (like <code>${NAME}</code> or <code>$NAME</code> for
+ * names without a <code>$</code>) this gives the same result as replacing the patterns one after another.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public final class MultiStringReplacer {
+
+    private static final int ROOT = 0;
+
+    // Patterns and replacements, the index is the priority
+    private final int[] patternLengths;
+    private final String[] replacements;
+
+    // Trie nodes. The transitions of a node are stored as sorted character array with a parallel target array.
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] depth;
+    private final int[] fail;
+    // Pattern ending at a node or -1
+    private final int[] output;
+    // Next node along the failure chain which has an output, or ROOT
+    private final int[] dictLink;
+
+    private MultiStringReplacer(List<String> patterns, List<String> replacements) {
+        this.patternLengths = new int[patterns.size()];
+        this.replacements = replacements.toArray(new String[replacements.size()]);
+
+        TrieBuilder trie = new TrieBuilder();
+        for (int i = 0; i < patterns.size(); i++) {
+            patternLengths[i] = patterns.get(i).length();
+            trie.add(patterns.get(i), i);
+        }
+        int size = trie.size();
+        keys = new char[size][];
+        targets = new int[size][];
+        depth = new int[size];
+        output = new int[size];
+        for (int n = 0; n < size; n++) {
+            TrieBuilder.Node node = trie.nodes.get(n);
+            keys[n] = node.keys;
+            targets[n] = node.targets;
+            depth[n] = node.depth;
+            output[n] = node.output;
+        }
+        fail = new int[size];
+        dictLink = new int[size];
+        linkFailures();
+    }
+
+    /**
+     * Create a builder for adding patterns
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true if no pattern has been added, so that {@link #replace(String)} never changes anything
+     */
+    public boolean isEmpty() {
+        return patternLengths.length == 0;
+    }
+
+    /**
+     * Replace all patterns in the given text
+     *
+     * @param text text to examine
+     * @return text with all patterns replaced. The given text itself is returned if no pattern matches.
+     */
+    public String replace(String text) {
+        if (text == null || isEmpty()) {
+            return text;
+        }
+        StringBuilder ret = null;
+        int copied = 0;
+        int pos = 0;
+        int len = text.length();
+        while (pos < len) {
+            // Find the leftmost match starting at or after pos, with priority deciding between matches at the same start
+            int state = ROOT;
+            int bestStart = -1;
+            int bestPattern = -1;
+            int i = pos;
+            for (; i < len; i++) {
+                state = step(state, text.charAt(i));
+                for (int n = output[state] >= 0 ? state : dictLink[state]; n != ROOT; n = dictLink[n]) {
+                    int pattern = output[n];
+                    int start = i - patternLengths[pattern] + 1;
+                    if (bestPattern < 0 || start < bestStart || (start == bestStart && pattern < bestPattern)) {
+                        bestStart = start;
+                        bestPattern = pattern;
+                    }
+                }
+                // Once no partial match started at or before the best match, it can't be beaten anymore
+                if (bestPattern >= 0 && i - depth[state] + 1 > bestStart) {
+                    break;
+                }
+            }
+            if (bestPattern < 0) {
+                break;
+            }
+            if (ret == null) {
+                ret = new StringBuilder(len + 16);
+            }
+            ret.append(text, copied, bestStart).append(replacements[bestPattern]);
+            copied = pos = bestStart + patternLengths[bestPattern];
+        }
+        if (ret == null) {
+            return text;
+        }
+        return ret.append(text, copied, len).toString();
+    }
+
+    // ========================================================================
+
+    private int step(int state, char c) {
+        while (true) {
+            int next = transition(state, c);
+            if (next >= 0) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    private int transition(int state, char c) {
+        int idx = Arrays.binarySearch(keys[state], c);
+        return idx >= 0 ? targets[state][idx] : -1;
+    }
+
+    // Breadth first calculation of the failure and dictionary links
+    private void linkFailures() {
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[ROOT]) {
+            fail[child] = ROOT;
+            dictLink[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.remove();
+            for (int k = 0; k < keys[node].length; k++) {
+                char c = keys[node][k];
+                int child = targets[node][k];
+                int f = fail[node];
+                int target;
+                while ((target = transition(f, c)) < 0 && f != ROOT) {
+                    f = fail[f];
+                }
+                fail[child] = target >= 0 ? target : ROOT;
+                dictLink[child] = output[fail[child]] >= 0 ? fail[child] : dictLink[fail[child]];
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Builder for collecting the patterns and their replacements
+     */
+    public static final class Builder {
+        private final List<String> patterns = new ArrayList<>();
+        private final List<String> replacements = new ArrayList<>();
+        private final Set<String> seen = new HashSet<>();
+
+        private Builder() { }
+
+        /**
+         * Add a pattern. Patterns added earlier take precedence over later ones matching at the same position.
+         * Adding a pattern a second time has no effect.
+         *
+         * @param pattern non empty string to look for
+         * @param replacement replacement, must not be null
+         * @return this builder
+         */
+        public Builder add(String pattern, String replacement) {
+            if (pattern == null || pattern.isEmpty()) {
+                throw new IllegalArgumentException("Pattern must not be empty");
+            }
+            if (replacement == null) {
+                throw new IllegalArgumentException("No replacement given for " + pattern);
+            }
+            if (seen.add(pattern)) {
+                patterns.add(pattern);
+                replacements.add(replacement);
+            }
+            return this;
+        }
+
+        public MultiStringReplacer build() {
+            return new MultiStringReplacer(patterns, replacements);
+        }
+    }
+
+    // Mutable trie used during construction only
+    private static final class TrieBuilder {
+        private final List<Node> nodes = new ArrayList<>();
+
+        private TrieBuilder() {
+            nodes.add(new Node(0));
+        }
+
+        private void add(String pattern, int index) {
+            int current = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                Node node = nodes.get(current);
+                char c = pattern.charAt(i);
+                int idx = Arrays.binarySearch(node.keys, c);
+                if (idx >= 0) {
+                    current = node.targets[idx];
+                } else {
+                    int child = nodes.size();
+                    nodes.add(new Node(i + 1));
+                    node.insert(-idx - 1, c, child);
+                    current = child;
+                }
+            }
+            Node node = nodes.get(current);
+            if (node.output < 0) {
+                node.output = index;
+            }
+        }
+
+        private int size() {
+            return nodes.size();
+        }
+
+        private static final class Node {
+            private char[] keys = new char[0];
+            private int[] targets = new int[0];
+            private final int depth;
+            private int output = -1;
+
+            private Node(int depth) {
+                this.depth = depth;
+            }
+
+            private void insert(int at, char c, int target) {
+                char[] newKeys = new char[keys.length + 1];
+                int[] newTargets = new int[targets.length + 1];
+                System.arraycopy(keys, 0, newKeys, 0, at);
+                System.arraycopy(targets, 0, newTargets, 0, at);
+                newKeys[at] = c;
+                newTargets[at] = target;
+                System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+                System.arraycopy(targets, at, newTargets, at + 1, targets.length - at);
+                keys = newKeys;
+                targets = newTargets;
+            }
+        }
+    }
+}
@@ -24,8 +24,10 @@ import io.fabric8.utils.Strings;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static io.fabric8.kubernetes.api.KubernetesHelper.getName;
 import static io.fabric8.maven.core.util.KubernetesResourceUtil.getSourceUrlAnnotation;
@@ -137,18 +139,27 @@ public class OpenShiftDependencyResources {
     }
 
     public void addMissingResources(List<HasMetadata> objects) {
-        Map<KindAndName, HasMetadata> itemMap = new HashMap<>();
+        Set<KindAndName> keys = new HashSet<>();
         for (HasMetadata item : objects) {
-            itemMap.put(new KindAndName(item), item);
+            keys.add(new KindAndName(item));
         }
+        objects.addAll(getMissingResources(keys));
+    }
 
-        // lets add any openshift specific dependencies (OAuthClient etc) which are not already added
+    /**
+     * Get all OpenShift specific dependencies (OAuthClient etc) which are not contained in the given
+     * set of resource keys
+     *
+     * @param existing keys of the resources already present
+     * @return list of missing dependency resources, never null
+     */
+    public List<HasMetadata> getMissingResources(Set<KindAndName> existing) {
+        List<HasMetadata> ret = new ArrayList<>();
         for (Map.Entry<KindAndName, HasMetadata> entry : openshiftDependencyResources.entrySet()) {
-            KindAndName key = entry.getKey();
-            HasMetadata dependency = entry.getValue();
-            if (!itemMap.containsKey(key)) {
-                objects.add(dependency);
+            if (!existing.contains(entry.getKey())) {
+                ret.add(entry.getValue());
             }
         }
+        return ret;
     }
 }
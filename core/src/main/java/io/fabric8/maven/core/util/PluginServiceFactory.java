@@ -48,6 +48,9 @@ public final class PluginServiceFactory<C> {
     // Parameters for service constructors
     private C context;
 
+    // Optional cache for the service classes resolved from the descriptors
+    private BuildSessionCache buildSessionCache;
+
     public PluginServiceFactory(C context, ClassLoader ... loaders) {
         this.context = context;
         for (ClassLoader loader : loaders) {
@@ -68,24 +71,55 @@ public final class PluginServiceFactory<C> {
      * @param <T> type of the service objects to create
      * @return a ordered list of created services or an empty list.
      */
-    public <T> List<T> createServiceObjects(String... descriptorPaths) {
+    public <T> List<T> createServiceObjects(final String... descriptorPaths) {
+        List<Class<T>> serviceClasses;
+        if (buildSessionCache != null) {
+            // The resolved classes are defined by the class loaders used for the lookup, so these loaders are the
+            // fingerprint. The project class loader is shared within the build, so it is the same for all lookups.
+            List<Object> fingerprint = new ArrayList<Object>(additionalClassLoaders);
+            fingerprint.add(Thread.currentThread().getContextClassLoader());
+            serviceClasses = buildSessionCache.get(
+                "services:" + Arrays.toString(descriptorPaths), fingerprint,
+                new BuildSessionCache.Loader<List<Class<T>>, RuntimeException>() {
+                    @Override
+                    public List<Class<T>> load() {
+                        return Collections.unmodifiableList(PluginServiceFactory.this.<T>resolveServiceClasses(descriptorPaths));
+                    }
+                });
+        } else {
+            serviceClasses = resolveServiceClasses(descriptorPaths);
+        }
+
+        ArrayList<T> ret = new ArrayList<T>();
+        for (Class<T> clazz : serviceClasses) {
+            ret.add(createService(clazz));
+        }
+        return ret;
+    }
+
+    /**
+     * Use a cache for remembering the service classes found for a set of descriptors
+     *
+     * @param buildSessionCache cache to use
+     */
+    public void setBuildSessionCache(BuildSessionCache buildSessionCache) {
+        this.buildSessionCache = buildSessionCache;
+    }
+
+    private <T> List<Class<T>> resolveServiceClasses(String... descriptorPaths) {
         try {
             ServiceEntry.initDefaultOrder();
-            TreeMap<ServiceEntry,T> serviceMap = new TreeMap<ServiceEntry,T>();
+            TreeMap<ServiceEntry,Class<T>> serviceMap = new TreeMap<ServiceEntry,Class<T>>();
             for (String descriptor : descriptorPaths) {
                 readServiceDefinitions(serviceMap, descriptor);
             }
-            ArrayList<T> ret = new ArrayList<T>();
-            for (T service : serviceMap.values()) {
-                ret.add(service);
-            }
-            return ret;
+            return new ArrayList<>(serviceMap.values());
         } finally {
             ServiceEntry.removeDefaultOrder();
         }
     }
 
-    private <T> void readServiceDefinitions(Map<ServiceEntry, T> extractorMap, String defPath) {
+    private <T> void readServiceDefinitions(Map<ServiceEntry, Class<T>> extractorMap, String defPath) {
         try {
             for (String url : ClassUtil.getResources(defPath, additionalClassLoaders)) {
                 readServiceDefinitionFromUrl(extractorMap, url);
@@ -95,12 +129,12 @@ public final class PluginServiceFactory<C> {
         }
     }
 
-    private <T> void readServiceDefinitionFromUrl(Map<ServiceEntry, T> extractorMap, String url) {
+    private <T> void readServiceDefinitionFromUrl(Map<ServiceEntry, Class<T>> extractorMap, String url) {
         String line = null;
         try (LineNumberReader reader = new LineNumberReader(new InputStreamReader(new URL(url).openStream(), "UTF8"))) {
             line = reader.readLine();
             while (line != null) {
-                createOrRemoveService(extractorMap, line);
+                resolveOrRemoveService(extractorMap, line);
                 line = reader.readLine();
             }
         } catch (ReflectiveOperationException|IOException e) {
@@ -112,7 +146,7 @@ public final class PluginServiceFactory<C> {
     // Matches comment lines and empty lines. these are skipped
     private static Pattern COMMENT_LINE_PATTERN = Pattern.compile("^(\\s*#.*|\\s*)$");
 
-    private synchronized  <T> void createOrRemoveService(Map<ServiceEntry, T> serviceMap, String line)
+    private synchronized  <T> void resolveOrRemoveService(Map<ServiceEntry, Class<T>> serviceMap, String line)
         throws ReflectiveOperationException {
         if (line.length() > 0 && !COMMENT_LINE_PATTERN.matcher(line).matches()) {
             ServiceEntry entry = new ServiceEntry(line);
@@ -134,14 +168,21 @@ public final class PluginServiceFactory<C> {
                 if (clazz == null) {
                     throw new ClassNotFoundException("Class " + entry.getClassName() + " could not be found");
                 }
-                Constructor<T> constructor = clazz.getConstructor(context.getClass());
-                if (constructor == null) {
-                    throw new IllegalArgumentException(
-                        "Internal Error: " + clazz + " does not have constructor (" + context.getClass() + ")");
-                }
-                T service = constructor.newInstance(context);
-                serviceMap.put(entry, service);
+                serviceMap.put(entry, clazz);
+            }
+        }
+    }
+
+    private <T> T createService(Class<T> clazz) {
+        try {
+            Constructor<T> constructor = clazz.getConstructor(context.getClass());
+            if (constructor == null) {
+                throw new IllegalArgumentException(
+                    "Internal Error: " + clazz + " does not have constructor (" + context.getClass() + ")");
             }
+            return constructor.newInstance(context);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create service " + clazz.getName() + " : " + e + ". Aborting", e);
         }
     }
 
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Records wall time, number of invocations and number of visited items for enrichers and generators,
+ * grouped by category (e.g. "enricher"), phase (e.g. "adapt") and processor name.
+ *
+ * Recording is done with
+ *
+ * <pre>
+ *   long start = timings.start();
+ *   enricher.adapt(builder);
+ *   timings.record("enricher", "adapt", enricher.getName(), start, 1);
+ * </pre>
+ *
+ * When disabled (like for {@link #DISABLED}), {@link #start()} doesn't query the clock and {@link #record}
+ * returns immediately.
+ */
+public class ProcessorTimings {
+
+    /**
+     * Instance which doesn't record anything
+     */
+    public static final ProcessorTimings DISABLED = new ProcessorTimings(false);
+
+    // Number of entries to print in the log summary
+    private static final int SUMMARY_SIZE = 10;
+
+    private final boolean enabled;
+
+    // category -> phase -> processor name -> stat
+    private final Map<String, Map<String, Map<String, Stat>>> stats = new LinkedHashMap<>();
+
+    public ProcessorTimings() {
+        this(true);
+    }
+
+    private ProcessorTimings(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start a measurement
+     *
+     * @return start time to be handed over to {@link #record(String, String, String, long, int)}
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record a single invocation
+     *
+     * @param category category like "enricher" or "generator"
+     * @param phase phase within the category like "adapt"
+     * @param name name of the enricher or generator
+     * @param start start time as obtained from {@link #start()}
+     * @param items number of items visited during this invocation
+     */
+    public void record(String category, String phase, String name, long start, int items) {
+        if (!enabled) {
+            return;
+        }
+        long duration = System.nanoTime() - start;
+        synchronized (stats) {
+            Map<String, Map<String, Stat>> phases = stats.get(category);
+            if (phases == null) {
+                phases = new LinkedHashMap<>();
+                stats.put(category, phases);
+            }
+            Map<String, Stat> names = phases.get(phase);
+            if (names == null) {
+                names = new LinkedHashMap<>();
+                phases.put(phase, names);
+            }
+            Stat stat = names.get(name);
+            if (stat == null) {
+                stat = new Stat();
+                names.put(name, stat);
+            }
+            stat.count++;
+            stat.nanos += duration;
+            stat.items += items;
+        }
+    }
+
+    /**
+     * Log the slowest entries and write all recorded timings as JSON to the given file. The file holds
+     * the timings of several goals, the entry for the given goal is replaced.
+     *
+     * @param reportFile file to write to, typically <code>target/fabric8/timings.json</code>
+     * @param goal goal for which the timings have been recorded
+     * @param log logger for the summary
+     * @throws IOException if the report can not be written
+     */
+    public void report(File reportFile, String goal, Logger log) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        logSummary(goal, log);
+        writeReport(reportFile, goal);
+    }
+
+    // ========================================================================
+
+    private void logSummary(String goal, Logger log) {
+        List<Map.Entry<String, Stat>> entries = new ArrayList<>();
+        synchronized (stats) {
+            for (Map.Entry<String, Map<String, Map<String, Stat>>> category : stats.entrySet()) {
+                for (Map.Entry<String, Map<String, Stat>> phase : category.getValue().entrySet()) {
+                    for (Map.Entry<String, Stat> name : phase.getValue().entrySet()) {
+                        String label = String.format("%s %s %s", category.getKey(), phase.getKey(), name.getKey());
+                        entries.add(new AbstractMap.SimpleEntry<>(label, name.getValue().copy()));
+                    }
+                }
+            }
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, Stat>>() {
+            @Override
+            public int compare(Map.Entry<String, Stat> a, Map.Entry<String, Stat> b) {
+                return Long.compare(b.getValue().nanos, a.getValue().nanos);
+            }
+        });
+        log.info("Timings for %s (slowest %d of %d):", goal, Math.min(SUMMARY_SIZE, entries.size()), entries.size());
+        for (Map.Entry<String, Stat> entry : entries.subList(0, Math.min(SUMMARY_SIZE, entries.size()))) {
+            Stat stat = entry.getValue();
+            log.info("  %8d ms  %s (%d calls, %d items)", stat.nanos / 1000000, entry.getKey(), stat.count, stat.items);
+        }
+    }
+
+    private void writeReport(File reportFile, String goal) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Object> report = new LinkedHashMap<>();
+        if (reportFile.isFile()) {
+            try {
+                report = mapper.readValue(reportFile, new TypeReference<LinkedHashMap<String, Object>>() {});
+            } catch (IOException exp) {
+                // Broken or foreign report, start from scratch
+            }
+        }
+        report.put(goal, toMap());
+        File parent = reportFile.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+    }
+
+    private Map<String, Object> toMap() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+        synchronized (stats) {
+            for (Map.Entry<String, Map<String, Map<String, Stat>>> category : stats.entrySet()) {
+                Map<String, Object> phases = new LinkedHashMap<>();
+                for (Map.Entry<String, Map<String, Stat>> phase : category.getValue().entrySet()) {
+                    Map<String, Object> names = new LinkedHashMap<>();
+                    for (Map.Entry<String, Stat> name : phase.getValue().entrySet()) {
+                        names.put(name.getKey(), name.getValue().toMap());
+                    }
+                    phases.put(phase.getKey(), names);
+                }
+                ret.put(category.getKey(), phases);
+            }
+        }
+        return ret;
+    }
+
+    private static final class Stat {
+        private long count;
+        private long nanos;
+        private long items;
+
+        private Stat copy() {
+            Stat ret = new Stat();
+            ret.count = count;
+            ret.nanos = nanos;
+            ret.items = items;
+            return ret;
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> ret = new LinkedHashMap<>();
+            ret.put("count", count);
+            ret.put("millis", nanos / 1000000.0);
+            ret.put("items", items);
+            return ret;
+        }
+    }
+}
@@ -43,6 +43,10 @@ public class ProfileUtil {
     // Mapper for handling YAML formats
     private static final ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
 
+    // Keys for the values stored in the build session cache
+    private static final String CLASSPATH_PROFILES_CACHE_KEY = "profile.classpath";
+    private static final String LOOKUP_CACHE_KEY_PREFIX = "profile.lookup.";
+
     // Default profile which will be always there
     public static final String DEFAULT_PROFILE = "default";
 
@@ -58,9 +62,22 @@ public class ProfileUtil {
      * @throws IOException
      */
     public static Profile findProfile(String profileArg, File resourceDir) throws IOException {
+        return findProfile(null, profileArg, resourceDir);
+    }
+
+    /**
+     * Same as {@link #findProfile(String, File)} but use the given cache for the profile lookup
+     *
+     * @param cache cache for the parsed profiles, can be null
+     * @param profileArg the profile's name
+     * @param resourceDir a directory to check for profiles.
+     * @return the profile found or the default profile if none of this name is given
+     * @throws IOException
+     */
+    public static Profile findProfile(BuildSessionCache cache, String profileArg, File resourceDir) throws IOException {
         try {
             String profile = profileArg == null ? DEFAULT_PROFILE : profileArg;
-            Profile profileFound = lookup(profile, resourceDir);
+            Profile profileFound = lookup(cache, profile, resourceDir);
             if (profileFound != null) {
                 return profileFound;
             } else {
@@ -86,11 +103,49 @@ public class ProfileUtil {
                                                                 File resourceDir,
                                                                 ProcessorConfig config) throws IOException {
         // Get specified profile or the default profile
-        ProcessorConfig profileConfig = extractProcesssorConfiguration(configExtractor, profile, resourceDir);
+        ProcessorConfig profileConfig = extractProcesssorConfiguration(null, configExtractor, profile, resourceDir);
 
         return ProcessorConfig.mergeProcessorConfigs(config, profileConfig);
     }
 
+    /**
+     * Same as {@link #blendProfileWithConfiguration(ProcessorConfigurationExtractor, String, File, ProcessorConfig)}
+     * but remember the result in the given cache, so that it is calculated only once for all goals of a build.
+     *
+     * @param cache cache to use for storing the blended configuration
+     * @param configExtractor how to extract the config from a profile when found
+     * @param profile the profile name (can be null, then no profile is used)
+     * @param resourceDir resource directory where to lookup the profile (in addition to a classpath lookup)
+     * @param config the provided configuration
+     * @return the merged configuration which can be empty if no profile is given
+     * @throws IOException
+     */
+    public static ProcessorConfig blendProfileWithConfiguration(final BuildSessionCache cache,
+                                                                final ProcessorConfigurationExtractor configExtractor,
+                                                                final String profile,
+                                                                final File resourceDir,
+                                                                final ProcessorConfig config) throws IOException {
+        File profileFile = findProfileYaml(resourceDir);
+        List<Object> fingerprint = Arrays.<Object>asList(
+            configExtractor,
+            profile,
+            resourceDir != null ? resourceDir.getAbsolutePath() : null,
+            profileFile != null ? profileFile.getAbsolutePath() : null,
+            profileFile != null ? profileFile.lastModified() : 0L,
+            profileFile != null ? profileFile.length() : 0L,
+            Thread.currentThread().getContextClassLoader(),
+            config);
+        return cache.get("profile.config." + configExtractor.getClass().getName(), fingerprint,
+                         new BuildSessionCache.Loader<ProcessorConfig, IOException>() {
+                             @Override
+                             public ProcessorConfig load() throws IOException {
+                                 ProcessorConfig profileConfig =
+                                     extractProcesssorConfiguration(cache, configExtractor, profile, resourceDir);
+                                 return ProcessorConfig.mergeProcessorConfigs(config, profileConfig);
+                             }
+                         });
+    }
+
 
     /**
      * Lookup profiles from a given directory and merge it with a profile of the
@@ -102,16 +157,52 @@ public class ProfileUtil {
      * @throws IOException if somethings fails during lookup
      */
     public static Profile lookup(String name, File directory) throws IOException {
+        return lookup(null, name, directory);
+    }
+
+    /**
+     * Same as {@link #lookup(String, File)} but remember the profiles parsed from the classpath and the
+     * merged profile in the given cache. The merged profile is looked up again when the profile file changes.
+     *
+     * @param cache cache for the parsed profiles. If null, the profiles are parsed again.
+     * @param name name of the profile to lookup
+     * @param directory directory to lookup
+     * @return Profile found or null
+     * @throws IOException if somethings fails during lookup
+     */
+    public static Profile lookup(BuildSessionCache cache, final String name, File directory) throws IOException {
+        final ClasspathProfiles classpathProfiles = getClasspathProfiles(cache);
+        final File profileFile = findProfileYaml(directory);
+        if (cache == null) {
+            return mergeProfiles(name, profileFile, classpathProfiles);
+        }
+        List<Object> fingerprint = Arrays.<Object>asList(
+            classpathProfiles,
+            profileFile != null ? profileFile.lastModified() : 0L,
+            profileFile != null ? profileFile.length() : 0L);
+        return cache.get(LOOKUP_CACHE_KEY_PREFIX + name + ":" + (profileFile != null ? profileFile.getAbsolutePath() : ""),
+                         fingerprint,
+                         new BuildSessionCache.Loader<Profile, IOException>() {
+                             @Override
+                             public Profile load() throws IOException {
+                                 return mergeProfiles(name, profileFile, classpathProfiles);
+                             }
+                         });
+    }
+
+    // Merge the profiles from the classpath with the profile of the same name in the given file
+    private static Profile mergeProfiles(String name, File profileFile, ClasspathProfiles classpathProfiles)
+        throws IOException {
         // First check from the classpath, these profiles are used as a basis
-        List<Profile> profiles = readProfileFromClasspath(name);
+        List<Profile> profiles = classpathProfiles.get(name);
 
-        File profileFile = findProfileYaml(directory);
         if (profileFile != null) {
-            List<Profile> fileProfiles = fromYaml(new FileInputStream(profileFile));
-            for (Profile profile : fileProfiles) {
-                if (profile.getName().equals(name)) {
-                    profiles.add(profile);
-                    break;
+            try (InputStream is = new FileInputStream(profileFile)) {
+                for (Profile profile : fromYaml(is)) {
+                    if (profile.getName().equals(name)) {
+                        profiles.add(profile);
+                        break;
+                    }
                 }
             }
         }
@@ -120,10 +211,11 @@ public class ProfileUtil {
         return mergeProfiles(profiles);
     }
 
-    private static ProcessorConfig extractProcesssorConfiguration(ProcessorConfigurationExtractor extractor,
+    private static ProcessorConfig extractProcesssorConfiguration(BuildSessionCache cache,
+                                                                 ProcessorConfigurationExtractor extractor,
                                                                  String profile,
                                                                  File resourceDir) throws IOException {
-        Profile profileFound = findProfile(profile, resourceDir);
+        Profile profileFound = findProfile(cache, profile, resourceDir);
         return extractor.extract(profileFound);
     }
 
@@ -142,14 +234,6 @@ public class ProfileUtil {
         return ret;
     }
 
-    // Read all default profiles first, then merge in custom profiles found on the classpath
-    private static List<Profile> readProfileFromClasspath(String name) throws IOException {
-        List<Profile> ret = new ArrayList<>();
-        ret.addAll(readAllFromClasspath(name, "default"));
-        ret.addAll(readAllFromClasspath(name, ""));
-        return ret;
-    }
-
     /**
      * Read all profiles found in the classpath.
      *
@@ -160,17 +244,82 @@ public class ProfileUtil {
      * @throws IOException if reading of a profile fails
      */
     public static List<Profile> readAllFromClasspath(String name, String ext) throws IOException {
-        List<Profile > ret = new ArrayList<>();
+        List<Profile> ret = new ArrayList<>();
+        for (Profile profile : getClasspathProfiles(null).getAll(ext)) {
+            if (name.equals(profile.getName())) {
+                ret.add(profile);
+            }
+        }
+        return ret;
+    }
+
+    // Parse all classpath profiles at once. These are looked up via the context class loader,
+    // so the parsed profiles are cached per context class loader.
+    private static ClasspathProfiles getClasspathProfiles(BuildSessionCache cache) {
+        if (cache == null) {
+            return new ClasspathProfiles();
+        }
+        return cache.get(CLASSPATH_PROFILES_CACHE_KEY, Thread.currentThread().getContextClassLoader(),
+                         new BuildSessionCache.Loader<ClasspathProfiles, RuntimeException>() {
+                             @Override
+                             public ClasspathProfiles load() {
+                                 return new ClasspathProfiles();
+                             }
+                         });
+    }
+
+    private static List<Profile> parseAllFromClasspath(String ext) throws IOException {
+        List<Profile> ret = new ArrayList<>();
         for (String location : getMetaInfProfilePaths(ext)) {
             for (String url : ClassUtil.getResources(location)) {
-                for (Profile profile : fromYaml(new URL(url).openStream())) {
+                try (InputStream is = new URL(url).openStream()) {
+                    ret.addAll(fromYaml(is));
+                }
+            }
+        }
+        return ret;
+    }
+
+    // Profiles found on the classpath. Default profiles are always parsed before the custom profiles
+    // so that custom profiles win for profiles with the same order (see Profile.compareTo())
+    private static final class ClasspathProfiles {
+
+        private List<Profile> defaultProfiles;
+        private List<Profile> customProfiles;
+
+        private synchronized void parse() throws IOException {
+            if (defaultProfiles == null) {
+                List<Profile> defaults = parseAllFromClasspath("default");
+                customProfiles = parseAllFromClasspath("");
+                defaultProfiles = defaults;
+            }
+        }
+
+        private List<Profile> getAll(String ext) throws IOException {
+            if (StringUtils.isBlank(ext)) {
+                parse();
+                return customProfiles;
+            } else if ("default".equals(ext)) {
+                parse();
+                return defaultProfiles;
+            }
+            // Not used by the profile lookup, so no need to keep it
+            return parseAllFromClasspath(ext);
+        }
+
+        // Read all default profiles first, then merge in custom profiles found on the classpath
+        private List<Profile> get(String name) throws IOException {
+            parse();
+            List<Profile> ret = new ArrayList<>();
+            for (List<Profile> profiles : Arrays.asList(defaultProfiles, customProfiles)) {
+                for (Profile profile : profiles) {
                     if (name.equals(profile.getName())) {
                         ret.add(profile);
                     }
                 }
             }
+            return ret;
         }
-        return ret;
     }
 
     // ================================================================================
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Class loader over a project's classpath. Classes are loaded as with every {@link URLClassLoader}, but
+ * resource lookups for anything else than class files use an index of the entries of all jars on the
+ * classpath. The index is built on the first lookup, after that a lookup never opens a jar again.
+ * Directories on the classpath are not indexed since their content can change during the build.
+ */
+class ProjectClassLoader extends URLClassLoader {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    // Classpath elements in classpath order
+    private final File[] elements;
+    private final URL[] jarUrls;
+
+    // Entry name -> indexes of the jars containing the entry, ascending
+    private final LazyBuilder<Map<String, List<Integer>>> index = new LazyBuilder<Map<String, List<Integer>>>() {
+        @Override
+        protected Map<String, List<Integer>> build() {
+            return buildIndex();
+        }
+    };
+
+    ProjectClassLoader(List<File> elements, ClassLoader parent) throws MalformedURLException {
+        super(toUrls(elements), parent);
+        this.elements = elements.toArray(new File[elements.size()]);
+        this.jarUrls = new URL[this.elements.length];
+    }
+
+    @Override
+    public URL findResource(String name) {
+        if (!isIndexed(name)) {
+            return super.findResource(name);
+        }
+        List<URL> found = lookup(name, true);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        if (!isIndexed(name)) {
+            return super.findResources(name);
+        }
+        return Collections.enumeration(lookup(name, false));
+    }
+
+    // ========================================================================
+
+    // Class files are looked up by the class loading machinery anyways, so they are not worth indexing
+    private static boolean isIndexed(String name) {
+        return !name.endsWith(CLASS_SUFFIX) && !name.startsWith("/");
+    }
+
+    private List<URL> lookup(String name, boolean firstOnly) {
+        List<Integer> jarHits = index.get().get(name);
+        List<URL> ret = new ArrayList<>();
+        int nextHit = 0;
+        for (int i = 0; i < elements.length && !(firstOnly && !ret.isEmpty()); i++) {
+            try {
+                if (jarUrls[i] != null) {
+                    if (jarHits != null && nextHit < jarHits.size() && jarHits.get(nextHit) == i) {
+                        ret.add(new URL("jar:" + jarUrls[i].toExternalForm() + "!/" + encode(name)));
+                        nextHit++;
+                    }
+                } else {
+                    File file = new File(elements[i], name.replace('/', File.separatorChar));
+                    if (file.exists()) {
+                        ret.add(file.toURI().toURL());
+                    }
+                }
+            } catch (MalformedURLException | URISyntaxException e) {
+                // Skip resources which can't be addressed, same as URLClassLoader does
+            }
+        }
+        return ret;
+    }
+
+    private Map<String, List<Integer>> buildIndex() {
+        Map<String, List<Integer>> ret = new HashMap<>();
+        for (int i = 0; i < elements.length; i++) {
+            if (!elements[i].isFile()) {
+                continue;
+            }
+            try (ZipFile zip = new ZipFile(elements[i])) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    String name = entries.nextElement().getName();
+                    if (!name.endsWith(CLASS_SUFFIX)) {
+                        addToIndex(ret, name, i);
+                        // Directory entries are found also without trailing slash
+                        if (name.endsWith("/") && name.length() > 1) {
+                            addToIndex(ret, name.substring(0, name.length() - 1), i);
+                        }
+                    }
+                }
+                jarUrls[i] = elements[i].toURI().toURL();
+            } catch (IOException e) {
+                // Not a valid archive, which is ignored by URLClassLoader, too
+            }
+        }
+        return ret;
+    }
+
+    private static void addToIndex(Map<String, List<Integer>> index, String name, int pos) {
+        List<Integer> positions = index.get(name);
+        if (positions == null) {
+            positions = new ArrayList<>(1);
+            index.put(name, positions);
+        }
+        // Jars can contain duplicate entries
+        if (positions.isEmpty() || positions.get(positions.size() - 1) != pos) {
+            positions.add(pos);
+        }
+    }
+
+    private static String encode(String name) throws URISyntaxException {
+        return new URI(null, null, name, null).getRawPath();
+    }
+
+    private static URL[] toUrls(List<File> elements) throws MalformedURLException {
+        URL[] ret = new URL[elements.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = elements.get(i).toURI().toURL();
+        }
+        return ret;
+    }
+}
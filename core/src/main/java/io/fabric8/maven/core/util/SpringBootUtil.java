@@ -16,17 +16,21 @@
 
 package io.fabric8.maven.core.util;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.SortedMap;
 
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.project.MavenProject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +57,48 @@ public class SpringBootUtil {
         return props;
     }
 
+    /**
+     * Same as {@link #getSpringBootApplicationProperties(MavenProject)}, but the properties are read only once
+     * per build as long as the project's compile classpath and its application configuration files don't change.
+     *
+     * @param project project to examine
+     * @param cache cache for remembering the properties. Can be null in which case the properties are always read.
+     * @return the spring boot configuration as a copy which can be modified by the caller
+     */
+    public static Properties getSpringBootApplicationProperties(final MavenProject project, BuildSessionCache cache) {
+        if (cache == null) {
+            return getSpringBootApplicationProperties(project);
+        }
+        Properties props = cache.get("spring-boot.application.properties", getApplicationConfigFingerprint(project),
+                                     new BuildSessionCache.Loader<Properties, RuntimeException>() {
+                                         @Override
+                                         public Properties load() {
+                                             return getSpringBootApplicationProperties(project);
+                                         }
+                                     });
+        Properties ret = new Properties();
+        ret.putAll(props);
+        return ret;
+    }
+
+    // Everything the application properties are calculated from: the classpath and the state
+    // of the configuration files in the output directory
+    private static List<Object> getApplicationConfigFingerprint(MavenProject project) {
+        List<Object> ret = new ArrayList<>();
+        try {
+            ret.addAll(project.getCompileClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalArgumentException("Cannot resolve artifact from compile classpath",e);
+        }
+        String outputDir = project.getBuild().getOutputDirectory();
+        for (String name : new String[] { "application.yml", "application.properties" }) {
+            File file = new File(outputDir, name);
+            ret.add(file.lastModified());
+            ret.add(file.length());
+        }
+        return ret;
+    }
+
     /**
      * Returns the given properties file on the project classpath if found or an empty properties object if not
      */
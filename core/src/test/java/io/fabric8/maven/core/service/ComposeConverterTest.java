@@ -0,0 +1,209 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.PersistentVolumeClaim;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServicePort;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ComposeConverterTest {
+
+    private Logger log = new AnsiLogger(new SystemStreamLog(), false, false);
+
+    @Test
+    public void sampleComposeFile() throws Exception {
+        // Same as it/src/it/docker-compose
+        List<HasMetadata> resources = convert("docker-compose.yaml", Collections.<String, String>emptyMap());
+        assertEquals(2, resources.size());
+
+        Service service = (Service) resources.get(0);
+        assertEquals("springboot-service", service.getMetadata().getName());
+        assertEquals(Collections.singletonMap("springboot-app", ""), service.getMetadata().getAnnotations());
+        assertEquals(Collections.singletonMap(ComposeConverter.SERVICE_LABEL, "springboot-service"), service.getSpec().getSelector());
+        ServicePort port = service.getSpec().getPorts().get(0);
+        assertEquals("8080", port.getName());
+        assertEquals(8080, (int) port.getPort());
+        assertEquals(8080, (int) port.getTargetPort().getIntVal());
+
+        Deployment deployment = (Deployment) resources.get(1);
+        assertEquals("springboot-service", deployment.getMetadata().getName());
+        assertEquals(Collections.singletonMap("springboot-app", ""), deployment.getMetadata().getAnnotations());
+        assertEquals(1, (int) deployment.getSpec().getReplicas());
+        assertEquals("Always", deployment.getSpec().getTemplate().getSpec().getRestartPolicy());
+        Container container = deployment.getSpec().getTemplate().getSpec().getContainers().get(0);
+        assertEquals("springboot-service", container.getName());
+        assertEquals("fabric8-maven-sample-docker-compose:latest", container.getImage());
+        assertEquals(8080, (int) container.getPorts().get(0).getContainerPort());
+    }
+
+    @Test
+    public void fullComposeFile() throws Exception {
+        Map<String, String> env = new HashMap<>();
+        env.put("HOME", "/home/web");
+        List<HasMetadata> resources = convert("docker-compose-full.yaml", env);
+        assertEquals(Arrays.asList("Service", "Deployment", "PersistentVolumeClaim", "PersistentVolumeClaim", "Pod"),
+                     kinds(resources));
+
+        Service service = (Service) resources.get(0);
+        assertEquals("web-app", service.getMetadata().getName());
+        assertEquals("NodePort", service.getSpec().getType());
+        assertEquals(Arrays.asList("80", "9000", "9001", "53-udp", "5005"), portNames(service));
+        assertEquals("UDP", service.getSpec().getPorts().get(3).getProtocol());
+        assertEquals(7001, (int) service.getSpec().getPorts().get(2).getTargetPort().getIntVal());
+
+        Deployment deployment = (Deployment) resources.get(1);
+        assertEquals(3, (int) deployment.getSpec().getReplicas());
+        assertEquals("Recreate", deployment.getSpec().getStrategy().getType());
+        assertEquals("web", deployment.getMetadata().getAnnotations().get("team"));
+        Container web = deployment.getSpec().getTemplate().getSpec().getContainers().get(0);
+        assertEquals("frontend", web.getName());
+        assertEquals("example/web:1.0", web.getImage());
+        assertEquals(Collections.singletonList("/docker-entrypoint.sh"), web.getCommand());
+        assertEquals(Arrays.asList("java", "-jar", "/opt/my app.jar", "--debug"), web.getArgs());
+        assertEquals("/opt", web.getWorkingDir());
+        assertEquals("db", envValue(web, "DB_HOST"));
+        assertEquals("/home/web", envValue(web, "HOME"));
+        assertEquals("536870912", web.getResources().getLimits().get("memory").getAmount());
+        assertEquals("data", web.getVolumeMounts().get(0).getName());
+        assertEquals("/var/data", web.getVolumeMounts().get(0).getMountPath());
+        assertEquals("web-app-claim0", web.getVolumeMounts().get(1).getName());
+        assertTrue(web.getVolumeMounts().get(1).getReadOnly());
+
+        PersistentVolumeClaim claim = (PersistentVolumeClaim) resources.get(3);
+        assertEquals("web-app-claim0", claim.getMetadata().getName());
+        assertEquals(Collections.singletonList("ReadOnlyMany"), claim.getSpec().getAccessModes());
+
+        // The "data" claim is shared and only created once
+        Pod db = (Pod) resources.get(4);
+        assertEquals("Never", db.getSpec().getRestartPolicy());
+        Container postgres = db.getSpec().getContainers().get(0);
+        assertEquals("$secret", envValue(postgres, "POSTGRES_PASSWORD"));
+        assertTrue(postgres.getSecurityContext().getPrivileged());
+        assertEquals(999L, (long) postgres.getSecurityContext().getRunAsUser());
+        assertEquals(Collections.singletonList("NET_ADMIN"), postgres.getSecurityContext().getCapabilities().getAdd());
+        assertEquals("data", postgres.getVolumeMounts().get(0).getName());
+    }
+
+    @Test
+    public void filteredComposeFile() throws Exception {
+        KubernetesResourceUtil.FragmentReader reader = new KubernetesResourceUtil.FragmentReader() {
+            @Override
+            public Reader open(File file) throws IOException {
+                String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+                return new StringReader(content.replace(":latest", ":1.0"));
+            }
+        };
+        List<HasMetadata> resources = new ComposeConverter(Collections.<String, String>emptyMap(), log)
+            .convert(getComposeFile("docker-compose.yaml"), reader);
+        Deployment deployment = (Deployment) resources.get(1);
+        assertEquals("fabric8-maven-sample-docker-compose:1.0",
+                     deployment.getSpec().getTemplate().getSpec().getContainers().get(0).getImage());
+    }
+
+    @Test
+    public void interpolation() {
+        Map<String, String> env = new HashMap<>();
+        env.put("SET", "value");
+        env.put("EMPTY", "");
+        ComposeConverter converter = new ComposeConverter(env, log);
+        assertEquals("value value value", converter.interpolate("$SET ${SET} ${SET:-default}"));
+        assertEquals("default  default", converter.interpolate("${EMPTY:-default} ${EMPTY-default} ${UNSET-default}"));
+        assertEquals("$SET costs $5", converter.interpolate("$$SET costs $5"));
+        assertEquals("", converter.interpolate("${UNSET}"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiredVariable() {
+        new ComposeConverter(Collections.<String, String>emptyMap(), log).interpolate("${UNSET:?must be set}");
+    }
+
+    @Test
+    public void portSpecifications() {
+        List<ComposeConverter.PortMapping> ports = ComposeConverter.parsePort("127.0.0.1:5000-5001:6000-6001/udp");
+        assertEquals(2, ports.size());
+        assertEquals(6001, ports.get(1).containerPort);
+        assertEquals(5001, (int) ports.get(1).hostPort);
+        assertEquals("UDP", ports.get(1).protocol);
+
+        ports = ComposeConverter.parsePort("3000");
+        assertEquals(3000, ports.get(0).containerPort);
+        assertNull(ports.get(0).hostPort);
+        assertEquals("TCP", ports.get(0).protocol);
+    }
+
+    // ========================================================================
+
+    private List<HasMetadata> convert(String name, Map<String, String> env) throws Exception {
+        return new ComposeConverter(env, log).convert(getComposeFile(name));
+    }
+
+    private File getComposeFile(String name) throws URISyntaxException {
+        return new File(getClass().getResource("/compose/" + name).toURI());
+    }
+
+    private static List<String> kinds(List<HasMetadata> resources) {
+        String[] ret = new String[resources.size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = resources.get(i).getKind();
+        }
+        return Arrays.asList(ret);
+    }
+
+    private static List<String> portNames(Service service) {
+        String[] ret = new String[service.getSpec().getPorts().size()];
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = service.getSpec().getPorts().get(i).getName();
+        }
+        return Arrays.asList(ret);
+    }
+
+    private static String envValue(Container container, String name) {
+        for (EnvVar env : container.getEnv()) {
+            if (env.getName().equals(name)) {
+                return env.getValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PortForwardProxyTest {
+
+    private Logger log = new AnsiLogger(new SystemStreamLog(), false, false);
+
+    private ServerSocket targetA;
+    private ServerSocket targetB;
+
+    @Before
+    public void setUp() throws IOException {
+        targetA = startGreeter('A');
+        targetB = startGreeter('B');
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        targetA.close();
+        targetB.close();
+    }
+
+    @Test
+    public void switchTargetWithoutClosingListener() throws IOException {
+        try (PortForwardProxy proxy = new PortForwardProxy(log, 0)) {
+            int localPort = proxy.getLocalPort();
+
+            proxy.setTargetPort(targetA.getLocalPort());
+            assertEquals('A', readGreeting(localPort));
+
+            proxy.setTargetPort(targetB.getLocalPort());
+            assertEquals('B', readGreeting(localPort));
+            assertEquals(localPort, proxy.getLocalPort());
+        }
+    }
+
+    @Test
+    public void connectionWaitsForTarget() throws Exception {
+        try (final PortForwardProxy proxy = new PortForwardProxy(log, 0)) {
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    proxy.setTargetPort(targetB.getLocalPort());
+                }
+            }.start();
+            assertEquals('B', readGreeting(proxy.getLocalPort()));
+        }
+    }
+
+    private int readGreeting(int port) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setSoTimeout(10000);
+            InputStream in = socket.getInputStream();
+            return in.read();
+        }
+    }
+
+    // Server which writes a single character to every connection and closes it
+    private ServerSocket startGreeter(final char greeting) throws IOException {
+        final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                while (!server.isClosed()) {
+                    try (Socket socket = server.accept()) {
+                        socket.getOutputStream().write(greeting);
+                        socket.getOutputStream().flush();
+                    } catch (IOException e) {
+                        // closed
+                    }
+                }
+            }
+        };
+        thread.setDaemon(true);
+        thread.start();
+        return server;
+    }
+}
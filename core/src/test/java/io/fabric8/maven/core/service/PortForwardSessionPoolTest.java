@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+
+import io.fabric8.maven.core.util.BuildSessionCache;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PortForwardSessionPoolTest {
+
+    private int stopped;
+
+    private final Closeable stopper = new Closeable() {
+        @Override
+        public void close() throws IOException {
+            stopped++;
+        }
+    };
+
+    @Test
+    public void stoppedWhenLastHandleIsClosed() throws Exception {
+        PortForwardService.SessionPool pool = new PortForwardService.SessionPool();
+        PortForwardService.Session session = new PortForwardService.Session(pool, "key", 9000, stopper);
+        pool.put("key", session);
+
+        PortForwardService.PortForward first = session.acquire();
+        // Reuse of the running session
+        PortForwardService.PortForward second = pool.get("key").acquire();
+        assertEquals(9000, second.getLocalPort());
+
+        first.close();
+        // Closing a handle twice must not release the session a second time
+        first.close();
+        assertEquals(0, stopped);
+        assertSame(session, pool.get("key"));
+
+        second.close();
+        assertEquals(1, stopped);
+        assertNull(pool.get("key"));
+    }
+
+    @Test
+    public void stoppedWhenPoolIsClosed() throws Exception {
+        PortForwardService.SessionPool pool = new PortForwardService.SessionPool();
+        PortForwardService.Session session = new PortForwardService.Session(pool, "key", 9000, stopper);
+        pool.put("key", session);
+        PortForwardService.PortForward handle = session.acquire();
+
+        pool.close();
+        assertEquals(1, stopped);
+        assertNull(pool.get("key"));
+
+        handle.close();
+        assertEquals(1, stopped);
+    }
+
+    @Test
+    public void poolSharedPerSessionCache() {
+        BuildSessionCache cache = BuildSessionCache.getOrCreate(new HashMap<String, Object>());
+        assertSame(PortForwardService.SessionPool.getPool(cache), PortForwardService.SessionPool.getPool(cache));
+        assertNotSame(PortForwardService.SessionPool.getPool(null), PortForwardService.SessionPool.getPool(null));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.maven.docker.util.Logger;
+import mockit.Mocked;
+import mockit.Verifications;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ResourcePatchServiceTest {
+
+    @Mocked
+    private KubernetesClient kubernetes;
+
+    @Mocked
+    private Logger log;
+
+    @Test
+    public void patchContainsOnlyChanges() {
+        JsonNode patch = ResourcePatchService.createPatch(deployment(1, "app:1.0"), deployment(3, "app:1.0"));
+        assertEquals(1, patch.size());
+        assertEquals("replace", patch.get(0).get("op").asText());
+        assertEquals("/spec/replicas", patch.get(0).get("path").asText());
+        assertEquals(3, patch.get(0).get("value").asInt());
+    }
+
+    @Test
+    public void unchangedResourceIsNotSent() {
+        ResourcePatchService service = new ResourcePatchService(kubernetes, "test", log);
+        assertFalse(service.patch(deployment(1, "app:1.0"), deployment(1, "app:1.0")));
+
+        new Verifications() {{
+            kubernetes.extensions(); times = 0;
+            kubernetes.resource(withAny(deployment(1, "app:1.0"))); times = 0;
+        }};
+    }
+
+    private Deployment deployment(int replicas, String image) {
+        return new DeploymentBuilder()
+            .withNewMetadata().withName("app").endMetadata()
+            .withNewSpec()
+              .withReplicas(replicas)
+              .withNewTemplate()
+                .withNewSpec()
+                  .addNewContainer().withName("app").withImage(image).endContainer()
+                .endSpec()
+              .endTemplate()
+            .endSpec()
+            .build();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BuildSessionCacheTest {
+
+    @Test
+    public void sharedViaPluginContext() {
+        Map<String, Object> pluginContext = new HashMap<>();
+        BuildSessionCache cache = BuildSessionCache.getOrCreate(pluginContext);
+        assertSame(cache, BuildSessionCache.getOrCreate(pluginContext));
+        assertNotSame(cache, BuildSessionCache.getOrCreate(new HashMap<String, Object>()));
+    }
+
+    @Test
+    public void recalculatedOnlyOnFingerprintChange() {
+        BuildSessionCache cache = BuildSessionCache.getOrCreate(new HashMap<String, Object>());
+        CountingLoader loader = new CountingLoader();
+
+        assertEquals("value1", cache.get("key", "fp1", loader));
+        assertEquals("value1", cache.get("key", "fp1", loader));
+        assertEquals(1, loader.count.get());
+
+        assertEquals("value2", cache.get("key", "fp2", loader));
+        assertEquals(2, loader.count.get());
+        assertNull(cache.getIfPresent("key", "fp1"));
+        assertEquals("value2", cache.getIfPresent("key", "fp2"));
+
+        cache.invalidate("key");
+        assertNull(cache.getIfPresent("key", "fp2"));
+    }
+
+    @Test
+    public void putReturnsPreviousValue() {
+        BuildSessionCache cache = new BuildSessionCache();
+        assertNull(cache.put("key", "fp1", "value1"));
+        assertEquals("value1", cache.put("key", "fp2", "value2"));
+    }
+
+    @Test
+    public void closedOnceWhenSessionEnds() {
+        MavenExecutionRequest request = new DefaultMavenExecutionRequest();
+        MavenSession session = new MavenSession(null, null, request, null);
+        Map<String, Object> pluginContext = new HashMap<>();
+        BuildSessionCache cache = BuildSessionCache.getOrCreate(pluginContext, session);
+        assertSame(cache, BuildSessionCache.getOrCreate(pluginContext, session));
+
+        CountingCloseable first = new CountingCloseable();
+        CountingCloseable second = new CountingCloseable();
+        cache.put("key", "fp1", first);
+        cache.closeOnSessionEnd(first);
+        cache.put("key", "fp2", second);
+        cache.closeOnSessionEnd(second);
+        assertEquals(0, first.count.get());
+
+        request.getExecutionListener().sessionEnded(null);
+        request.getExecutionListener().sessionEnded(null);
+        assertEquals(1, first.count.get());
+        assertEquals(1, second.count.get());
+        assertNull(cache.getIfPresent("key", "fp2"));
+
+        CountingCloseable late = new CountingCloseable();
+        cache.closeOnSessionEnd(late);
+        assertEquals(1, late.count.get());
+    }
+
+    private static class CountingCloseable implements Closeable {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public void close() {
+            count.incrementAndGet();
+        }
+    }
+
+    private static class CountingLoader implements BuildSessionCache.Loader<String, RuntimeException> {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public String load() {
+            return "value" + count.incrementAndGet();
+        }
+    }
+}
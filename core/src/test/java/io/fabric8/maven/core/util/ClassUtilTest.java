@@ -17,16 +17,21 @@
 package io.fabric8.maven.core.util;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URLDecoder;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -36,6 +41,9 @@ import static org.junit.Assert.assertTrue;
 
 public class ClassUtilTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void findOne() throws IOException {
         File root = getRelativePackagePath("mainclass/one");
@@ -60,6 +68,46 @@ public class ClassUtilTest {
         assertEquals(0,ret.size());
     }
 
+    @Test
+    public void findWithIndex() throws IOException {
+        File root = getRelativePackagePath("mainclass/two");
+        File index = new File(folder.getRoot(), "fabric8/main-classes.idx");
+        Set<String> ret = new HashSet<>(ClassUtil.findMainClasses(root, index));
+        assertEquals(2, ret.size());
+        assertTrue(index.exists());
+
+        // Second lookup is served from the index
+        ret = new HashSet<>(ClassUtil.findMainClasses(root, index));
+        assertEquals(2, ret.size());
+        assertTrue(ret.contains("OneMain"));
+        assertTrue(ret.contains("another.sub.a.bit.deeper.TwoMain"));
+    }
+
+    @Test
+    public void unchangedClassFilesAreNotReadAgain() throws IOException {
+        File root = getRelativePackagePath("mainclass/zero");
+        File bogus = new File(root, "Bogus.class");
+        File index = folder.newFile("main-classes.idx");
+        try (Writer writer = new FileWriter(index)) {
+            writer.write("# fabric8 main class index v1 " + root.getAbsolutePath() + File.separator + "\n");
+            writer.write(bogus.lastModified() + " " + bogus.length() + " 1 Bogus.class\n");
+        }
+        List<String> ret = ClassUtil.findMainClasses(root, index);
+        assertEquals(1, ret.size());
+        assertEquals("Bogus", ret.get(0));
+
+        // Index for another directory is ignored
+        ret = ClassUtil.findMainClasses(getRelativePackagePath("mainclass/one/sub"), index);
+        assertEquals(1, ret.size());
+        assertEquals("OneMain", ret.get(0));
+    }
+
+    @Test
+    public void hasMainMethod() throws IOException {
+        assertTrue(MainClassIndex.hasMainMethod(getClass().getResourceAsStream("mainclass/two/OneMain.class")));
+        assertFalse(MainClassIndex.hasMainMethod(getClass().getResourceAsStream("ClassUtil.class")));
+    }
+
     private File getRelativePackagePath(String subpath) {
         File parent =
             new File(decodeUrl(this.getClass().getProtectionDomain().getCodeSource().getLocation().getPath()));
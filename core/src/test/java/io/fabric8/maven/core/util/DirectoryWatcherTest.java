@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class DirectoryWatcherTest {
+
+    private static final long QUIET_PERIOD = 300;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Logger log = new AnsiLogger(new SystemStreamLog(), false, false);
+
+    @Test
+    public void burstIsCoalesced() throws Exception {
+        final List<Set<Path>> bursts = Collections.synchronizedList(new ArrayList<Set<Path>>());
+        final CountDownLatch latch = new CountDownLatch(1);
+        File root = folder.newFolder("classes");
+        File pkg = new File(root, "pkg");
+        assertTrue(pkg.mkdir());
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher(log, "test", QUIET_PERIOD, new DirectoryWatcher.Listener() {
+            @Override
+            public void changed(Set<Path> changed, long firstEvent) {
+                bursts.add(changed);
+                latch.countDown();
+            }
+        })) {
+            watcher.register(root, true);
+            watcher.start();
+
+            for (int i = 0; i < 10; i++) {
+                Files.write(new File(pkg, "Class" + i + ".class").toPath(), new byte[] { (byte) i });
+            }
+
+            assertTrue(latch.await(20, TimeUnit.SECONDS));
+            Thread.sleep(QUIET_PERIOD * 3);
+        }
+
+        assertEquals(1, bursts.size());
+        assertTrue(bursts.get(0).contains(new File(pkg, "Class9.class").toPath()));
+    }
+
+    @Test
+    public void newDirectoriesAreWatched() throws Exception {
+        final List<Path> changes = Collections.synchronizedList(new ArrayList<Path>());
+        final CountDownLatch latch = new CountDownLatch(2);
+        File root = folder.newFolder("classes");
+
+        try (DirectoryWatcher watcher = new DirectoryWatcher(log, "test", QUIET_PERIOD, new DirectoryWatcher.Listener() {
+            @Override
+            public void changed(Set<Path> changed, long firstEvent) {
+                changes.addAll(changed);
+                latch.countDown();
+            }
+        })) {
+            watcher.register(root, true);
+            watcher.start();
+
+            File pkg = new File(root, "pkg");
+            assertTrue(pkg.mkdir());
+            // Wait for the burst with the new directory to finish before touching it
+            Thread.sleep(QUIET_PERIOD * 3);
+            Files.write(new File(pkg, "Main.class").toPath(), new byte[] { 1 });
+
+            assertTrue(latch.await(20, TimeUnit.SECONDS));
+        }
+
+        assertTrue(changes.contains(new File(root, "pkg/Main.class").toPath()));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FragmentNamingTest {
+
+    // Pattern previously used for classifying fragments
+    private static final Pattern FILENAME_PATTERN =
+        Pattern.compile("^(?<name>.*?)(-(?<type>[^-]+))?\\.(?<ext>yaml|yml|json)$", Pattern.CASE_INSENSITIVE);
+
+    @Test
+    public void classify() {
+        assertFragment(FragmentNaming.classify("app-svc.yml"), "app", "svc", "yml", "Service");
+        assertFragment(FragmentNaming.classify("my-app-SVC.YAML"), "my-app", "SVC", "yaml", "Service");
+        assertFragment(FragmentNaming.classify("cm.json"), null, null, "json", "ConfigMap");
+        assertFragment(FragmentNaming.classify("app.yml"), "app", null, "yml", null);
+        assertFragment(FragmentNaming.classify("app-bla.yml"), "app", "bla", "yml", null);
+        assertFragment(FragmentNaming.classify("app-.yml"), "app-", null, "yml", null);
+        assertFragment(FragmentNaming.classify("a.b-rc.yml"), "a.b", "rc", "yml", "ReplicationController");
+        assertNull(FragmentNaming.classify("app-svc.txt"));
+        assertNull(FragmentNaming.classify("app-svc"));
+    }
+
+    @Test
+    public void sameResultAsPattern() {
+        String alphabet = "-.aASsvcyYmlj";
+        String[] suffixes = { ".yml", ".yaml", ".json", ".YmL", ".xml", "", "-svc.yml", "-dc.json" };
+        Random random = new Random(42);
+        for (int run = 0; run < 10000; run++) {
+            StringBuilder fileName = new StringBuilder();
+            int len = random.nextInt(8);
+            for (int i = 0; i < len; i++) {
+                fileName.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            fileName.append(suffixes[random.nextInt(suffixes.length)]);
+
+            Matcher matcher = FILENAME_PATTERN.matcher(fileName);
+            FragmentNaming.Fragment fragment = FragmentNaming.classify(fileName.toString());
+            if (!matcher.matches()) {
+                assertNull(fileName.toString(), fragment);
+                continue;
+            }
+            String name = matcher.group("name");
+            String type = matcher.group("type");
+            String kind = FragmentNaming.getKindForType(type != null ? type : name);
+            if (type == null && kind != null) {
+                name = null;
+            }
+            assertFragment(fragment, name, type, matcher.group("ext").toLowerCase(), kind);
+        }
+    }
+
+    @Test
+    public void isFragmentFile() {
+        assertTrue(FragmentNaming.isFragmentFile("app-svc.yml"));
+        assertTrue(FragmentNaming.isFragmentFile("deployment.json"));
+        assertFalse(FragmentNaming.isFragmentFile("app-svc.YML"));
+        assertFalse(FragmentNaming.isFragmentFile("README.md"));
+        assertFalse(FragmentNaming.isFragmentFile("profiles.yml"));
+        assertFalse(FragmentNaming.isFragmentFile("profile.yaml"));
+        assertTrue(FragmentNaming.isFragmentFile("my-profiles.yaml"));
+    }
+
+    @Test
+    public void lookups() {
+        assertEquals("Service", FragmentNaming.getKindForType("svc"));
+        assertEquals("Service", FragmentNaming.getKindForType("Service"));
+        assertNull(FragmentNaming.getKindForType("bla"));
+        assertEquals("svc", FragmentNaming.getTypeForKind("Service"));
+        assertEquals("configmap", FragmentNaming.getTypeForKind("ConfigMap"));
+        assertNull(FragmentNaming.getTypeForKind("service"));
+        assertNull(FragmentNaming.getTypeForKind(null));
+        assertTrue(FragmentNaming.getTypes().contains("svc"));
+    }
+
+    @Test
+    public void apiVersion() {
+        ResourceVersioning versions = new ResourceVersioning("core", "ext", "apps", "job");
+        assertEquals("ext", FragmentNaming.getApiVersion("Deployment", versions));
+        assertEquals("ext", FragmentNaming.getApiVersion("Ingress", versions));
+        assertEquals("apps", FragmentNaming.getApiVersion("StatefulSet", versions));
+        assertEquals("job", FragmentNaming.getApiVersion("Job", versions));
+        assertEquals("core", FragmentNaming.getApiVersion("Service", versions));
+        assertEquals("core", FragmentNaming.getApiVersion(null, versions));
+    }
+
+    private void assertFragment(FragmentNaming.Fragment fragment, String name, String type, String ext, String kind) {
+        assertEquals(name, fragment.getName());
+        assertEquals(type, fragment.getType());
+        assertEquals(ext, fragment.getExtension());
+        assertEquals(kind, fragment.getKind());
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import io.fabric8.utils.Strings;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class MultiStringReplacerTest {
+
+    @Test
+    public void leftmostMatchWins() {
+        MultiStringReplacer replacer = MultiStringReplacer.builder()
+            .add("he", "1").add("she", "2").add("his", "3").add("hers", "4")
+            .build();
+        // "she" starts before "he", for "he" and "hers" at the same position the first added wins
+        assertEquals("u2rs a31rs", replacer.replace("ushers ahishers"));
+    }
+
+    @Test
+    public void replacementsAreNotScannedAgain() {
+        MultiStringReplacer replacer = MultiStringReplacer.builder().add("${A}", "${B}").add("${B}", "b").build();
+        assertEquals("${B} b", replacer.replace("${A} ${B}"));
+    }
+
+    @Test
+    public void unchangedTextIsReturnedAsIs() {
+        String text = "nothing to replace here";
+        assertSame(text, MultiStringReplacer.builder().add("${A}", "a").build().replace(text));
+        assertSame(text, MultiStringReplacer.builder().build().replace(text));
+    }
+
+    @Test
+    public void sameResultAsSequentialReplacement() {
+        String[] names = { "A", "AB", "ABC", "B", "BA", "C", "A" };
+        String alphabet = "$${}ABC x";
+        Random random = new Random(42);
+        for (int run = 0; run < 10000; run++) {
+            List<String> params = new ArrayList<>();
+            for (int i = random.nextInt(names.length) + 1; i > 0; i--) {
+                params.add(names[random.nextInt(names.length)]);
+            }
+            StringBuilder text = new StringBuilder();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            MultiStringReplacer.Builder builder = MultiStringReplacer.builder();
+            String expected = text.toString();
+            for (int i = 0; i < params.size(); i++) {
+                String replacement = "<" + i + ">";
+                builder.add("${" + params.get(i) + "}", replacement).add("$" + params.get(i), replacement);
+                expected = Strings.replaceAllWithoutRegex(expected, "${" + params.get(i) + "}", replacement);
+                expected = Strings.replaceAllWithoutRegex(expected, "$" + params.get(i), replacement);
+            }
+            assertEquals(params + " in " + text, expected, builder.build().replace(text.toString()));
+        }
+    }
+}
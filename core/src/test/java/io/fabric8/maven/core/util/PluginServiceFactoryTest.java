@@ -16,11 +16,19 @@
 
 package io.fabric8.maven.core.util;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.List;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.*;
 
@@ -30,6 +38,9 @@ import static org.junit.Assert.*;
  */
 public class PluginServiceFactoryTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private class TestContext {}
     private PluginServiceFactory<TestContext> pluginServiceFactory;
 
@@ -66,6 +77,33 @@ public class PluginServiceFactoryTest {
         String bla = services.get(0);
     }
 
+    @Test
+    public void cacheNotSharedBetweenClassLoaders() throws IOException {
+        BuildSessionCache cache = new BuildSessionCache();
+        File dir = folder.newFolder("classes");
+        writeDescriptor(dir, Test1.class);
+        assertEquals("one", createCachedService(cache, dir).getName());
+
+        // A new class loader reads the descriptors again, even for the same classpath
+        writeDescriptor(dir, Test2.class);
+        assertEquals("two", createCachedService(cache, dir).getName());
+    }
+
+    private TestService createCachedService(BuildSessionCache cache, File dir) throws IOException {
+        PluginServiceFactory<TestContext> factory =
+            new PluginServiceFactory<>(new TestContext(), new URLClassLoader(new URL[] { dir.toURI().toURL() }, null));
+        factory.setBuildSessionCache(cache);
+        List<TestService> services = factory.createServiceObjects("service/cached-services");
+        assertEquals(1, services.size());
+        return services.get(0);
+    }
+
+    private void writeDescriptor(File dir, Class<?> service) throws IOException {
+        File descriptor = new File(dir, "service/cached-services");
+        descriptor.getParentFile().mkdirs();
+        Files.write(descriptor.toPath(), service.getName().getBytes(StandardCharsets.UTF_8));
+    }
+
     interface TestService { String getName(); }
     public static class Test1 implements TestService { public Test1(TestContext ctx) { } public String getName() { return "one"; } }
     public static class Test2 implements TestService { public Test2(TestContext ctx) { } public String getName() { return "two"; } }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.Logger;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class ProcessorTimingsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Logger log = new AnsiLogger(new SystemStreamLog(), false, false);
+
+    @Test
+    public void disabled() throws Exception {
+        File report = new File(folder.getRoot(), "fabric8/timings.json");
+        ProcessorTimings timings = ProcessorTimings.DISABLED;
+        assertFalse(timings.isEnabled());
+        timings.record("enricher", "adapt", "fmp-name", timings.start(), 1);
+        timings.report(report, "fabric8:resource", log);
+        assertFalse(report.exists());
+    }
+
+    @Test
+    public void reportPerGoal() throws Exception {
+        File report = new File(folder.getRoot(), "fabric8/timings.json");
+
+        ProcessorTimings resourceTimings = new ProcessorTimings();
+        resourceTimings.record("enricher", "adapt", "fmp-name", resourceTimings.start(), 3);
+        resourceTimings.record("enricher", "adapt", "fmp-name", resourceTimings.start(), 2);
+        resourceTimings.record("generator", "customize", "java-exec", resourceTimings.start(), 1);
+        resourceTimings.report(report, "fabric8:resource", log);
+
+        ProcessorTimings buildTimings = new ProcessorTimings();
+        buildTimings.record("generator", "customize", "spring-boot", buildTimings.start(), 1);
+        buildTimings.report(report, "fabric8:build", log);
+
+        Map<String, Map<String, Map<String, Map<String, Map<String, Number>>>>> json =
+            new ObjectMapper().readValue(report, Map.class);
+        Map<String, Number> stat = json.get("fabric8:resource").get("enricher").get("adapt").get("fmp-name");
+        assertEquals(2, stat.get("count").intValue());
+        assertEquals(5, stat.get("items").intValue());
+        assertTrue(stat.get("millis").doubleValue() >= 0);
+        assertNotNull(json.get("fabric8:resource").get("generator").get("customize").get("java-exec"));
+        assertNotNull(json.get("fabric8:build").get("generator").get("customize").get("spring-boot"));
+    }
+}
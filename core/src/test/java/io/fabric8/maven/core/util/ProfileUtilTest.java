@@ -17,6 +17,7 @@
 package io.fabric8.maven.core.util;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
@@ -26,7 +27,9 @@ import java.util.List;
 
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.Profile;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.*;
 
@@ -36,6 +39,9 @@ import static org.junit.Assert.*;
  */
 public class ProfileUtilTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void simple() throws IOException {
         InputStream is = getClass().getResourceAsStream("/fabric8/config/profiles-lookup-dir/profiles.yaml");
@@ -125,4 +131,53 @@ public class ProfileUtilTest {
         assertFalse(mergeConfig.use("spring.swarm"));
 
     }
+
+    @Test
+    public void blendProfilesWithCache() throws Exception {
+        BuildSessionCache cache = new BuildSessionCache();
+        ProcessorConfig origConfig = new ProcessorConfig(Arrays.asList("i1", "i2"), Collections.singleton("spring.swarm"), null);
+        ProcessorConfig mergeConfig = ProfileUtil.blendProfileWithConfiguration(cache, ProfileUtil.ENRICHER_CONFIG,
+                                                                                "simple", getProfileDir(), origConfig);
+        assertTrue(mergeConfig.use("base"));
+        assertEquals(mergeConfig.getConfig("base", "url"),"http://jolokia.org");
+
+        // An equal configuration hits the cache
+        ProcessorConfig sameConfig = new ProcessorConfig(Arrays.asList("i1", "i2"), Collections.singleton("spring.swarm"), null);
+        assertSame(mergeConfig, ProfileUtil.blendProfileWithConfiguration(cache, ProfileUtil.ENRICHER_CONFIG,
+                                                                          "simple", getProfileDir(), sameConfig));
+
+        // A different extractor or configuration doesn't
+        ProcessorConfig generatorConfig = ProfileUtil.blendProfileWithConfiguration(cache, ProfileUtil.GENERATOR_CONFIG,
+                                                                                    "simple", getProfileDir(), origConfig);
+        assertNotSame(mergeConfig, generatorConfig);
+        assertTrue(generatorConfig.use("i2"));
+        ProcessorConfig otherConfig = new ProcessorConfig(Arrays.asList("i1"), null, null);
+        assertFalse(ProfileUtil.blendProfileWithConfiguration(cache, ProfileUtil.ENRICHER_CONFIG,
+                                                              "simple", getProfileDir(), otherConfig).use("i2"));
+    }
+
+    @Test
+    public void lookupIsCachedUntilProfileFileChanges() throws IOException {
+        File dir = folder.newFolder();
+        File profileFile = new File(dir, "profiles.yml");
+        writeProfile(profileFile, "first");
+        BuildSessionCache cache = new BuildSessionCache();
+        Profile profile = ProfileUtil.lookup(cache, "cached", dir);
+        assertTrue(profile.getEnricherConfig().use("first"));
+        assertSame(profile, ProfileUtil.lookup(cache, "cached", dir));
+        assertNotSame(profile, ProfileUtil.lookup("cached", dir));
+
+        writeProfile(profileFile, "second-enricher");
+        profileFile.setLastModified(profileFile.lastModified() + 2000);
+        Profile changed = ProfileUtil.lookup(cache, "cached", dir);
+        assertNotSame(profile, changed);
+        assertTrue(changed.getEnricherConfig().use("second-enricher"));
+        assertFalse(changed.getEnricherConfig().use("first"));
+    }
+
+    private void writeProfile(File file, String include) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("- name: cached\n  enricher:\n    includes: [ " + include + " ]\n");
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.core.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ProjectClassLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void resourcesInClasspathOrder() throws IOException {
+        File dir = createDir("classes", "META-INF/services/test", "dir");
+        File jar1 = createJar("one.jar", "META-INF/", "META-INF/services/test", "one.txt", "with space.txt", "Foo.class");
+        File jar2 = createJar("two.jar", "META-INF/services/test");
+        File missing = new File(folder.getRoot(), "missing.jar");
+
+        try (ProjectClassLoader loader = new ProjectClassLoader(Arrays.asList(dir, missing, jar1, jar2), null)) {
+            List<URL> urls = Collections.list(loader.findResources("META-INF/services/test"));
+            assertEquals(3, urls.size());
+            assertEquals("dir", read(urls.get(0)));
+            assertEquals("one.jar", read(urls.get(1)));
+            assertEquals("two.jar", read(urls.get(2)));
+
+            assertEquals("one.jar", read(loader.findResource("one.txt")));
+            assertEquals("one.jar", read(loader.findResource("with space.txt")));
+            assertNotNull(loader.findResource("META-INF"));
+            assertNotNull(loader.findResource("Foo.class"));
+            assertNull(loader.findResource("nothing.txt"));
+        }
+    }
+
+    @Test
+    public void directoriesAreNotIndexed() throws IOException {
+        File dir = new File(folder.getRoot(), "classes");
+        File jar = createJar("one.jar", "one.txt");
+        try (ProjectClassLoader loader = new ProjectClassLoader(Arrays.asList(dir, jar), null)) {
+            assertEquals("one.jar", read(loader.findResource("one.txt")));
+
+            // Directory is created after the first lookup, e.g. by a compile in between
+            createDir("classes", "one.txt", "dir");
+            assertEquals("dir", read(loader.findResource("one.txt")));
+        }
+    }
+
+    private File createDir(String name, String resource, String content) throws IOException {
+        File dir = new File(folder.getRoot(), name);
+        File file = new File(dir, resource);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return dir;
+    }
+
+    // All file entries contain the name of the jar
+    private File createJar(String name, String... entries) throws IOException {
+        File jar = new File(folder.getRoot(), name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                if (!entry.endsWith("/")) {
+                    out.write(name.getBytes(StandardCharsets.UTF_8));
+                }
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private String read(URL url) throws IOException {
+        try (InputStream is = url.openStream(); Scanner scanner = new Scanner(is, "UTF-8")) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+}
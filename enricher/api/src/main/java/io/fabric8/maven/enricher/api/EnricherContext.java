@@ -20,10 +20,14 @@ import java.util.List;
 
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.ResourceConfig;
+import io.fabric8.maven.core.util.BuildSessionCache;
+import io.fabric8.maven.core.util.ClassUtil;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.core.util.OpenShiftDependencyResources;
+import io.fabric8.maven.core.util.ProcessorTimings;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.enricher.api.util.InitContainerHandler;
 
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -52,6 +56,9 @@ public class EnricherContext {
     private OpenShiftDependencyResources openshiftDependencyResources;
     private MavenSession session;
     private GoalFinder goalFinder;
+    private BuildSessionCache buildSessionCache;
+    private ProcessorTimings timings = ProcessorTimings.DISABLED;
+    private InitContainerHandler initContainerHandler;
 
     private EnricherContext() {}
 
@@ -91,6 +98,34 @@ public class EnricherContext {
         return openshiftDependencyResources;
     }
 
+    /**
+     * Class loader over the project's compile classpath. It is shared via the build session cache,
+     * so it must not be closed by the caller.
+     *
+     * @return the project class loader
+     */
+    public ClassLoader getProjectClassLoader() {
+        return ClassUtil.getProjectClassLoader(project, buildSessionCache, log);
+    }
+
+    public BuildSessionCache getBuildSessionCache() {
+        return buildSessionCache;
+    }
+
+    public ProcessorTimings getTimings() {
+        return timings;
+    }
+
+    /**
+     * Handler for the init containers which is shared by all enrichers, so that the init container annotation
+     * of a pod template is parsed and written only once per enricher.
+     *
+     * @return the shared init container handler
+     */
+    public InitContainerHandler getInitContainerHandler() {
+        return initContainerHandler;
+    }
+
     /**
      * Returns true if we are in watch mode
      */
@@ -169,7 +204,18 @@ public class EnricherContext {
             return this;
         }
 
+        public Builder buildSessionCache(BuildSessionCache buildSessionCache) {
+            ctx.buildSessionCache = buildSessionCache;
+            return this;
+        }
+
+        public Builder timings(ProcessorTimings timings) {
+            ctx.timings = timings;
+            return this;
+        }
+
         public EnricherContext build() {
+            ctx.initContainerHandler = new InitContainerHandler(ctx.log);
             return ctx;
         }
 
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.api.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.maven.core.util.BuildSessionCache;
+import io.fabric8.maven.core.util.MavenUtil;
+import io.fabric8.utils.GitHelpers;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+/**
+ * Provides branch, commit and remote URLs of the Git repository a project lives in.
+ *
+ * The repository is opened only once per repository root and the extracted information is shared
+ * by all callers using the same {@link BuildSessionCache} (i.e. by all enrichers and all modules of a reactor build).
+ * It is dropped together with the cache when the build session ends.
+ * The cached information is refreshed when <code>HEAD</code>, the current branch's ref, the packed refs
+ * or the repository configuration change.
+ */
+public class GitMetadataService {
+
+    private static final String CACHE_KEY = GitMetadataService.class.getName();
+
+    // base directory -> .git directory, to avoid walking up the directory tree again and again
+    private final Map<File, File> gitFolders = new HashMap<>();
+
+    // .git directory -> metadata extracted from this repository
+    private final Map<File, CachedMetadata> metadataCache = new HashMap<>();
+
+    /**
+     * Get the service shared within the build session
+     *
+     * @param cache cache of the build session. If null, a new service is returned which is not shared.
+     * @return the service
+     */
+    public static GitMetadataService getInstance(BuildSessionCache cache) {
+        if (cache == null) {
+            return new GitMetadataService();
+        }
+        synchronized (cache) {
+            GitMetadataService service = cache.getIfPresent(CACHE_KEY, null);
+            if (service == null) {
+                service = new GitMetadataService();
+                cache.put(CACHE_KEY, null, service);
+            }
+            return service;
+        }
+    }
+
+    /**
+     * Get the Git metadata for the repository of the given project. The repository is looked up
+     * starting from the base directory of the project's root project.
+     *
+     * @param project project to examine
+     * @return metadata or null if the project is not within a Git repository
+     * @throws IOException if the repository can not be read
+     */
+    public GitMetadata getMetadata(MavenProject project) throws IOException {
+        MavenProject rootProject = MavenUtil.getRootProject(project);
+        File baseDir = rootProject.getBasedir();
+        if (baseDir == null) {
+            baseDir = project.getBasedir();
+        }
+        if (baseDir == null) {
+            baseDir = new File(System.getProperty("basedir", "."));
+        }
+        return getMetadata(baseDir);
+    }
+
+    /**
+     * Get the Git metadata for the repository containing the given directory
+     *
+     * @param baseDir directory within a repository
+     * @return metadata or null if the directory is not within a Git repository
+     * @throws IOException if the repository can not be read
+     */
+    public synchronized GitMetadata getMetadata(File baseDir) throws IOException {
+        File gitFolder = findGitFolder(baseDir);
+        if (gitFolder == null) {
+            return null;
+        }
+        List<Object> fingerprint = fingerprint(gitFolder);
+        CachedMetadata cached = metadataCache.get(gitFolder);
+        if (cached == null || !cached.fingerprint.equals(fingerprint)) {
+            try (Repository repository = openRepository(gitFolder)) {
+                cached = new CachedMetadata(fingerprint, extractMetadata(gitFolder, repository));
+            }
+            metadataCache.put(gitFolder, cached);
+        }
+        return cached.metadata;
+    }
+
+    // Visible for testing
+    Repository openRepository(File gitFolder) throws IOException {
+        return new FileRepositoryBuilder()
+            .readEnvironment()
+            .setGitDir(gitFolder)
+            .build();
+    }
+
+    // ========================================================================
+
+    private File findGitFolder(File baseDir) {
+        File key = baseDir.getAbsoluteFile();
+        File gitFolder = gitFolders.get(key);
+        if (gitFolder == null || !gitFolder.isDirectory()) {
+            gitFolder = GitHelpers.findGitFolder(baseDir);
+            // A missing repository is not remembered, it might get created later on
+            if (gitFolder != null) {
+                gitFolders.put(key, gitFolder);
+            }
+        }
+        return gitFolder;
+    }
+
+    private GitMetadata extractMetadata(File gitFolder, Repository repository) throws IOException {
+        ObjectId head = repository.resolve(Constants.HEAD);
+        StoredConfig config = repository.getConfig();
+        Map<String, String> remoteUrls = new HashMap<>();
+        for (String remote : config.getSubsections("remote")) {
+            String url = config.getString("remote", remote, "url");
+            if (url != null) {
+                remoteUrls.put(remote, url);
+            }
+        }
+        return new GitMetadata(gitFolder, repository.getBranch(), head != null ? head.getName() : null, remoteUrls);
+    }
+
+    // Cheap to calculate fingerprint, which changes when a commit is made, the branch is switched or
+    // the remotes are changed
+    private List<Object> fingerprint(File gitFolder) throws IOException {
+        List<Object> ret = new ArrayList<>();
+        File headFile = new File(gitFolder, Constants.HEAD);
+        String head = headFile.isFile() ? new String(Files.readAllBytes(headFile.toPath()), StandardCharsets.UTF_8).trim() : null;
+        ret.add(head);
+        if (head != null && head.startsWith("ref: ")) {
+            addFileStat(ret, new File(gitFolder, head.substring("ref: ".length()).trim()));
+        }
+        // The reflog grows with every commit, which also catches commits within the mtime granularity
+        addFileStat(ret, new File(gitFolder, Constants.LOGS + "/" + Constants.HEAD));
+        addFileStat(ret, new File(gitFolder, Constants.PACKED_REFS));
+        addFileStat(ret, new File(gitFolder, Constants.CONFIG));
+        return ret;
+    }
+
+    private void addFileStat(List<Object> fingerprint, File file) {
+        fingerprint.add(file.lastModified());
+        fingerprint.add(file.length());
+    }
+
+    private static final class CachedMetadata {
+        private final List<Object> fingerprint;
+        private final GitMetadata metadata;
+
+        private CachedMetadata(List<Object> fingerprint, GitMetadata metadata) {
+            this.fingerprint = fingerprint;
+            this.metadata = metadata;
+        }
+    }
+
+    /**
+     * Information extracted from a Git repository
+     */
+    public static final class GitMetadata {
+        private final File gitFolder;
+        private final String branch;
+        private final String commitId;
+        private final Map<String, String> remoteUrls;
+
+        GitMetadata(File gitFolder, String branch, String commitId, Map<String, String> remoteUrls) {
+            this.gitFolder = gitFolder;
+            this.branch = branch;
+            this.commitId = commitId;
+            this.remoteUrls = Collections.unmodifiableMap(remoteUrls);
+        }
+
+        public File getGitFolder() {
+            return gitFolder;
+        }
+
+        /**
+         * @return current branch or null if not known
+         */
+        public String getBranch() {
+            return branch;
+        }
+
+        /**
+         * @return id of the commit <code>HEAD</code> points to or null if there is no commit yet
+         */
+        public String getCommitId() {
+            return commitId;
+        }
+
+        /**
+         * @param remote name of the remote, e.g. "origin"
+         * @return the configured URL of the given remote or null if no such remote exists
+         */
+        public String getRemoteUrl(String remote) {
+            return remoteUrls.get(remote);
+        }
+    }
+}
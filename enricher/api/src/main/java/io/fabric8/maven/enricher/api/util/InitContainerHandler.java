@@ -16,6 +16,8 @@
 
 package io.fabric8.maven.enricher.api.util;
 
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import io.fabric8.kubernetes.api.model.ObjectMeta;
@@ -27,6 +29,14 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 /**
+ * Manages the init containers of pod templates, which are stored as JSON array in the annotation
+ * {@link #INIT_CONTAINER_ANNOTATION}.
+ *
+ * The annotation of a pod template is parsed only once into an in-memory model which is then used for all
+ * lookups and modifications. The modified models are serialized back into their annotations with
+ * {@link #flush()}. The enricher manager flushes the handler of the {@link io.fabric8.maven.enricher.api.EnricherContext}
+ * after each enricher, so enrichers using this handler don't need to care about this.
+ *
  * @author roland
  * @since 07/02/17
  */
@@ -36,6 +46,10 @@ public class InitContainerHandler {
 
     Logger log;
 
+    // Parsed init containers per pod template builder. Builders don't implement equals() in a useful way,
+    // so they are compared by identity
+    private final Map<PodTemplateSpecBuilder, InitContainers> initContainersByTemplate = new IdentityHashMap<>();
+
     public InitContainerHandler(Logger log) {
         this.log = log;
     }
@@ -45,53 +59,17 @@ public class InitContainerHandler {
     }
 
     public JSONObject getInitContainer(PodTemplateSpecBuilder builder, String name) {
-        if (builder.hasMetadata()) {
-            String initContainerAnnotation = builder.buildMetadata().getAnnotations().get(INIT_CONTAINER_ANNOTATION);
-            if (Strings.isNotBlank(initContainerAnnotation)) {
-                JSONArray initContainers = new JSONArray(initContainerAnnotation);
-                for (int i = 0; i < initContainers.length(); i++) {
-                    JSONObject obj = initContainers.getJSONObject(i);
-                    String existingName = obj.getString("name");
-                    if (name.equals(existingName)) {
-                        return obj;
-                    }
-                }
-            }
-        }
-        return null;
+        return getInitContainers(builder).get(name);
     }
 
     public void removeInitContainer(PodTemplateSpecBuilder builder, String initContainerName) {
-        if (hasInitContainer(builder, initContainerName)) {
-            ObjectMeta meta = builder.buildMetadata();
-            Map<String, String> annos = meta.getAnnotations();
-            JSONArray newInitContainers = removeFromInitContainersJson(annos.get(INIT_CONTAINER_ANNOTATION), initContainerName);
-            if (newInitContainers.length() > 0) {
-                annos.put(INIT_CONTAINER_ANNOTATION, newInitContainers.toString());
-            } else {
-                annos.remove(INIT_CONTAINER_ANNOTATION);
-            }
-            meta.setAnnotations(annos);
-        }
-    }
-
-    private JSONArray removeFromInitContainersJson(String initContainersJson, String initContainerName) {
-        JSONArray newInitContainers = new JSONArray();
-        JSONArray initContainers = new JSONArray(initContainersJson);
-
-        for (int i = 0; i < initContainers.length(); i++) {
-            JSONObject obj = initContainers.getJSONObject(i);
-            String existingName = obj.getString("name");
-            if (!initContainerName.equals(existingName)) {
-                newInitContainers.put(obj);
-            }
-        }
-        return newInitContainers;
+        getInitContainers(builder).remove(initContainerName);
     }
 
     public void appendInitContainer(PodTemplateSpecBuilder builder, JSONObject initContainer) {
         String name = initContainer.getString("name");
-        JSONObject existing = getInitContainer(builder, name);
+        InitContainers initContainers = getInitContainers(builder);
+        JSONObject existing = initContainers.get(name);
         if (existing != null) {
             if (JSONUtil.equals(existing, initContainer)) {
                 log.warn("Trying to add init-container %s a second time. Ignoring ....", name);
@@ -103,16 +81,100 @@ public class InitContainerHandler {
                                   builder.build().getMetadata().getName(), name));
             }
         }
-        ensureMetadata(builder);
-        String initContainerAnnotation = builder.buildMetadata().getAnnotations().get(INIT_CONTAINER_ANNOTATION);
-        JSONArray initContainers = Strings.isNullOrBlank(initContainerAnnotation) ? new JSONArray() : new JSONArray(initContainerAnnotation);
-        initContainers.put(initContainer);
-        builder.editMetadata().addToAnnotations(INIT_CONTAINER_ANNOTATION, initContainers.toString()).endMetadata();
+        initContainers.add(initContainer);
+    }
+
+    /**
+     * Write the init containers of all modified pod templates into their annotation. Afterwards the parsed
+     * models are dropped, so that the annotations are parsed again on the next access. This picks up changes
+     * done by others and pod template builders which have been replaced in the meantime.
+     */
+    public void flush() {
+        for (Map.Entry<PodTemplateSpecBuilder, InitContainers> entry : initContainersByTemplate.entrySet()) {
+            InitContainers initContainers = entry.getValue();
+            if (initContainers.modified) {
+                writeAnnotation(entry.getKey(), initContainers.isEmpty() ? null : initContainers.toJson());
+            }
+        }
+        initContainersByTemplate.clear();
+    }
+
+    // ========================================================================
+
+    private InitContainers getInitContainers(PodTemplateSpecBuilder builder) {
+        InitContainers initContainers = initContainersByTemplate.get(builder);
+        if (initContainers == null) {
+            initContainers = new InitContainers(readAnnotation(builder));
+            initContainersByTemplate.put(builder, initContainers);
+        }
+        return initContainers;
+    }
+
+    private String readAnnotation(PodTemplateSpecBuilder builder) {
+        if (builder.hasMetadata()) {
+            Map<String, String> annotations = builder.buildMetadata().getAnnotations();
+            return annotations != null ? annotations.get(INIT_CONTAINER_ANNOTATION) : null;
+        }
+        return null;
     }
 
-    private void ensureMetadata(PodTemplateSpecBuilder obj) {
-        if (obj.buildMetadata() == null) {
-            obj.withNewMetadata().endMetadata();
+    private void writeAnnotation(PodTemplateSpecBuilder builder, String value) {
+        ObjectMeta meta = builder.buildMetadata();
+        Map<String, String> annotations = new LinkedHashMap<>();
+        if (meta != null && meta.getAnnotations() != null) {
+            annotations.putAll(meta.getAnnotations());
+        }
+        if (value != null) {
+            annotations.put(INIT_CONTAINER_ANNOTATION, value);
+        } else if (annotations.remove(INIT_CONTAINER_ANNOTATION) == null) {
+            return;
+        }
+        if (meta == null) {
+            builder.withNewMetadata().withAnnotations(annotations).endMetadata();
+        } else {
+            builder.editMetadata().withAnnotations(annotations).endMetadata();
+        }
+    }
+
+    // In-memory model of the init containers of a single pod template, keyed and ordered by name
+    private static final class InitContainers {
+
+        private final Map<String, JSONObject> containers = new LinkedHashMap<>();
+
+        // whether the model differs from the annotation it has been parsed from
+        private boolean modified;
+
+        private InitContainers(String source) {
+            if (Strings.isNotBlank(source)) {
+                JSONArray array = new JSONArray(source);
+                for (int i = 0; i < array.length(); i++) {
+                    JSONObject obj = array.getJSONObject(i);
+                    containers.put(obj.getString("name"), obj);
+                }
+            }
+        }
+
+        private JSONObject get(String name) {
+            return containers.get(name);
+        }
+
+        private void add(JSONObject initContainer) {
+            containers.put(initContainer.getString("name"), initContainer);
+            modified = true;
+        }
+
+        private void remove(String name) {
+            if (containers.remove(name) != null) {
+                modified = true;
+            }
+        }
+
+        private boolean isEmpty() {
+            return containers.isEmpty();
+        }
+
+        private String toJson() {
+            return new JSONArray(containers.values()).toString();
         }
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.enricher.api.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+
+import io.fabric8.maven.core.util.BuildSessionCache;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class GitMetadataServiceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File repoDir;
+    private int opened;
+    private GitMetadataService service;
+
+    @Before
+    public void setUp() throws Exception {
+        repoDir = folder.newFolder("repo");
+        try (Git git = Git.init().setDirectory(repoDir).call()) {
+            FileBasedConfig config = (FileBasedConfig) git.getRepository().getConfig();
+            config.setString("remote", "origin", "url", "https://github.com/fabric8io/fabric8-maven-plugin.git");
+            config.save();
+        }
+        service = new GitMetadataService() {
+            @Override
+            Repository openRepository(File gitFolder) throws IOException {
+                opened++;
+                return super.openRepository(gitFolder);
+            }
+        };
+    }
+
+    @Test
+    public void noRepository() throws Exception {
+        assertNull(service.getMetadata(folder.newFolder("no-repo")));
+        assertEquals(0, opened);
+    }
+
+    @Test
+    public void openedOnlyOnce() throws Exception {
+        String commitId = commit("first");
+        File subDir = new File(repoDir, "module/src");
+        assertTrue(subDir.mkdirs());
+
+        GitMetadataService.GitMetadata metadata = service.getMetadata(repoDir);
+        for (int i = 0; i < 10; i++) {
+            assertSame(metadata, service.getMetadata(repoDir));
+            assertSame(metadata, service.getMetadata(subDir));
+        }
+        assertEquals(1, opened);
+
+        assertEquals("master", metadata.getBranch());
+        assertEquals(commitId, metadata.getCommitId());
+        assertEquals("https://github.com/fabric8io/fabric8-maven-plugin.git", metadata.getRemoteUrl("origin"));
+        assertNull(metadata.getRemoteUrl("upstream"));
+    }
+
+    @Test
+    public void refreshedAfterCommit() throws Exception {
+        commit("first");
+        service.getMetadata(repoDir);
+        String secondCommitId = commit("second");
+
+        assertEquals(secondCommitId, service.getMetadata(repoDir).getCommitId());
+        assertEquals(2, opened);
+    }
+
+    @Test
+    public void sharedPerSessionCache() {
+        BuildSessionCache cache = BuildSessionCache.getOrCreate(new HashMap<String, Object>());
+        assertSame(GitMetadataService.getInstance(cache), GitMetadataService.getInstance(cache));
+
+        BuildSessionCache otherCache = BuildSessionCache.getOrCreate(new HashMap<String, Object>());
+        assertNotSame(GitMetadataService.getInstance(cache), GitMetadataService.getInstance(otherCache));
+        assertNotSame(GitMetadataService.getInstance(null), GitMetadataService.getInstance(null));
+    }
+
+    private String commit(String content) throws Exception {
+        Files.write(new File(repoDir, "README").toPath(), content.getBytes(StandardCharsets.UTF_8));
+        try (Git git = Git.open(repoDir)) {
+            git.add().addFilepattern("README").call();
+            RevCommit commit = git.commit().setMessage(content).setAuthor("test", "test@example.com").call();
+            return commit.getName();
+        }
+    }
+}
@@ -119,7 +119,29 @@ public class InitContainerHandlerTest {
         }
     }
 
+    @Test
+    public void writtenOnFlush() {
+        PodTemplateSpecBuilder builder = getPodTemplateBuilder("bla", "foo/bla");
+        JSONObject initContainer = createInitContainer("blub", "foo/blub");
+        handler.appendInitContainer(builder, initContainer);
+        handler.removeInitContainer(builder, "bla");
+        // Not yet written to the annotation
+        assertEquals(getInitContainerAnnotation("bla", "foo/bla"), builder.build().getMetadata().getAnnotations());
+        verifyBuilder(builder, initContainer);
+    }
+
+    @Test
+    public void parsedAgainAfterFlush() {
+        PodTemplateSpecBuilder builder = getPodTemplateBuilder("bla", "foo/bla");
+        assertTrue(handler.hasInitContainer(builder, "bla"));
+        handler.flush();
+        builder.editMetadata().withAnnotations(getInitContainerAnnotation("blub", "foo/blub")).endMetadata();
+        assertFalse(handler.hasInitContainer(builder, "bla"));
+        assertTrue(handler.hasInitContainer(builder, "blub"));
+    }
+
     private void verifyBuilder(PodTemplateSpecBuilder builder, JSONObject ... initContainers) {
+        handler.flush();
         PodTemplateSpec spec = builder.build();
         String containers = spec.getMetadata().getAnnotations().get(InitContainerHandler.INIT_CONTAINER_ANNOTATION);
         if (initContainers.length == 0) {
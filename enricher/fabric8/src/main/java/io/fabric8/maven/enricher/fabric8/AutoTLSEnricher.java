@@ -62,7 +62,7 @@ public class AutoTLSEnricher extends BaseEnricher {
         super(buildContext, ENRICHER_NAME);
 
         this.secretName = getConfig(Config.tlsSecretName, getProject().getArtifactId() + "-tls");
-        this.initContainerHandler = new InitContainerHandler(buildContext.getLog());
+        this.initContainerHandler = buildContext.getInitContainerHandler();
     }
 
     @Override
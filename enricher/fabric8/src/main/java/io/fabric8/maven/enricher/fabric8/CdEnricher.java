@@ -23,15 +23,13 @@ import java.util.Map;
 import io.fabric8.kubernetes.api.Annotations;
 import io.fabric8.kubernetes.api.ServiceNames;
 import io.fabric8.maven.core.util.Configs;
-import io.fabric8.maven.enricher.api.util.GitUtil;
+import io.fabric8.maven.enricher.api.util.GitMetadataService;
 import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.enricher.api.AbstractLiveEnricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.enricher.api.Kind;
 import io.fabric8.utils.*;
 import org.apache.maven.project.MavenProject;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.lib.Repository;
 
 /**
  * Enricher for adding continous delivery metadata:
@@ -83,10 +81,11 @@ public class CdEnricher extends AbstractLiveEnricher {
             Map<String, String> annotations = new HashMap<>();
             MavenProject rootProject = MavenUtil.getRootProject(getProject());
             String repoName = rootProject.getArtifactId();
-            try (Repository repository = GitUtil.getGitRepository(getProject())) {
+            try {
                 // Git annotations (if git is used as SCM)
-                if (repository != null) {
-                    String gitCommitId = GitUtil.getGitCommitId(repository);
+                GitMetadataService.GitMetadata git = GitMetadataService.getInstance(getContext().getBuildSessionCache()).getMetadata(getProject());
+                if (git != null) {
+                    String gitCommitId = git.getCommitId();
                     if (gitCommitId != null) {
                         addGitServiceUrl(annotations, repoName, gitCommitId);
                     } else {
@@ -95,7 +94,7 @@ public class CdEnricher extends AbstractLiveEnricher {
                 } else {
                     log.debug("No local Git repository found");
                 }
-            } catch (IOException | GitAPIException e) {
+            } catch (IOException e) {
                 log.error("Cannot extract Git information for adding to annotations: " + e, e);
             }
             // Jenkins annotations
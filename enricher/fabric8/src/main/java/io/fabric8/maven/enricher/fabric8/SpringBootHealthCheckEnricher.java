@@ -59,7 +59,7 @@ public class SpringBootHealthCheckEnricher extends AbstractHealthCheckEnricher {
     protected Probe discoverSpringBootHealthCheck(int initialDelay) {
         try {
             if (MavenUtil.hasAllClasses(this.getProject(), REQUIRED_CLASSES)) {
-                Properties properties = SpringBootUtil.getSpringBootApplicationProperties(this.getProject());
+                Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getProject(), getContext().getBuildSessionCache());
                 return buildProbe(properties, initialDelay);
             }
         } catch (Exception ex) {
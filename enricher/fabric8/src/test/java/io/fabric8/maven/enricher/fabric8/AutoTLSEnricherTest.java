@@ -155,6 +155,7 @@ public class AutoTLSEnricherTest {
 
             final Properties projectProps = new Properties();
             projectProps.put(PlatformMode.FABRIC8_EFFECTIVE_PLATFORM_MODE, tc.mode.name());
+            final InitContainerHandler handler = new InitContainerHandler(context.getLog());
 
             // Setup mock behaviour
             new Expectations() {
@@ -168,6 +169,8 @@ public class AutoTLSEnricherTest {
                     result = project;
                     context.getConfig();
                     result = config;
+                    context.getInitContainerHandler();
+                    result = handler;
                 }
             };
 
@@ -175,6 +178,7 @@ public class AutoTLSEnricherTest {
             KubernetesListBuilder klb = new KubernetesListBuilder().addNewPodTemplateItem().withNewMetadata().and()
                     .withNewTemplate().withNewMetadata().and().withNewSpec().and().and().and();
             enricher.adapt(klb);
+            handler.flush();
             PodTemplate pt = (PodTemplate) klb.getItems().get(0);
 
             String initContainers = pt.getTemplate().getMetadata().getAnnotations()
@@ -17,10 +17,8 @@
 package io.fabric8.maven.enricher.standard;
 
 import io.fabric8.kubernetes.api.Annotations;
-import io.fabric8.maven.enricher.api.util.GitUtil;
+import io.fabric8.maven.enricher.api.util.GitMetadataService;
 import io.fabric8.maven.enricher.api.*;
-import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.lib.Repository;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -45,36 +43,25 @@ public class GitEnricher extends BaseEnricher {
     @Override
     public Map<String, String> getAnnotations(Kind kind) {
         Map<String, String> annotations = new HashMap<>();
-        Repository repository = null;
         try {
             if (kind.isController() || kind == Kind.SERVICE) {
                 // Git annotations (if git is used as SCM)
-                repository = GitUtil.getGitRepository(getProject());
-                if (repository != null) {
-                    String result;
-                    String branch = repository.getBranch();
+                GitMetadataService.GitMetadata git = GitMetadataService.getInstance(getContext().getBuildSessionCache()).getMetadata(getProject());
+                if (git != null) {
+                    String branch = git.getBranch();
                     if (branch != null) {
                         annotations.put(Annotations.Builds.GIT_BRANCH, branch);
                     }
-                    String id = GitUtil.getGitCommitId(repository);
+                    String id = git.getCommitId();
                     if (id != null) {
                         annotations.put(Annotations.Builds.GIT_COMMIT, id);
                     }
                 }
             }
             return annotations;
-        } catch (IOException | GitAPIException e) {
+        } catch (IOException e) {
             log.error("Cannot extract Git information for adding to annotations: " + e, e);
             return null;
-        } finally {
-            if (repository != null) {
-                try {
-                    repository.close();
-                } catch (Exception e) {
-                    // ignore
-                }
-            }
         }
     }
 }
-
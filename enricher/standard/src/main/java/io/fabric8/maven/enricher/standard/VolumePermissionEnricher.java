@@ -59,7 +59,7 @@ public class VolumePermissionEnricher extends BaseEnricher {
 
     public VolumePermissionEnricher(EnricherContext buildContext) {
         super(buildContext, ENRICHER_NAME);
-        initContainerHandler = new InitContainerHandler(buildContext.getLog());
+        initContainerHandler = buildContext.getInitContainerHandler();
     }
 
     @Override
@@ -59,8 +59,10 @@ public class VolumePermissionEnricherTest {
 
     @Test
     public void alreadyExistingInitContainer(@Mocked final ProcessorConfig config) throws Exception {
+        final InitContainerHandler handler = new InitContainerHandler(context.getLog());
         new Expectations() {{
             context.getConfig(); result = config;
+            context.getInitContainerHandler(); result = handler;
         }};
 
         PodTemplateBuilder ptb = createEmptyPodTemplate();
@@ -76,6 +78,7 @@ public class VolumePermissionEnricherTest {
 
         VolumePermissionEnricher enricher = new VolumePermissionEnricher(context);
         enricher.adapt(klb);
+        handler.flush();
 
         String initS = ((PodTemplate) klb.build().getItems().get(0)).getTemplate().getMetadata().getAnnotations().get(InitContainerHandler.INIT_CONTAINER_ANNOTATION);
         assertNotNull(initS);
@@ -99,7 +102,11 @@ public class VolumePermissionEnricherTest {
                             .singletonMap(VolumePermissionEnricher.Config.permission.name(), tc.permission))));
 
             // Setup mock behaviour
-            new Expectations() {{ context.getConfig(); result = config; }};
+            final InitContainerHandler handler = new InitContainerHandler(context.getLog());
+            new Expectations() {{
+                context.getConfig(); result = config;
+                context.getInitContainerHandler(); result = handler;
+            }};
 
             VolumePermissionEnricher enricher = new VolumePermissionEnricher(context);
 
@@ -112,6 +119,7 @@ public class VolumePermissionEnricherTest {
             KubernetesListBuilder klb = new KubernetesListBuilder().addToPodTemplateItems(ptb.build());
 
             enricher.adapt(klb);
+            handler.flush();
 
             PodTemplate pt = (PodTemplate) klb.buildItem(0);
 
@@ -20,6 +20,9 @@ import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.service.ArtifactResolverService;
+import io.fabric8.maven.core.util.BuildSessionCache;
+import io.fabric8.maven.core.util.ClassUtil;
+import io.fabric8.maven.core.util.ProcessorTimings;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.docker.util.Logger;
 import org.apache.maven.execution.MavenSession;
@@ -42,6 +45,8 @@ public class GeneratorContext {
     private boolean useProjectClasspath;
     private boolean prePackagePhase;
     private ArtifactResolverService artifactResolver;
+    private BuildSessionCache buildSessionCache;
+    private ProcessorTimings timings = ProcessorTimings.DISABLED;
 
     private GeneratorContext() {
     }
@@ -82,6 +87,18 @@ public class GeneratorContext {
         return artifactResolver;
     }
 
+    /**
+     * Cache shared by all goals running for this project in the current build. Can be null
+     * if no caching should be done.
+     */
+    public BuildSessionCache getBuildSessionCache() {
+        return buildSessionCache;
+    }
+
+    public ProcessorTimings getTimings() {
+        return timings;
+    }
+
     /**
      * Returns true if we are in watch mode
      */
@@ -105,6 +122,16 @@ public class GeneratorContext {
         return useProjectClasspath;
     }
 
+    /**
+     * Class loader over the project's compile classpath. It is shared via the build session cache,
+     * so it must not be closed by the caller.
+     *
+     * @return the project class loader
+     */
+    public ClassLoader getProjectClassLoader() {
+        return ClassUtil.getProjectClassLoader(project, buildSessionCache, logger);
+    }
+
     public boolean isPrePackagePhase() {
         return prePackagePhase;
     }
@@ -170,6 +197,16 @@ public class GeneratorContext {
             return this;
         }
 
+        public Builder buildSessionCache(BuildSessionCache buildSessionCache) {
+            ctx.buildSessionCache = buildSessionCache;
+            return this;
+        }
+
+        public Builder timings(ProcessorTimings timings) {
+            ctx.timings = timings;
+            return this;
+        }
+
         public GeneratorContext build() {
             return ctx;
         }
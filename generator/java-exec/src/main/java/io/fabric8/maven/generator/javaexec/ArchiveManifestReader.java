@@ -0,0 +1,259 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.generator.javaexec;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the manifest of a jar or war archive by looking only at the ZIP central directory
+ * and the <code>META-INF/MANIFEST.MF</code> entry. No other entry of the archive is touched,
+ * which makes it cheap even for very large fat jars.
+ */
+class ArchiveManifestReader {
+
+    private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+
+    private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIR_SIG = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG = 0x07064b50;
+    private static final int CENTRAL_DIR_HEADER_SIG = 0x02014b50;
+    private static final int LOCAL_FILE_HEADER_SIG = 0x04034b50;
+
+    private static final int END_OF_CENTRAL_DIR_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_OF_CENTRAL_DIR_SIZE = 56;
+    private static final int CENTRAL_DIR_HEADER_SIZE = 46;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+
+    private ArchiveManifestReader() { }
+
+    /**
+     * Read the manifest of the given archive
+     *
+     * @param archive jar or war file to examine
+     * @return the manifest or null if the archive doesn't contain one
+     * @throws IOException if the archive can not be read or is not a valid ZIP file
+     */
+    static Manifest read(File archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive.toPath(), StandardOpenOption.READ)) {
+            CentralDirectory cd = findCentralDirectory(channel);
+            ByteBuffer dir = readFully(channel, cd.offset, cd.size);
+            while (dir.remaining() >= CENTRAL_DIR_HEADER_SIZE) {
+                if (dir.getInt(dir.position()) != CENTRAL_DIR_HEADER_SIG) {
+                    throw new ZipException("Invalid central directory header in " + archive);
+                }
+                int start = dir.position();
+                int method = dir.getShort(start + 10) & 0xFFFF;
+                long compressedSize = dir.getInt(start + 20) & 0xFFFFFFFFL;
+                long uncompressedSize = dir.getInt(start + 24) & 0xFFFFFFFFL;
+                int nameLen = dir.getShort(start + 28) & 0xFFFF;
+                int extraLen = dir.getShort(start + 30) & 0xFFFF;
+                int commentLen = dir.getShort(start + 32) & 0xFFFF;
+                long localHeaderOffset = dir.getInt(start + 42) & 0xFFFFFFFFL;
+
+                if (nameLen == MANIFEST_NAME.length() && isManifestName(dir, start + CENTRAL_DIR_HEADER_SIZE)) {
+                    if (uncompressedSize == 0xFFFFFFFFL || compressedSize == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+                        long[] values = readZip64Extra(dir, start + CENTRAL_DIR_HEADER_SIZE + nameLen, extraLen,
+                                                       uncompressedSize, compressedSize, localHeaderOffset);
+                        uncompressedSize = values[0];
+                        compressedSize = values[1];
+                        localHeaderOffset = values[2];
+                    }
+                    byte[] data = readEntry(channel, cd.archiveStart + localHeaderOffset, method,
+                                            compressedSize, uncompressedSize);
+                    return new Manifest(new ByteArrayInputStream(data));
+                }
+                dir.position(start + CENTRAL_DIR_HEADER_SIZE + nameLen + extraLen + commentLen);
+            }
+            return null;
+        }
+    }
+
+    // ========================================================================
+
+    private static boolean isManifestName(ByteBuffer dir, int pos) {
+        // Same as JarFile, the manifest name is matched case insensitive
+        for (int i = 0; i < MANIFEST_NAME.length(); i++) {
+            if (Character.toUpperCase((char) dir.get(pos + i)) != MANIFEST_NAME.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Pick up the 64 bit values from the ZIP64 extra field for those values which are marked as overflown
+    private static long[] readZip64Extra(ByteBuffer dir, int pos, int len, long... values) throws ZipException {
+        int end = pos + len;
+        while (pos + 4 <= end) {
+            int id = dir.getShort(pos) & 0xFFFF;
+            int size = dir.getShort(pos + 2) & 0xFFFF;
+            if (id == 0x0001) {
+                int valuePos = pos + 4;
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] == 0xFFFFFFFFL) {
+                        if (valuePos + 8 > pos + 4 + size) {
+                            throw new ZipException("Invalid ZIP64 extra field for " + MANIFEST_NAME);
+                        }
+                        values[i] = dir.getLong(valuePos);
+                        valuePos += 8;
+                    }
+                }
+                return values;
+            }
+            pos += 4 + size;
+        }
+        throw new ZipException("Missing ZIP64 extra field for " + MANIFEST_NAME);
+    }
+
+    private static CentralDirectory findCentralDirectory(SeekableByteChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < END_OF_CENTRAL_DIR_SIZE) {
+            throw new ZipException("Archive too small to be a ZIP file");
+        }
+        // The end of central directory record is at the end of the file, followed only by an optional comment
+        int tailSize = (int) Math.min(fileSize, END_OF_CENTRAL_DIR_SIZE + MAX_COMMENT_SIZE);
+        long tailStart = fileSize - tailSize;
+        ByteBuffer tail = readFully(channel, tailStart, tailSize);
+        for (int pos = tailSize - END_OF_CENTRAL_DIR_SIZE; pos >= 0; pos--) {
+            if (tail.getInt(pos) == END_OF_CENTRAL_DIR_SIG) {
+                long eocdPos = tailStart + pos;
+                long size = tail.getInt(pos + 12) & 0xFFFFFFFFL;
+                long offset = tail.getInt(pos + 16) & 0xFFFFFFFFL;
+                if (size == 0xFFFFFFFFL || offset == 0xFFFFFFFFL) {
+                    return findZip64CentralDirectory(channel, eocdPos);
+                }
+                // Archives might have data prepended (e.g. a launch script), so calculate where
+                // the ZIP data really starts in the same way as java.util.zip.ZipFile does.
+                return new CentralDirectory(eocdPos - size, size, eocdPos - size - offset);
+            }
+        }
+        throw new ZipException("No end of central directory record found");
+    }
+
+    private static CentralDirectory findZip64CentralDirectory(SeekableByteChannel channel, long eocdPos) throws IOException {
+        if (eocdPos < ZIP64_LOCATOR_SIZE) {
+            throw new ZipException("Missing ZIP64 end of central directory locator");
+        }
+        ByteBuffer locator = readFully(channel, eocdPos - ZIP64_LOCATOR_SIZE, ZIP64_LOCATOR_SIZE);
+        if (locator.getInt(0) != ZIP64_END_OF_CENTRAL_DIR_LOCATOR_SIG) {
+            throw new ZipException("Missing ZIP64 end of central directory locator");
+        }
+        long zip64EocdPos = eocdPos - ZIP64_LOCATOR_SIZE - ZIP64_END_OF_CENTRAL_DIR_SIZE;
+        ByteBuffer eocd = readFully(channel, zip64EocdPos, ZIP64_END_OF_CENTRAL_DIR_SIZE);
+        if (eocd.getInt(0) != ZIP64_END_OF_CENTRAL_DIR_SIG) {
+            throw new ZipException("Invalid ZIP64 end of central directory record");
+        }
+        long size = eocd.getLong(40);
+        long offset = eocd.getLong(48);
+        if (size > Integer.MAX_VALUE) {
+            throw new ZipException("Central directory too large");
+        }
+        return new CentralDirectory(zip64EocdPos - size, size, zip64EocdPos - size - offset);
+    }
+
+    private static byte[] readEntry(SeekableByteChannel channel, long localHeaderPos, int method,
+                                    long compressedSize, long uncompressedSize) throws IOException {
+        ByteBuffer header = readFully(channel, localHeaderPos, LOCAL_FILE_HEADER_SIZE);
+        if (header.getInt(0) != LOCAL_FILE_HEADER_SIG) {
+            throw new ZipException("Invalid local file header for " + MANIFEST_NAME);
+        }
+        int nameLen = header.getShort(26) & 0xFFFF;
+        int extraLen = header.getShort(28) & 0xFFFF;
+        if (compressedSize > Integer.MAX_VALUE || uncompressedSize > Integer.MAX_VALUE) {
+            throw new ZipException(MANIFEST_NAME + " too large");
+        }
+        ByteBuffer data = readFully(channel, localHeaderPos + LOCAL_FILE_HEADER_SIZE + nameLen + extraLen,
+                                    compressedSize);
+        if (method == METHOD_STORED) {
+            return data.array();
+        } else if (method == METHOD_DEFLATED) {
+            return inflate(data.array(), (int) uncompressedSize);
+        }
+        throw new ZipException("Unsupported compression method " + method + " for " + MANIFEST_NAME);
+    }
+
+    private static byte[] inflate(byte[] compressed, int uncompressedSize) throws IOException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] result = new byte[uncompressedSize];
+            int len = 0;
+            while (len < uncompressedSize) {
+                int n = inflater.inflate(result, len, uncompressedSize - len);
+                if (n == 0) {
+                    if (inflater.finished() || inflater.needsDictionary() || inflater.needsInput()) {
+                        break;
+                    }
+                }
+                len += n;
+            }
+            if (len != uncompressedSize) {
+                throw new ZipException("Invalid size of inflated " + MANIFEST_NAME);
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new ZipException("Cannot inflate " + MANIFEST_NAME + ": " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static ByteBuffer readFully(SeekableByteChannel channel, long pos, long len) throws IOException {
+        if (pos < 0 || len < 0 || len > Integer.MAX_VALUE || pos + len > channel.size()) {
+            throw new ZipException("Invalid offset or size in ZIP structure");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) len).order(ByteOrder.LITTLE_ENDIAN);
+        channel.position(pos);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of archive");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static final class CentralDirectory {
+        // Position of the central directory within the file
+        private final long offset;
+        private final long size;
+        // Position where the ZIP data starts, non-zero if there is some data prepended to the archive
+        private final long archiveStart;
+
+        private CentralDirectory(long offset, long size, long archiveStart) {
+            this.offset = offset;
+            this.size = size;
+            this.archiveStart = archiveStart;
+        }
+    }
+}
@@ -19,10 +19,11 @@ package io.fabric8.maven.generator.javaexec;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.jar.Attributes;
-import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 
+import io.fabric8.maven.core.util.BuildSessionCache;
 import org.apache.maven.plugin.MojoExecutionException;
 
 /**
@@ -33,14 +34,38 @@ import org.apache.maven.plugin.MojoExecutionException;
  */
 public class FatJarDetector {
 
+    // Prefix for the keys under which the manifest attributes of examined archives are cached
+    private static final String CACHE_KEY_PREFIX = "fatjar.manifest:";
+
     private File directory;
     private Result result;
 
+    // Cache for the main attributes of already examined archives, can be null
+    private final BuildSessionCache buildSessionCache;
+
     FatJarDetector(String dir) {
+        this(dir, null);
+    }
+
+    /**
+     * Create a detector
+     *
+     * @param dir directory to scan for archives
+     * @param buildSessionCache cache for sharing the examined manifests within the build. Can be null.
+     */
+    public FatJarDetector(String dir, BuildSessionCache buildSessionCache) {
         this.directory = new File(dir);
+        this.buildSessionCache = buildSessionCache;
     }
 
-    Result scan() throws MojoExecutionException {
+    /**
+     * Look for the largest archive with a <code>Main-Class</code> in its manifest. The result is remembered,
+     * so the directory is scanned only once per detector.
+     *
+     * @return the detected fat jar or null if none could be found
+     * @throws MojoExecutionException if an archive can not be read
+     */
+    public Result scan() throws MojoExecutionException {
         // Scanning is lazy ...
         if (result == null) {
             if (!directory.exists()) {
@@ -59,29 +84,46 @@ public class FatJarDetector {
             long maxSize = 0;
             for (String jarOrWar : jarOrWars) {
                 File archiveFile = new File(directory, jarOrWar);
-                try {
-                    JarFile archive = new JarFile(archiveFile);
-                    Manifest mf = archive.getManifest();
-                    Attributes mainAttributes = mf.getMainAttributes();
-                    if (mainAttributes != null) {
-                        String mainClass = mainAttributes.getValue("Main-Class");
-                        if (mainClass != null) {
-                            long size = archiveFile.length();
-                            // Take the largest jar / war file found
-                            if (size > maxSize) {
-                                maxSize = size;
-                                result = new Result(archiveFile, mainClass, mainAttributes);
-                            }
+                Attributes mainAttributes = getMainAttributes(archiveFile);
+                if (mainAttributes != null) {
+                    String mainClass = mainAttributes.getValue("Main-Class");
+                    if (mainClass != null) {
+                        long size = archiveFile.length();
+                        // Take the largest jar / war file found
+                        if (size > maxSize) {
+                            maxSize = size;
+                            result = new Result(archiveFile, mainClass, mainAttributes);
                         }
                     }
-                } catch (IOException e) {
-                    throw new MojoExecutionException("Cannot examine file " + archiveFile + " for the manifest");
                 }
             }
         }
         return result;
     }
 
+    // Lookup the main attributes of an archive's manifest. Only the central directory and the manifest
+    // are read and the result is cached as long as the archive's size and modification time don't change.
+    // The cached attributes are never handed out directly, every caller gets its own copy.
+    private Attributes getMainAttributes(File archiveFile) throws MojoExecutionException {
+        final File file = archiveFile.getAbsoluteFile();
+        BuildSessionCache.Loader<Attributes, IOException> loader = new BuildSessionCache.Loader<Attributes, IOException>() {
+            @Override
+            public Attributes load() throws IOException {
+                Manifest mf = ArchiveManifestReader.read(file);
+                return mf != null ? mf.getMainAttributes() : null;
+            }
+        };
+        try {
+            Attributes attributes = buildSessionCache != null ?
+                buildSessionCache.get(CACHE_KEY_PREFIX + file.getPath(),
+                                      Arrays.asList(file.length(), file.lastModified()), loader) :
+                loader.load();
+            return attributes != null ? (Attributes) attributes.clone() : null;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Cannot examine file " + archiveFile + " for the manifest", e);
+        }
+    }
+
     public class Result {
 
         private final File archiveFile;
@@ -46,6 +46,9 @@ public class JavaExecGenerator extends BaseGenerator {
     static final String JAVA_MAIN_CLASS_ENV_VAR = "JAVA_MAIN_CLASS";
     private static final String JAVA_OPTIONS = "JAVA_OPTIONS";
 
+    // Index file, relative to the build directory, for remembering detected main classes
+    private static final String MAIN_CLASS_INDEX = "fabric8/main-classes.idx";
+
     // Plugins indicating a plain java build
     private static final String[] JAVA_EXEC_MAVEN_PLUGINS = new String[] {
         "org.codehaus.mojo:exec-maven-plugin",
@@ -61,9 +64,10 @@ public class JavaExecGenerator extends BaseGenerator {
 
     protected JavaExecGenerator(GeneratorContext context, String name) {
         super(context, name, new FromSelector.Default(context, "java"));
-        fatJarDetector = new FatJarDetector(getProject().getBuild().getDirectory());
+        fatJarDetector = new FatJarDetector(getProject().getBuild().getDirectory(), context.getBuildSessionCache());
         mainClassDetector = new MainClassDetector(getConfig(Config.mainClass),
                                                   new File(getProject().getBuild().getOutputDirectory()),
+                                                  new File(getProject().getBuild().getDirectory(), MAIN_CLASS_INDEX),
                                                   context.getLogger());
     }
 
@@ -17,12 +17,21 @@
 package io.fabric8.maven.generator.javaexec;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
+import io.fabric8.maven.core.util.BuildSessionCache;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static org.junit.Assert.*;
 
@@ -32,6 +41,9 @@ import static org.junit.Assert.*;
  */
 public class FatJarDetectorTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void simple() throws MojoExecutionException, UnsupportedEncodingException {
         URL testDirUrl = getClass().getResource("/fatjar-simple");
@@ -43,6 +55,55 @@ public class FatJarDetectorTest {
         assertEquals("Plexus Archiver", result.getManifestEntry("Archiver-Version"));
     }
 
+    @Test
+    public void withLaunchScriptAndChangedArchive() throws MojoExecutionException, IOException {
+        File jar = new File(folder.getRoot(), "app.jar");
+        createJar(jar, "#!/bin/sh\nexec java -jar \"$0\" \"$@\"\n", "org.example.First");
+        FatJarDetector.Result result = new FatJarDetector(folder.getRoot().getPath()).scan();
+        assertNotNull(result);
+        assertEquals("org.example.First", result.getMainClass());
+
+        // A changed archive must not be served from the cache
+        createJar(jar, "", "org.example.SecondMain");
+        result = new FatJarDetector(folder.getRoot().getPath()).scan();
+        assertNotNull(result);
+        assertEquals("org.example.SecondMain", result.getMainClass());
+    }
+
+    @Test
+    public void cachedWithinBuild() throws MojoExecutionException, IOException {
+        BuildSessionCache cache = new BuildSessionCache();
+        File jar = new File(folder.getRoot(), "app.jar");
+        createJar(jar, "", "org.example.First");
+        assertEquals("org.example.First", new FatJarDetector(folder.getRoot().getPath(), cache).scan().getMainClass());
+        assertEquals("org.example.First", new FatJarDetector(folder.getRoot().getPath(), cache).scan().getMainClass());
+
+        createJar(jar, "#!/bin/sh\n", "org.example.SecondMain");
+        assertEquals("org.example.SecondMain", new FatJarDetector(folder.getRoot().getPath(), cache).scan().getMainClass());
+    }
+
+    @Test
+    public void noManifest() throws MojoExecutionException, IOException {
+        createJar(new File(folder.getRoot(), "plain.jar"), "", null);
+        assertNull(new FatJarDetector(folder.getRoot().getPath()).scan());
+    }
+
+    private void createJar(File file, String prefix, String mainClass) throws IOException {
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(prefix.getBytes("UTF-8"));
+            JarOutputStream jos;
+            if (mainClass != null) {
+                Manifest mf = new Manifest();
+                mf.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+                mf.getMainAttributes().put(Attributes.Name.MAIN_CLASS, mainClass);
+                jos = new JarOutputStream(os, mf);
+            } else {
+                jos = new JarOutputStream(os);
+            }
+            jos.close();
+        }
+    }
+
     private String decodeUrl(URL testDirUrl) throws UnsupportedEncodingException {
         return URLDecoder.decode(testDirUrl.getPath(), "UTF-8");
     }
@@ -94,7 +94,7 @@ public class SpringBootGenerator extends JavaExecGenerator {
         Map<String, String> res = super.getEnv(prePackagePhase);
         if (getContext().isWatchMode()) {
             // adding dev tools token to env variables to prevent override during recompile
-            String secret = SpringBootUtil.getSpringBootApplicationProperties(getProject()).getProperty(SpringBootProperties.DEV_TOOLS_REMOTE_SECRET);
+            String secret = SpringBootUtil.getSpringBootApplicationProperties(getProject(), getContext().getBuildSessionCache()).getProperty(SpringBootProperties.DEV_TOOLS_REMOTE_SECRET);
             if (secret != null) {
                 res.put(SpringBootProperties.DEV_TOOLS_REMOTE_SECRET_ENV, secret);
             }
@@ -122,7 +122,7 @@ public class SpringBootGenerator extends JavaExecGenerator {
     @Override
     protected List<String> extractPorts() {
         List<String> answer = new ArrayList<>();
-        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(this.getProject());
+        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getProject(), getContext().getBuildSessionCache());
         String port = properties.getProperty(SpringBootProperties.SERVER_PORT, DEFAULT_SERVER_PORT);
         addPortIfValid(answer, getConfig(JavaExecGenerator.Config.webPort, port));
         addPortIfValid(answer, getConfig(JavaExecGenerator.Config.jolokiaPort));
@@ -133,7 +133,7 @@ public class SpringBootGenerator extends JavaExecGenerator {
     // =============================================================================
 
     private void ensureSpringDevToolSecretToken() throws MojoExecutionException {
-        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getProject());
+        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getProject(), getContext().getBuildSessionCache());
         String remoteSecret = properties.getProperty(DEV_TOOLS_REMOTE_SECRET);
         if (Strings.isNullOrEmpty(remoteSecret)) {
             addSecretTokenToApplicationProperties();
@@ -23,6 +23,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.docker.config.ImageConfiguration;
 import io.fabric8.maven.generator.api.GeneratorContext;
 
@@ -87,6 +88,7 @@ public class SpringBootGeneratorTest {
             build.getOutputDirectory(); result = tempDir;
             project.getPlugin(anyString); result = null;
             project.getVersion(); result = "1.0.0"; minTimes = 0;
+            context.getBuildSessionCache(); result = new BuildSessionCache(); minTimes = 0;
         }};
         return context;
     }
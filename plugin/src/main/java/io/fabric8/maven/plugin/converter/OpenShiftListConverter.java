@@ -0,0 +1,215 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.plugin.converter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.builder.TypedVisitor;
+import io.fabric8.kubernetes.api.extensions.Templates;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.kubernetes.api.model.PodTemplateSpecBuilder;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.maven.core.util.KindAndName;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.OpenShiftDependencyResources;
+import io.fabric8.maven.core.util.OpenShiftOverrideResources;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.enricher.api.util.InitContainerHandler;
+import io.fabric8.maven.enricher.standard.VolumePermissionEnricher;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.api.model.Template;
+
+import static io.fabric8.maven.core.util.Constants.RESOURCE_APP_CATALOG_ANNOTATION;
+import static io.fabric8.maven.plugin.mojo.build.ResourceMojo.TARGET_PLATFORM_ANNOTATION;
+
+/**
+ * Converts a list of Kubernetes resources into the list used for OpenShift. The items are converted
+ * with the given per-kind converters, OpenShift resources from dependencies are added and
+ * all (non app-catalog) templates are combined into a single top level template holding all other objects.
+ *
+ * The input is processed in a single pass: Deployments which are superseded by a DeploymentConfig
+ * are looked up in a name index and templates are collected while converting, so the conversion
+ * scales linearly with the number of items.
+ */
+public class OpenShiftListConverter {
+
+    private final Logger log;
+    private final Map<String, KubernetesToOpenShiftConverter> converters;
+    private final OpenShiftOverrideResources overrideResources;
+    private final OpenShiftDependencyResources dependencyResources;
+
+    public OpenShiftListConverter(Logger log,
+                                  Map<String, KubernetesToOpenShiftConverter> converters,
+                                  OpenShiftOverrideResources overrideResources,
+                                  OpenShiftDependencyResources dependencyResources) {
+        this.log = log;
+        this.converters = converters;
+        this.overrideResources = overrideResources;
+        this.dependencyResources = dependencyResources;
+    }
+
+    /**
+     * Convert a list of Kubernetes resources
+     *
+     * @param resources resources to convert
+     * @return the list to be used for OpenShift
+     */
+    public KubernetesList convert(KubernetesList resources) {
+        List<HasMetadata> items = resources.getItems() != null ? resources.getItems() : Collections.<HasMetadata>emptyList();
+
+        // If we have a Deployment and a DeploymentConfig of the same name, then we have a different manifest
+        // for OpenShift so lets filter out the Kubernetes specific Deployment
+        Set<String> deploymentConfigNames = new HashSet<>();
+        for (HasMetadata item : items) {
+            if (item instanceof DeploymentConfig) {
+                deploymentConfigNames.add(KubernetesHelper.getName(item));
+            }
+        }
+
+        TemplateCollector collector = new TemplateCollector(items.size());
+        Set<KindAndName> converted = new HashSet<>();
+        for (HasMetadata item : items) {
+            if (item instanceof Deployment && deploymentConfigNames.contains(KubernetesHelper.getName(item))) {
+                continue;
+            }
+            item = overrideResources.overrideResource(item);
+
+            HasMetadata openShiftItem = convertItem(item);
+            if (openShiftItem != null && !isTargetPlatformKubernetes(item)) {
+                converted.add(new KindAndName(openShiftItem));
+                collector.add(openShiftItem);
+            }
+        }
+        for (HasMetadata dependency : dependencyResources.getMissingResources(converted)) {
+            collector.add(dependency);
+        }
+
+        KubernetesListBuilder builder = new KubernetesListBuilder();
+        builder.withMetadata(resources.getMetadata());
+        collector.addTo(builder, dependencyResources);
+        // TODO: Remove this ASAP when https://github.com/fabric8io/fabric8-maven-plugin/issues/678 is fixed
+        removeInitContainers(builder, VolumePermissionEnricher.ENRICHER_NAME);
+        return builder.build();
+    }
+
+    // ==================================================================================
+
+    /**
+     * Converts any kubernetes resource to the OpenShift equivalent
+     *
+     * @return the converted kubernetes resource or null if it should be ignored
+     */
+    private HasMetadata convertItem(HasMetadata item) {
+
+        // TODO-F8SPEC: App Catalog is Fabric8 specific. Its best handled outside the 'regular' resource generation chain
+        //              better in an 'AppCatalog' specific processing
+        // vvvvvvv (begin)
+        if (item instanceof ConfigMap && "true".equals(getAnnotation(item, RESOURCE_APP_CATALOG_ANNOTATION))) {
+            // kubernetes App Catalog so we use a Template instead on OpenShift
+            return null;
+        }
+        // TODO-F8SPEC: ^^^^^ (end)
+
+        // lets check if there's an OpenShift resource of this name already from a dependency...
+        if (!isOpenShiftItem(item)) {
+            HasMetadata dependencyResource = dependencyResources.convertKubernetesItemToOpenShift(item);
+            if (dependencyResource != null) {
+                return dependencyResource;
+            }
+        }
+
+        KubernetesToOpenShiftConverter converter = converters.get(item.getKind());
+        return converter != null ? converter.convert(item) : item;
+    }
+
+    private void removeInitContainers(KubernetesListBuilder builder, final String initContainerName) {
+        final InitContainerHandler initContainerHandler = new InitContainerHandler(log);
+        builder.accept(new TypedVisitor<PodTemplateSpecBuilder>() {
+            @Override
+            public void visit(PodTemplateSpecBuilder builder) {
+                if (initContainerHandler.hasInitContainer(builder, initContainerName)) {
+                    log.verbose("Removing init container from openshift.yml for %s", initContainerName);
+                    initContainerHandler.removeInitContainer(builder, initContainerName);
+                }
+            }
+        });
+        initContainerHandler.flush();
+    }
+
+    /**
+     * Check whether an item is OpenShift specific, either because it is an OpenShift
+     * model object or because it is annotated with the OpenShift target platform.
+     *
+     * @param item item to check
+     * @return true if the item should only be deployed on OpenShift
+     */
+    public static boolean isOpenShiftItem(HasMetadata item) {
+        return "openshift".equalsIgnoreCase(KubernetesHelper.getOrCreateAnnotations(item).get(TARGET_PLATFORM_ANNOTATION)) ||
+               item.getClass().getPackage().getName().contains("openshift");
+    }
+
+    private boolean isTargetPlatformKubernetes(HasMetadata item) {
+        return "kubernetes".equalsIgnoreCase(KubernetesHelper.getOrCreateAnnotations(item).get(TARGET_PLATFORM_ANNOTATION));
+    }
+
+    private String getAnnotation(HasMetadata item, String key) {
+        if (item.getMetadata() == null || item.getMetadata().getAnnotations() == null) {
+            return null;
+        }
+        return item.getMetadata().getAnnotations().get(key);
+    }
+
+    // Collects all converted objects and combines all templates into a single one
+    private static final class TemplateCollector {
+
+        private final List<HasMetadata> objects;
+        private Template template;
+
+        private TemplateCollector(int expectedSize) {
+            objects = new ArrayList<>(expectedSize);
+        }
+
+        private void add(HasMetadata item) {
+            if (item instanceof Template && !KubernetesResourceUtil.isAppCatalogResource(item)) {
+                template = template == null ? (Template) item : Templates.combineTemplates(template, (Template) item);
+            } else {
+                objects.add(item);
+            }
+        }
+
+        private void addTo(KubernetesListBuilder builder, OpenShiftDependencyResources dependencyResources) {
+            if (template != null) {
+                template.setObjects(objects);
+                dependencyResources.addMissingParameters(template);
+                builder.addToItems(template);
+            } else {
+                for (HasMetadata object : objects) {
+                    builder.addToItems(object);
+                }
+            }
+        }
+    }
+}
@@ -22,12 +22,13 @@ import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.maven.core.config.MetaDataConfig;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.ResourceConfig;
-import io.fabric8.maven.core.util.ClassUtil;
 import io.fabric8.maven.core.util.PluginServiceFactory;
+import io.fabric8.maven.core.util.ProcessorTimings;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.enricher.api.Enricher;
 import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.enricher.api.Kind;
+import io.fabric8.maven.enricher.api.util.InitContainerHandler;
 import io.fabric8.utils.Function;
 
 import static io.fabric8.maven.plugin.enricher.EnricherManager.Extractor.*;
@@ -51,6 +52,12 @@ public class EnricherManager {
 
     private Logger log;
 
+    // Timings of the enrichers, only recorded if enabled
+    private final ProcessorTimings timings;
+
+    // Init container handler shared by the enrichers, flushed after each enricher
+    private final InitContainerHandler initContainerHandler;
+
     // List of visitors used to enrich with labels
     private final MetadataVisitor<?>[] metaDataVisitors;
     private final SelectorVisitor<?>[] selectorVisitorCreators;
@@ -59,11 +66,16 @@ public class EnricherManager {
         PluginServiceFactory<EnricherContext> pluginFactory = new PluginServiceFactory<>(enricherContext);
 
         if (enricherContext.isUseProjectClasspath()) {
-            pluginFactory.addAdditionalClassLoader(ClassUtil.createProjectClassLoader(enricherContext.getProject(), enricherContext.getLog()));
+            pluginFactory.addAdditionalClassLoader(enricherContext.getProjectClassLoader());
+        }
+        if (enricherContext.getBuildSessionCache() != null) {
+            pluginFactory.setBuildSessionCache(enricherContext.getBuildSessionCache());
         }
 
         this.log = enricherContext.getLog();
         this.defaultEnricherConfig = enricherContext.getConfig();
+        this.timings = enricherContext.getTimings() != null ? enricherContext.getTimings() : ProcessorTimings.DISABLED;
+        this.initContainerHandler = enricherContext.getInitContainerHandler();
 
         this.enrichers = pluginFactory.createServiceObjects("META-INF/fabric8-enricher-default",
                                                             "META-INF/fabric8/enricher-default",
@@ -108,7 +120,7 @@ public class EnricherManager {
 
     public void createDefaultResources(ProcessorConfig enricherConfig, final KubernetesListBuilder builder) {
         // Add default resources
-        loop(enricherConfig, new Function<Enricher, Void>() {
+        loop("addMissingResources", enricherConfig, builder, new Function<Enricher, Void>() {
             @Override
             public Void apply(Enricher enricher) {
                 enricher.addMissingResources(builder);
@@ -122,11 +134,18 @@ public class EnricherManager {
     }
 
     public void enrich(ProcessorConfig config, KubernetesListBuilder builder) {
+        // Labels and selectors don't change the number of items, so they are counted only once
+        int items = countItems(builder);
+
         // Enrich labels
+        long start = timings.start();
         enrichLabels(config, builder);
+        timings.record("phase", "enricher", "labels", start, items);
 
         // Add missing selectors
+        start = timings.start();
         addMissingSelectors(config, builder);
+        timings.record("phase", "enricher", "selectors", start, items);
 
         // Final customization step
         adapt(config, builder);
@@ -175,7 +194,7 @@ public class EnricherManager {
      * @param builder builder to customize
      */
     private void adapt(final ProcessorConfig enricherConfig, final KubernetesListBuilder builder) {
-        loop(enricherConfig, new Function<Enricher, Void>() {
+        loop("adapt", enricherConfig, builder, new Function<Enricher, Void>() {
             @Override
             public Void apply(Enricher enricher) {
                 enricher.adapt(builder);
@@ -209,16 +228,42 @@ public class EnricherManager {
         return config.prepareProcessors(enrichers, "enricher");
     }
 
-    private void loop(ProcessorConfig config, Function<Enricher, Void> function) {
+    private void loop(String phase, ProcessorConfig config, KubernetesListBuilder builder, Function<Enricher, Void> function) {
+        // Items are counted once per phase, counting them for every enricher would require building the whole list each time
+        int items = countItems(builder);
+        long phaseStart = timings.start();
         for (Enricher enricher : filterEnrichers(config,enrichers)) {
+            long start = timings.start();
             function.apply(enricher);
+            flushInitContainers();
+            timings.record("enricher", phase, enricher.getName(), start, items);
+        }
+        timings.record("phase", "enricher", phase, phaseStart, items);
+    }
+
+    // Write back the init containers changed by an enricher. This happens after each enricher and not only
+    // at the end because enrichers may replace pod template builders, which would lose pending changes.
+    private void flushInitContainers() {
+        if (initContainerHandler != null) {
+            initContainerHandler.flush();
+        }
+    }
+
+    // Number of items in the list, only counted if timings are recorded
+    private int countItems(KubernetesListBuilder builder) {
+        if (!timings.isEnabled()) {
+            return 0;
         }
+        List<?> items = builder.getItems();
+        return items != null ? items.size() : 0;
     }
 
     private Map<String, String> extract(ProcessorConfig config, Extractor extractor, Kind kind) {
         Map <String, String> ret = new HashMap<>();
         for (Enricher enricher : filterEnrichers(config, enrichers)) {
+            long start = timings.start();
             putAllIfNotNull(ret, extractor.extract(enricher, kind));
+            timings.record("enricher", extractor.getPhase(), enricher.getName(), start, 1);
         }
         return ret;
     }
@@ -227,21 +272,33 @@ public class EnricherManager {
     // ========================================================================================================
     // Simple extractors
     enum Extractor {
-        LABEL_EXTRACTOR {
+        LABEL_EXTRACTOR("labels") {
             public Map<String, String> extract(Enricher enricher, Kind kind) {
                 return enricher.getLabels(kind);
             }
         },
-        ANNOTATION_EXTRACTOR {
+        ANNOTATION_EXTRACTOR("annotations") {
             public Map<String, String> extract(Enricher enricher, Kind kind) {
                 return enricher.getAnnotations(kind);
             }
         },
-        SELECTOR_EXTRACTOR {
+        SELECTOR_EXTRACTOR("selectors") {
             public Map<String, String> extract(Enricher enricher, Kind kind) {
                 return enricher.getSelector(kind);
             }
         };
+
+        // Name of the phase used for recording timings
+        private final String phase;
+
+        Extractor(String phase) {
+            this.phase = phase;
+        }
+
+        String getPhase() {
+            return phase;
+        }
+
         abstract Map<String, String> extract(Enricher enricher, Kind kind);
     }
 
@@ -17,16 +17,25 @@
 package io.fabric8.maven.plugin.generator;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
 
 import io.fabric8.maven.core.config.ProcessorConfig;
-import io.fabric8.maven.core.util.ClassUtil;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.core.util.PluginServiceFactory;
+import io.fabric8.maven.core.util.ProcessorTimings;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.generator.api.Generator;
 import io.fabric8.maven.generator.api.GeneratorContext;
 import io.fabric8.maven.docker.config.ImageConfiguration;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.model.Plugin;
 import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
 
 /**
  * Manager responsible for finding and calling generators
@@ -35,6 +44,12 @@ import org.apache.maven.plugin.MojoExecutionException;
  */
 public class GeneratorManager {
 
+    // Prefix for keys under which the applicability of generators is cached
+    private static final String APPLICABLE_CACHE_KEY_PREFIX = "generator.applicable.";
+
+    // Prefix of project properties which can influence generators
+    private static final String GENERATOR_PROP_PREFIX = "fabric8.generator.";
+
     public static List<ImageConfiguration> generate(List<ImageConfiguration> imageConfigs,
                                                     GeneratorContext genCtx,
                                                     boolean prePackagePhase) throws MojoExecutionException {
@@ -43,8 +58,11 @@ public class GeneratorManager {
 
         PluginServiceFactory<GeneratorContext> pluginFactory =
             genCtx.isUseProjectClasspath() ?
-            new PluginServiceFactory<GeneratorContext>(genCtx, ClassUtil.createProjectClassLoader(genCtx.getProject(), genCtx.getLogger())) :
+            new PluginServiceFactory<GeneratorContext>(genCtx, genCtx.getProjectClassLoader()) :
             new PluginServiceFactory<GeneratorContext>(genCtx);
+        if (genCtx.getBuildSessionCache() != null) {
+            pluginFactory.setBuildSessionCache(genCtx.getBuildSessionCache());
+        }
 
         List<Generator> generators =
             pluginFactory.createServiceObjects("META-INF/fabric8/generator-default",
@@ -54,12 +72,115 @@ public class GeneratorManager {
         ProcessorConfig config = genCtx.getConfig();
         Logger log = genCtx.getLogger();
         List<Generator> usableGenerators = config.prepareProcessors(generators, "generator");
+
+        boolean customized = false;
+
+        ProcessorTimings timings = getTimings(genCtx);
+        // Input shared by the applicability checks of all generators, calculated only once per call
+        Object contextFingerprint = genCtx.getBuildSessionCache() != null ?
+            createContextFingerprint(imageConfigs, genCtx) : null;
         log.verbose("Generators:");
         for (Generator generator : usableGenerators) {
             log.verbose(" - %s",generator.getName());
-            if (generator.isApplicable(ret)) {
+            // Cached results are only valid as long as no generator has changed the image configuration
+            boolean isApplicable = customized ?
+                probe(generator, ret, timings) :
+                isApplicableCached(generator, imageConfigs, genCtx, contextFingerprint, timings);
+            if (isApplicable) {
                 log.info("Running generator %s", generator.getName());
+                int items = ret.size();
+                long start = timings.start();
                 ret = generator.customize(ret, prePackagePhase);
+                timings.record("generator", "customize", generator.getName(), start, items);
+                customized = true;
+            }
+        }
+        return ret;
+    }
+
+    // Check the applicability of a generator against the initial image configuration. The result is taken
+    // from the build session cache if it has been calculated already for the same input.
+    private static boolean isApplicableCached(Generator generator, List<ImageConfiguration> imageConfigs,
+                                              GeneratorContext genCtx, Object contextFingerprint,
+                                              ProcessorTimings timings)
+        throws MojoExecutionException {
+        BuildSessionCache cache = genCtx.getBuildSessionCache();
+        if (cache == null) {
+            return probe(generator, imageConfigs, timings);
+        }
+        String key = APPLICABLE_CACHE_KEY_PREFIX + generator.getName();
+        ProcessorConfig config = genCtx.getConfig();
+        Object fingerprint = Arrays.asList(
+            generator.getClass().getName(),
+            config != null ? new HashMap<>(config.getConfigMap(generator.getName())) : null,
+            contextFingerprint);
+        Boolean cached = cache.getIfPresent(key, fingerprint);
+        if (cached != null) {
+            return cached;
+        }
+        boolean ret = probe(generator, imageConfigs, timings);
+        cache.put(key, fingerprint, ret);
+        return ret;
+    }
+
+    private static boolean probe(Generator generator, List<ImageConfiguration> imageConfigs, ProcessorTimings timings)
+        throws MojoExecutionException {
+        long start = timings.start();
+        boolean ret = generator.isApplicable(imageConfigs);
+        timings.record("generator", "isApplicable", generator.getName(), start, imageConfigs.size());
+        return ret;
+    }
+
+    private static ProcessorTimings getTimings(GeneratorContext genCtx) {
+        return genCtx.getTimings() != null ? genCtx.getTimings() : ProcessorTimings.DISABLED;
+    }
+
+    // Everything besides the generator and its configuration which can influence the outcome of an applicability
+    // check: the build context, the image configurations already present and the coordinates of the project's
+    // plugins and dependencies
+    private static Object createContextFingerprint(List<ImageConfiguration> imageConfigs, GeneratorContext genCtx) {
+        MavenProject project = genCtx.getProject();
+        List<Object> images = new ArrayList<>();
+        for (ImageConfiguration image : imageConfigs) {
+            images.add(Arrays.asList(image.getName(), image.getAlias(), image.getBuildConfiguration() != null));
+        }
+        Map<String, String> generatorProps = new TreeMap<>();
+        Properties props = project.getProperties();
+        for (String key : props.stringPropertyNames()) {
+            if (key.startsWith(GENERATOR_PROP_PREFIX)) {
+                generatorProps.put(key, props.getProperty(key));
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(GENERATOR_PROP_PREFIX)) {
+                generatorProps.put(key, System.getProperty(key));
+            }
+        }
+        return Arrays.asList(
+            generatorProps,
+            genCtx.getMode(),
+            genCtx.getStrategy(),
+            genCtx.getGoalName(),
+            genCtx.isPrePackagePhase(),
+            project.getPackaging(),
+            images,
+            getPluginCoordinates(project),
+            getArtifactCoordinates(project));
+    }
+
+    private static List<String> getPluginCoordinates(MavenProject project) {
+        List<String> ret = new ArrayList<>();
+        for (Plugin plugin : project.getBuildPlugins()) {
+            ret.add(plugin.getKey() + ":" + plugin.getVersion());
+        }
+        return ret;
+    }
+
+    private static List<String> getArtifactCoordinates(MavenProject project) {
+        List<String> ret = new ArrayList<>();
+        if (project.getArtifacts() != null) {
+            for (Artifact artifact : project.getArtifacts()) {
+                ret.add(artifact.getId() + ":" + artifact.getScope());
             }
         }
         return ret;
@@ -24,6 +24,7 @@ import io.fabric8.kubernetes.api.model.KubernetesList;
 import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
 import io.fabric8.kubernetes.api.model.KubernetesResource;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.core.util.ClassUtil;
 import io.fabric8.maven.core.util.ResourceClassifier;
 import io.fabric8.openshift.api.model.Template;
@@ -363,7 +364,7 @@ public class AppCatalogMojo extends AbstractResourceMojo {
 
     protected List<URL> findResourcesOnClassPath(String resourcePath) throws MojoExecutionException {
         try {
-            ClassLoader classLoader = ClassUtil.createProjectClassLoader(project, log);
+            ClassLoader classLoader = ClassUtil.getProjectClassLoader(project, BuildSessionCache.getOrCreate(getPluginContext(), session), log);
             List<URL> resourceList = new ArrayList<>();
             Enumeration<URL> resources = classLoader.getResources(resourcePath);
             while (resources.hasMoreElements()) {
@@ -50,6 +50,7 @@ import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.Resource;
 import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.service.Fabric8ServiceHub;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.plugin.mojo.AbstractFabric8Mojo;
@@ -456,6 +457,7 @@ public class ApplyMojo extends AbstractFabric8Mojo {
         return new Fabric8ServiceHub.Builder()
                 .log(log)
                 .clusterAccess(clusterAccess)
+                .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
                 .controller(controller);
     }
 
@@ -32,9 +32,11 @@ import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.config.ResourceConfig;
 import io.fabric8.maven.core.service.BuildService;
 import io.fabric8.maven.core.service.Fabric8ServiceHub;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.core.util.Gofabric8Util;
 import io.fabric8.maven.core.util.OpenShiftDependencyResources;
+import io.fabric8.maven.core.util.ProcessorTimings;
 import io.fabric8.maven.core.util.ProfileUtil;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.config.ImageConfiguration;
@@ -137,6 +139,19 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
     @Parameter(property = "fabric8.useProjectClasspath", defaultValue = "false")
     private boolean useProjectClasspath = false;
 
+    /**
+     * Whether to record the time spent in each enricher and generator. A summary is logged and
+     * all timings are written to <code>timings.json</code> in the fabric8 working directory.
+     */
+    @Parameter(property = "fabric8.timings", defaultValue = "false")
+    private boolean timings;
+
+    /**
+     * The fabric8 working directory
+     */
+    @Parameter(property = "fabric8.workDir", defaultValue = "${project.build.directory}/fabric8")
+    private File workDir;
+
     /**
      * How to recreate the build config and/or image stream created by the build.
      * Only in effect when <code>mode == openshift</code> or mode is <code>auto</code>
@@ -182,6 +197,9 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
     // Mode which is resolved, also when 'auto' is set
     private PlatformMode platformMode;
 
+    // Timings of enrichers and generators
+    private ProcessorTimings processorTimings = ProcessorTimings.DISABLED;
+
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
@@ -189,8 +207,14 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
             return;
         }
         clusterAccess = new ClusterAccess(namespace);
+        processorTimings = timings ? new ProcessorTimings() : ProcessorTimings.DISABLED;
         // Platform mode is already used in executeInternal()
         super.execute();
+        try {
+            processorTimings.report(new File(workDir, "timings.json"), "fabric8:build", log);
+        } catch (IOException e) {
+            log.warn("Cannot write timings report: %s", e.getMessage());
+        }
     }
 
     @Override
@@ -318,6 +342,8 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
                 .strategy(buildStrategy)
                 .useProjectClasspath(useProjectClasspath)
                 .artifactResolver(getFabric8ServiceHub().getArtifactResolverService())
+                .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
+                .timings(processorTimings)
                 .build();
     }
 
@@ -334,7 +360,7 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
     // Get generator config
     private ProcessorConfig extractGeneratorConfig() {
         try {
-            return ProfileUtil.blendProfileWithConfiguration(ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
+            return ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
         } catch (IOException e) {
             throw new IllegalArgumentException("Cannot extract generator config: " + e,e);
         }
@@ -353,13 +379,15 @@ public class BuildMojo extends io.fabric8.maven.docker.BuildMojo {
                 .log(log)
                 .openshiftDependencyResources(new OpenShiftDependencyResources(log))
                 .useProjectClasspath(useProjectClasspath)
+                .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
+                .timings(processorTimings)
                 .build();
     }
 
     // Get enricher config
     private ProcessorConfig extractEnricherConfig() {
         try {
-            return ProfileUtil.blendProfileWithConfiguration(ProfileUtil.ENRICHER_CONFIG, profile, resourceDir, enricher);
+            return ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.ENRICHER_CONFIG, profile, resourceDir, enricher);
         } catch (IOException e) {
             throw new IllegalArgumentException("Cannot extract enricher config: " + e,e);
         }
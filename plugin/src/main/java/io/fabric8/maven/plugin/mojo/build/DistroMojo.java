@@ -15,6 +15,8 @@
  */
 package io.fabric8.maven.plugin.mojo.build;
 
+import io.fabric8.maven.core.util.BuildSessionCache;
+import io.fabric8.maven.core.util.ClassUtil;
 import io.fabric8.maven.core.util.MavenUtil;
 import io.fabric8.maven.plugin.mojo.AbstractFabric8Mojo;
 import io.fabric8.utils.Files;
@@ -166,13 +168,9 @@ public class DistroMojo extends AbstractFabric8Mojo {
         return dirF;
     }
 
+    // The compile class loader is shared with all other goals of this build, so it must not be closed
     protected URLClassLoader getCompileClassLoader() throws MojoExecutionException {
-        try {
-            List<String> classpathElements = project.getCompileClasspathElements();
-            return createClassLoader(classpathElements, project.getBuild().getOutputDirectory());
-        } catch (Exception e) {
-            throw new MojoExecutionException("Failed to resolve classpath: " + e, e);
-        }
+        return ClassUtil.getProjectClassLoader(project, BuildSessionCache.getOrCreate(getPluginContext(), session), log);
     }
 
     protected URLClassLoader getTestClassLoader() throws MojoExecutionException {
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.plugin.mojo.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import org.apache.maven.shared.utils.io.FileUtils;
+
+/**
+ * Reads resource fragments with Maven filtering applied. The filtered content is directly handed over
+ * to the parser, without reading it back from a copy:
+ *
+ * <ul>
+ *     <li>Fragments which don't contain any expression (neither <code>${...}</code> nor <code>@...@</code>)
+ *     are read in place and no filtered copy is created.</li>
+ *     <li>All other fragments are filtered in memory. A copy of the filtered content is kept in the output
+ *     directory for reference, but it is only written if it differs from an existing copy, i.e. if the
+ *     fragment or the properties used for filtering have changed.</li>
+ * </ul>
+ *
+ * The filter wrappers are only created when the first fragment with expressions is found.
+ */
+abstract class FilteringFragmentReader implements KubernetesResourceUtil.FragmentReader {
+
+    private static final Charset ENCODING = StandardCharsets.UTF_8;
+
+    private final File outDir;
+
+    private List<FileUtils.FilterWrapper> filterWrappers;
+
+    /**
+     * @param outDir directory where to store the filtered copies
+     */
+    FilteringFragmentReader(File outDir) {
+        this.outDir = outDir;
+    }
+
+    /**
+     * Create the filter wrappers to apply, called at most once
+     *
+     * @return filter wrappers
+     * @throws IOException if the filter wrappers can not be created
+     */
+    protected abstract List<FileUtils.FilterWrapper> createFilterWrappers() throws IOException;
+
+    @Override
+    public Reader open(File fragment) throws IOException {
+        String content = new String(Files.readAllBytes(fragment.toPath()), ENCODING);
+        if (!containsExpression(content)) {
+            return new StringReader(content);
+        }
+        String filtered = filter(content);
+        writeCopyIfChanged(new File(outDir, fragment.getName()), filtered);
+        return new StringReader(filtered);
+    }
+
+    // Check for the start of the default delimiters "${*}" and "@" as used by Maven filtering
+    static boolean containsExpression(String content) {
+        return content.contains("${") || content.indexOf('@') >= 0;
+    }
+
+    private String filter(String content) throws IOException {
+        if (filterWrappers == null) {
+            filterWrappers = createFilterWrappers();
+        }
+        Reader reader = new StringReader(content);
+        for (FileUtils.FilterWrapper wrapper : filterWrappers) {
+            reader = wrapper.getReader(reader);
+        }
+        StringBuilder ret = new StringBuilder(content.length());
+        try (Reader filtered = reader) {
+            char[] buffer = new char[8192];
+            int len;
+            while ((len = filtered.read(buffer)) >= 0) {
+                ret.append(buffer, 0, len);
+            }
+        }
+        return ret.toString();
+    }
+
+    private void writeCopyIfChanged(File target, String content) throws IOException {
+        byte[] data = content.getBytes(ENCODING);
+        if (target.isFile() && target.length() == data.length &&
+            Arrays.equals(Files.readAllBytes(target.toPath()), data)) {
+            return;
+        }
+        if (!outDir.isDirectory() && !outDir.mkdirs()) {
+            throw new IOException("Cannot create working dir " + outDir);
+        }
+        Files.write(target.toPath(), data);
+    }
+}
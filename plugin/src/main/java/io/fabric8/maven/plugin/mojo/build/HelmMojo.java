@@ -27,6 +27,7 @@ import io.fabric8.kubernetes.api.model.KubernetesResource;
 import io.fabric8.maven.core.config.HelmConfig;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
 import io.fabric8.maven.core.util.MavenUtil;
+import io.fabric8.maven.core.util.MultiStringReplacer;
 import io.fabric8.maven.core.util.ResourceFileType;
 import io.fabric8.maven.plugin.mojo.AbstractFabric8Mojo;
 import io.fabric8.openshift.api.model.Template;
@@ -51,8 +52,17 @@ import java.io.FilenameFilter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static io.fabric8.maven.core.util.KubernetesResourceUtil.getNameWithSuffix;
 
@@ -88,42 +98,102 @@ public class HelmMojo extends AbstractFabric8Mojo {
     @Override
     public void executeInternal() throws MojoExecutionException, MojoFailureException {
         String chartName = getChartName();
+        List<HelmConfig.HelmType> types = new ArrayList<>(new LinkedHashSet<>(getHelmTypes()));
 
-        for (HelmConfig.HelmType type : getHelmTypes()) {
-            generateHelmChartDirectory(chartName, type);
+        // The manifests are the same for all chart types, so they are parsed only once
+        String iconUrl = findIconURL();
+        getLog().debug("Found icon: " + iconUrl);
+        List<HelmParameter> helmParameters = createHelmParameters(findTemplate());
+
+        if (types.size() < 2 || getProperty("fabric8.helm.outputDir") != null) {
+            // A shared output directory is wiped for every type, so each chart is archived before the next one is generated
+            for (HelmConfig.HelmType type : types) {
+                archiveAndAttachHelmChart(chartName, type, generateHelmChartDirectory(chartName, type, iconUrl, helmParameters));
+            }
+            return;
+        }
+
+        Map<HelmConfig.HelmType, File> outputDirs = generateHelmChartDirectories(chartName, types, iconUrl, helmParameters);
+
+        // Archiving and attaching is done one after another, since neither the archiver nor the project are thread safe
+        for (HelmConfig.HelmType type : types) {
+            archiveAndAttachHelmChart(chartName, type, outputDirs.get(type));
+        }
+    }
+
+    private void archiveAndAttachHelmChart(String chartName, HelmConfig.HelmType type, File outputDir) throws MojoExecutionException {
+        if (outputDir != null) {
+            File destinationFile = new File(project.getBuild().getDirectory(),
+                                            chartName + "-" + project.getVersion() + "-" + type.getClassifier() + ".tar.gz");
+            MavenUtil.createArchive(outputDir.getParentFile(), destinationFile, this.archiver);
+            projectHelper.attachArtifact(project, "tar.gz", type.getClassifier(), destinationFile);
+        }
+    }
+
+    // Generate the chart directories for all types concurrently, each type has its own output directory
+    private Map<HelmConfig.HelmType, File> generateHelmChartDirectories(final String chartName, List<HelmConfig.HelmType> types,
+                                                                        final String iconUrl, final List<HelmParameter> helmParameters)
+        throws MojoExecutionException {
+        Map<HelmConfig.HelmType, File> ret = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(types.size());
+        try {
+            Map<HelmConfig.HelmType, Future<File>> futures = new LinkedHashMap<>();
+            for (final HelmConfig.HelmType type : types) {
+                futures.put(type, executor.submit(new Callable<File>() {
+                    @Override
+                    public File call() throws MojoExecutionException {
+                        return generateHelmChartDirectory(chartName, type, iconUrl, helmParameters);
+                    }
+                }));
+            }
+            for (Map.Entry<HelmConfig.HelmType, Future<File>> entry : futures.entrySet()) {
+                ret.put(entry.getKey(), entry.getValue().get());
+            }
+            return ret;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while creating Helm charts");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+            throw new MojoExecutionException("Failed to create Helm charts: " + cause, cause);
+        } finally {
+            executor.shutdownNow();
         }
     }
 
-    protected void generateHelmChartDirectory(String chartName, HelmConfig.HelmType type) throws MojoExecutionException {
+    /**
+     * Create the chart directory for a single Helm type
+     *
+     * @return the chart directory or null if there is no source for this type
+     */
+    protected File generateHelmChartDirectory(String chartName, HelmConfig.HelmType type,
+                                              String iconUrl, List<HelmParameter> helmParameters) throws MojoExecutionException {
         File outputDir = prepareOutputDir(type);
         File sourceDir = checkSourceDir(chartName, type);
         if (sourceDir == null) {
-            return;
+            return null;
         }
         log.info("Creating Helm Chart \"%s\" for %s", chartName, type.getDescription());
         log.verbose("SourceDir: %s", sourceDir);
         log.verbose("OutputDir: %s", outputDir);
 
-        // Copy over all resource descriptors into the helm templates dir
-        File templatesDir = copyResourceFilesToTemplatesDir(outputDir, sourceDir);
+        // Copy over all resource descriptors into the helm templates dir, replacing template parameters on the fly
+        copyResourceFilesToTemplatesDir(outputDir, sourceDir, createHelmExpressionReplacer(helmParameters));
 
         // Save Helm chart
-        createChartYaml(chartName, outputDir);
+        createChartYaml(chartName, outputDir, iconUrl);
 
         // Copy over support files
         copyTextFile(outputDir, "README");
         copyTextFile(outputDir, "LICENSE");
 
-
-        Template template = findTemplate();
-        if (template != null) {
-            createTemplateParameters(outputDir, template, templatesDir);
+        if (!helmParameters.isEmpty()) {
+            createValuesYaml(outputDir, helmParameters);
         }
-        // now lets create the tarball
-        File destinationFile = new File(project.getBuild().getDirectory(),
-                                        chartName + "-" + project.getVersion() + "-" + type.getClassifier() + ".tar.gz");
-        MavenUtil.createArchive(outputDir.getParentFile(), destinationFile, this.archiver);
-        projectHelper.attachArtifact(project, "tar.gz", type.getClassifier(), destinationFile);
+        return outputDir;
     }
 
     private String getChartName() {
@@ -190,13 +260,11 @@ public class HelmMojo extends AbstractFabric8Mojo {
         return Arrays.asList(HelmConfig.HelmType.kubernetes);
     }
 
-    private void createChartYaml(String chartName, File outputDir) throws MojoExecutionException {
+    private void createChartYaml(String chartName, File outputDir, String iconUrl) throws MojoExecutionException {
         Chart chart = helm != null ?
             new Chart(chartName, project, helm.getKeywords(), helm.getEngine()) :
             new Chart(chartName, project);
 
-        String iconUrl = findIconURL();
-        getLog().debug("Found icon: " + iconUrl);
         if (Strings.isNotBlank(iconUrl)) {
             chart.setIcon(iconUrl);
         }
@@ -213,18 +281,21 @@ public class HelmMojo extends AbstractFabric8Mojo {
     }
 
 
-    private void createTemplateParameters(File outputDir, Template template, File templatesDir) throws MojoExecutionException {
-        JsonNodeFactory nodeFactory = JsonNodeFactory.instance;
-        ObjectNode values = nodeFactory.objectNode();
-        List<io.fabric8.openshift.api.model.Parameter> parameters = template.getParameters();
-        if (parameters == null || parameters.isEmpty()) {
-            return;
+    private List<HelmParameter> createHelmParameters(Template template) {
+        List<HelmParameter> ret = new ArrayList<>();
+        List<io.fabric8.openshift.api.model.Parameter> parameters = template != null ? template.getParameters() : null;
+        if (parameters != null) {
+            for (io.fabric8.openshift.api.model.Parameter parameter : parameters) {
+                ret.add(new HelmParameter(parameter));
+            }
         }
-        List<HelmParameter> helmParameters = new ArrayList<>();
-        for (io.fabric8.openshift.api.model.Parameter parameter : parameters) {
-            HelmParameter helmParameter = new HelmParameter(parameter);
+        return ret;
+    }
+
+    private void createValuesYaml(File outputDir, List<HelmParameter> helmParameters) throws MojoExecutionException {
+        ObjectNode values = JsonNodeFactory.instance.objectNode();
+        for (HelmParameter helmParameter : helmParameters) {
             helmParameter.addToValue(values);
-            helmParameters.add(helmParameter);
         }
         File outputChartFile = new File(outputDir, "values.yaml");
         try {
@@ -232,39 +303,31 @@ public class HelmMojo extends AbstractFabric8Mojo {
         } catch (IOException e) {
             throw new MojoExecutionException("Failed to save chart values " + outputChartFile + ": " + e, e);
         }
+    }
 
-        // now lets replace all the parameter expressions in each template
-        File[] files = templatesDir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isFile()) {
-                    String extension = Files.getExtension(file.getName()).toLowerCase();
-                    if (extension.equals("yaml") || extension.equals("yml")) {
-                        convertTemplateParameterExpressionsWithHelmExpressions(file, helmParameters);
-                    }
-                }
-            }
-        }
+    /**
+     * Replace all parameter expressions (<code>${NAME}</code> and <code>$NAME</code>) with Helm expressions
+     * in a single pass over the text.
+     *
+     * @param text text to convert
+     * @param helmParameters parameters to replace
+     * @return the converted text
+     */
+    static String convertTemplateParameterExpressionsWithHelmExpressions(String text, List<HelmParameter> helmParameters) {
+        return createHelmExpressionReplacer(helmParameters).replace(text);
     }
 
-    private void convertTemplateParameterExpressionsWithHelmExpressions(File file, List<HelmParameter> helmParameters) throws MojoExecutionException {
-        String text = null;
-        try {
-            text = IOHelpers.readFully(file);
-        } catch (IOException e) {
-            throw new MojoExecutionException("Failed to load " + file + " so we can replacing template expressions " +e, e);
-        }
-        String original = text;
+    // If multiple parameters match at the same position, the one declared first wins,
+    // which gives the same result as replacing the parameters one after another.
+    private static MultiStringReplacer createHelmExpressionReplacer(List<HelmParameter> helmParameters) {
+        MultiStringReplacer.Builder builder = MultiStringReplacer.builder();
         for (HelmParameter helmParameter : helmParameters) {
-            text = helmParameter.convertTemplateParameterToHelmExpression(text);
-        }
-        if (!original.equals(text)) {
-            try {
-                IOHelpers.writeFully(file, text);
-            } catch (IOException e) {
-                throw new MojoExecutionException("Failed to save " + file + " after replacing template expressions " +e, e);
-            }
+            String name = helmParameter.getParameter().getName();
+            String expression = helmParameter.getHelmExpression();
+            builder.add("${" + name + "}", expression);
+            builder.add("$" + name, expression);
         }
+        return builder.build();
     }
 
     private String findIconURL() throws MojoExecutionException {
@@ -323,7 +386,7 @@ public class HelmMojo extends AbstractFabric8Mojo {
         return null;
     }
 
-    private File copyResourceFilesToTemplatesDir(File outputDir, File sourceDir) throws MojoExecutionException {
+    private File copyResourceFilesToTemplatesDir(File outputDir, File sourceDir, MultiStringReplacer helmExpressions) throws MojoExecutionException {
         File templatesDir = new File(outputDir, "templates");
         templatesDir.mkdirs();
         File[] files = sourceDir.listFiles();
@@ -338,7 +401,7 @@ public class HelmMojo extends AbstractFabric8Mojo {
                 if (dto instanceof Template) {
                     // lets split the template into separate files!
                     Template template = (Template) dto;
-                    copyTemplateResourcesToTemplatesDir(templatesDir, template);
+                    copyTemplateResourcesToTemplatesDir(templatesDir, template, helmExpressions);
                     continue;
                 }
 
@@ -351,6 +414,9 @@ public class HelmMojo extends AbstractFabric8Mojo {
                     // lets escape any {{ or }} characters to avoid creating invalid templates
                     String text = IOHelpers.readFully(file);
                     text = escapeYamlTemplate(text);
+                    if (isYaml(targetFile)) {
+                        text = helmExpressions.replace(text);
+                    }
                     IOHelpers.writeFully(targetFile, text);
                 } catch (IOException e) {
                     throw new MojoExecutionException("Failed to copy manifest files from " + file +
@@ -361,14 +427,15 @@ public class HelmMojo extends AbstractFabric8Mojo {
         return templatesDir;
     }
 
-    private void copyTemplateResourcesToTemplatesDir(File templatesDir, Template template) throws MojoExecutionException {
+    private void copyTemplateResourcesToTemplatesDir(File templatesDir, Template template, MultiStringReplacer helmExpressions) throws MojoExecutionException {
         List<HasMetadata> objects = template.getObjects();
         if (objects != null) {
             for (HasMetadata object : objects) {
                 String name = getNameWithSuffix(KubernetesHelper.getName(object), KubernetesHelper.getKind(object)) + ".yaml";
                 File outFile = new File(templatesDir, name);
                 try {
-                    saveYaml(object, outFile);
+                    String text = KubernetesResourceUtil.toYaml(object);
+                    IOHelpers.writeFully(outFile, helmExpressions.replace(text));
                 } catch (IOException e) {
                     throw new MojoExecutionException("Failed to save template " + outFile + ": " + e, e);
                 }
@@ -411,6 +478,11 @@ public class HelmMojo extends AbstractFabric8Mojo {
         return answer.toString();
     }
 
+    private static boolean isYaml(File file) {
+        String extension = Files.getExtension(file.getName()).toLowerCase();
+        return extension.equals("yaml") || extension.equals("yml");
+    }
+
     private boolean containsYamlFiles(File sourceDir) {
         File[] files = sourceDir.listFiles();
         if (files != null) {
@@ -669,8 +741,17 @@ public class HelmMojo extends AbstractFabric8Mojo {
 
         public String convertTemplateParameterToHelmExpression(String text) {
             String name = parameter.getName();
-            String from = "${" + name + "}";
-            String answer = text;
+            String to = getHelmExpression();
+            String answer = Strings.replaceAllWithoutRegex(text, "${" + name + "}", to);
+            return Strings.replaceAllWithoutRegex(answer, "$" + name, to);
+        }
+
+        /**
+         * Get the Helm expression which replaces this parameter
+         *
+         * @return expression referencing the parameter's value
+         */
+        public String getHelmExpression() {
             String defaultExpression = "";
             String required = "";
             String value = parameter.getValue();
@@ -681,10 +762,7 @@ public class HelmMojo extends AbstractFabric8Mojo {
             if (flag != null && flag.booleanValue()) {
                 required = "required \"A valid .Values." + helmName + " entry required!\" ";
             }
-            String to = "{{ " + required + ".Values." + helmName + defaultExpression + " }}";
-            answer = Strings.replaceAllWithoutRegex(answer, from, to);
-            from = "$" + name;
-            return Strings.replaceAllWithoutRegex(answer, from, to);
+            return "{{ " + required + ".Values." + helmName + defaultExpression + " }}";
         }
     }
 }
@@ -23,6 +23,7 @@ import java.util.List;
 import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.config.ProcessorConfig;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.core.util.ProfileUtil;
 import io.fabric8.maven.docker.config.ImageConfiguration;
@@ -111,7 +112,7 @@ public class PushMojo extends io.fabric8.maven.docker.PushMojo {
     public List<ImageConfiguration> customizeConfig(List<ImageConfiguration> configs) {
         try {
             ProcessorConfig generatorConfig =
-                ProfileUtil.blendProfileWithConfiguration(ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
+                ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
             GeneratorContext ctx = new GeneratorContext.Builder()
                 .config(generatorConfig)
                 .project(project)
@@ -122,6 +123,7 @@ public class PushMojo extends io.fabric8.maven.docker.PushMojo {
                 .mode(mode)
                 .strategy(buildStrategy)
                 .useProjectClasspath(false)
+                .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
                 .build();
             return GeneratorManager.generate(configs, ctx, true);
         } catch (Exception e) {
@@ -16,10 +16,7 @@
 package io.fabric8.maven.plugin.mojo.build;
 
 import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.builder.TypedVisitor;
-import io.fabric8.kubernetes.api.extensions.Templates;
 import io.fabric8.kubernetes.api.model.*;
-import io.fabric8.kubernetes.api.model.extensions.Deployment;
 import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.config.*;
 import io.fabric8.maven.core.handler.HandlerHub;
@@ -37,21 +34,18 @@ import io.fabric8.maven.docker.util.EnvUtil;
 import io.fabric8.maven.docker.util.ImageNameFormatter;
 import io.fabric8.maven.docker.util.Logger;
 import io.fabric8.maven.enricher.api.EnricherContext;
-import io.fabric8.maven.enricher.api.util.InitContainerHandler;
-import io.fabric8.maven.enricher.standard.VolumePermissionEnricher;
 import io.fabric8.maven.generator.api.GeneratorContext;
 import io.fabric8.maven.plugin.converter.DeploymentConfigOpenShiftConverter;
 import io.fabric8.maven.plugin.converter.DeploymentOpenShiftConverter;
 import io.fabric8.maven.plugin.converter.KubernetesToOpenShiftConverter;
 import io.fabric8.maven.plugin.converter.NamespaceOpenShiftConverter;
+import io.fabric8.maven.plugin.converter.OpenShiftListConverter;
 import io.fabric8.maven.plugin.converter.ReplicSetOpenShiftConverter;
 import io.fabric8.maven.plugin.enricher.EnricherManager;
 import io.fabric8.maven.plugin.generator.GeneratorManager;
-import io.fabric8.openshift.api.model.DeploymentConfig;
 import io.fabric8.openshift.api.model.Template;
 import io.fabric8.utils.Lists;
 import io.fabric8.utils.Strings;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Component;
@@ -61,6 +55,7 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.shared.filtering.MavenFileFilter;
 import org.apache.maven.shared.filtering.MavenFilteringException;
+import org.apache.maven.shared.utils.io.FileUtils;
 
 import javax.validation.ConstraintViolationException;
 import java.io.File;
@@ -70,15 +65,12 @@ import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Properties;
 
-import static io.fabric8.maven.core.util.Constants.RESOURCE_APP_CATALOG_ANNOTATION;
 import static io.fabric8.maven.plugin.mojo.build.ApplyMojo.DEFAULT_OPENSHIFT_MANIFEST;
 
 
@@ -133,6 +125,13 @@ public class ResourceMojo extends AbstractResourceMojo {
     @Parameter(property = "fabric8.workDirOpenShiftOverride", defaultValue = "${project.build.directory}/fabric8-openshift-override")
     private File workDirOpenShiftOverride;
 
+    /**
+     * Whether to record the time spent in each enricher and generator. A summary is logged and
+     * all timings are written to <code>timings.json</code> in the fabric8 working directory.
+     */
+    @Parameter(property = "fabric8.timings", defaultValue = "false")
+    private boolean timings;
+
     /**
      * Directory to lookup for docker compose files
      */
@@ -240,9 +239,6 @@ public class ResourceMojo extends AbstractResourceMojo {
     @Parameter(property = "fabric8.openshift.deployTimeoutSeconds", defaultValue = "3600")
     private Long openshiftDeployTimeoutSeconds;
 
-    @Parameter(property = "kompose.dir", defaultValue = "${user.home}/.kompose/bin")
-    private File komposeBinDir;
-
     // Access for creating OpenShift binary builds
     private ClusterAccess clusterAccess;
 
@@ -251,8 +247,12 @@ public class ResourceMojo extends AbstractResourceMojo {
     private OpenShiftDependencyResources openshiftDependencyResources;
     private OpenShiftOverrideResources openShiftOverrideResources;
 
+    // Timings of enrichers and generators
+    private ProcessorTimings processorTimings = ProcessorTimings.DISABLED;
+
     public void executeInternal() throws MojoExecutionException, MojoFailureException {
         clusterAccess = new ClusterAccess(namespace);
+        processorTimings = timings ? new ProcessorTimings() : ProcessorTimings.DISABLED;
 
         try {
             lateInit();
@@ -279,6 +279,11 @@ public class ResourceMojo extends AbstractResourceMojo {
         } catch (IOException e) {
             throw new MojoExecutionException("Failed to generate fabric8 descriptor", e);
         }
+        try {
+            processorTimings.report(new File(workDir, "timings.json"), "fabric8:resource", log);
+        } catch (IOException e) {
+            log.warn("Cannot write timings report: %s", e.getMessage());
+        }
     }
 
     private void validateIfRequired(File resourceDir, ResourceClassifier classifier) throws MojoExecutionException, MojoFailureException {
@@ -368,7 +373,7 @@ public class ResourceMojo extends AbstractResourceMojo {
         Template customTemplate = createTemplateWithObjects(kubernetesResources, template);
         if (customTemplate != null) {
             try {
-                return Templates.processTemplatesLocally(customTemplate, false);
+                return KubernetesResourceUtil.processTemplateLocally(customTemplate, false);
             } catch (IOException e) {
                 throw new MojoExecutionException("Failed to replace template expressions in kubernetes manifest: " + e, e);
             }
@@ -401,7 +406,7 @@ public class ResourceMojo extends AbstractResourceMojo {
         KubernetesListBuilder ret = new KubernetesListBuilder();
         ret.withMetadata(list.getMetadata());
         for (HasMetadata item : list.getItems()) {
-            if (!isOpenshiftItem(item)) {
+            if (!OpenShiftListConverter.isOpenShiftItem(item)) {
                 ret.addToItems(item);
             } else {
                 log.verbose("kubernetes.yml: Removed OpenShift specific resource '%s' of type %s",
@@ -411,23 +416,6 @@ public class ResourceMojo extends AbstractResourceMojo {
         return ret.build();
     }
 
-    private boolean isOpenshiftItem(HasMetadata item) {
-        if (isTargetPlatformOpenShift(item)) {
-            return true;
-        }
-        return item.getClass().getPackage().getName().contains("openshift");
-    }
-
-    private boolean isTargetPlatformOpenShift(HasMetadata item) {
-        String targetPlatform = KubernetesHelper.getOrCreateAnnotations(item).get(TARGET_PLATFORM_ANNOTATION);
-        return targetPlatform != null && "openshift".equalsIgnoreCase(targetPlatform);
-    }
-
-    private boolean isTargetPlatformKubernetes(HasMetadata item) {
-        String targetPlatform = KubernetesHelper.getOrCreateAnnotations(item).get(TARGET_PLATFORM_ANNOTATION);
-        return targetPlatform != null && "kubernetes".equalsIgnoreCase(targetPlatform);
-    }
-
 
 
     private KubernetesList generateResources(List<ImageConfiguration> images)
@@ -447,7 +435,9 @@ public class ResourceMojo extends AbstractResourceMojo {
             .images(resolvedImages)
             .log(log)
             .useProjectClasspath(useProjectClasspath)
-            .openshiftDependencyResources(openshiftDependencyResources);
+            .openshiftDependencyResources(openshiftDependencyResources)
+            .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
+            .timings(processorTimings);
         if (resources != null) {
             ctxBuilder.namespace(resources.getNamespace());
         }
@@ -472,7 +462,8 @@ public class ResourceMojo extends AbstractResourceMojo {
                 KubernetesListBuilder builder = KubernetesResourceUtil.readResourceFragmentsFrom(
                         KubernetesResourceUtil.DEFAULT_RESOURCE_VERSIONING,
                         defaultName,
-                        mavenFilterFiles(resourceFiles, this.workDirOpenShiftOverride));
+                        resourceFiles,
+                        createFragmentReader(this.workDirOpenShiftOverride));
                 KubernetesList list = builder.build();
                 for (HasMetadata item : list.getItems()) {
                     openShiftOverrideResources.addOpenShiftOverride(item);
@@ -490,7 +481,8 @@ public class ResourceMojo extends AbstractResourceMojo {
         });
         if (profileDirs != null) {
             for (File profileDir : profileDirs) {
-                Profile profile = ProfileUtil.findProfile(profileDir.getName(), resourceDir);
+                Profile profile = ProfileUtil.findProfile(BuildSessionCache.getOrCreate(getPluginContext(), session),
+                                                          profileDir.getName(), resourceDir);
                 if (profile == null) {
                     throw new MojoExecutionException(String.format("Invalid profile '%s' given as directory in %s. " +
                                     "Please either define a profile of this name or move this directory away",
@@ -514,27 +506,27 @@ public class ResourceMojo extends AbstractResourceMojo {
 
     private KubernetesListBuilder generateAppResources(List<ImageConfiguration> images, EnricherManager enricherManager) throws IOException, MojoExecutionException {
         Path composeFilePath = checkComposeConfig();
-        ComposeService composeUtil = new ComposeService(komposeBinDir, composeFilePath, log);
+        // The compose file gets the same Maven filtering as the resource fragments
+        ComposeService composeUtil = new ComposeService(composeFilePath, createFragmentReader(this.workDir), log);
         try {
             File[] resourceFiles = KubernetesResourceUtil.listResourceFragments(resourceDir);
-            File[] composeResourceFiles = composeUtil.convertToKubeFragments();
-            File[] allResources = ArrayUtils.addAll(resourceFiles, composeResourceFiles);
             KubernetesListBuilder builder;
 
             // Add resource files found in the fabric8 directory
-            if (allResources != null && allResources.length > 0) {
-                if (resourceFiles != null && resourceFiles.length > 0) {
-                    log.info("using resource templates from %s", resourceDir);
-                }
-
-                if (composeResourceFiles != null && composeResourceFiles.length > 0) {
-                    log.info("using resource templates generated from compose file");
-                }
-                builder = readResourceFragments(allResources);
+            if (resourceFiles != null && resourceFiles.length > 0) {
+                log.info("using resource templates from %s", resourceDir);
+                builder = readResourceFragments(resourceFiles);
             } else {
                 builder = new KubernetesListBuilder();
             }
 
+            // Add resources converted from a docker compose file
+            List<HasMetadata> composeResources = composeUtil.convertToKubeResources();
+            if (!composeResources.isEmpty()) {
+                log.info("using resource templates generated from compose file");
+                builder.addToItems(composeResources.toArray(new HasMetadata[composeResources.size()]));
+            }
+
             // Add locally configured objects
             if (resources != null) {
                 // TODO: Allow also support resources to be specified via XML
@@ -554,8 +546,6 @@ public class ResourceMojo extends AbstractResourceMojo {
             throw new MojoExecutionException(message, e);
         } catch (Fabric8ServiceException e) {
             throw new MojoExecutionException(e.getMessage(), e);
-        } finally {
-            composeUtil.cleanComposeResources();
         }
     }
 
@@ -598,148 +588,23 @@ public class ResourceMojo extends AbstractResourceMojo {
         builder = KubernetesResourceUtil.readResourceFragmentsFrom(
             KubernetesResourceUtil.DEFAULT_RESOURCE_VERSIONING,
             defaultName,
-                mavenFilterFiles(resourceFiles, this.workDir));
+            resourceFiles,
+            createFragmentReader(this.workDir));
         return builder;
     }
 
     private ProcessorConfig extractEnricherConfig() throws IOException {
-        return ProfileUtil.blendProfileWithConfiguration(ProfileUtil.ENRICHER_CONFIG, profile, resourceDir, enricher);
+        return ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.ENRICHER_CONFIG, profile, resourceDir, enricher);
     }
 
     private ProcessorConfig extractGeneratorConfig() throws IOException {
-        return ProfileUtil.blendProfileWithConfiguration(ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
+        return ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
     }
 
     // Converts the kubernetes resources into OpenShift resources
-    private KubernetesList convertToOpenShiftResources(KubernetesList resources) throws MojoExecutionException {
-        KubernetesListBuilder builder = new KubernetesListBuilder();
-        builder.withMetadata(resources.getMetadata());
-        List<HasMetadata> items = resources.getItems();
-        List<HasMetadata> objects = new ArrayList<>();
-        if (items != null) {
-            for (HasMetadata item : items) {
-                if (item instanceof Deployment) {
-                    // if we have a Deployment and a DeploymentConfig of the same name
-                    // since we have a different manifest for OpenShift then lets filter out
-                    // the Kubernetes specific Deployment
-                    String name = KubernetesHelper.getName(item);
-                    if (hasDeploymentConfigNamed(items, name)) {
-                        continue;
-                    }
-                }
-                item = openShiftOverrideResources.overrideResource(item);
-
-                HasMetadata converted = convertKubernetesItemToOpenShift(item);
-                if (converted != null && !isTargetPlatformKubernetes(item)) {
-                    objects.add(converted);
-                }
-            }
-        }
-
-        openshiftDependencyResources.addMissingResources(objects);
-        moveTemplatesToTopLevel(builder, objects);
-        // TODO: Remove this ASAP when https://github.com/fabric8io/fabric8-maven-plugin/issues/678 is fixed
-        removeInitContainers(builder, VolumePermissionEnricher.ENRICHER_NAME);
-        return builder.build();
-    }
-
-    private void removeInitContainers(KubernetesListBuilder builder, final String enricherName) {
-         builder.accept(new TypedVisitor<PodTemplateSpecBuilder>() {
-             @Override
-             public void visit(PodTemplateSpecBuilder builder) {
-                 InitContainerHandler initContainerHandler = new InitContainerHandler(log);
-                 if (initContainerHandler.hasInitContainer(builder, enricherName)) {
-                     log.verbose("Removing init container from openshift.yml for %s",enricherName);
-                     initContainerHandler.removeInitContainer(builder, enricherName);
-                 }
-             }
-         });
-    }
-
-    private void moveTemplatesToTopLevel(KubernetesListBuilder builder, List<HasMetadata> objects) {
-        Template template = extractAndRemoveTemplates(objects);
-        if (template != null) {
-            openshiftDependencyResources.addMissingParameters(template);
-            builder.addToItems(template);
-        } else {
-            for (HasMetadata object : objects) {
-                builder.addToItems(object);
-            }
-        }
-    }
-
-    private Template extractAndRemoveTemplates(List<HasMetadata> items) {
-        Template extractedTemplate = null;
-        for (HasMetadata item : new ArrayList<>(items)) {
-            if (item instanceof Template && !KubernetesResourceUtil.isAppCatalogResource(item)) {
-                Template template = (Template) item;
-                if (extractedTemplate == null) {
-                    extractedTemplate = template;
-                } else {
-                    extractedTemplate = Templates.combineTemplates(extractedTemplate, template);
-                }
-                items.remove(item);
-            }
-        }
-        if (extractedTemplate != null) {
-            extractedTemplate.setObjects(items);
-        }
-        return extractedTemplate;
-    }
-
-    private boolean hasDeploymentConfigNamed(List<HasMetadata> items, String name) {
-        for (HasMetadata item : items) {
-            if (item instanceof DeploymentConfig) {
-                String dcName = KubernetesHelper.getName(item);
-                if (Objects.equals(name, dcName)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    /**
-     * Converts any kubernetes resource to the OpenShift equivalent
-     *
-     * @return the converted kubernetes resource or null if it should be ignored
-     */
-    private HasMetadata convertKubernetesItemToOpenShift(HasMetadata item) {
-
-        // TODO-F8SPEC: App Catalog is Fabric8 specific. Its best handled outside the 'regular' resource generation chain
-        //              better in an 'AppCatalog' specific processing
-        // vvvvvvv (begin)
-        if (item instanceof ConfigMap &&
-            "true".equals(getAnnotations(item).get(RESOURCE_APP_CATALOG_ANNOTATION))) {
-            // kubernetes App Catalog so we use a Template instead on OpenShift
-            return null;
-        }
-        // TODO-F8SPEC: ^^^^^ (end)
-
-        // lets check if there's an OpenShift resource of this name already from a dependency...
-        if (!isOpenshiftItem(item)) {
-            HasMetadata dependencyResource = openshiftDependencyResources.convertKubernetesItemToOpenShift(item);
-            if (dependencyResource != null) {
-                return dependencyResource;
-            }
-        }
-
-        KubernetesToOpenShiftConverter converter = openShiftConverters.get(item.getKind());
-        return converter != null ? converter.convert(item) : item;
-    }
-
-    // ==================================================================================
-
-    private Map<String, String> getAnnotations(HasMetadata item) {
-        ObjectMeta meta = item.getMetadata();
-        if (meta == null) {
-            return Collections.EMPTY_MAP;
-        }
-        Map<String, String> annos = meta.getAnnotations();
-        if (annos == null) {
-            return Collections.EMPTY_MAP;
-        }
-        return annos;
+    private KubernetesList convertToOpenShiftResources(KubernetesList resources) {
+        return new OpenShiftListConverter(log, openShiftConverters, openShiftOverrideResources, openshiftDependencyResources)
+            .convert(resources);
     }
 
     private List<ImageConfiguration> getResolvedImages(List<ImageConfiguration> images, final Logger log) throws MojoExecutionException {
@@ -768,6 +633,8 @@ public class ResourceMojo extends AbstractResourceMojo {
                             .mode(mode)
                             .strategy(buildStrategy)
                             .useProjectClasspath(useProjectClasspath)
+                            .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
+                            .timings(processorTimings)
                             .build();
                         return GeneratorManager.generate(configs, ctx, true);
                     } catch (Exception e) {
@@ -867,26 +734,18 @@ public class ResourceMojo extends AbstractResourceMojo {
         }
     }
 
-    private File[] mavenFilterFiles(File[] resourceFiles, File outDir) throws MojoExecutionException {
-        if (!outDir.exists()) {
-            if (!outDir.mkdirs()) {
-                throw new MojoExecutionException("Cannot create working dir " + outDir);
-            }
-        }
-        File[] ret = new File[resourceFiles.length];
-        int i = 0;
-        for (File resource : resourceFiles) {
-            File targetFile = new File(outDir, resource.getName());
-            try {
-                mavenFileFilter.copyFile(resource, targetFile, true,
-                                         project, null, false, "utf8", session);
-                ret[i++] = targetFile;
-            } catch (MavenFilteringException exp) {
-                throw new MojoExecutionException(
-                    String.format("Cannot filter %s to %s", resource, targetFile), exp);
+    // Fragments are filtered on the fly while reading them
+    private FilteringFragmentReader createFragmentReader(File outDir) {
+        return new FilteringFragmentReader(outDir) {
+            @Override
+            protected List<FileUtils.FilterWrapper> createFilterWrappers() throws IOException {
+                try {
+                    return mavenFileFilter.getDefaultFilterWrappers(project, null, false, session, null);
+                } catch (MavenFilteringException exp) {
+                    throw new IOException("Cannot create filters for resource fragments: " + exp.getMessage(), exp);
+                }
             }
-        }
-        return ret;
+        };
     }
 
     private void addServices(KubernetesListBuilder builder, List<ServiceConfig> serviceConfig) {
@@ -31,10 +31,15 @@ import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.config.ProcessorConfig;
+import io.fabric8.maven.core.config.ResourceConfig;
 import io.fabric8.maven.core.service.Fabric8ServiceHub;
+import io.fabric8.maven.core.service.ResourcePatchService;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.core.util.GoalFinder;
 import io.fabric8.maven.core.util.Gofabric8Util;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.core.util.MavenUtil;
+import io.fabric8.maven.core.util.OpenShiftDependencyResources;
 import io.fabric8.maven.core.util.ProfileUtil;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.config.ImageConfiguration;
@@ -44,10 +49,14 @@ import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.service.WatchService;
 import io.fabric8.maven.docker.util.AnsiLogger;
 import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.enricher.api.EnricherContext;
 import io.fabric8.maven.generator.api.GeneratorContext;
+import io.fabric8.maven.plugin.enricher.EnricherManager;
 import io.fabric8.maven.plugin.generator.GeneratorManager;
+import io.fabric8.maven.plugin.watcher.ResourceUpdater;
 import io.fabric8.maven.plugin.watcher.WatcherManager;
 import io.fabric8.maven.watcher.api.WatcherContext;
+import io.fabric8.utils.Files;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -58,6 +67,8 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.repository.RepositorySystem;
+import org.apache.maven.shared.filtering.MavenFileFilter;
+import org.apache.maven.shared.filtering.MavenFilteringException;
 
 import static io.fabric8.maven.plugin.mojo.build.ApplyMojo.DEFAULT_KUBERNETES_MANIFEST;
 import static io.fabric8.maven.plugin.mojo.build.ApplyMojo.DEFAULT_OPENSHIFT_MANIFEST;
@@ -72,6 +83,18 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
     @Parameter
     ProcessorConfig generator;
 
+    /**
+     * Enrichers used when resource fragments are regenerated
+     */
+    @Parameter
+    ProcessorConfig enricher;
+
+    /**
+     * Resource configuration as used for <code>fabric8:resource</code>
+     */
+    @Parameter
+    private ResourceConfig resources;
+
     /**
      * To skip over the execution of the goal
      */
@@ -137,6 +160,20 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
     @Parameter(property = "fabric8.resourceDir", defaultValue = "${basedir}/src/main/fabric8")
     private File resourceDir;
 
+    /**
+     * Whether to update the resources in the cluster when a resource fragment changes. Only the
+     * changed fragment is processed and applied as a patch, the image is not rebuilt for this.
+     */
+    @Parameter(property = "fabric8.watch.resources", defaultValue = "true")
+    private boolean watchResources;
+
+    /**
+     * Time in milliseconds to wait for further changes of the resource fragments before
+     * the cluster is updated
+     */
+    @Parameter(property = "fabric8.watch.quietPeriod", defaultValue = "500")
+    private long resourceWatchQuietPeriod;
+
     // Whether to use color
     @Parameter(property = "fabric8.useColor", defaultValue = "true")
     protected boolean useColor;
@@ -152,10 +189,17 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
     @Component
     protected RepositorySystem repositorySystem;
 
+    @Component(role = MavenFileFilter.class, hint = "default")
+    private MavenFileFilter mavenFileFilter;
+
     private ClusterAccess clusterAccess;
     private KubernetesClient kubernetes;
     private ServiceHub hub;
 
+    // Directory for the filtered resource fragments, private to this watch so that the
+    // output of fabric8:resource is not overwritten
+    private File fragmentFilterDir;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         if (skip) {
@@ -183,20 +227,76 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
             manifest = kubernetesManifest;
         }
 
+        ResourceUpdater resourceUpdater = null;
         try {
             Set<HasMetadata> resources = KubernetesResourceUtil.loadResources(manifest);
             WatcherContext context = getWatcherContext();
 
+            // Fragments of OpenShift projects would need to be converted first, so only done for Kubernetes
+            if (watchResources && !isOpenshift && resourceDir.isDirectory()) {
+                resourceUpdater = createResourceUpdater(resources);
+                resourceUpdater.start(resourceWatchQuietPeriod);
+            }
+
             WatcherManager.watch(getResolvedImages(), resources, context);
 
         } catch (KubernetesClientException ex) {
             KubernetesResourceUtil.handleKubernetesClientException(ex, this.log);
         } catch (Exception ex) {
             throw new MojoExecutionException("An error has occurred while while trying to watch the resources", ex);
+        } finally {
+            if (resourceUpdater != null) {
+                try {
+                    resourceUpdater.close();
+                } catch (IOException exp) {
+                    log.warn("Cannot stop watching resources: %s", exp.getMessage());
+                }
+            }
+            if (fragmentFilterDir != null) {
+                Files.recursiveDelete(fragmentFilterDir);
+            }
         }
 
     }
 
+    private ResourceUpdater createResourceUpdater(Set<HasMetadata> appliedResources) throws IOException {
+        EnricherContext.Builder ctxBuilder = new EnricherContext.Builder()
+                .project(project)
+                .session(session)
+                .goalFinder(goalFinder)
+                .config(extractEnricherConfig())
+                .resources(resources)
+                .images(getResolvedImages())
+                .log(log)
+                .useProjectClasspath(useProjectClasspath)
+                .openshiftDependencyResources(new OpenShiftDependencyResources(log))
+                .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session));
+        if (resources != null) {
+            ctxBuilder.namespace(resources.getNamespace());
+        }
+        fragmentFilterDir = java.nio.file.Files.createTempDirectory("fabric8-watch").toFile();
+        return new ResourceUpdater(log, resourceDir, MavenUtil.createDefaultResourceName(project),
+                                   new ResourceUpdater.FragmentFilter() {
+                                       @Override
+                                       public File filter(File fragment) throws MojoExecutionException {
+                                           return mavenFilterFile(fragment);
+                                       }
+                                   },
+                                   new EnricherManager(resources, ctxBuilder.build()),
+                                   new ResourcePatchService(kubernetes, clusterAccess.getNamespace(), log),
+                                   appliedResources);
+    }
+
+    private File mavenFilterFile(File fragment) throws MojoExecutionException {
+        File targetFile = new File(fragmentFilterDir, fragment.getName());
+        try {
+            mavenFileFilter.copyFile(fragment, targetFile, true, project, null, false, "utf8", session);
+            return targetFile;
+        } catch (MavenFilteringException exp) {
+            throw new MojoExecutionException(String.format("Cannot filter %s to %s", fragment, targetFile), exp);
+        }
+    }
+
     public WatcherContext getWatcherContext() throws MojoExecutionException {
         BuildService.BuildContext buildContext = getBuildContext();
         WatchService.WatchContext watchContext = getWatchContext();
@@ -219,6 +319,7 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
                 .namespace(clusterAccess.getNamespace())
                 .kubernetesClient(kubernetes)
                 .fabric8ServiceHub(getFabric8ServiceHub())
+                .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
                 .build();
     }
 
@@ -230,6 +331,7 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
                 .platformMode(mode)
                 .repositorySystem(repositorySystem)
                 .mavenProject(project)
+                .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
                 .build();
     }
 
@@ -255,6 +357,7 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
                     .strategy(buildStrategy)
                     .useProjectClasspath(useProjectClasspath)
                     .artifactResolver(serviceHub.getArtifactResolverService())
+                    .buildSessionCache(BuildSessionCache.getOrCreate(getPluginContext(), session))
                     .build();
             return GeneratorManager.generate(configs, ctx, false);
         } catch (MojoExecutionException e) {
@@ -265,16 +368,21 @@ public class WatchMojo extends io.fabric8.maven.docker.WatchMojo {
     // Get watcher config
     private ProcessorConfig extractWatcherConfig() {
         try {
-            return ProfileUtil.blendProfileWithConfiguration(ProfileUtil.WATCHER_CONFIG, profile, resourceDir, watcher);
+            return ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.WATCHER_CONFIG, profile, resourceDir, watcher);
         } catch (IOException e) {
             throw new IllegalArgumentException("Cannot extract watcher config: " + e, e);
         }
     }
 
+    // Get enricher config
+    private ProcessorConfig extractEnricherConfig() throws IOException {
+        return ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.ENRICHER_CONFIG, profile, resourceDir, enricher);
+    }
+
     // Get generator config
     private ProcessorConfig extractGeneratorConfig() {
         try {
-            return ProfileUtil.blendProfileWithConfiguration(ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
+            return ProfileUtil.blendProfileWithConfiguration(BuildSessionCache.getOrCreate(getPluginContext(), session), ProfileUtil.GENERATOR_CONFIG, profile, resourceDir, generator);
         } catch (IOException e) {
             throw new IllegalArgumentException("Cannot extract generator config: " + e, e);
         }
@@ -44,15 +44,12 @@ public abstract class AbstractInstallMojo extends AbstractFabric8Mojo {
 
     // Command to call for gofabric8
     protected static final String GOFABRIC8 = "gofabric8";
-    protected static final String KOMPOSE = "kompose";
 
     // Download parameters
     private static final String GOFABRIC8_VERSION_URL = "https://raw.githubusercontent.com/fabric8io/gofabric8/master/version/VERSION";
-    private static final String KOMPOSE_VERSION_URL = "https://raw.githubusercontent.com/kubernetes/kompose/master/build/VERSION";
     public static final String VERSION_ARGUMENT = "version";
     public static final String BATCH_ARGUMENT = "--batch";
     private static String GOFABRIC_DOWNLOAD_URL_FORMAT = "https://github.com/fabric8io/gofabric8/releases/download/v%s/gofabric8-%s-%s"; // version, platform, arch
-    private static String KOMPOSE_DOWNLOAD_URL_FORMAT = "https://github.com/kubernetes/kompose/releases/download/v%s/kompose-%s-%s"; // version, platform, arch
 
     // Variations of gofabric8
     private enum Platform { linux, darwin, windows }
@@ -74,9 +71,6 @@ public abstract class AbstractInstallMojo extends AbstractFabric8Mojo {
     @Parameter(property = "fabric8.dir", defaultValue = "${user.home}/.fabric8/bin")
     private File fabric8BinDir;
 
-    @Parameter(property = "kompose.dir", defaultValue = "${user.home}/.kompose/bin")
-    private File komposeBinDir;
-
     // X-TODO: Add update semantics similar to setup
     // X-TODO: Maybe combine fabric8:setup and fabric8:install
     // X-TODO: wonder if it should be renamed to fabric8:cluster-install?
@@ -104,23 +98,6 @@ public abstract class AbstractInstallMojo extends AbstractFabric8Mojo {
         return gofabric8;
     }
 
-    /**
-     * Check for kompose and install it to ~/.kompose/bin if not available on the path
-     *
-     * @return the path to kompose file
-     * @throws MojoExecutionException
-     */
-    protected File installKomposeIfNotAvailable() throws MojoExecutionException {
-        File kompose = ProcessUtil.findExecutable(log, KOMPOSE);
-        if (kompose == null) {
-            kompose = installAndConfigureBinary(komposeBinDir, KOMPOSE, KOMPOSE_VERSION_URL, KOMPOSE_DOWNLOAD_URL_FORMAT);
-        } else {
-            log.info("Found %s", kompose);
-        }
-        executeCommand(kompose, KOMPOSE, VERSION_ARGUMENT);
-        return kompose;
-    }
-
     private File installAndConfigureBinary(File binDirectory, String binName, String binVersionUrl, String binDownloadUrlFormat) throws MojoExecutionException {
         File binaryFile = null;
 
@@ -36,7 +36,5 @@ public class InstallMojo extends AbstractInstallMojo {
         } else {
             executeGoFabric8Command(file, "install");
         }
-
-        installKomposeIfNotAvailable();
     }
 }
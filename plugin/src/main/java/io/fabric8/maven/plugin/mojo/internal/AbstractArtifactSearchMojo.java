@@ -18,12 +18,7 @@ package io.fabric8.maven.plugin.mojo.internal;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.fabric8.kubernetes.api.Annotations;
-import io.fabric8.kubernetes.api.KubernetesHelper;
-import io.fabric8.kubernetes.api.model.HasMetadata;
-import io.fabric8.kubernetes.api.model.KubernetesList;
 import io.fabric8.maven.plugin.mojo.AbstractFabric8Mojo;
-import io.fabric8.openshift.api.model.Template;
-import io.fabric8.utils.Function;
 import io.fabric8.utils.IOHelpers;
 import io.fabric8.utils.URLUtils;
 import org.apache.maven.artifact.repository.MavenArtifactRepository;
@@ -41,11 +36,19 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
-import static io.fabric8.kubernetes.api.KubernetesHelper.getOrCreateAnnotations;
 import static io.fabric8.utils.Strings.isNotBlank;
 
 /**
@@ -61,59 +64,32 @@ public abstract class AbstractArtifactSearchMojo extends AbstractFabric8Mojo {
     protected String mavenRepoSearchUrl;
     @Parameter(property = "fabric8.repository.index.maxSearchResults", defaultValue = "200000")
     protected int maxSearchResults;
+    /**
+     * Maximum number of artifacts which are resolved and examined in parallel
+     */
+    @Parameter(property = "fabric8.repository.index.threads", defaultValue = "8")
+    protected int resolveThreads;
+    /**
+     * File for caching the metadata extracted from released artifacts between runs
+     */
+    @Parameter(property = "fabric8.repository.index.metadataCacheFile", defaultValue = "${settings.localRepository}/.cache/fabric8/index-metadata.json")
+    protected File metadataCacheFile;
     @Parameter(defaultValue = "${repositorySystemSession}")
     private RepositorySystemSession repoSession;
     @Parameter(name = "iconMappings")
     private List<Mapping> iconMappings;
     private Map<String, String> iconMappingsMap;
-
-    protected static String findManifestAnnotation(Object manifest, final String annotation) {
-        return findManifestValue(manifest, new Function<HasMetadata, String>() {
-            @Override
-            public String apply(HasMetadata hasMetadata) {
-                Map<String, String> annotations = getOrCreateAnnotations(hasMetadata);
-                String answer = annotations.get(annotation);
-                if (isNotBlank(answer)) {
-                    return answer;
-                }
-                return null;
-            }
-        });
-    }
-
-    protected static String findManifestIcon(Object manifest) {
-        return findManifestAnnotation(manifest, Annotations.Builds.ICON_URL);
-    }
-
-    protected static <T> T findManifestValue(Object manifest, Function<HasMetadata, T> function) {
-        if (manifest instanceof HasMetadata) {
-            HasMetadata metadata = (HasMetadata) manifest;
-            T answer = function.apply(metadata);
-            if (answer != null) return answer;
-        }
-        if (manifest instanceof KubernetesList) {
-            KubernetesList list = (KubernetesList) manifest;
-            return findManifestValueFromList(list.getItems(), function);
-        }
-        if (manifest instanceof Template) {
-            Template template = (Template) manifest;
-            return findManifestValueFromList(template.getObjects(), function);
-        }
-        return null;
-
-    }
-
-    private static <T> T findManifestValueFromList(List<HasMetadata> items, Function<HasMetadata, T> function) {
-        if (items != null) {
-            for (HasMetadata item : items) {
-                T answer = findManifestValue(item, function);
-                if (answer != null) {
-                    return answer;
-                }
-            }
-        }
-        return null;
-    }
+    private ArtifactMetadataCache metadataCache;
+
+    // Annotations picked up from Kubernetes and OpenShift manifests
+    private static final String[] MANIFEST_ANNOTATIONS = {
+        "description",
+        Annotations.Builds.ICON_URL,
+        Annotations.Builds.BUILD_URL,
+        Annotations.Builds.GIT_URL,
+        Annotations.Builds.GIT_COMMIT,
+        Annotations.Builds.DOCS_URL
+    };
 
     protected static String getHtmlFileContentOrDefault(File htmlFile, String defaultValue) throws MojoExecutionException {
         if (htmlFile != null && htmlFile.isFile()) {
@@ -231,15 +207,112 @@ public abstract class AbstractArtifactSearchMojo extends AbstractFabric8Mojo {
         return file;
     }
 
-    protected Object loadKubernetesManifestFile(ArtifactDTO artifactDTO) {
-        return loadManifestFile(artifactDTO, "kubernetes", "yml");
+    /**
+     * Load information for each artifact found on a bounded thread pool. The result is sorted by
+     * the artifact's key so that it doesn't depend on the order in which the artifacts have been processed.
+     * If multiple artifacts share the same key, the first one in the given list wins.
+     *
+     * @param artifacts artifacts to examine
+     * @param loader called for each artifact, possibly concurrently. Returns null if the artifact should be skipped
+     * @param <T> type of the information extracted
+     * @return map from artifact key to the extracted information
+     * @throws MojoExecutionException if the loader fails unexpectedly or the thread is interrupted
+     */
+    protected <T> SortedMap<String, T> loadArtifacts(List<ArtifactDTO> artifacts, final ArtifactLoader<T> loader)
+        throws MojoExecutionException {
+        SortedMap<String, T> ret = new TreeMap<>();
+        if (artifacts.isEmpty()) {
+            return ret;
+        }
+        long start = System.currentTimeMillis();
+        int nThreads = Math.max(1, Math.min(resolveThreads, artifacts.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            Map<ArtifactDTO, Future<T>> futures = new LinkedHashMap<>();
+            for (final ArtifactDTO artifact : artifacts) {
+                futures.put(artifact, executor.submit(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        return loader.load(artifact);
+                    }
+                }));
+            }
+            // Collect in submission order so that the winner for duplicate keys is stable
+            for (Map.Entry<ArtifactDTO, Future<T>> entry : futures.entrySet()) {
+                T value = entry.getValue().get();
+                String key = entry.getKey().createKey();
+                if (value != null && !ret.containsKey(key)) {
+                    ret.put(key, value);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while examining artifacts");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new MojoExecutionException("Failed to examine artifacts: " + cause, cause);
+        } finally {
+            executor.shutdownNow();
+        }
+        getLog().info("Examined " + artifacts.size() + " artifacts with " + nThreads + " threads in " +
+                      (System.currentTimeMillis() - start) + " ms");
+        return ret;
+    }
+
+    /**
+     * Get the persistent metadata cache, loading it on first access
+     *
+     * @return the cache
+     */
+    protected synchronized ArtifactMetadataCache getMetadataCache() {
+        if (metadataCache == null) {
+            metadataCache = ArtifactMetadataCache.load(metadataCacheFile);
+        }
+        return metadataCache;
+    }
+
+    /**
+     * Write back the metadata cache if it has been used and changed. Failures are only logged, since
+     * the cache is only an optimization.
+     */
+    protected synchronized void saveMetadataCache() {
+        if (metadataCache == null) {
+            return;
+        }
+        getLog().info("Artifact metadata cache: " + metadataCache.getHits() + " hits, " +
+                      metadataCache.getMisses() + " misses");
+        try {
+            metadataCache.save();
+        } catch (IOException e) {
+            getLog().warn("Failed to write artifact metadata cache " + metadataCacheFile + ". " + e);
+        }
     }
 
-    protected Object loadOpenShiftManifestFile(ArtifactDTO artifactDTO) {
-        return loadManifestFile(artifactDTO, "openshift", "yml");
+    /**
+     * Get the well known annotations from a manifest artifact, taking them from the metadata cache if possible.
+     * The icon is returned unconverted, since icon mappings might change between runs.
+     *
+     * @param artifactDTO artifact for which to lookup the manifest
+     * @param classifier classifier of the manifest, <code>kubernetes</code> or <code>openshift</code>
+     * @return map of annotations found (possibly empty) or null if the manifest could not be loaded
+     */
+    protected Map<String, String> loadManifestMetadata(ArtifactDTO artifactDTO, String classifier) {
+        ArtifactMetadataCache cache = getMetadataCache();
+        Map<String, String> ret = cache.get(artifactDTO, classifier, ManifestMetadata.class);
+        if (ret != null) {
+            return ret;
+        }
+        Map<String, String> annotations = loadManifestAnnotations(artifactDTO, classifier, "yml");
+        if (annotations == null) {
+            return null;
+        }
+        ret = new ManifestMetadata();
+        ret.putAll(annotations);
+        cache.put(artifactDTO, classifier, ret);
+        return ret;
     }
 
-    private Object loadManifestFile(ArtifactDTO artifactDTO, String classifier, String extension) {
+    private Map<String, String> loadManifestAnnotations(ArtifactDTO artifactDTO, String classifier, String extension) {
         File file = resolveArtifactFile(artifactDTO, classifier, extension);
         if (file == null) return null;
         if (!file.isFile() || !file.exists()) {
@@ -247,7 +320,8 @@ public abstract class AbstractArtifactSearchMojo extends AbstractFabric8Mojo {
             return null;
         }
         try {
-            return KubernetesHelper.loadYaml(file);
+            // only the annotations are needed, so the manifest is not bound to the model
+            return ManifestAnnotationReader.read(file, Arrays.asList(MANIFEST_ANNOTATIONS));
         } catch (IOException e) {
             getLog().warn("Failed to parse " + file + ". " + e, e);
             return null;
@@ -255,6 +329,19 @@ public abstract class AbstractArtifactSearchMojo extends AbstractFabric8Mojo {
     }
 
 
+    // Annotations of a manifest as stored in the metadata cache
+    static class ManifestMetadata extends TreeMap<String, String> {
+    }
+
+    /**
+     * Extracts information from a single artifact
+     *
+     * @param <T> type of the information
+     */
+    protected interface ArtifactLoader<T> {
+        T load(ArtifactDTO artifact) throws Exception;
+    }
+
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class Result {
         private Response response;
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.plugin.mojo.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Persistent cache for the metadata extracted from released artifacts, keyed by
+ * <code>groupId:artifactId:version:classifier</code>. Released artifacts never change, so entries
+ * are never invalidated. Snapshot versions are not cached at all.
+ *
+ * The cache is stored as a single JSON file. A missing or broken file is simply treated as an empty cache.
+ */
+class ArtifactMetadataCache {
+
+    // Bump when the format of the stored metadata changes
+    private static final int FORMAT_VERSION = 1;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final File file;
+    private final ConcurrentMap<String, JsonNode> entries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private volatile boolean dirty;
+
+    private ArtifactMetadataCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the cache from the given file
+     *
+     * @param file file holding the cache. If null, a cache which is never stored is returned
+     * @return the cache, never null
+     */
+    static ArtifactMetadataCache load(File file) {
+        ArtifactMetadataCache cache = new ArtifactMetadataCache(file);
+        if (file != null && file.isFile()) {
+            try {
+                JsonNode root = MAPPER.readTree(file);
+                if (root.path("version").asInt() == FORMAT_VERSION) {
+                    Iterator<Map.Entry<String, JsonNode>> it = root.path("artifacts").fields();
+                    while (it.hasNext()) {
+                        Map.Entry<String, JsonNode> entry = it.next();
+                        cache.entries.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            } catch (IOException exp) {
+                // A broken cache is simply ignored and rebuilt
+                cache.entries.clear();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Lookup the metadata of an artifact
+     *
+     * @param artifact artifact to lookup
+     * @param classifier classifier of the artifact's file from which the metadata has been extracted
+     * @param type type to convert the metadata to
+     * @return the cached metadata or null if not cached
+     */
+    <T> T get(AbstractArtifactSearchMojo.ArtifactDTO artifact, String classifier, Class<T> type) {
+        JsonNode node = isCacheable(artifact) ? entries.get(createKey(artifact, classifier)) : null;
+        if (node == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            T ret = MAPPER.treeToValue(node, type);
+            hits.incrementAndGet();
+            return ret;
+        } catch (IOException exp) {
+            // Can't be used anymore, so lets extract it again
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Store the metadata of an artifact
+     *
+     * @param artifact artifact from which the metadata has been extracted
+     * @param classifier classifier of the artifact's file
+     * @param metadata metadata to store, must be serializable with Jackson
+     */
+    void put(AbstractArtifactSearchMojo.ArtifactDTO artifact, String classifier, Object metadata) {
+        if (isCacheable(artifact) && metadata != null) {
+            entries.put(createKey(artifact, classifier), MAPPER.valueToTree(metadata));
+            dirty = true;
+        }
+    }
+
+    /**
+     * Write the cache back if it has been changed
+     *
+     * @throws IOException if the cache file can not be written
+     */
+    void save() throws IOException {
+        if (file == null || !dirty) {
+            return;
+        }
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create directory " + parent);
+        }
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("version", FORMAT_VERSION);
+        // sorted for stable files which can be diffed
+        root.putObject("artifacts").setAll(new TreeMap<>(entries));
+
+        File tmpFile = new File(file.getPath() + ".tmp");
+        MAPPER.writeValue(tmpFile, root);
+        if (!tmpFile.renameTo(file)) {
+            file.delete();
+            if (!tmpFile.renameTo(file)) {
+                tmpFile.delete();
+                throw new IOException("Cannot rename " + tmpFile + " to " + file);
+            }
+        }
+        dirty = false;
+    }
+
+    int getHits() {
+        return hits.get();
+    }
+
+    int getMisses() {
+        return misses.get();
+    }
+
+    // ========================================================================
+
+    private static boolean isCacheable(AbstractArtifactSearchMojo.ArtifactDTO artifact) {
+        String version = artifact.getV();
+        return version != null && !version.endsWith("-SNAPSHOT");
+    }
+
+    private static String createKey(AbstractArtifactSearchMojo.ArtifactDTO artifact, String classifier) {
+        return artifact.getG() + ":" + artifact.getA() + ":" + artifact.getV() + ":" + classifier;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.plugin.mojo.internal;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.maven.plugin.mojo.build.HelmMojo;
+
+/**
+ * Reads the <code>Chart.yaml</code> of a Helm chart archive (<code>tar.gz</code>) by streaming
+ * through the tar entries. Nothing is extracted to disk and only the data of the chart file
+ * itself is kept in memory.
+ */
+class HelmChartReader {
+
+    private static final String CHART_FILE = "Chart.yaml";
+
+    private static final int BLOCK_SIZE = 512;
+
+    // Offsets within a tar header block
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH = 100;
+    private static final int SIZE_OFFSET = 124;
+    private static final int SIZE_LENGTH = 12;
+    private static final int TYPE_OFFSET = 156;
+    private static final int MAGIC_OFFSET = 257;
+    private static final int PREFIX_OFFSET = 345;
+    private static final int PREFIX_LENGTH = 155;
+
+    private static final char TYPE_FILE = '0';
+    private static final char TYPE_FILE_OLD = '\0';
+    private static final char TYPE_GNU_LONG_NAME = 'L';
+    private static final char TYPE_PAX_HEADER = 'x';
+
+    private HelmChartReader() { }
+
+    /**
+     * Read the chart description from a chart archive. A <code>Chart.yaml</code> at the top level
+     * is preferred over one within a top level directory (which is the layout created by <code>fabric8:helm</code>).
+     *
+     * @param archive gzipped tar archive of the chart
+     * @return the parsed chart or null if the archive doesn't contain a <code>Chart.yaml</code>
+     * @throws IOException if the archive can not be read or the chart file can not be parsed
+     */
+    static HelmMojo.Chart read(File archive) throws IOException {
+        try (InputStream is = new GZIPInputStream(new FileInputStream(archive), 64 * 1024)) {
+            byte[] data = findChartFile(is);
+            return data != null ? KubernetesHelper.createYamlObjectMapper().readValue(data, HelmMojo.Chart.class) : null;
+        }
+    }
+
+    /**
+     * Lookup the content of the chart file within an uncompressed tar stream
+     *
+     * @param is tar stream
+     * @return content of the chart file or null if none is contained
+     * @throws IOException if the stream is not a valid tar stream
+     */
+    static byte[] findChartFile(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        byte[] header = new byte[BLOCK_SIZE];
+        byte[] nested = null;
+        String longName = null;
+        while (readHeader(in, header)) {
+            long size = parseSize(header);
+            char type = (char) header[TYPE_OFFSET];
+            if (type == TYPE_GNU_LONG_NAME) {
+                longName = trimName(new String(readData(in, size), StandardCharsets.UTF_8));
+                continue;
+            }
+            if (type == TYPE_PAX_HEADER) {
+                String path = parsePaxPath(readData(in, size));
+                if (path != null) {
+                    longName = path;
+                }
+                continue;
+            }
+            String name = longName != null ? longName : parseName(header);
+            longName = null;
+
+            if (type == TYPE_FILE || type == TYPE_FILE_OLD) {
+                int depth = chartFileDepth(name);
+                if (depth == 0) {
+                    return readData(in, size);
+                } else if (depth == 1 && nested == null) {
+                    nested = readData(in, size);
+                    continue;
+                }
+            }
+            skipData(in, size);
+        }
+        return nested;
+    }
+
+    // ========================================================================
+
+    // Return 0 for "Chart.yaml", 1 for "dir/Chart.yaml" and -1 for everything else
+    private static int chartFileDepth(String name) {
+        if (name.startsWith("./")) {
+            name = name.substring(2);
+        }
+        if (name.equals(CHART_FILE)) {
+            return 0;
+        }
+        int idx = name.indexOf('/');
+        return idx > 0 && name.substring(idx + 1).equals(CHART_FILE) ? 1 : -1;
+    }
+
+    // Read the next header, return false at the end of the archive
+    private static boolean readHeader(DataInputStream in, byte[] header) throws IOException {
+        try {
+            in.readFully(header);
+        } catch (EOFException exp) {
+            // Archive without end marker
+            return false;
+        }
+        for (byte b : header) {
+            if (b != 0) {
+                return true;
+            }
+        }
+        // An empty block marks the end of the archive
+        return false;
+    }
+
+    private static String parseName(byte[] header) {
+        String name = parseString(header, NAME_OFFSET, NAME_LENGTH);
+        if (isUstar(header)) {
+            String prefix = parseString(header, PREFIX_OFFSET, PREFIX_LENGTH);
+            if (prefix.length() > 0) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private static boolean isUstar(byte[] header) {
+        return parseString(header, MAGIC_OFFSET, 5).equals("ustar");
+    }
+
+    private static String parseString(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static long parseSize(byte[] header) throws IOException {
+        if ((header[SIZE_OFFSET] & 0x80) != 0) {
+            // GNU base-256 encoding for large files
+            long size = 0;
+            for (int i = SIZE_OFFSET + 1; i < SIZE_OFFSET + SIZE_LENGTH; i++) {
+                size = (size << 8) | (header[i] & 0xFF);
+            }
+            return size;
+        }
+        long size = 0;
+        for (int i = SIZE_OFFSET; i < SIZE_OFFSET + SIZE_LENGTH; i++) {
+            byte b = header[i];
+            if (b == 0 || b == ' ') {
+                if (size > 0) {
+                    break;
+                }
+                continue;
+            }
+            if (b < '0' || b > '7') {
+                throw new IOException("Invalid size in tar header");
+            }
+            size = (size << 3) + (b - '0');
+        }
+        return size;
+    }
+
+    // PAX extended headers consist of records "<length> <key>=<value>\n"
+    private static String parsePaxPath(byte[] data) {
+        int pos = 0;
+        while (pos < data.length) {
+            int space = pos;
+            while (space < data.length && data[space] != ' ') {
+                space++;
+            }
+            int len;
+            try {
+                len = Integer.parseInt(new String(data, pos, space - pos, StandardCharsets.UTF_8));
+            } catch (NumberFormatException exp) {
+                return null;
+            }
+            if (len <= 0 || pos + len > data.length) {
+                return null;
+            }
+            String record = new String(data, space + 1, pos + len - space - 2, StandardCharsets.UTF_8);
+            if (record.startsWith("path=")) {
+                return record.substring("path=".length());
+            }
+            pos += len;
+        }
+        return null;
+    }
+
+    private static String trimName(String name) {
+        int idx = name.indexOf('\0');
+        return idx >= 0 ? name.substring(0, idx) : name;
+    }
+
+    private static byte[] readData(DataInputStream in, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Tar entry too large (" + size + " bytes)");
+        }
+        byte[] data = new byte[(int) size];
+        in.readFully(data);
+        skipFully(in, padding(size));
+        return data;
+    }
+
+    private static void skipData(DataInputStream in, long size) throws IOException {
+        skipFully(in, size + padding(size));
+    }
+
+    private static long padding(long size) {
+        long rest = size % BLOCK_SIZE;
+        return rest == 0 ? 0 : BLOCK_SIZE - rest;
+    }
+
+    private static void skipFully(DataInputStream in, long len) throws IOException {
+        long remaining = len;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                // skip() might return 0 without being at the end, so check with a read
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of tar archive");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+}
@@ -18,23 +18,22 @@ package io.fabric8.maven.plugin.mojo.internal;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.kubernetes.api.Annotations;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.maven.core.util.VersionUtil;
 import io.fabric8.maven.plugin.mojo.build.HelmMojo;
 import io.fabric8.utils.Strings;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
-import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.codehaus.plexus.archiver.UnArchiver;
-import org.codehaus.plexus.archiver.tar.TarUnArchiver;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -86,15 +85,6 @@ public class HelmIndexMojo extends AbstractArtifactSearchMojo {
     @Parameter(property = "fabric8.helm.outputHtmlFile", defaultValue = "${project.build.directory}/fabric8/site/helm/index.html")
     private File outputHtmlFile;
 
-    /**
-     * Folder where to find project specific files
-     */
-    @Parameter(property = "fabric8.helm.tempDir", defaultValue = "${project.build.directory}/fabric8/tmp-charts")
-    private File tempDir;
-
-    @Component(role = UnArchiver.class, hint = "tar")
-    private TarUnArchiver unArchiver;
-
 
     @Override
     public void executeInternal() throws MojoExecutionException, MojoFailureException {
@@ -103,10 +93,20 @@ public class HelmIndexMojo extends AbstractArtifactSearchMojo {
         log.info("Creating Helm Chart Index file at: %s", outputFile);
         List<ArtifactDTO> artifacts = searchMaven("?q=l:%22helm%22");
 
+        Map<String, ChartInfo> charts = loadArtifacts(artifacts, new ArtifactLoader<ChartInfo>() {
+            @Override
+            public ChartInfo load(ArtifactDTO artifact) {
+                return createChartInfo(artifact);
+            }
+        });
+
         ChartsRepository repository = new ChartsRepository();
-        Map<String, ChartInfo> charts = new TreeMap<>();
-        for (ArtifactDTO artifact : artifacts) {
-            addChartInfo(repository, charts, artifact);
+        for (ChartInfo chartInfo : charts.values()) {
+            repository.addChart(chartInfo);
+        }
+        // latest version first, independent of the order in which the charts have been found
+        for (List<ChartInfo> versions : repository.getEntries().values()) {
+            Collections.sort(versions, createChartComparator());
         }
 
         Set<Map.Entry<String, ChartInfo>> entries = charts.entrySet();
@@ -121,6 +121,7 @@ public class HelmIndexMojo extends AbstractArtifactSearchMojo {
         }
 
         generateHTML(outputHtmlFile, charts);
+        saveMetadataCache();
     }
 
 
@@ -210,7 +211,7 @@ public class HelmIndexMojo extends AbstractArtifactSearchMojo {
         }
 
         // lets try find the icon from the kubernetes manifest
-        String answer = convertRelativeIcon(findManifestIcon(first.getKubernetesManifest()));
+        String answer = convertRelativeIcon(first.getKubernetesIcon());
         if (Strings.isNullOrBlank(answer)) {
             answer = "https://fabric8.io/images/logos/kubernetes.png";
         }
@@ -249,63 +250,43 @@ public class HelmIndexMojo extends AbstractArtifactSearchMojo {
         }
     }
 
-    protected void addChartInfo(ChartsRepository repository, Map<String, ChartInfo> charts, ArtifactDTO artifact) {
+    protected ChartInfo createChartInfo(ArtifactDTO artifact) {
         // lets create the latest chart
         ChartInfo latest = new ChartInfo(mavenRepoUrl, artifact);
-        String key = artifact.createKey();
 
         // if we could load the chartfile lets add it
         HelmMojo.Chart chartfile = createChartFile(artifact);
-        if (chartfile != null) {
-            latest.setChartfile(chartfile);
-            charts.put(key, latest);
-            repository.addChart(latest);
-        } else {
+        if (chartfile == null) {
             getLog().warn("Could not find chartfile for " + latest);
+            return null;
         }
+        latest.setChartfile(chartfile);
+        return latest;
     }
 
     private HelmMojo.Chart createChartFile(ArtifactDTO artifactDTO) {
+        ArtifactMetadataCache cache = getMetadataCache();
+        HelmMojo.Chart chart = cache.get(artifactDTO, "helm", HelmMojo.Chart.class);
+        if (chart != null) {
+            return chart;
+        }
         File file = resolveArtifactFile(artifactDTO, "helm", "tar.gz");
-
-        File untarDestDir = new File(tempDir, artifactDTO.getG() + "/" + artifactDTO.getA() + "-" + artifactDTO.getV() + "-chart");
-        untarDestDir.mkdirs();
-        getLog().debug("" + artifactDTO.description() + " extracting " + file.getAbsolutePath() + " to " + untarDestDir);
-        unArchiver.setSourceFile(file);
-        unArchiver.setDestDirectory(untarDestDir);
-        unArchiver.setCompression(TarUnArchiver.UntarCompressionMethod.GZIP);
-        unArchiver.extract();
-
-        File tempChartFile = findChartFile(untarDestDir);
-        if (!tempChartFile.isFile() || !tempChartFile.exists()) {
-            getLog().warn("No Chart.yaml exists at " + tempChartFile);
+        if (file == null) {
             return null;
         }
         try {
-            return KubernetesHelper.loadYaml(tempChartFile, HelmMojo.Chart.class);
+            chart = HelmChartReader.read(file);
+            if (chart == null) {
+                getLog().warn("No Chart.yaml exists in " + file);
+            }
+            cache.put(artifactDTO, "helm", chart);
+            return chart;
         } catch (IOException e) {
-            getLog().warn("Failed to parse " + tempChartFile + ". " + e, e);
+            getLog().warn("Failed to read Chart.yaml from " + file + ". " + e, e);
             return null;
         }
     }
 
-    private File findChartFile(File chartDir) {
-        File answer = new File(chartDir, "Chart.yaml");
-        if (answer.isFile() && answer.exists()) {
-            return answer;
-        }
-        File[] files = chartDir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                answer = new File(file, "Chart.yaml");
-                if (answer.isFile() && answer.exists()) {
-                    return answer;
-                }
-            }
-        }
-        return answer;
-    }
-
 
     @JsonInclude(JsonInclude.Include.NON_EMPTY)
     protected class ChartsRepository {
@@ -353,7 +334,7 @@ public class HelmIndexMojo extends AbstractArtifactSearchMojo {
         @JsonIgnore
         private final ArtifactDTO artifact;
         @JsonIgnore
-        private Object kubernetesManifest;
+        private Map<String, String> kubernetesMetadata;
 
         public ChartInfo(String mavenRepoUrl, ArtifactDTO artifact) {
             this.artifact = artifact;
@@ -440,11 +421,12 @@ public class HelmIndexMojo extends AbstractArtifactSearchMojo {
             return artifact;
         }
 
-        public Object getKubernetesManifest() {
-            if (kubernetesManifest == null) {
-                kubernetesManifest = loadKubernetesManifestFile(artifact);
+        @JsonIgnore
+        public String getKubernetesIcon() {
+            if (kubernetesMetadata == null) {
+                kubernetesMetadata = loadManifestMetadata(artifact, "kubernetes");
             }
-            return kubernetesManifest;
+            return kubernetesMetadata != null ? kubernetesMetadata.get(Annotations.Builds.ICON_URL) : null;
         }
     }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.plugin.mojo.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import static io.fabric8.utils.Strings.isNotBlank;
+
+/**
+ * Reads selected annotations from a Kubernetes or OpenShift manifest by walking the YAML tokens.
+ * Only <code>metadata.annotations</code> of the top level resource and of the resources in
+ * <code>items</code> (lists) and <code>objects</code> (templates) are looked at, everything else is skipped
+ * without binding it to the model.
+ *
+ * The lookup follows the same rules as a lookup on the fully bound model: an annotation of a resource wins over the
+ * annotations of the resources it contains, and those are searched in the order they are listed.
+ */
+public final class ManifestAnnotationReader {
+
+    private static final YAMLFactory YAML_FACTORY = new YAMLFactory();
+
+    private ManifestAnnotationReader() { }
+
+    /**
+     * Read annotations from a manifest
+     *
+     * @param manifest YAML manifest to read
+     * @param annotations names of the annotations to lookup
+     * @return map of the annotations found with a non blank value
+     * @throws IOException if the manifest can not be read or is not valid YAML
+     */
+    public static Map<String, String> read(File manifest, Collection<String> annotations) throws IOException {
+        Set<String> wanted = new HashSet<>(annotations);
+        Map<String, String> ret = new HashMap<>();
+        try (JsonParser parser = YAML_FACTORY.createParser(manifest)) {
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                readResource(parser, wanted, ret, true);
+            }
+        }
+        return ret;
+    }
+
+    // ========================================================================
+
+    // Called with the parser positioned on the START_OBJECT of a resource. Returns with the parser positioned on the
+    // matching END_OBJECT, except for the top level resource where reading stops as soon as the result can't change anymore
+    private static void readResource(JsonParser parser, Set<String> wanted, Map<String, String> found, boolean topLevel)
+        throws IOException {
+        Map<String, String> own = new HashMap<>();
+        Map<String, String> nested = new HashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("metadata".equals(field) && token == JsonToken.START_OBJECT) {
+                readMetadata(parser, wanted, own);
+                if (topLevel && own.size() == wanted.size()) {
+                    // nothing contained can win over the resource's own annotations
+                    break;
+                }
+            } else if (("items".equals(field) || "objects".equals(field)) && token == JsonToken.START_ARRAY) {
+                readItems(parser, wanted, nested);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        found.putAll(nested);
+        found.putAll(own);
+    }
+
+    private static void readItems(JsonParser parser, Set<String> wanted, Map<String, String> found) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                Map<String, String> item = new HashMap<>();
+                readResource(parser, wanted, item, false);
+                for (Map.Entry<String, String> entry : item.entrySet()) {
+                    if (!found.containsKey(entry.getKey())) {
+                        found.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readMetadata(JsonParser parser, Set<String> wanted, Map<String, String> found) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if ("annotations".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if (value.isScalarValue()) {
+                        String text = parser.getValueAsString();
+                        if (wanted.contains(key) && isNotBlank(text)) {
+                            found.put(key, text);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+}
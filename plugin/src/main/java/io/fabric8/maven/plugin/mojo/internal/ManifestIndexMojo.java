@@ -134,6 +134,7 @@ public class ManifestIndexMojo extends AbstractArtifactSearchMojo {
 
         generateHTML(new File(outputHtmlDir, "kubernetes.html"), manifests, true, kubernetesIntroductionHtmlFile, kubernetesHeadHtmlFile, kubernetesFooterHtmlFile);
         generateHTML(new File(outputHtmlDir, "openshift.html"), manifests, false, openshiftIntroductionHtmlFile, openshiftHeadHtmlFile, openshiftFooterHtmlFile);
+        saveMetadataCache();
     }
 
     protected void generateHTML(File outputHtmlFile, Map<String, ManifestInfo> manifests, boolean kubernetes, File introductionHtmlFile, File headHtmlFile, File footerHtmlFile) throws MojoExecutionException {
@@ -276,9 +277,9 @@ public class ManifestIndexMojo extends AbstractArtifactSearchMojo {
         private String gitCommit;
         private String docsUrl;
         @JsonIgnore
-        private Object kubernetesManifest;
+        private Map<String, String> kubernetesMetadata;
         @JsonIgnore
-        private Object openShiftManifest;
+        private Map<String, String> openShiftMetadata;
 
         public ManifestInfo(String mavenRepoUrl, ArtifactDTO artifact) {
             this.artifact = artifact;
@@ -291,24 +292,27 @@ public class ManifestIndexMojo extends AbstractArtifactSearchMojo {
             this.name = artifactId;
         }
 
-        private void updateFromManifest(Object manifest) {
+        private void updateFromMetadata(Map<String, String> metadata) {
+            if (metadata == null) {
+                return;
+            }
             if (isNullOrBlank(description)) {
-                description = findManifestAnnotation(manifest, "description");
+                description = metadata.get("description");
             }
             if (isNullOrBlank(icon)) {
-                icon = convertRelativeIcon(findManifestIcon(manifest));
+                icon = convertRelativeIcon(metadata.get(Annotations.Builds.ICON_URL));
             }
             if (isNullOrBlank(buildUrl)) {
-                buildUrl = findManifestAnnotation(manifest, Annotations.Builds.BUILD_URL);
+                buildUrl = metadata.get(Annotations.Builds.BUILD_URL);
             }
             if (isNullOrBlank(gitUrl)) {
-                gitUrl = findManifestAnnotation(manifest, Annotations.Builds.GIT_URL);
+                gitUrl = metadata.get(Annotations.Builds.GIT_URL);
             }
             if (isNullOrBlank(gitCommit)) {
-                gitCommit = findManifestAnnotation(manifest, Annotations.Builds.GIT_COMMIT);
+                gitCommit = metadata.get(Annotations.Builds.GIT_COMMIT);
             }
             if (isNullOrBlank(docsUrl)) {
-                docsUrl = findManifestAnnotation(manifest, Annotations.Builds.DOCS_URL);
+                docsUrl = metadata.get(Annotations.Builds.DOCS_URL);
             }
         }
 
@@ -322,17 +326,16 @@ public class ManifestIndexMojo extends AbstractArtifactSearchMojo {
 
         public void configure(AbstractArtifactSearchMojo mojo) {
             // if we could load the manifestfile lets add it
-            if (kubernetesManifest == null) {
-                Object manifest = mojo.loadKubernetesManifestFile(artifact);
-                setKubernetesManifest(manifest);
-                if (manifest == null) {
+            if (kubernetesMetadata == null) {
+                kubernetesMetadata = mojo.loadManifestMetadata(artifact, "kubernetes");
+                updateFromMetadata(kubernetesMetadata);
+                if (kubernetesMetadata == null) {
                     mojo.getLog().warn("Could not find kubernetes manifest for " + this);
                 }
             }
-            if (openShiftManifest == null) {
-                Object manifest = mojo.loadOpenShiftManifestFile(artifact);
-                setOpenShiftManifest(manifest);
-                if (manifest == null) {
+            if (openShiftMetadata == null) {
+                openShiftMetadata = mojo.loadManifestMetadata(artifact, "openshift");
+                if (openShiftMetadata == null) {
                     mojo.getLog().warn("Could not find openshift manifest for " + this);
                 }
             }
@@ -387,24 +390,6 @@ public class ManifestIndexMojo extends AbstractArtifactSearchMojo {
             this.icon = icon;
         }
 
-        public Object getKubernetesManifest() {
-            return kubernetesManifest;
-        }
-
-        public void setKubernetesManifest(Object kubernetesManifest) {
-            this.kubernetesManifest = kubernetesManifest;
-            updateFromManifest(kubernetesManifest);
-        }
-
-        public Object getOpenShiftManifest() {
-            return openShiftManifest;
-        }
-
-        public void setOpenShiftManifest(Object openShiftManifest) {
-            this.openShiftManifest = openShiftManifest;
-            updateFromManifest(kubernetesManifest);
-        }
-
         public String getBuildUrl() {
             return buildUrl;
         }
@@ -438,7 +423,7 @@ public class ManifestIndexMojo extends AbstractArtifactSearchMojo {
         }
 
         public boolean isValid() {
-            return kubernetesManifest != null && openShiftManifest != null && kubernetesUrl != null && openShiftUrl != null;
+            return kubernetesMetadata != null && openShiftMetadata != null && kubernetesUrl != null && openShiftUrl != null;
         }
 
         /**
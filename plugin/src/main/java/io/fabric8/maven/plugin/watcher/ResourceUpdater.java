@@ -0,0 +1,277 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.plugin.watcher;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import io.fabric8.maven.core.service.ResourcePatchService;
+import io.fabric8.maven.core.util.DirectoryWatcher;
+import io.fabric8.maven.core.util.KindAndName;
+import io.fabric8.maven.core.util.KubernetesResourceUtil;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.maven.plugin.enricher.EnricherManager;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Keeps the resources in the cluster in sync with the resource fragments while watching.
+ *
+ * When a fragment changes, only this fragment is read and enriched again. The resulting resources
+ * are compared with the version applied before and only the difference is sent to the cluster as
+ * a JSON patch. Image rebuilds are not triggered by fragment changes.
+ *
+ * The applied resources are shared with the image watcher, which updates the images of the controllers
+ * after a rebuild. Access to them is synchronized on the set of applied resources, and a fragment change keeps
+ * the image a container is currently running with.
+ */
+public class ResourceUpdater implements Closeable {
+
+    private final Logger log;
+    private final File resourceDir;
+    private final String defaultName;
+    private final FragmentFilter filter;
+    private final EnricherManager enricherManager;
+    private final ResourcePatchService patchService;
+
+    // Resources as they have been applied to the cluster, shared with the image watcher
+    private final Set<HasMetadata> applied;
+
+    // Modification time and length of the fragments when last looked at
+    private final Map<File, FragmentState> fragments = new HashMap<>();
+
+    private DirectoryWatcher watcher;
+
+    public ResourceUpdater(Logger log, File resourceDir, String defaultName, FragmentFilter filter,
+                           EnricherManager enricherManager, ResourcePatchService patchService,
+                           Set<HasMetadata> appliedResources) {
+        this.log = log;
+        this.resourceDir = resourceDir;
+        this.defaultName = defaultName;
+        this.filter = filter;
+        this.enricherManager = enricherManager;
+        this.patchService = patchService;
+        this.applied = appliedResources;
+        for (File fragment : listFragments()) {
+            fragments.put(fragment, new FragmentState(fragment));
+        }
+    }
+
+    /**
+     * Start watching the fragment directory in a background thread
+     *
+     * @param quietPeriod time in milliseconds to wait for further changes before updating the cluster
+     * @throws IOException if the directory can not be watched
+     */
+    public synchronized void start(long quietPeriod) throws IOException {
+        if (watcher != null) {
+            return;
+        }
+        watcher = new DirectoryWatcher(log, "resources", quietPeriod, new DirectoryWatcher.Listener() {
+            @Override
+            public void changed(Set<Path> changed, long firstEvent) throws Exception {
+                checkForChanges();
+            }
+        });
+        watcher.register(resourceDir, false);
+        watcher.start();
+        log.info("Watching resource fragments in %s", resourceDir);
+    }
+
+    @Override
+    public void close() throws IOException {
+        DirectoryWatcher toClose;
+        // Don't hold the lock while waiting for a running update to finish
+        synchronized (this) {
+            toClose = watcher;
+            watcher = null;
+        }
+        if (toClose != null) {
+            toClose.close();
+        }
+    }
+
+    /**
+     * Update the cluster for all fragments which have been added or modified since the last check
+     *
+     * @return number of changed fragments
+     */
+    public synchronized int checkForChanges() throws IOException, MojoExecutionException {
+        List<File> changed = new ArrayList<>();
+        for (File fragment : listFragments()) {
+            FragmentState state = new FragmentState(fragment);
+            if (!state.equals(fragments.get(fragment))) {
+                changed.add(fragment);
+            }
+        }
+        for (File fragment : changed) {
+            update(fragment);
+            // Remember the state only after a successful update so that a broken fragment is retried
+            fragments.put(fragment, new FragmentState(fragment));
+        }
+        return changed.size();
+    }
+
+    /**
+     * Regenerate the resources of a single fragment and patch them in the cluster
+     *
+     * @param fragment the changed fragment
+     */
+    public synchronized void update(File fragment) throws IOException, MojoExecutionException {
+        long start = System.currentTimeMillis();
+        long lastModified = fragment.lastModified();
+
+        KubernetesListBuilder builder = KubernetesResourceUtil.readResourceFragmentsFrom(
+            KubernetesResourceUtil.DEFAULT_RESOURCE_VERSIONING,
+            defaultName,
+            new File[] { filter.filter(fragment) });
+        Set<KindAndName> keys = new HashSet<>();
+        for (HasMetadata item : builder.getItems()) {
+            keys.add(new KindAndName(item));
+        }
+
+        // Same processing as for fabric8:resource, so that defaults get merged into the fragment.
+        // Resources added by the enrichers which don't belong to this fragment are dropped afterwards.
+        enricherManager.createDefaultResources(builder);
+        enricherManager.enrich(builder);
+
+        int patched = 0;
+        for (HasMetadata item : builder.build().getItems()) {
+            KindAndName key = new KindAndName(item);
+            if (!keys.contains(key)) {
+                continue;
+            }
+            synchronized (applied) {
+                HasMetadata previous = getApplied(key);
+                keepCurrentImages(previous, item);
+                if (patchService.patch(previous, item)) {
+                    patched++;
+                }
+                replaceApplied(previous, item);
+            }
+        }
+
+        long end = System.currentTimeMillis();
+        log.info("Updated %d resources from %s in %d ms (%d ms after the change)",
+                 patched, fragment.getName(), end - start, Math.max(0, end - lastModified));
+    }
+
+    private HasMetadata getApplied(KindAndName key) {
+        for (HasMetadata item : applied) {
+            if (key.equals(new KindAndName(item))) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    // Elements of the set might have been modified in place by the image watcher, so they are
+    // removed by identity
+    private void replaceApplied(HasMetadata previous, HasMetadata item) {
+        Iterator<HasMetadata> it = applied.iterator();
+        while (it.hasNext()) {
+            if (it.next() == previous) {
+                it.remove();
+                break;
+            }
+        }
+        applied.add(item);
+    }
+
+    // The enrichers use the image names resolved when the watch started. Containers keep the image they are
+    // currently running with, unless the fragment refers to a different image repository.
+    private void keepCurrentImages(HasMetadata previous, HasMetadata item) {
+        PodTemplateSpec previousTemplate = previous != null ? KubernetesResourceUtil.getPodTemplate(previous) : null;
+        PodTemplateSpec template = KubernetesResourceUtil.getPodTemplate(item);
+        if (previousTemplate == null || previousTemplate.getSpec() == null || previousTemplate.getSpec().getContainers() == null ||
+            template == null || template.getSpec() == null || template.getSpec().getContainers() == null) {
+            return;
+        }
+        Map<String, String> currentImages = new HashMap<>();
+        for (Container container : previousTemplate.getSpec().getContainers()) {
+            currentImages.put(container.getName(), container.getImage());
+        }
+        for (Container container : template.getSpec().getContainers()) {
+            String current = currentImages.get(container.getName());
+            String image = container.getImage();
+            if (current != null && image != null && getImagePrefix(current).equals(getImagePrefix(image))) {
+                container.setImage(current);
+            }
+        }
+    }
+
+    // Image name without the tag. Only a colon after the last slash separates the tag, an earlier one
+    // belongs to the registry port (e.g. "myreg:5000/app")
+    // Visible for testing
+    static String getImagePrefix(String image) {
+        int idx = image.lastIndexOf(':');
+        return idx < 0 || idx < image.lastIndexOf('/') ? image : image.substring(0, idx);
+    }
+
+    private File[] listFragments() {
+        File[] ret = KubernetesResourceUtil.listResourceFragments(resourceDir);
+        return ret != null ? ret : new File[0];
+    }
+
+    /**
+     * Filter applied to a fragment before it is read
+     */
+    public interface FragmentFilter {
+        /**
+         * @param fragment fragment to filter
+         * @return the filtered fragment, which might be the same file
+         */
+        File filter(File fragment) throws MojoExecutionException;
+    }
+
+    private static final class FragmentState {
+        private final long lastModified;
+        private final long length;
+
+        private FragmentState(File file) {
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            FragmentState that = (FragmentState) o;
+            return lastModified == that.lastModified && length == that.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (int) (lastModified ^ (lastModified >>> 32)) + (int) (length ^ (length >>> 32));
+        }
+    }
+}
@@ -41,8 +41,11 @@ public class WatcherManager {
 
         PluginServiceFactory<WatcherContext> pluginFactory =
                 watcherCtx.isUseProjectClasspath() ?
-            new PluginServiceFactory<>(watcherCtx, ClassUtil.createProjectClassLoader(watcherCtx.getProject(), watcherCtx.getLogger())) :
+            new PluginServiceFactory<>(watcherCtx, ClassUtil.getProjectClassLoader(watcherCtx.getProject(), watcherCtx.getBuildSessionCache(), watcherCtx.getLogger())) :
             new PluginServiceFactory<>(watcherCtx);
+        if (watcherCtx.getBuildSessionCache() != null) {
+            pluginFactory.setBuildSessionCache(watcherCtx.getBuildSessionCache());
+        }
 
         boolean isOpenshift = KubernetesHelper.isOpenShift(watcherCtx.getKubernetesClient());
         PlatformMode mode = isOpenshift ? PlatformMode.openshift : PlatformMode.kubernetes;
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.plugin.converter;
+
+import java.util.HashMap;
+import java.util.List;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.kubernetes.api.model.KubernetesListBuilder;
+import io.fabric8.kubernetes.api.model.Service;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.extensions.Deployment;
+import io.fabric8.kubernetes.api.model.extensions.DeploymentBuilder;
+import io.fabric8.maven.core.util.OpenShiftDependencyResources;
+import io.fabric8.maven.core.util.OpenShiftOverrideResources;
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.docker.util.Logger;
+import io.fabric8.openshift.api.model.DeploymentConfig;
+import io.fabric8.openshift.api.model.DeploymentConfigBuilder;
+import io.fabric8.openshift.api.model.Template;
+import io.fabric8.openshift.api.model.TemplateBuilder;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OpenShiftListConverterTest {
+
+    private OpenShiftListConverter converter;
+
+    @Before
+    public void setup() {
+        Logger log = new AnsiLogger(new SystemStreamLog(), false, false);
+        converter = new OpenShiftListConverter(log, new HashMap<String, KubernetesToOpenShiftConverter>(),
+                                               new OpenShiftOverrideResources(log),
+                                               new OpenShiftDependencyResources(log));
+    }
+
+    @Test
+    public void deploymentConfigSupersedesDeployment() {
+        KubernetesList list = new KubernetesListBuilder()
+            .addToItems(deployment("a"), service("a"), deployment("b"), deploymentConfig("a"))
+            .build();
+
+        List<HasMetadata> items = converter.convert(list).getItems();
+        assertEquals(3, items.size());
+        assertTrue(items.get(0) instanceof Service);
+        assertTrue(items.get(1) instanceof Deployment);
+        assertEquals("b", KubernetesHelper.getName(items.get(1)));
+        assertTrue(items.get(2) instanceof DeploymentConfig);
+    }
+
+    @Test
+    public void templatesAreCombined() {
+        KubernetesList list = new KubernetesListBuilder()
+            .addToItems(template("t1"), service("a"), template("t2"), deploymentConfig("a"))
+            .build();
+
+        List<HasMetadata> items = converter.convert(list).getItems();
+        assertEquals(1, items.size());
+        Template template = (Template) items.get(0);
+        assertEquals(2, template.getObjects().size());
+        assertTrue(template.getObjects().get(0) instanceof Service);
+        assertTrue(template.getObjects().get(1) instanceof DeploymentConfig);
+    }
+
+    private Deployment deployment(String name) {
+        return new DeploymentBuilder().withNewMetadata().withName(name).endMetadata().build();
+    }
+
+    private DeploymentConfig deploymentConfig(String name) {
+        return new DeploymentConfigBuilder().withNewMetadata().withName(name).endMetadata().build();
+    }
+
+    private Service service(String name) {
+        return new ServiceBuilder().withNewMetadata().withName(name).endMetadata().build();
+    }
+
+    private Template template(String name) {
+        return new TemplateBuilder().withNewMetadata().withName(name).endMetadata().build();
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.plugin.mojo.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FilteringFragmentReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File outDir;
+    private int wrappersCreated;
+    private FilteringFragmentReader reader;
+
+    @Before
+    public void setUp() {
+        outDir = new File(folder.getRoot(), "out");
+        reader = new FilteringFragmentReader(outDir) {
+            @Override
+            protected List<FileUtils.FilterWrapper> createFilterWrappers() {
+                wrappersCreated++;
+                return Collections.<FileUtils.FilterWrapper>singletonList(new FileUtils.FilterWrapper() {
+                    @Override
+                    public Reader getReader(Reader fileReader) {
+                        try {
+                            return new StringReader(read(fileReader).replace("${project.version}", "1.0"));
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+            }
+        };
+    }
+
+    @Test
+    public void fragmentWithoutExpressionIsReadInPlace() throws IOException {
+        File fragment = fragment("plain-svc.yml", "spec:\n  type: $NodePort\n");
+        assertEquals("spec:\n  type: $NodePort\n", read(reader.open(fragment)));
+        assertEquals(0, wrappersCreated);
+        assertFalse(new File(outDir, "plain-svc.yml").exists());
+    }
+
+    @Test
+    public void fragmentWithExpressionIsFiltered() throws IOException {
+        File fragment = fragment("app-cm.yml", "data:\n  version: ${project.version}\n");
+        assertEquals("data:\n  version: 1.0\n", read(reader.open(fragment)));
+        assertEquals("data:\n  version: 1.0\n",
+                     new String(Files.readAllBytes(new File(outDir, "app-cm.yml").toPath()), StandardCharsets.UTF_8));
+
+        fragment("other-cm.yml", "data:\n  mail: admin@example.com\n");
+        read(reader.open(new File(folder.getRoot(), "other-cm.yml")));
+        assertEquals(1, wrappersCreated);
+    }
+
+    @Test
+    public void unchangedCopyIsNotWrittenAgain() throws IOException {
+        File fragment = fragment("app-cm.yml", "version: ${project.version}\n");
+        read(reader.open(fragment));
+        File copy = new File(outDir, "app-cm.yml");
+        assertTrue(copy.setLastModified(1000L));
+
+        read(reader.open(fragment));
+        assertEquals(1000L, copy.lastModified());
+
+        fragment("app-cm.yml", "version: ${project.version}-SNAPSHOT\n");
+        assertEquals("version: 1.0-SNAPSHOT\n", read(reader.open(fragment)));
+        assertTrue(copy.lastModified() != 1000L);
+    }
+
+    // ========================================================================
+
+    private File fragment(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(Reader reader) throws IOException {
+        StringBuilder ret = new StringBuilder();
+        try (Reader in = reader) {
+            char[] buffer = new char[1024];
+            int len;
+            while ((len = in.read(buffer)) >= 0) {
+                ret.append(buffer, 0, len);
+            }
+        }
+        return ret.toString();
+    }
+}
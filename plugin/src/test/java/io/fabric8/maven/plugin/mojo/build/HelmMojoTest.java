@@ -0,0 +1,115 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.plugin.mojo.build;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import io.fabric8.maven.docker.util.AnsiLogger;
+import mockit.Deencapsulation;
+import mockit.Mocked;
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
+import org.codehaus.plexus.archiver.tar.TarArchiver;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Creates the charts of all types into a shared output directory
+ */
+public class HelmMojoTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Mocked
+    private MavenProjectHelper projectHelper;
+
+    @Test
+    public void chartsForAllTypesWithSharedOutputDir() throws Exception {
+        File baseDir = folder.newFolder("project");
+        File targetDir = new File(baseDir, "target");
+        writeService(new File(targetDir, "classes/META-INF/fabric8/k8s-template/service.yml"), "kubernetes-service");
+        writeService(new File(targetDir, "classes/META-INF/fabric8/openshift/service.yml"), "openshift-service");
+
+        MavenProject project = new MavenProject();
+        project.setFile(new File(baseDir, "pom.xml"));
+        project.setArtifactId("demo");
+        project.setVersion("1.0");
+        Build build = new Build();
+        build.setDirectory(targetDir.getAbsolutePath());
+        build.setOutputDirectory(new File(targetDir, "classes").getAbsolutePath());
+        project.setBuild(build);
+        project.getProperties().setProperty("fabric8.helm.type", "kubernetes,openshift");
+        project.getProperties().setProperty("fabric8.helm.outputDir", new File(folder.getRoot(), "helm/demo").getAbsolutePath());
+
+        HelmMojo mojo = new HelmMojo();
+        Deencapsulation.setField(mojo, "project", project);
+        Deencapsulation.setField(mojo, "log", new AnsiLogger(new SystemStreamLog(), false, false, true, "F8: "));
+        Deencapsulation.setField(mojo, "projectHelper", projectHelper);
+        Deencapsulation.setField(mojo, "archiver", new TarArchiver());
+        mojo.executeInternal();
+
+        String kubernetesChart = readArchive(new File(targetDir, "demo-1.0-helm.tar.gz"));
+        assertTrue(kubernetesChart.contains("kubernetes-service"));
+        assertFalse(kubernetesChart.contains("openshift-service"));
+
+        String openShiftChart = readArchive(new File(targetDir, "demo-1.0-helmshift.tar.gz"));
+        assertTrue(openShiftChart.contains("openshift-service"));
+        assertFalse(openShiftChart.contains("kubernetes-service"));
+    }
+
+    // ========================================================================
+
+    private void writeService(File file, String name) throws IOException {
+        file.getParentFile().mkdirs();
+        String yaml = "apiVersion: v1\n" +
+                      "kind: Service\n" +
+                      "metadata:\n" +
+                      "  name: " + name + "\n" +
+                      "spec:\n" +
+                      "  ports:\n" +
+                      "  - port: 8080\n";
+        Files.write(file.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // The tar entries are not compressed, so the content can be checked on the unzipped stream
+    private String readArchive(File archive) throws IOException {
+        assertTrue(archive.isFile());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = new GZIPInputStream(new FileInputStream(archive))) {
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
+            }
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
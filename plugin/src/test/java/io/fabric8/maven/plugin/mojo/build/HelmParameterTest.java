@@ -0,0 +1,73 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.plugin.mojo.build;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.fabric8.openshift.api.model.Parameter;
+import io.fabric8.openshift.api.model.ParameterBuilder;
+import org.junit.Test;
+
+import static io.fabric8.maven.plugin.mojo.build.HelmMojo.convertTemplateParameterExpressionsWithHelmExpressions;
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class HelmParameterTest {
+
+    @Test
+    public void singlePassGivesSameResultAsSequentialReplacement() {
+        List<HelmMojo.HelmParameter> parameters = parameters("NAME", "NAMESPACE", "REPLICAS", "NAME");
+        String[] texts = {
+            "no expressions at all",
+            "name: ${NAME}\nnamespace: ${NAMESPACE}\nreplicas: $REPLICAS",
+            "short: $NAMESPACE $NAME ${NAMESPACE} ${UNKNOWN} $ ${NAME",
+            "$${NAME}}$$NAME$",
+            "trailing $"
+        };
+        for (String text : texts) {
+            assertEquals(text, convertSequentially(text, parameters),
+                         convertTemplateParameterExpressionsWithHelmExpressions(text, parameters));
+        }
+    }
+
+    @Test
+    public void expression() {
+        Parameter parameter = new ParameterBuilder().withName("REPLICAS").withValue("1").withRequired(true).build();
+        assertEquals("{{ required \"A valid .Values.replicas entry required!\" .Values.replicas | default \"1\" }}",
+                     new HelmMojo.HelmParameter(parameter).getHelmExpression());
+    }
+
+    // ========================================================================
+
+    private static List<HelmMojo.HelmParameter> parameters(String... names) {
+        List<HelmMojo.HelmParameter> ret = new ArrayList<>();
+        for (String name : names) {
+            ret.add(new HelmMojo.HelmParameter(new ParameterBuilder().withName(name).withValue(name.toLowerCase() + "-value").build()));
+        }
+        return ret;
+    }
+
+    private static String convertSequentially(String text, List<HelmMojo.HelmParameter> parameters) {
+        for (HelmMojo.HelmParameter parameter : parameters) {
+            text = parameter.convertTemplateParameterToHelmExpression(text);
+        }
+        return text;
+    }
+}
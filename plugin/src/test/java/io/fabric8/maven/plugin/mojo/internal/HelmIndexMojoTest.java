@@ -0,0 +1,238 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.plugin.mojo.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.maven.docker.util.AnsiLogger;
+import io.fabric8.maven.plugin.mojo.build.HelmMojo;
+import mockit.Deencapsulation;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.impl.ArtifactResolver;
+import org.eclipse.aether.internal.impl.SimpleLocalRepositoryManagerFactory;
+import org.eclipse.aether.repository.LocalRepository;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the helm index against a local file based Maven repository
+ */
+public class HelmIndexMojoTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File repoDir;
+    private List<Map<String, String>> docs;
+    private File cacheFile;
+
+    @Before
+    public void setUp() throws IOException {
+        repoDir = folder.newFolder("repo");
+        docs = new ArrayList<>();
+        addChart("foo", "1.9", "foo/Chart.yaml");
+        addChart("foo", "1.10", "./foo/Chart.yaml");
+        addChart("bar", "2.0", "Chart.yaml");
+        addChart("baz", "0.1", longName() + "/Chart.yaml");
+        addChart("qux", "0.1", "qux/templates/Chart.yaml");
+    }
+
+    @Test
+    public void chartIsReadFromNestedDirectory() throws Exception {
+        HelmMojo.Chart chart = HelmChartReader.read(chartFile("foo", "1.10"));
+        assertEquals("foo", chart.getName());
+        assertEquals("1.10", chart.getVersion());
+    }
+
+    @Test
+    public void chartWithLongPath() throws Exception {
+        assertEquals("baz", HelmChartReader.read(chartFile("baz", "0.1")).getName());
+    }
+
+    @Test
+    public void chartsBelowTopLevelDirectoryAreIgnored() throws Exception {
+        assertNull(HelmChartReader.read(chartFile("qux", "0.1")));
+    }
+
+    @Test
+    public void indexIsIndependentOfCompletionOrder() throws Exception {
+        File serial = runIndex(1, "serial");
+        Collections.reverse(docs);
+        File parallel = runIndex(4, "parallel");
+
+        String yaml = read(new File(serial, "index.yaml"));
+        assertEquals(yaml, read(new File(parallel, "index.yaml")));
+        assertEquals(read(new File(serial, "index.html")), read(new File(parallel, "index.html")));
+
+        // Latest version first, the broken chart is skipped
+        assertTrue(yaml.indexOf("foo-1.10-helm.tar.gz") < yaml.indexOf("foo-1.9-helm.tar.gz"));
+        assertTrue(yaml.indexOf("bar") < yaml.indexOf("foo"));
+        assertTrue(yaml.contains("baz-0.1-helm.tar.gz"));
+        assertTrue(!yaml.contains("qux"));
+    }
+
+    @Test
+    public void releasedChartsAreTakenFromMetadataCache() throws Exception {
+        cacheFile = new File(folder.getRoot(), "index-metadata.json");
+        File first = runIndex(2, "first");
+        assertTrue(cacheFile.isFile());
+
+        // released artifacts never change, so they are not needed anymore
+        for (Map<String, String> doc : docs) {
+            chartFile(doc.get("a"), doc.get("v")).delete();
+        }
+        File second = runIndex(2, "second");
+        assertEquals(read(new File(first, "index.yaml")), read(new File(second, "index.yaml")));
+        assertEquals(read(new File(first, "index.html")), read(new File(second, "index.html")));
+    }
+
+    // ========================================================================
+
+    private File runIndex(int threads, String name) throws Exception {
+        File searchResult = folder.newFile(name + "-search.json");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("docs", docs);
+        new ObjectMapper().writeValue(searchResult, Collections.singletonMap("response", response));
+
+        DefaultRepositorySystemSession repoSession = MavenRepositorySystemUtils.newSession();
+        repoSession.setLocalRepositoryManager(
+            new SimpleLocalRepositoryManagerFactory().newInstance(repoSession, new LocalRepository(repoDir)));
+
+        File outputDir = folder.newFolder(name);
+        HelmIndexMojo mojo = new HelmIndexMojo();
+        mojo.mavenRepoSearchUrl = searchResult.toURI().toString();
+        mojo.mavenRepoUrl = "http://repo.example.com/maven2/";
+        mojo.maxSearchResults = 100;
+        mojo.resolveThreads = threads;
+        mojo.metadataCacheFile = cacheFile;
+        mojo.remoteRepositories = Collections.<MavenArtifactRepository>emptyList();
+        mojo.artifactResolver = MavenRepositorySystemUtils.newServiceLocator().getService(ArtifactResolver.class);
+        Deencapsulation.setField(mojo, "repoSession", repoSession);
+        Deencapsulation.setField(mojo, "log", new AnsiLogger(new SystemStreamLog(), false, false, true, "F8: "));
+        Deencapsulation.setField(mojo, "helmTitle", "Charts");
+        Deencapsulation.setField(mojo, "outputFile", new File(outputDir, "index.yaml"));
+        Deencapsulation.setField(mojo, "outputHtmlFile", new File(outputDir, "index.html"));
+        mojo.executeInternal();
+        return outputDir;
+    }
+
+    private void addChart(String name, String version, String path) throws IOException {
+        Map<String, String> doc = new LinkedHashMap<>();
+        doc.put("id", "io.fabric8.test:" + name + ":" + version);
+        doc.put("g", "io.fabric8.test");
+        doc.put("a", name);
+        doc.put("v", version);
+        docs.add(doc);
+
+        String chartYaml = "name: " + name + "\n" +
+                           "version: " + version + "\n" +
+                           "description: Chart " + name + "\n" +
+                           "icon: http://example.com/" + name + ".png\n";
+        File archive = chartFile(name, version);
+        archive.getParentFile().mkdirs();
+        try (OutputStream os = new GZIPOutputStream(new FileOutputStream(archive))) {
+            writeEntry(os, name + "/values.yaml", "replicas: 1\n");
+            writeEntry(os, name + "/charts/sub/Chart.yaml", "name: sub\nversion: 0.0.1\n");
+            if (path.length() > 100) {
+                writePaxEntry(os, path, chartYaml);
+            } else {
+                writeEntry(os, path, chartYaml);
+            }
+            // end of archive marker
+            os.write(new byte[1024]);
+        }
+    }
+
+    private File chartFile(String name, String version) {
+        return new File(repoDir, "io/fabric8/test/" + name + "/" + version + "/" + name + "-" + version + "-helm.tar.gz");
+    }
+
+    private static String longName() {
+        StringBuilder ret = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            ret.append('x');
+        }
+        return ret.toString();
+    }
+
+    private static void writePaxEntry(OutputStream os, String path, String content) throws IOException {
+        String record = " path=" + path + "\n";
+        int len = record.length();
+        len += String.valueOf(len + String.valueOf(len).length()).length();
+        writeEntry(os, "PaxHeaders/entry", (len + record).getBytes(StandardCharsets.UTF_8), 'x');
+        writeEntry(os, "truncated", content.getBytes(StandardCharsets.UTF_8), '0');
+    }
+
+    private static void writeEntry(OutputStream os, String name, String content) throws IOException {
+        writeEntry(os, name, content.getBytes(StandardCharsets.UTF_8), '0');
+    }
+
+    private static void writeEntry(OutputStream os, String name, byte[] data, char type) throws IOException {
+        byte[] header = new byte[512];
+        put(header, 0, name);
+        put(header, 100, "0000644");
+        put(header, 124, String.format("%011o", data.length));
+        header[156] = (byte) type;
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+        // checksum is calculated with the checksum field filled with spaces
+        put(header, 148, "        ");
+        int sum = 0;
+        for (byte b : header) {
+            sum += b & 0xFF;
+        }
+        put(header, 148, String.format("%06o", sum));
+        header[154] = 0;
+        os.write(header);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(data);
+        body.write(new byte[(512 - data.length % 512) % 512]);
+        os.write(body.toByteArray());
+    }
+
+    private static void put(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.plugin.mojo.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesList;
+import io.fabric8.openshift.api.model.Template;
+import io.fabric8.utils.Strings;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks that the streaming lookup gives the same result as a lookup on the fully bound model
+ */
+public class ManifestAnnotationReaderTest {
+
+    private static final List<String> ANNOTATIONS = Arrays.asList("description", "fabric8.io/iconUrl", "fabric8.io/docs-url");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void firstItemOfListWins() throws IOException {
+        File manifest = write(
+            "apiVersion: v1\n" +
+            "kind: List\n" +
+            "items:\n" +
+            "- apiVersion: v1\n" +
+            "  kind: Service\n" +
+            "  metadata:\n" +
+            "    name: foo\n" +
+            "    annotations:\n" +
+            "      fabric8.io/iconUrl: img/foo.svg\n" +
+            "      description: ' '\n" +
+            "  spec:\n" +
+            "    ports:\n" +
+            "    - port: 80\n" +
+            "- apiVersion: extensions/v1beta1\n" +
+            "  kind: Deployment\n" +
+            "  metadata:\n" +
+            "    name: foo\n" +
+            "    annotations:\n" +
+            "      fabric8.io/iconUrl: img/bar.svg\n" +
+            "      description: The foo app\n" +
+            "  spec:\n" +
+            "    replicas: 1\n");
+
+        Map<String, String> annotations = ManifestAnnotationReader.read(manifest, ANNOTATIONS);
+        assertEquals("img/foo.svg", annotations.get("fabric8.io/iconUrl"));
+        assertEquals("The foo app", annotations.get("description"));
+        assertFalse(annotations.containsKey("fabric8.io/docs-url"));
+        assertSameAsBoundModel(manifest, annotations);
+    }
+
+    @Test
+    public void templateWinsOverObjectsListedBefore() throws IOException {
+        File manifest = write(
+            "apiVersion: v1\n" +
+            "kind: Template\n" +
+            "objects:\n" +
+            "- apiVersion: v1\n" +
+            "  kind: Service\n" +
+            "  metadata:\n" +
+            "    name: foo\n" +
+            "    annotations:\n" +
+            "      description: From the service\n" +
+            "      fabric8.io/docs-url: http://docs.example.com\n" +
+            "metadata:\n" +
+            "  name: foo\n" +
+            "  annotations:\n" +
+            "    description: From the template\n" +
+            "parameters:\n" +
+            "- name: FOO\n" +
+            "  value: bar\n");
+
+        Map<String, String> annotations = ManifestAnnotationReader.read(manifest, ANNOTATIONS);
+        assertEquals("From the template", annotations.get("description"));
+        assertEquals("http://docs.example.com", annotations.get("fabric8.io/docs-url"));
+        assertSameAsBoundModel(manifest, annotations);
+    }
+
+    // ========================================================================
+
+    private void assertSameAsBoundModel(File manifest, Map<String, String> annotations) throws IOException {
+        Object model = KubernetesHelper.loadYaml(manifest);
+        for (String annotation : ANNOTATIONS) {
+            assertEquals(annotation, findAnnotation(model, annotation),
+                         annotations.get(annotation));
+        }
+    }
+
+    // Reference lookup on the bound model: the manifest itself first, then its items depth first
+    private static String findAnnotation(Object manifest, String annotation) {
+        if (manifest instanceof HasMetadata) {
+            String answer = KubernetesHelper.getOrCreateAnnotations((HasMetadata) manifest).get(annotation);
+            if (Strings.isNotBlank(answer)) {
+                return answer;
+            }
+        }
+        List<HasMetadata> items = null;
+        if (manifest instanceof KubernetesList) {
+            items = ((KubernetesList) manifest).getItems();
+        } else if (manifest instanceof Template) {
+            items = ((Template) manifest).getObjects();
+        }
+        if (items != null) {
+            for (HasMetadata item : items) {
+                String answer = findAnnotation(item, annotation);
+                if (answer != null) {
+                    return answer;
+                }
+            }
+        }
+        return null;
+    }
+
+    private File write(String yaml) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package io.fabric8.maven.plugin.watcher;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResourceUpdaterTest {
+
+    @Test
+    public void imagePrefix() {
+        assertEquals("app", ResourceUpdater.getImagePrefix("app"));
+        assertEquals("app", ResourceUpdater.getImagePrefix("app:1.0"));
+        assertEquals("user/app", ResourceUpdater.getImagePrefix("user/app:snapshot-170201"));
+        assertEquals("myreg:5000/app", ResourceUpdater.getImagePrefix("myreg:5000/app"));
+        assertEquals("myreg:5000/app", ResourceUpdater.getImagePrefix("myreg:5000/app:1.0"));
+    }
+}
@@ -24,6 +24,8 @@ public interface Watcher extends Named {
      * Watch the resources and kick a rebuild when they change.
      *
      * @param configs all image configurations
+     * @param resources resources as applied to the cluster. They might be replaced concurrently when resource
+     *                  fragments change, so access must be synchronized on this set.
      */
     void watch(List<ImageConfiguration> configs, Set<HasMetadata> resources, PlatformMode mode) throws Exception;
 
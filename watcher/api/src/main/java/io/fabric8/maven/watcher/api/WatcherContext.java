@@ -21,6 +21,7 @@ import io.fabric8.maven.core.config.OpenShiftBuildStrategy;
 import io.fabric8.maven.core.config.PlatformMode;
 import io.fabric8.maven.core.config.ProcessorConfig;
 import io.fabric8.maven.core.service.Fabric8ServiceHub;
+import io.fabric8.maven.core.util.BuildSessionCache;
 import io.fabric8.maven.docker.service.BuildService;
 import io.fabric8.maven.docker.service.ServiceHub;
 import io.fabric8.maven.docker.service.WatchService;
@@ -51,6 +52,7 @@ public class WatcherContext {
     private String namespace;
     private KubernetesClient kubernetesClient;
     private Fabric8ServiceHub fabric8ServiceHub;
+    private BuildSessionCache buildSessionCache;
 
     private WatcherContext() {
     }
@@ -119,6 +121,10 @@ public class WatcherContext {
         return fabric8ServiceHub;
     }
 
+    public BuildSessionCache getBuildSessionCache() {
+        return buildSessionCache;
+    }
+
     // ========================================================================
 
     public static class Builder {
@@ -205,6 +211,11 @@ public class WatcherContext {
             return this;
         }
 
+        public Builder buildSessionCache(BuildSessionCache buildSessionCache) {
+            ctx.buildSessionCache = buildSessionCache;
+            return this;
+        }
+
         public WatcherContext build() {
             return ctx;
         }
@@ -1,25 +1,33 @@
 package io.fabric8.maven.watcher.standard;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.fabric8.kubernetes.api.Controller;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.HasMetadata;
-import io.fabric8.kubernetes.api.model.PodSpec;
 import io.fabric8.kubernetes.api.model.PodTemplateSpec;
-import io.fabric8.kubernetes.api.model.ReplicationController;
-import io.fabric8.kubernetes.api.model.ReplicationControllerSpec;
-import io.fabric8.kubernetes.api.model.extensions.Deployment;
-import io.fabric8.kubernetes.api.model.extensions.DeploymentSpec;
-import io.fabric8.kubernetes.api.model.extensions.ReplicaSet;
-import io.fabric8.kubernetes.api.model.extensions.ReplicaSetSpec;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.maven.core.access.ClusterAccess;
 import io.fabric8.maven.core.config.PlatformMode;
+import io.fabric8.maven.core.service.ResourcePatchService;
+import io.fabric8.maven.core.util.Configs;
+import io.fabric8.maven.core.util.DirectoryWatcher;
 import io.fabric8.maven.core.util.KubernetesResourceUtil;
 import io.fabric8.maven.docker.access.DockerAccessException;
 import io.fabric8.maven.docker.config.ImageConfiguration;
@@ -31,9 +39,8 @@ import io.fabric8.maven.docker.util.Task;
 import io.fabric8.maven.watcher.api.BaseWatcher;
 import io.fabric8.maven.watcher.api.WatcherContext;
 import io.fabric8.openshift.api.model.DeploymentConfig;
-import io.fabric8.openshift.api.model.DeploymentConfigSpec;
-import io.fabric8.openshift.client.OpenShiftClient;
 
+import org.apache.maven.model.Build;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 
@@ -44,6 +51,24 @@ import static io.fabric8.kubernetes.api.KubernetesHelper.getKind;
  */
 public class DockerImageWatcher extends BaseWatcher {
 
+    // Upper limit for the number of controllers updated in parallel
+    private static final int MAX_CONCURRENT_UPDATES = 8;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Available configuration keys
+    private enum Config implements Configs.Key {
+
+        // Use the file system's change notification instead of the polling of the docker-maven-plugin.
+        // The watch mode, interval and post goal of the docker-maven-plugin are not used then.
+        nativeWatch {{ d = "false"; }},
+
+        // Time in milliseconds to wait for further changes before the image is rebuilt
+        quietPeriod {{ d = "500"; }};
+
+        public String def() { return d; } protected String d;
+    }
+
     public DockerImageWatcher(WatcherContext watcherContext) {
         super(watcherContext, "docker-image");
     }
@@ -54,7 +79,11 @@ public class DockerImageWatcher extends BaseWatcher {
     }
 
     @Override
-    public void watch(List<ImageConfiguration> configs, final Set<HasMetadata> resources, PlatformMode mode) {
+    public void watch(List<ImageConfiguration> configs, final Set<HasMetadata> resources, PlatformMode mode) throws Exception {
+        if (Configs.asBoolean(getConfig(Config.nativeWatch))) {
+            watchNatively(configs, resources);
+            return;
+        }
 
         BuildService.BuildContext buildContext = getContext().getBuildContext();
         WatchService.WatchContext watchContext = getContext().getWatchContext();
@@ -69,7 +98,7 @@ public class DockerImageWatcher extends BaseWatcher {
                 }).containerRestarter(new Task<WatchService.ImageWatcher>() {
                     @Override
                     public void execute(WatchService.ImageWatcher imageWatcher) throws DockerAccessException, MojoExecutionException, MojoFailureException {
-                        restartContainer(imageWatcher, resources);
+                        restartContainer(imageWatcher.getImageConfiguration(), resources);
                     }
                 })
                 .build();
@@ -82,6 +111,65 @@ public class DockerImageWatcher extends BaseWatcher {
         }
     }
 
+    // Watch the build output with the file system's change notification. All changes of a burst
+    // (e.g. a complete compilation or packaging) result in a single rebuild and redeploy.
+    private void watchNatively(final List<ImageConfiguration> configs, final Set<HasMetadata> resources) throws IOException {
+        Build build = getContext().getProject().getBuild();
+        final Path outputDir = new File(build.getOutputDirectory()).toPath();
+        final Path targetDir = new File(build.getDirectory()).toPath();
+        final String finalName = build.getFinalName();
+
+        long quietPeriod = Long.parseLong(getConfig(Config.quietPeriod));
+        DirectoryWatcher watcher = new DirectoryWatcher(log, getName(), quietPeriod, new DirectoryWatcher.Listener() {
+            @Override
+            public void changed(Set<Path> changed, long firstEvent) throws Exception {
+                if (affectsImage(changed, outputDir, targetDir, finalName)) {
+                    rebuildAndRestart(configs, resources);
+                    log.info("Redeployed %d changed files in %d ms", changed.size(),
+                             TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - firstEvent));
+                }
+            }
+        });
+        try {
+            // Compiled classes and processed resources
+            watcher.register(outputDir.toFile(), true);
+            // Packaged artifacts only, other directories in target (like the docker build directory) are ignored
+            watcher.register(targetDir.toFile(), false);
+            watcher.start();
+            log.info("Watching %s and %s for changes", outputDir, targetDir);
+
+            // Until the goal gets stopped
+            new CountDownLatch(1).await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            watcher.close();
+        }
+    }
+
+    private boolean affectsImage(Set<Path> changed, Path outputDir, Path targetDir, String finalName) {
+        for (Path path : changed) {
+            // Lost events are reported for the watched directory itself
+            if (path.equals(targetDir) || path.startsWith(outputDir) ||
+                (targetDir.equals(path.getParent()) && finalName != null && path.getFileName().toString().startsWith(finalName))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rebuildAndRestart(List<ImageConfiguration> configs, Set<HasMetadata> resources) throws Exception {
+        ServiceHub hub = getContext().getServiceHub();
+        for (ImageConfiguration imageConfig : configs) {
+            if (imageConfig.getBuildConfiguration() == null) {
+                continue;
+            }
+            buildImage(imageConfig);
+            hub.getBuildService().buildImage(imageConfig, getContext().getBuildContext());
+            restartContainer(imageConfig, resources);
+        }
+    }
+
     protected void buildImage(ImageConfiguration imageConfig) throws DockerAccessException, MojoExecutionException {
         String imageName = imageConfig.getName();
         // lets regenerate the label
@@ -109,19 +197,36 @@ public class DockerImageWatcher extends BaseWatcher {
         return imagePrefix;
     }
 
-    protected void restartContainer(WatchService.ImageWatcher watcher, Set<HasMetadata> resources) throws MojoExecutionException {
-        ImageConfiguration imageConfig = watcher.getImageConfiguration();
+    protected void restartContainer(ImageConfiguration imageConfig, Set<HasMetadata> resources) throws MojoExecutionException {
         String imageName = imageConfig.getName();
+        long start = System.currentTimeMillis();
         try {
-            ClusterAccess clusterAccess = new ClusterAccess(getContext().getNamespace());
-            KubernetesClient client = clusterAccess.createDefaultClient(log);
-
-            String namespace = clusterAccess.getNamespace();
+            KubernetesClient client = getContext().getKubernetesClient();
+            String namespace = getContext().getNamespace();
+            if (client == null) {
+                ClusterAccess clusterAccess = new ClusterAccess(namespace);
+                client = clusterAccess.createDefaultClient(log);
+                namespace = clusterAccess.getNamespace();
+            }
 
             String imagePrefix = getImagePrefix(imageName);
-            for (HasMetadata entity : resources) {
-                updateImageName(client, namespace, entity, imagePrefix, imageName);
+            List<HasMetadata> toUpdate = new ArrayList<>();
+            // The resources are shared with the resource fragment watcher of fabric8:watch, which
+            // replaces them when a fragment changes. Access is synchronized on the set.
+            synchronized (resources) {
+                for (HasMetadata entity : resources) {
+                    if (needsImageUpdate(entity, imagePrefix, imageName)) {
+                        toUpdate.add(entity);
+                    }
+                }
             }
+            if (toUpdate.isEmpty()) {
+                log.info("All controllers already use image %s", imageName);
+                return;
+            }
+            updateImageNames(client, new ResourcePatchService(client, namespace, log), resources, toUpdate, imagePrefix, imageName);
+            log.info("Updated %d controllers to image %s in %d ms",
+                     toUpdate.size(), imageName, System.currentTimeMillis() - start);
         } catch (KubernetesClientException e) {
             KubernetesResourceUtil.handleKubernetesClientException(e, this.log);
         } catch (MojoExecutionException e) {
@@ -131,63 +236,103 @@ public class DockerImageWatcher extends BaseWatcher {
         }
     }
 
-    private void updateImageName(KubernetesClient kubernetes, String namespace, HasMetadata entity, String imagePrefix, String imageName) {
-        String name = KubernetesHelper.getName(entity);
-        if (entity instanceof Deployment) {
-            Deployment resource = (Deployment) entity;
-            DeploymentSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    kubernetes.extensions().deployments().inNamespace(namespace).withName(name).replace(resource);
-                }
+    // Patch all controllers concurrently, each with a patch containing only the changed images
+    private void updateImageNames(final KubernetesClient client, final ResourcePatchService patchService, final Set<HasMetadata> resources,
+                                  List<HasMetadata> entities, final String imagePrefix, final String imageName) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(entities.size(), MAX_CONCURRENT_UPDATES));
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (final HasMetadata entity : entities) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        updateImageName(client, patchService, resources, entity, imagePrefix, imageName);
+                        return null;
+                    }
+                }));
             }
-        } else if (entity instanceof ReplicaSet) {
-            ReplicaSet resource = (ReplicaSet) entity;
-            ReplicaSetSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    kubernetes.extensions().replicaSets().inNamespace(namespace).withName(name).replace(resource);
+            Exception failure = null;
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (failure == null) {
+                        failure = cause instanceof Exception ? (Exception) cause : e;
+                    } else {
+                        log.error("Cannot update image: %s", cause.getMessage());
+                    }
                 }
             }
-        } else if (entity instanceof ReplicationController) {
-            ReplicationController resource = (ReplicationController) entity;
-            ReplicationControllerSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    kubernetes.replicationControllers().inNamespace(namespace).withName(name).replace(resource);
-                }
+            if (failure != null) {
+                throw failure;
             }
-        } else if (entity instanceof DeploymentConfig) {
-            DeploymentConfig resource = (DeploymentConfig) entity;
-            DeploymentConfigSpec spec = resource.getSpec();
-            if (spec != null) {
-                if (updateImageName(entity, spec.getTemplate(), imagePrefix, imageName)) {
-                    OpenShiftClient openshiftClient = new Controller(kubernetes).getOpenShiftClientOrNull();
-                    if (openshiftClient == null) {
-                        log.warn("Ignoring DeploymentConfig %s as not connected to an OpenShift cluster", name);
-                    }
-                    openshiftClient.deploymentConfigs().inNamespace(namespace).withName(name).replace(resource);
-                }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void updateImageName(KubernetesClient client, ResourcePatchService patchService, Set<HasMetadata> resources,
+                                 HasMetadata entity, String imagePrefix, String imageName) {
+        if (entity instanceof DeploymentConfig && new Controller(client).getOpenShiftClientOrNull() == null) {
+            log.warn("Ignoring DeploymentConfig %s as not connected to an OpenShift cluster", KubernetesHelper.getName(entity));
+            return;
+        }
+        // Patch from the entity as applied before to a copy with the new image, then
+        // remember the new image so that the next update starts from there
+        HasMetadata previous;
+        synchronized (resources) {
+            previous = copy(getCurrent(resources, entity));
+        }
+        HasMetadata updated = copy(previous);
+        updateImageName(KubernetesResourceUtil.getPodTemplate(updated), imagePrefix, imageName);
+        log.info("Updating %s %s to use image: %s", getKind(entity), KubernetesHelper.getName(entity), imageName);
+        patchService.patch(previous, updated);
+        synchronized (resources) {
+            // The entity might have been replaced in the meantime by a fragment update
+            updateImageName(KubernetesResourceUtil.getPodTemplate(getCurrent(resources, entity)), imagePrefix, imageName);
+        }
+    }
+
+    // Get the version of an entity which is currently stored in the resources
+    private HasMetadata getCurrent(Set<HasMetadata> resources, HasMetadata entity) {
+        String kind = getKind(entity);
+        String name = KubernetesHelper.getName(entity);
+        for (HasMetadata resource : resources) {
+            if (kind.equals(getKind(resource)) && name.equals(KubernetesHelper.getName(resource))) {
+                return resource;
             }
         }
+        return entity;
     }
 
-    private boolean updateImageName(HasMetadata entity, PodTemplateSpec template, String imagePrefix, String imageName) {
-        boolean answer = false;
-        PodSpec spec = template.getSpec();
-        if (spec != null) {
-            List<Container> containers = spec.getContainers();
-            if (containers != null) {
-                for (Container container : containers) {
-                    String image = container.getImage();
-                    if (image != null && image.startsWith(imagePrefix)) {
-                        container.setImage(imageName);
-                        log.info("Updating " + getKind(entity) + " " + KubernetesHelper.getName(entity) + " to use image: " + imageName);
-                        answer = true;
-                    }
-                }
+    private boolean needsImageUpdate(HasMetadata entity, String imagePrefix, String imageName) {
+        PodTemplateSpec template = KubernetesResourceUtil.getPodTemplate(entity);
+        if (template == null || template.getSpec() == null || template.getSpec().getContainers() == null) {
+            return false;
+        }
+        for (Container container : template.getSpec().getContainers()) {
+            String image = container.getImage();
+            if (image != null && image.startsWith(imagePrefix) && !image.equals(imageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HasMetadata copy(HasMetadata entity) {
+        return MAPPER.convertValue(entity, entity.getClass());
+    }
+
+    private void updateImageName(PodTemplateSpec template, String imagePrefix, String imageName) {
+        if (template == null || template.getSpec() == null || template.getSpec().getContainers() == null) {
+            return;
+        }
+        for (Container container : template.getSpec().getContainers()) {
+            String image = container.getImage();
+            if (image != null && image.startsWith(imagePrefix)) {
+                container.setImage(imageName);
             }
         }
-        return answer;
     }
 }
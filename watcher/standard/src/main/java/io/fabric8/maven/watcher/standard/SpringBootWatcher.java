@@ -5,9 +5,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
@@ -50,11 +53,16 @@ public class SpringBootWatcher extends BaseWatcher {
 
     private static final int DEFAULT_SERVER_PORT = 8080;
 
+    private static final String REMOTE_SPRING_APPLICATION = "org.springframework.boot.devtools.RemoteSpringApplication";
+
     // Available configuration keys
     private enum Config implements Configs.Key {
 
         // The time to wait for the service to be exposed (by the expose controller)
-        serviceUrlWaitTimeSeconds {{ d = "5"; }};
+        serviceUrlWaitTimeSeconds {{ d = "5"; }},
+
+        // Run the RemoteSpringApplication within the Maven JVM instead of forking a new JVM
+        inProcess {{ d = "false"; }};
 
         public String def() { return d; } protected String d;
     }
@@ -81,31 +89,41 @@ public class SpringBootWatcher extends BaseWatcher {
         new PodLogService(logContext).tailAppPodsLogs(kubernetes, getContext().getNamespace(), resources, false, null, true, null, false);
 
         String url = getServiceExposeUrl(kubernetes, resources);
-        if (url == null) {
-            url = getPortForwardUrl(resources);
-        }
+        PortForwardService.PortForward portForward = null;
+        try {
+            if (url == null) {
+                Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getContext().getProject(), getContext().getBuildSessionCache());
+                portForward = startPortForward(resources, properties);
+                if (portForward != null) {
+                    // An already running forward for the same pods might be reused, which has its own local port
+                    url = createForwardUrl(properties, portForward.getLocalPort());
+                }
+            }
 
-        if (url != null) {
-            runRemoteSpringApplication(url);
-        } else {
-            throw new IllegalStateException("Unable to open a channel to the remote pod.");
+            if (url != null) {
+                runRemoteSpringApplication(url);
+            } else {
+                throw new IllegalStateException("Unable to open a channel to the remote pod.");
+            }
+        } finally {
+            // The forward is shared, it gets stopped when it is not used by anyone else
+            if (portForward != null) {
+                Closeables.closeQuietly(portForward);
+            }
         }
     }
 
-    private String getPortForwardUrl(final Set<HasMetadata> resources) throws Exception {
+    private PortForwardService.PortForward startPortForward(final Set<HasMetadata> resources, Properties properties) throws Exception {
         LabelSelector selector = KubernetesResourceUtil.getPodLabelSelector(resources);
         if (selector == null) {
             log.warn("Unable to determine a selector for application pods");
             return null;
         }
 
-        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getContext().getProject());
-
         PortForwardService portForwardService = getContext().getFabric8ServiceHub().getPortForwardService();
         int port = IoUtil.getFreeRandomPort();
         int containerPort = findSpringBootWebPort(properties);
-        portForwardService.forwardPortAsync(getContext().getLogger(), selector, containerPort, port);
-        return createForwardUrl(properties, port);
+        return portForwardService.forwardPortAsync(getContext().getLogger(), selector, containerPort, port);
     }
 
     private int findSpringBootWebPort(Properties properties) {
@@ -163,17 +181,84 @@ public class SpringBootWatcher extends BaseWatcher {
     private void runRemoteSpringApplication(String url) {
         log.info("Running RemoteSpringApplication against endpoint: " + url);
 
-        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getContext().getProject());
+        Properties properties = SpringBootUtil.getSpringBootApplicationProperties(getContext().getProject(), getContext().getBuildSessionCache());
         String remoteSecret = properties.getProperty(DEV_TOOLS_REMOTE_SECRET, System.getProperty(DEV_TOOLS_REMOTE_SECRET));
         if (Strings.isNullOrBlank(remoteSecret)) {
             log.warn("There is no `%s` property defined in your src/main/resources/application.properties. Please add one!", DEV_TOOLS_REMOTE_SECRET);
             throw new IllegalStateException("No " + DEV_TOOLS_REMOTE_SECRET + " property defined in application.properties or system properties");
         }
 
+        if (Configs.asBoolean(getConfig(Config.inProcess))) {
+            runRemoteSpringApplicationInProcess(url, remoteSecret);
+        } else {
+            forkRemoteSpringApplication(url, remoteSecret);
+        }
+    }
+
+    private void runRemoteSpringApplicationInProcess(String url, String remoteSecret) {
+        long start = System.currentTimeMillis();
+        List<URL> urls = new ArrayList<>();
+        try {
+            for (String element : getContext().getProject().getCompileClasspathElements()) {
+                urls.add(new File(element).toURI().toURL());
+            }
+            // Add dev tools to the classpath (the main class is not read from BOOT-INF/lib)
+            urls.add(getSpringBootDevToolsJar(getContext().getProject()).toURI().toURL());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create classpath: " + e, e);
+        }
+
+        // Only the JDK classes are shared, Maven and plugin classes are not visible to the application
+        final URLClassLoader classLoader =
+            new URLClassLoader(urls.toArray(new URL[urls.size()]), ClassLoader.getSystemClassLoader().getParent());
+        final String[] args = { url, "--" + DEV_TOOLS_REMOTE_SECRET + "=" + remoteSecret };
+        final Throwable[] failure = new Throwable[1];
+
+        // All output of the threads started by the application goes through the logger
+        ThreadGroup group = new ThreadGroup("spring-remote");
+        Logger logger = new PrefixedLogger("Spring-Remote", log);
+        PrintStream originalOut = System.out;
+        PrintStream originalErr = System.err;
+        System.setOut(new PrintStream(new ThreadGroupLogStream(group, originalOut, logger, false), true));
+        System.setErr(new PrintStream(new ThreadGroupLogStream(group, originalErr, logger, true), true));
+
+        Thread thread = new Thread(group, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Class<?> mainClass = classLoader.loadClass(REMOTE_SPRING_APPLICATION);
+                    mainClass.getMethod("main", String[].class).invoke(null, (Object) args);
+                } catch (InvocationTargetException e) {
+                    failure[0] = e.getCause();
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            }
+        }, "spring-remote");
+        thread.setContextClassLoader(classLoader);
+        thread.start();
+        log.info("Started RemoteSpringApplication in-process (class loader with %d entries set up in %d ms)",
+                 urls.size(), System.currentTimeMillis() - start);
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            System.setOut(originalOut);
+            System.setErr(originalErr);
+            Closeables.closeQuietly(classLoader);
+        }
+        if (failure[0] != null) {
+            throw new RuntimeException("Failed to run RemoteSpringApplication: " + failure[0], failure[0]);
+        }
+    }
+
+    private void forkRemoteSpringApplication(String url, String remoteSecret) {
         ClassLoader classLoader = getClass().getClassLoader();
         if (classLoader instanceof URLClassLoader) {
             URLClassLoader pluginClassLoader = (URLClassLoader) classLoader;
-            URLClassLoader projectClassLoader = ClassUtil.createProjectClassLoader(getContext().getProject(), log);
+            URLClassLoader projectClassLoader = ClassUtil.getProjectClassLoader(getContext().getProject(), getContext().getBuildSessionCache(), log);
             URLClassLoader[] classLoaders = {projectClassLoader, pluginClassLoader};
 
             StringBuilder buffer = new StringBuilder("java -cp ");
@@ -204,7 +289,7 @@ public class SpringBootWatcher extends BaseWatcher {
 
             buffer.append(" -Dspring.devtools.remote.secret=");
             buffer.append(remoteSecret);
-            buffer.append(" org.springframework.boot.devtools.RemoteSpringApplication ");
+            buffer.append(" " + REMOTE_SPRING_APPLICATION + " ");
             buffer.append(url);
 
             try {
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2016 Red Hat, Inc.
+ *
+ * Red Hat licenses this file to you under the Apache License, version
+ * 2.0 (the "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+
+package io.fabric8.maven.watcher.standard;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
+import io.fabric8.maven.docker.util.Logger;
+
+/**
+ * Stream to be installed as <code>System.out</code> or <code>System.err</code> which sends everything
+ * written by the threads of a given thread group line by line to a logger. Output of all other
+ * threads goes to the original stream unchanged.
+ */
+class ThreadGroupLogStream extends OutputStream {
+
+    private final ThreadGroup group;
+    private final PrintStream original;
+    private final Logger logger;
+    private final boolean error;
+
+    private final ThreadLocal<ByteArrayOutputStream> lines = new ThreadLocal<ByteArrayOutputStream>() {
+        @Override
+        protected ByteArrayOutputStream initialValue() {
+            return new ByteArrayOutputStream();
+        }
+    };
+
+    // Set while logging, so that the logger's own output goes to the original stream
+    private final ThreadLocal<Boolean> logging = new ThreadLocal<Boolean>() {
+        @Override
+        protected Boolean initialValue() {
+            return Boolean.FALSE;
+        }
+    };
+
+    ThreadGroupLogStream(ThreadGroup group, PrintStream original, Logger logger, boolean error) {
+        this.group = group;
+        this.original = original;
+        this.logger = logger;
+        this.error = error;
+    }
+
+    @Override
+    public void write(int b) {
+        if (!isRouted()) {
+            original.write(b);
+            return;
+        }
+        if (b == '\n') {
+            logLine();
+        } else {
+            lines.get().write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (!isRouted()) {
+            original.write(b, off, len);
+            return;
+        }
+        for (int i = off; i < off + len; i++) {
+            write(b[i]);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (!isRouted()) {
+            original.flush();
+        }
+    }
+
+    private boolean isRouted() {
+        return !logging.get() && group.parentOf(Thread.currentThread().getThreadGroup());
+    }
+
+    private void logLine() {
+        ByteArrayOutputStream buffer = lines.get();
+        String line = new String(buffer.toByteArray(), Charset.defaultCharset());
+        buffer.reset();
+        if (line.endsWith("\r")) {
+            line = line.substring(0, line.length() - 1);
+        }
+        logging.set(Boolean.TRUE);
+        try {
+            if (error) {
+                logger.error("%s", line);
+            } else {
+                logger.info("%s", line);
+            }
+        } finally {
+            logging.set(Boolean.FALSE);
+        }
+    }
+}